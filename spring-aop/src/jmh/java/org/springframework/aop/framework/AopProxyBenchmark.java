@@ -0,0 +1,119 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+
+/**
+ * Benchmarks for invoking methods on JDK and CGLIB proxies, through an
+ * existing proxy as well as through a new proxy per invocation as for
+ * prototype or request-scoped beans, with advisor chains shared across
+ * proxy instances.
+ *
+ * @author agent (agent@local)
+ * @see AdvisedSupport#getInterceptorsAndDynamicInterceptionAdvice
+ * @see ReflectiveMethodInvocation
+ */
+@BenchmarkMode(Mode.Throughput)
+public class AopProxyBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"jdk", "cglib"})
+		public String proxyType;
+
+		@Param({"1", "5"})
+		public int interceptorCount;
+
+		public Advisor[] advisors;
+
+		public Counter proxy;
+
+		@Setup
+		public void setup() {
+			this.advisors = new Advisor[this.interceptorCount];
+			MethodInterceptor interceptor = invocation -> invocation.proceed();
+			for (int i = 0; i < this.advisors.length; i++) {
+				if (i % 2 == 0) {
+					this.advisors[i] = new DefaultPointcutAdvisor(interceptor);
+				}
+				else {
+					NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(interceptor);
+					advisor.setMappedNames("increment", "get*");
+					this.advisors[i] = advisor;
+				}
+			}
+			this.proxy = createProxy();
+		}
+
+		public Counter createProxy() {
+			ProxyFactory proxyFactory = new ProxyFactory(new SimpleCounter());
+			proxyFactory.setProxyTargetClass("cglib".equals(this.proxyType));
+			proxyFactory.addAdvisors(this.advisors);
+			return (Counter) proxyFactory.getProxy();
+		}
+	}
+
+	@Benchmark
+	public int invoke(BenchmarkState state) {
+		return state.proxy.increment();
+	}
+
+	@Benchmark
+	public int createAndInvoke(BenchmarkState state) {
+		Counter proxy = state.createProxy();
+		proxy.increment();
+		return proxy.getCount();
+	}
+
+
+	public interface Counter {
+
+		int increment();
+
+		int getCount();
+	}
+
+
+	public static class SimpleCounter implements Counter {
+
+		private int count;
+
+		@Override
+		public int increment() {
+			return ++this.count;
+		}
+
+		@Override
+		public int getCount() {
+			return this.count;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -73,6 +73,11 @@ import org.springframework.util.StringUtils;
  * <p>Naturally, as this is to be processed by Spring AOP's proxy-based model,
  * only method execution pointcuts are supported.
  *
+ * <p>As of 5.3.9, methods lacking the annotations required by {@code @annotation}
+ * and {@code @within} parts of the expression are rejected without a full
+ * AspectJ match, and match results are shared with equal pointcuts configured
+ * with the same {@link ConfigurableBeanFactory}.
+ *
  * @author Rob Harrop
  * @author Adrian Colyer
  * @author Rod Johnson
@@ -121,6 +126,17 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 
 	private transient Map<Method, ShadowMatch> shadowMatchCache = new ConcurrentHashMap<>(32);
 
+	@Nullable
+	private transient PointcutPrefilter prefilter;
+
+	@Nullable
+	private transient PointcutMatchIndex matchIndex;
+
+	@Nullable
+	private transient Object matchIndexKey;
+
+	private transient boolean usesBeanDesignator;
+
 
 	/**
 	 * Create a new default AspectJExpressionPointcut.
@@ -195,7 +211,15 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		}
 		if (this.pointcutExpression == null) {
 			this.pointcutClassLoader = determinePointcutClassLoader();
-			this.pointcutExpression = buildPointcutExpression(this.pointcutClassLoader);
+			PointcutExpression pointcutExpression = buildPointcutExpression(this.pointcutClassLoader);
+			this.prefilter = PointcutPrefilter.forPointcutExpression(pointcutExpression);
+			if (!this.usesBeanDesignator) {
+				// Match results of bean() pointcuts depend on the bean currently being proxied
+				this.matchIndexKey = new MatchIndexKey(resolveExpression(), this.pointcutDeclarationScope,
+						this.pointcutParameterNames, this.pointcutParameterTypes);
+				this.matchIndex = PointcutMatchIndex.forBeanFactory(this.beanFactory);
+			}
+			this.pointcutExpression = pointcutExpression;
 		}
 		return this.pointcutExpression;
 	}
@@ -270,6 +294,20 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	@Override
 	public boolean matches(Class<?> targetClass) {
 		PointcutExpression pointcutExpression = obtainPointcutExpression();
+		PointcutMatchIndex matchIndex = this.matchIndex;
+		Object matchIndexKey = this.matchIndexKey;
+		if (matchIndex != null && matchIndexKey != null) {
+			Boolean match = matchIndex.getTypeMatch(matchIndexKey, targetClass);
+			if (match == null) {
+				match = couldMatchJoinPointsInType(pointcutExpression, targetClass);
+				matchIndex.putTypeMatch(matchIndexKey, targetClass, match);
+			}
+			return match;
+		}
+		return couldMatchJoinPointsInType(pointcutExpression, targetClass);
+	}
+
+	private boolean couldMatchJoinPointsInType(PointcutExpression pointcutExpression, Class<?> targetClass) {
 		try {
 			try {
 				return pointcutExpression.couldMatchJoinPointsInType(targetClass);
@@ -292,6 +330,11 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	@Override
 	public boolean matches(Method method, Class<?> targetClass, boolean hasIntroductions) {
 		obtainPointcutExpression();
+		PointcutPrefilter prefilter = this.prefilter;
+		if (prefilter != null &&
+				!prefilter.couldMatch(method, AopUtils.getMostSpecificMethod(method, targetClass))) {
+			return false;
+		}
 		ShadowMatch shadowMatch = getTargetShadowMatch(method, targetClass);
 
 		// Special handling for this, target, @this, @target, @annotation
@@ -451,6 +494,16 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		// Avoid lock contention for known Methods through concurrent access...
 		ShadowMatch shadowMatch = this.shadowMatchCache.get(targetMethod);
 		if (shadowMatch == null) {
+			// Possibly determined by an equal pointcut in the same bean factory already...
+			PointcutMatchIndex matchIndex = this.matchIndex;
+			Object matchIndexKey = this.matchIndexKey;
+			if (matchIndex != null && matchIndexKey != null) {
+				shadowMatch = matchIndex.getShadowMatch(matchIndexKey, targetMethod);
+				if (shadowMatch != null) {
+					this.shadowMatchCache.put(targetMethod, shadowMatch);
+					return shadowMatch;
+				}
+			}
 			synchronized (this.shadowMatchCache) {
 				// Not found - now check again with full lock...
 				PointcutExpression fallbackExpression = null;
@@ -511,6 +564,9 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 								fallbackExpression.matchesMethodExecution(methodToMatch));
 					}
 					this.shadowMatchCache.put(targetMethod, shadowMatch);
+					if (matchIndex != null && matchIndexKey != null) {
+						matchIndex.putShadowMatch(matchIndexKey, targetMethod, shadowMatch);
+					}
 				}
 			}
 		}
@@ -596,6 +652,7 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 
 		@Override
 		public ContextBasedMatcher parse(String expression) {
+			usesBeanDesignator = true;
 			return new BeanContextMatcher(expression);
 		}
 	}
@@ -672,6 +729,63 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	}
 
 
+	/**
+	 * Key for the match results of a pointcut in the {@link PointcutMatchIndex}:
+	 * the settings that the AspectJ pointcut expression has been built from.
+	 */
+	private static final class MatchIndexKey {
+
+		private final String expression;
+
+		@Nullable
+		private final Class<?> pointcutDeclarationScope;
+
+		private final String[] pointcutParameterNames;
+
+		private final Class<?>[] pointcutParameterTypes;
+
+		private final int hashCode;
+
+		MatchIndexKey(String expression, @Nullable Class<?> pointcutDeclarationScope,
+				String[] pointcutParameterNames, Class<?>[] pointcutParameterTypes) {
+
+			this.expression = expression;
+			this.pointcutDeclarationScope = pointcutDeclarationScope;
+			this.pointcutParameterNames = pointcutParameterNames.clone();
+			this.pointcutParameterTypes = pointcutParameterTypes.clone();
+			int hashCode = expression.hashCode();
+			hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode(pointcutDeclarationScope);
+			hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode(this.pointcutParameterNames);
+			this.hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode(this.pointcutParameterTypes);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof MatchIndexKey)) {
+				return false;
+			}
+			MatchIndexKey otherKey = (MatchIndexKey) other;
+			return (this.expression.equals(otherKey.expression) &&
+					this.pointcutDeclarationScope == otherKey.pointcutDeclarationScope &&
+					Arrays.equals(this.pointcutParameterNames, otherKey.pointcutParameterNames) &&
+					Arrays.equals(this.pointcutParameterTypes, otherKey.pointcutParameterTypes));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public String toString() {
+			return this.expression;
+		}
+	}
+
+
 	private static class DefensiveShadowMatch implements ShadowMatch {
 
 		private final ShadowMatch primary;
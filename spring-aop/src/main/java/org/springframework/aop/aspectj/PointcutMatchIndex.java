@@ -0,0 +1,134 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.aspectj;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.weaver.tools.ShadowMatch;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.lang.Nullable;
+
+/**
+ * Index of AspectJ match results per class, shared by all equal
+ * {@link AspectJExpressionPointcut} instances within a bean factory:
+ * e.g. the pointcuts for several advice methods referring to the same
+ * named pointcut, which would otherwise each ask the AspectJ weaver to
+ * match every method of every bean.
+ *
+ * <p>Registered as an internal singleton in the bean factory, so that it
+ * is released along with the singletons of the bean factory.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see AspectJExpressionPointcut#matches(Class)
+ * @see AspectJExpressionPointcut#matches(Method, Class, boolean)
+ */
+final class PointcutMatchIndex {
+
+	/**
+	 * The name of the internal singleton holding the index of a bean factory.
+	 */
+	static final String BEAN_NAME = "org.springframework.aop.aspectj.internalPointcutMatchIndex";
+
+
+	private final Map<Class<?>, TypeMatches> typeMatches = new ConcurrentHashMap<>(256);
+
+
+	/**
+	 * Return whether the pointcut with the given key could match join points
+	 * in the given type, if already determined.
+	 */
+	@Nullable
+	Boolean getTypeMatch(Object pointcutKey, Class<?> type) {
+		TypeMatches matches = this.typeMatches.get(type);
+		return (matches != null ? matches.couldMatch.get(pointcutKey) : null);
+	}
+
+	void putTypeMatch(Object pointcutKey, Class<?> type, boolean match) {
+		obtainTypeMatches(type).couldMatch.put(pointcutKey, match);
+	}
+
+	/**
+	 * Return the shadow match of the pointcut with the given key for the
+	 * given method, if already determined.
+	 */
+	@Nullable
+	ShadowMatch getShadowMatch(Object pointcutKey, Method method) {
+		TypeMatches matches = this.typeMatches.get(method.getDeclaringClass());
+		if (matches == null) {
+			return null;
+		}
+		Map<Method, ShadowMatch> shadowMatches = matches.shadowMatches.get(pointcutKey);
+		return (shadowMatches != null ? shadowMatches.get(method) : null);
+	}
+
+	void putShadowMatch(Object pointcutKey, Method method, ShadowMatch shadowMatch) {
+		obtainTypeMatches(method.getDeclaringClass()).shadowMatches
+				.computeIfAbsent(pointcutKey, key -> new ConcurrentHashMap<>(16))
+				.put(method, shadowMatch);
+	}
+
+	private TypeMatches obtainTypeMatches(Class<?> type) {
+		return this.typeMatches.computeIfAbsent(type, key -> new TypeMatches());
+	}
+
+	@Override
+	public String toString() {
+		return "PointcutMatchIndex for " + this.typeMatches.size() + " types";
+	}
+
+
+	/**
+	 * Return the index for the given bean factory, registering it on first access.
+	 * @param beanFactory the bean factory that the pointcut has been configured with
+	 * @return the index, or {@code null} if the bean factory cannot hold one
+	 */
+	@Nullable
+	static PointcutMatchIndex forBeanFactory(@Nullable BeanFactory beanFactory) {
+		if (!(beanFactory instanceof ConfigurableBeanFactory)) {
+			return null;
+		}
+		ConfigurableBeanFactory cbf = (ConfigurableBeanFactory) beanFactory;
+		Object index = cbf.getSingleton(BEAN_NAME);
+		if (index == null) {
+			synchronized (cbf.getSingletonMutex()) {
+				index = cbf.getSingleton(BEAN_NAME);
+				if (index == null) {
+					index = new PointcutMatchIndex();
+					cbf.registerSingleton(BEAN_NAME, index);
+				}
+			}
+		}
+		return (index instanceof PointcutMatchIndex ? (PointcutMatchIndex) index : null);
+	}
+
+
+	/**
+	 * Match results for a single type, keyed by pointcut.
+	 */
+	private static class TypeMatches {
+
+		final Map<Object, Boolean> couldMatch = new ConcurrentHashMap<>(16);
+
+		final Map<Object, Map<Method, ShadowMatch>> shadowMatches = new ConcurrentHashMap<>(16);
+	}
+
+}
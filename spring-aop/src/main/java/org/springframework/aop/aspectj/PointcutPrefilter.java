@@ -0,0 +1,220 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.aspectj;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.aspectj.weaver.internal.tools.PointcutExpressionImpl;
+import org.aspectj.weaver.patterns.AndPointcut;
+import org.aspectj.weaver.patterns.AnnotationPointcut;
+import org.aspectj.weaver.patterns.AnnotationTypePattern;
+import org.aspectj.weaver.patterns.ExactAnnotationTypePattern;
+import org.aspectj.weaver.patterns.OrPointcut;
+import org.aspectj.weaver.patterns.Pointcut;
+import org.aspectj.weaver.patterns.WithinAnnotationPointcut;
+import org.aspectj.weaver.tools.PointcutExpression;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Cheap check whether a method could possibly match a parsed AspectJ pointcut
+ * expression, derived from the {@code @annotation} and {@code @within} parts
+ * of the expression: a method without the required annotations is rejected
+ * before AspectJ computes a full shadow match for it.
+ *
+ * <p>Only rejects methods that AspectJ would never match, so any part of the
+ * expression that cannot be checked that way (including negations) is treated
+ * as a potential match. Annotations are compared by type name, not requiring
+ * the annotation types to be loaded through the pointcut's ClassLoader.
+ *
+ * <p>This class encapsulates AspectJ internal knowledge, like
+ * {@link RuntimeTestWalker}. If the parsed expression does not have the
+ * expected structure, no prefilter is used at all.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see AspectJExpressionPointcut#matches(Method, Class, boolean)
+ */
+abstract class PointcutPrefilter {
+
+	private static final Log logger = LogFactory.getLog(PointcutPrefilter.class);
+
+
+	/**
+	 * Determine whether the given method could match the pointcut expression.
+	 * @param method the method as given to the pointcut
+	 * @param targetMethod the most specific method in the target class
+	 * @return {@code false} if AspectJ would certainly not match any of the
+	 * given methods, {@code true} otherwise
+	 */
+	abstract boolean couldMatch(Method method, Method targetMethod);
+
+
+	/**
+	 * Derive a prefilter from the given pointcut expression, if possible.
+	 * @param pointcutExpression the parsed AspectJ pointcut expression
+	 * @return the prefilter, or {@code null} if every method could match
+	 */
+	@Nullable
+	static PointcutPrefilter forPointcutExpression(PointcutExpression pointcutExpression) {
+		if (!(pointcutExpression instanceof PointcutExpressionImpl)) {
+			return null;
+		}
+		try {
+			return forPointcut(((PointcutExpressionImpl) pointcutExpression).getUnderlyingPointcut());
+		}
+		catch (Throwable ex) {
+			// Unexpected AspectJ internals - always perform the full match then
+			logger.debug("Failed to derive prefilter from pointcut expression", ex);
+			return null;
+		}
+	}
+
+	@Nullable
+	private static PointcutPrefilter forPointcut(Pointcut pointcut) {
+		if (pointcut instanceof AndPointcut) {
+			PointcutPrefilter left = forPointcut(((AndPointcut) pointcut).getLeft());
+			PointcutPrefilter right = forPointcut(((AndPointcut) pointcut).getRight());
+			if (left == null || right == null) {
+				return (left != null ? left : right);
+			}
+			return new AndPrefilter(left, right);
+		}
+		else if (pointcut instanceof OrPointcut) {
+			PointcutPrefilter left = forPointcut(((OrPointcut) pointcut).getLeft());
+			PointcutPrefilter right = forPointcut(((OrPointcut) pointcut).getRight());
+			if (left == null || right == null) {
+				return null;
+			}
+			return new OrPrefilter(left, right);
+		}
+		else if (pointcut instanceof AnnotationPointcut) {
+			String annotationName = getAnnotationName(((AnnotationPointcut) pointcut).getAnnotationTypePattern());
+			return (annotationName != null ? new MethodAnnotationPrefilter(annotationName) : null);
+		}
+		else if (pointcut instanceof WithinAnnotationPointcut) {
+			String annotationName = getAnnotationName(((WithinAnnotationPointcut) pointcut).getAnnotationTypePattern());
+			return (annotationName != null ? new TypeAnnotationPrefilter(annotationName) : null);
+		}
+		return null;
+	}
+
+	@Nullable
+	private static String getAnnotationName(AnnotationTypePattern pattern) {
+		if (pattern instanceof ExactAnnotationTypePattern) {
+			return ((ExactAnnotationTypePattern) pattern).getAnnotationType().getName();
+		}
+		return null;
+	}
+
+	private static boolean hasAnnotation(AnnotatedElement element, String annotationName) {
+		try {
+			for (Annotation annotation : element.getAnnotations()) {
+				if (annotation.annotationType().getName().equals(annotationName)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		catch (Throwable ex) {
+			// Unresolvable annotations - let AspectJ decide
+			return true;
+		}
+	}
+
+
+	/**
+	 * Prefilter for an {@code @annotation} pointcut: the method itself
+	 * needs to carry the annotation.
+	 */
+	private static class MethodAnnotationPrefilter extends PointcutPrefilter {
+
+		private final String annotationName;
+
+		MethodAnnotationPrefilter(String annotationName) {
+			this.annotationName = annotationName;
+		}
+
+		@Override
+		boolean couldMatch(Method method, Method targetMethod) {
+			return (hasAnnotation(targetMethod, this.annotationName) ||
+					(targetMethod != method && hasAnnotation(method, this.annotationName)));
+		}
+	}
+
+
+	/**
+	 * Prefilter for an {@code @within} pointcut: the declaring class of the
+	 * method needs to carry the annotation.
+	 */
+	private static class TypeAnnotationPrefilter extends PointcutPrefilter {
+
+		private final String annotationName;
+
+		TypeAnnotationPrefilter(String annotationName) {
+			this.annotationName = annotationName;
+		}
+
+		@Override
+		boolean couldMatch(Method method, Method targetMethod) {
+			return (hasAnnotation(targetMethod.getDeclaringClass(), this.annotationName) ||
+					(targetMethod.getDeclaringClass() != method.getDeclaringClass() &&
+							hasAnnotation(method.getDeclaringClass(), this.annotationName)));
+		}
+	}
+
+
+	private static class AndPrefilter extends PointcutPrefilter {
+
+		private final PointcutPrefilter left;
+
+		private final PointcutPrefilter right;
+
+		AndPrefilter(PointcutPrefilter left, PointcutPrefilter right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		boolean couldMatch(Method method, Method targetMethod) {
+			return (this.left.couldMatch(method, targetMethod) && this.right.couldMatch(method, targetMethod));
+		}
+	}
+
+
+	private static class OrPrefilter extends PointcutPrefilter {
+
+		private final PointcutPrefilter left;
+
+		private final PointcutPrefilter right;
+
+		OrPrefilter(PointcutPrefilter left, PointcutPrefilter right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		boolean couldMatch(Method method, Method targetMethod) {
+			return (this.left.couldMatch(method, targetMethod) || this.right.couldMatch(method, targetMethod));
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -41,6 +41,8 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ObjectUtils;
 
 /**
  * Base class for AOP proxy configuration managers.
@@ -54,6 +56,10 @@ import org.springframework.util.CollectionUtils;
  * <p>This class is serializable; subclasses need not be.
  * This class is used to hold snapshots of proxies.
  *
+ * <p>As of 5.3.9, advisor chains computed by the default
+ * {@link AdvisorChainFactory} are also shared across configurations
+ * with the same Advisor instances, e.g. for prototype proxies.
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @see org.springframework.aop.framework.AopProxy
@@ -70,6 +76,14 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 	 */
 	public static final TargetSource EMPTY_TARGET_SOURCE = EmptyTargetSource.INSTANCE;
 
+	/**
+	 * Cache of advisor chains computed by the {@link DefaultAdvisorChainFactory},
+	 * shared across configurations with identical Advisor instances. Each
+	 * configuration caches its own copy, so the shared chains are never exposed.
+	 */
+	private static final Map<SharedChainKey, InterceptorChain> sharedChainCache =
+			new ConcurrentReferenceHashMap<>(256);
+
 
 	/** Package-protected to allow direct access for efficiency. */
 	TargetSource targetSource = EMPTY_TARGET_SOURCE;
@@ -467,8 +481,21 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 		MethodCacheKey cacheKey = new MethodCacheKey(method);
 		List<Object> cached = this.methodCache.get(cacheKey);
 		if (cached == null) {
-			cached = this.advisorChainFactory.getInterceptorsAndDynamicInterceptionAdvice(
-					this, method, targetClass);
+			if (this.advisorChainFactory.getClass() == DefaultAdvisorChainFactory.class) {
+				// Outcome only depends on the Advisors, so can be shared with other configurations
+				SharedChainKey sharedKey = new SharedChainKey(getAdvisors(), isPreFiltered(), method, targetClass);
+				InterceptorChain sharedChain = sharedChainCache.get(sharedKey);
+				if (sharedChain == null) {
+					sharedChain = new InterceptorChain(this.advisorChainFactory.getInterceptorsAndDynamicInterceptionAdvice(
+							this, method, targetClass));
+					sharedChainCache.put(sharedKey, sharedChain);
+				}
+				cached = new InterceptorChain(sharedChain);
+			}
+			else {
+				cached = this.advisorChainFactory.getInterceptorsAndDynamicInterceptionAdvice(
+						this, method, targetClass);
+			}
 			this.methodCache.put(cacheKey, cached);
 		}
 		return cached;
@@ -601,4 +628,68 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 		}
 	}
 
+
+	/**
+	 * Key for an advisor chain shared across configurations: the Advisor
+	 * instances (compared by identity), the pre-filtered flag, the method
+	 * and the target class.
+	 */
+	private static final class SharedChainKey {
+
+		private final Advisor[] advisors;
+
+		private final boolean preFiltered;
+
+		private final Method method;
+
+		@Nullable
+		private final Class<?> targetClass;
+
+		private final int hashCode;
+
+		public SharedChainKey(Advisor[] advisors, boolean preFiltered, Method method, @Nullable Class<?> targetClass) {
+			this.advisors = advisors;
+			this.preFiltered = preFiltered;
+			this.method = method;
+			this.targetClass = targetClass;
+			int hashCode = method.hashCode();
+			for (Advisor advisor : advisors) {
+				hashCode = 31 * hashCode + System.identityHashCode(advisor);
+			}
+			this.hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode(targetClass);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof SharedChainKey)) {
+				return false;
+			}
+			SharedChainKey otherKey = (SharedChainKey) other;
+			if (this.method != otherKey.method || this.targetClass != otherKey.targetClass ||
+					this.preFiltered != otherKey.preFiltered || this.advisors.length != otherKey.advisors.length) {
+				return false;
+			}
+			for (int i = 0; i < this.advisors.length; i++) {
+				if (this.advisors[i] != otherKey.advisors[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public String toString() {
+			return this.method + " on " + (this.targetClass != null ? this.targetClass.getName() : "no target") +
+					" with " + this.advisors.length + " advisors";
+		}
+	}
+
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aopalliance.intercept.MethodInterceptor;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Advisor chain as cached by {@link AdvisedSupport}, additionally exposing
+ * its interceptors as an array if none of them requires a dynamic method
+ * match at invocation time.
+ *
+ * <p>Remains a regular mutable list for callers of
+ * {@link AdvisedSupport#getInterceptorsAndDynamicInterceptionAdvice}:
+ * once it has been modified, the array is not exposed anymore. Each
+ * configuration holds its own copy of a chain shared with other configurations.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see ReflectiveMethodInvocation#proceed()
+ */
+@SuppressWarnings("serial")
+final class InterceptorChain extends ArrayList<Object> {
+
+	@Nullable
+	private final MethodInterceptor[] interceptors;
+
+	private final int expectedModCount;
+
+
+	InterceptorChain(List<Object> interceptorsAndDynamicMethodMatchers) {
+		super(interceptorsAndDynamicMethodMatchers);
+		this.interceptors = toInterceptorArray(this);
+		this.expectedModCount = this.modCount;
+	}
+
+	/**
+	 * Create a copy of the given unmodified chain, sharing its interceptor array.
+	 */
+	InterceptorChain(InterceptorChain chain) {
+		super(chain);
+		this.interceptors = chain.getInterceptors();
+		this.expectedModCount = this.modCount;
+	}
+
+
+	/**
+	 * Return the interceptors of this chain as an array, or {@code null}
+	 * if the chain contains dynamic method matchers or has been modified.
+	 */
+	@Nullable
+	MethodInterceptor[] getInterceptors() {
+		return (this.modCount == this.expectedModCount ? this.interceptors : null);
+	}
+
+
+	@Nullable
+	private static MethodInterceptor[] toInterceptorArray(List<Object> chain) {
+		MethodInterceptor[] interceptors = new MethodInterceptor[chain.size()];
+		for (int i = 0; i < interceptors.length; i++) {
+			Object element = chain.get(i);
+			if (!(element instanceof MethodInterceptor)) {
+				return null;
+			}
+			interceptors[i] = (MethodInterceptor) element;
+		}
+		return interceptors;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -85,6 +85,13 @@ public class ReflectiveMethodInvocation implements ProxyMethodInvocation, Clonea
 	 */
 	protected final List<?> interceptorsAndDynamicMethodMatchers;
 
+	/**
+	 * The interceptors as an array, if the chain is a cached one without
+	 * dynamic checks; {@code null} otherwise.
+	 */
+	@Nullable
+	private final MethodInterceptor[] interceptors;
+
 	/**
 	 * Index from 0 of the current interceptor we're invoking.
 	 * -1 until we invoke: then the current interceptor.
@@ -102,8 +109,8 @@ public class ReflectiveMethodInvocation implements ProxyMethodInvocation, Clonea
 	 * @param interceptorsAndDynamicMethodMatchers interceptors that should be applied,
 	 * along with any InterceptorAndDynamicMethodMatchers that need evaluation at runtime.
 	 * MethodMatchers included in this struct must already have been found to have matched
-	 * as far as was possibly statically. Passing an array might be about 10% faster,
-	 * but would complicate the code. And it would work only for static pointcuts.
+	 * as far as was possibly statically. For a chain cached by {@link AdvisedSupport}
+	 * without dynamic checks, the interceptors are invoked from an array instead.
 	 */
 	protected ReflectiveMethodInvocation(
 			Object proxy, @Nullable Object target, Method method, @Nullable Object[] arguments,
@@ -115,6 +122,8 @@ public class ReflectiveMethodInvocation implements ProxyMethodInvocation, Clonea
 		this.method = BridgeMethodResolver.findBridgedMethod(method);
 		this.arguments = AopProxyUtils.adaptArgumentsIfNecessary(method, arguments);
 		this.interceptorsAndDynamicMethodMatchers = interceptorsAndDynamicMethodMatchers;
+		this.interceptors = (interceptorsAndDynamicMethodMatchers instanceof InterceptorChain ?
+				((InterceptorChain) interceptorsAndDynamicMethodMatchers).getInterceptors() : null);
 	}
 
 
@@ -170,6 +179,15 @@ public class ReflectiveMethodInvocation implements ProxyMethodInvocation, Clonea
 	public Object proceed() throws Throwable {
 		// We start with an index of -1 and increment early.  我们从一个索引-1开始，并提前递增。
 
+		MethodInterceptor[] interceptors = this.interceptors;
+		if (interceptors != null) {
+			// Static chain: no dynamic method matchers to evaluate.
+			if (this.currentInterceptorIndex == interceptors.length - 1) {
+				return invokeJoinpoint();
+			}
+			return interceptors[++this.currentInterceptorIndex].invoke(this);
+		}
+
 		// 执行完成所有增强方法后 执行 切点方法,就是调用链中的所有拦截器
 		// 增强等都被执行完后 执行下面这段代码  {@link https://blog.csdn.net/bskfnvjtlyzmv867/article/details/83242994}
 		if (this.currentInterceptorIndex == this.interceptorsAndDynamicMethodMatchers.size() - 1) {
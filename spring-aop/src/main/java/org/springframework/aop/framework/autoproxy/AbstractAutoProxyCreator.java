@@ -47,6 +47,8 @@ import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
 import org.springframework.core.SmartClassLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -217,6 +219,15 @@ public abstract class AbstractAutoProxyCreator extends ProxyProcessorSupport
 		return this.beanFactory;
 	}
 
+	/**
+	 * Return the {@link ApplicationStartup} to record proxy creation steps with,
+	 * as exposed by the owning {@link BeanFactory}, if any.
+	 */
+	private ApplicationStartup getApplicationStartup() {
+		return (this.beanFactory instanceof ConfigurableBeanFactory ?
+				((ConfigurableBeanFactory) this.beanFactory).getApplicationStartup() : ApplicationStartup.DEFAULT);
+	}
+
 
 	@Override
 	@Nullable
@@ -348,22 +359,32 @@ public abstract class AbstractAutoProxyCreator extends ProxyProcessorSupport
 			return bean;
 		}
 
-		// Create proxy if we have advice.  创建代理如果我们有建议。
-		// 如果存在 增强方法 或 增强器 则创建代理
-		Object[] specificInterceptors = getAdvicesAndAdvisorsForBean(bean.getClass(), beanName, null);
-
-		// 如果获取到了增强则需要针对增强创建代理
-		if (specificInterceptors != DO_NOT_PROXY) {
-			this.advisedBeans.put(cacheKey, Boolean.TRUE);
-			// 创建代理bean，传入用SingletonTargetSource包装的原始bean
-			Object proxy = createProxy(
-					bean.getClass(), beanName, specificInterceptors, new SingletonTargetSource(bean));
-			this.proxyTypes.put(cacheKey, proxy.getClass());
-			return proxy;
+		StartupStep proxyCreation = getApplicationStartup().start("spring.aop.proxy.create")
+				.tag("beanName", String.valueOf(beanName))
+				.tag("beanClass", bean.getClass().getName());
+		try {
+			// Create proxy if we have advice.  创建代理如果我们有建议。
+			// 如果存在 增强方法 或 增强器 则创建代理
+			Object[] specificInterceptors = getAdvicesAndAdvisorsForBean(bean.getClass(), beanName, null);
+
+			// 如果获取到了增强则需要针对增强创建代理
+			if (specificInterceptors != DO_NOT_PROXY) {
+				this.advisedBeans.put(cacheKey, Boolean.TRUE);
+				proxyCreation.tag("interceptors", String.valueOf(specificInterceptors.length));
+				// 创建代理bean，传入用SingletonTargetSource包装的原始bean
+				Object proxy = createProxy(
+						bean.getClass(), beanName, specificInterceptors, new SingletonTargetSource(bean));
+				this.proxyTypes.put(cacheKey, proxy.getClass());
+				proxyCreation.tag("proxyClass", proxy.getClass().getName());
+				return proxy;
+			}
+			// 没获取到增强方法或增强器也直接返回
+			this.advisedBeans.put(cacheKey, Boolean.FALSE);
+			return bean;
+		}
+		finally {
+			proxyCreation.end();
 		}
-		// 没获取到增强方法或增强器也直接返回
-		this.advisedBeans.put(cacheKey, Boolean.FALSE);
-		return bean;
 	}
 
 	/**
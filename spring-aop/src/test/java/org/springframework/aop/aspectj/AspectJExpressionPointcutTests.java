@@ -31,6 +31,7 @@ import org.springframework.aop.MethodMatcher;
 import org.springframework.aop.Pointcut;
 import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.testfixture.beans.IOther;
 import org.springframework.beans.testfixture.beans.ITestBean;
 import org.springframework.beans.testfixture.beans.TestBean;
@@ -284,6 +285,37 @@ public class AspectJExpressionPointcutTests {
 		assertThat(expr.getPointcutExpression()).isEqualTo("execution(* *(..)) && args(String) && this(Object)");
 	}
 
+	@Test
+	public void testMatchIndexSharedWithinBeanFactory() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		AspectJExpressionPointcut pc1 = new AspectJExpressionPointcut();
+		pc1.setExpression(MATCH_ALL_METHODS);
+		pc1.setBeanFactory(beanFactory);
+		AspectJExpressionPointcut pc2 = new AspectJExpressionPointcut();
+		pc2.setExpression(MATCH_ALL_METHODS);
+		pc2.setBeanFactory(beanFactory);
+
+		assertThat(pc1.matches(TestBean.class)).isTrue();
+		assertThat(pc1.matches(getAge, TestBean.class)).isTrue();
+		Object matchIndex = beanFactory.getSingleton(PointcutMatchIndex.BEAN_NAME);
+		assertThat(matchIndex).isInstanceOf(PointcutMatchIndex.class);
+		assertThat(pc2.matches(TestBean.class)).isTrue();
+		assertThat(pc2.matches(getAge, TestBean.class)).isTrue();
+		assertThat(pc2.matches(setAge, TestBean.class)).isTrue();
+		assertThat(beanFactory.getSingleton(PointcutMatchIndex.BEAN_NAME)).isSameAs(matchIndex);
+	}
+
+	@Test
+	public void testMatchIndexNotUsedForBeanPointcut() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		AspectJExpressionPointcut pc = new AspectJExpressionPointcut();
+		pc.setExpression("bean(testBean)");
+		pc.setBeanFactory(beanFactory);
+
+		pc.matches(getAge, TestBean.class);
+		assertThat(beanFactory.containsSingleton(PointcutMatchIndex.BEAN_NAME)).isFalse();
+	}
+
 	private Pointcut getPointcut(String expression) {
 		AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
 		pointcut.setExpression(expression);
@@ -179,6 +179,48 @@ public class TigerAspectJExpressionPointcutTests {
 		assertThat(ajexp.matches(IBeanA.class.getMethod("getAge"), proxy.getClass())).isTrue();
 	}
 
+	@Test
+	public void testPrefilterForAnnotationOnMethod() throws Exception {
+		AspectJExpressionPointcut ajexp = new AspectJExpressionPointcut();
+		ajexp.setExpression("execution(* *(..)) && @annotation(test.annotation.transaction.Tx)");
+		PointcutPrefilter prefilter = PointcutPrefilter.forPointcutExpression(ajexp.getPointcutExpression());
+
+		assertThat(prefilter).isNotNull();
+		Method getAge = BeanA.class.getMethod("getAge");
+		Method setName = BeanA.class.getMethod("setName", String.class);
+		assertThat(prefilter.couldMatch(getAge, getAge)).isTrue();
+		assertThat(prefilter.couldMatch(IBeanA.class.getMethod("getAge"), getAge)).isTrue();
+		assertThat(prefilter.couldMatch(setName, setName)).isFalse();
+		assertThat(ajexp.matches(setName, BeanA.class)).isFalse();
+		assertThat(ajexp.matches(getAge, BeanA.class)).isTrue();
+	}
+
+	@Test
+	public void testPrefilterForAnnotationOnClass() throws Exception {
+		AspectJExpressionPointcut ajexp = new AspectJExpressionPointcut();
+		ajexp.setExpression("@within(test.annotation.transaction.Tx)");
+		PointcutPrefilter prefilter = PointcutPrefilter.forPointcutExpression(ajexp.getPointcutExpression());
+
+		assertThat(prefilter).isNotNull();
+		Method foo = HasTransactionalAnnotation.class.getMethod("foo");
+		Method setName = BeanA.class.getMethod("setName", String.class);
+		assertThat(prefilter.couldMatch(foo, foo)).isTrue();
+		assertThat(prefilter.couldMatch(setName, setName)).isFalse();
+	}
+
+	@Test
+	public void testNoPrefilterForAlternativeOrNegation() throws Exception {
+		AspectJExpressionPointcut ajexp = new AspectJExpressionPointcut();
+		ajexp.setExpression("execution(* set*(..)) || @annotation(test.annotation.transaction.Tx)");
+		assertThat(PointcutPrefilter.forPointcutExpression(ajexp.getPointcutExpression())).isNull();
+		assertThat(ajexp.matches(BeanA.class.getMethod("setName", String.class), BeanA.class)).isTrue();
+
+		ajexp = new AspectJExpressionPointcut();
+		ajexp.setExpression("!@annotation(test.annotation.transaction.Tx)");
+		assertThat(PointcutPrefilter.forPointcutExpression(ajexp.getPointcutExpression())).isNull();
+		assertThat(ajexp.matches(BeanA.class.getMethod("setName", String.class), BeanA.class)).isTrue();
+	}
+
 	@Test
 	public void testAnnotationOnMethodWithWildcard() throws Exception {
 		String expression = "execution(@(test.annotation..*) * *(..))";
@@ -17,13 +17,17 @@
 package org.springframework.aop.framework;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.aop.support.DynamicMethodMatcher;
 import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.lang.Nullable;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -45,6 +49,48 @@ class MethodInvocationTests {
 		assertThat(rv).as("correct response").isSameAs(returnValue);
 	}
 
+	@Test
+	void testStaticInterceptorChain() throws Throwable {
+		Method method = Object.class.getMethod("hashCode");
+		List<String> calls = new ArrayList<>();
+		InterceptorChain chain = new InterceptorChain(Arrays.asList(
+				(MethodInterceptor) invocation -> {
+					calls.add("first");
+					return invocation.proceed();
+				},
+				(MethodInterceptor) invocation -> {
+					calls.add("second");
+					return invocation.proceed();
+				}));
+		assertThat(chain.getInterceptors()).hasSize(2);
+		ReflectiveMethodInvocation invocation = new ReflectiveMethodInvocation(new Object(), "target", method, null, null, chain);
+		assertThat(invocation.proceed()).isEqualTo("target".hashCode());
+		assertThat(calls).containsExactly("first", "second");
+
+		chain.remove(1);
+		assertThat(chain.getInterceptors()).isNull();
+		calls.clear();
+		invocation = new ReflectiveMethodInvocation(new Object(), "target", method, null, null, chain);
+		assertThat(invocation.proceed()).isEqualTo("target".hashCode());
+		assertThat(calls).containsExactly("first");
+	}
+
+	@Test
+	void testDynamicInterceptorChain() throws Throwable {
+		Method method = Object.class.getMethod("hashCode");
+		MethodInterceptor interceptor = invocation -> "intercepted";
+		InterceptorChain chain = new InterceptorChain(Collections.singletonList(
+				new InterceptorAndDynamicMethodMatcher(interceptor, new DynamicMethodMatcher() {
+					@Override
+					public boolean matches(Method method, @Nullable Class<?> targetClass, Object... args) {
+						return false;
+					}
+				})));
+		assertThat(chain.getInterceptors()).isNull();
+		ReflectiveMethodInvocation invocation = new ReflectiveMethodInvocation(new Object(), "target", method, null, null, chain);
+		assertThat(invocation.proceed()).isEqualTo("target".hashCode());
+	}
+
 	/**
 	 * toString on target can cause failure.
 	 */
@@ -16,6 +16,7 @@
 
 package org.springframework.aop.framework;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -370,6 +371,68 @@ public class ProxyFactoryTests {
 		assertThat(proxy.getName()).isEqualTo("tb");
 	}
 
+	@Test
+	public void testAdvisorChainSharedAcrossConfigurations() throws Exception {
+		Advisor advisor = new DefaultPointcutAdvisor(new NopInterceptor());
+		ProxyFactory pf1 = new ProxyFactory(new TestBean());
+		pf1.addAdvisor(advisor);
+		ProxyFactory pf2 = new ProxyFactory(new TestBean());
+		pf2.addAdvisor(advisor);
+		ProxyFactory pf3 = new ProxyFactory(new TestBean());
+		pf3.addAdvisor(new DefaultPointcutAdvisor(new NopInterceptor()));
+
+		Method method = ITestBean.class.getMethod("getAge");
+		List<Object> chain = pf1.getInterceptorsAndDynamicInterceptionAdvice(method, TestBean.class);
+		assertThat(chain).containsExactly(advisor.getAdvice());
+		assertThat(pf1.getInterceptorsAndDynamicInterceptionAdvice(method, TestBean.class)).isSameAs(chain);
+		List<Object> chain2 = pf2.getInterceptorsAndDynamicInterceptionAdvice(method, TestBean.class);
+		assertThat(chain2).isNotSameAs(chain).containsExactly(advisor.getAdvice());
+		assertThat(((InterceptorChain) chain2).getInterceptors()).isSameAs(((InterceptorChain) chain).getInterceptors());
+		assertThat(((InterceptorChain) pf2.getInterceptorsAndDynamicInterceptionAdvice(method, ITestBean.class))
+				.getInterceptors()).isNotSameAs(((InterceptorChain) chain).getInterceptors());
+		assertThat(((InterceptorChain) pf3.getInterceptorsAndDynamicInterceptionAdvice(method, TestBean.class))
+				.getInterceptors()).isNotSameAs(((InterceptorChain) chain).getInterceptors());
+
+		pf2.addAdvice(new DebugInterceptor());
+		assertThat(pf2.getInterceptorsAndDynamicInterceptionAdvice(method, TestBean.class)).hasSize(2);
+		assertThat(pf1.getInterceptorsAndDynamicInterceptionAdvice(method, TestBean.class)).isSameAs(chain);
+	}
+
+	@Test
+	public void testModifiedAdvisorChainNotSharedAcrossConfigurations() throws Exception {
+		NopInterceptor nop = new NopInterceptor();
+		Advisor advisor = new DefaultPointcutAdvisor(nop);
+		ProxyFactory pf1 = new ProxyFactory(new TestBean());
+		pf1.addAdvisor(advisor);
+		ProxyFactory pf2 = new ProxyFactory(new TestBean());
+		pf2.addAdvisor(advisor);
+
+		Method method = ITestBean.class.getMethod("getAge");
+		NopInterceptor added = new NopInterceptor();
+		pf1.getInterceptorsAndDynamicInterceptionAdvice(method, TestBean.class).add(added);
+		assertThat(pf1.getInterceptorsAndDynamicInterceptionAdvice(method, TestBean.class)).containsExactly(nop, added);
+		assertThat(pf2.getInterceptorsAndDynamicInterceptionAdvice(method, TestBean.class)).containsExactly(nop);
+
+		ProxyFactory pf3 = new ProxyFactory(new TestBean());
+		pf3.addAdvisor(advisor);
+		((ITestBean) pf3.getProxy()).getAge();
+		assertThat(nop.getCount()).isEqualTo(1);
+		assertThat(added.getCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testProxiesWithSharedAdvisorChain() {
+		NopInterceptor nop = new NopInterceptor();
+		Advisor advisor = new DefaultPointcutAdvisor(nop);
+		for (int i = 0; i < 3; i++) {
+			ProxyFactory pf = new ProxyFactory(new TestBean("tb" + i));
+			pf.addAdvisor(advisor);
+			ITestBean proxy = (ITestBean) pf.getProxy();
+			assertThat(proxy.getName()).isEqualTo("tb" + i);
+		}
+		assertThat(nop.getCount()).isEqualTo(3);
+	}
+
 
 	@Order(2)
 	public static class A implements Runnable {
@@ -30,15 +30,22 @@ import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -46,6 +53,7 @@ import java.util.stream.Stream;
 import javax.inject.Provider;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCurrentlyInCreationException;
@@ -68,8 +76,11 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
 import org.springframework.beans.factory.config.DependencyDescriptor;
 import org.springframework.beans.factory.config.NamedBeanHolder;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.MergedAnnotation;
@@ -188,6 +199,10 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Whether bean definition metadata may be cached for all beans. */
 	private volatile boolean configurationFrozen;
 
+	/** Optional Executor for pre-instantiating independent singletons in parallel. */
+	@Nullable
+	private Executor bootstrapExecutor;
+
 
 	/**
 	 * Create a new DefaultListableBeanFactory.
@@ -322,6 +337,40 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	}
 
 
+	/**
+	 * Set an {@link Executor} for pre-instantiating non-lazy singletons in
+	 * parallel, as an opt-in alternative to sequential pre-instantiation in
+	 * the bootstrap thread.
+	 * <p>Singletons are grouped by the dependencies declared in their bean
+	 * definitions, with independent groups being instantiated in parallel.
+	 * Dependencies that are not declared in bean definitions (e.g. through
+	 * {@code @Autowired}) are resolved on demand, waiting for singletons that
+	 * are currently in creation in another thread. Early singleton references
+	 * for resolving circular references are only exposed within the creating
+	 * thread; groups that run into a circular reference across threads are
+	 * instantiated once more in the bootstrap thread after all other groups.
+	 * {@link SmartInitializingSingleton} callbacks are still invoked in the
+	 * bootstrap thread, once all singletons have been instantiated.
+	 * <p>The given executor should have a bounded number of threads, e.g. a
+	 * fixed-size thread pool. Default is none, pre-instantiating singletons
+	 * sequentially in registration order.
+	 * @since 5.3.9
+	 * @see #preInstantiateSingletons()
+	 */
+	public void setBootstrapExecutor(@Nullable Executor bootstrapExecutor) {
+		this.bootstrapExecutor = bootstrapExecutor;
+	}
+
+	/**
+	 * Return the {@link Executor} for pre-instantiating singletons in parallel, if any.
+	 * @since 5.3.9
+	 */
+	@Nullable
+	public Executor getBootstrapExecutor() {
+		return this.bootstrapExecutor;
+	}
+
+
 	@Override
 	public void copyConfigurationFrom(ConfigurableBeanFactory otherFactory) {
 		super.copyConfigurationFrom(otherFactory);
@@ -330,6 +379,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
 			this.dependencyComparator = otherListableFactory.dependencyComparator;
+			this.bootstrapExecutor = otherListableFactory.bootstrapExecutor;
 			// A clone of the AutowireCandidateResolver since it is potentially BeanFactoryAware
 			setAutowireCandidateResolver(otherListableFactory.getAutowireCandidateResolver().cloneIfNecessary());
 			// Make resolvable dependencies (e.g. ResourceLoader) available here as well
@@ -947,35 +997,13 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		List<String> beanNames = new ArrayList<>(this.beanDefinitionNames);
 
 		// Trigger initialization of all non-lazy singleton beans...
-		for (String beanName : beanNames) {
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-
-			// bean 非抽象 且单例 非惰性 的全部预先加载
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				// 工厂bean
-				if (isFactoryBean(beanName)) {
-					Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
-					if (bean instanceof FactoryBean) {
-						FactoryBean<?> factory = (FactoryBean<?>) bean;
-						boolean isEagerInit;
-						if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-							isEagerInit = AccessController.doPrivileged(
-									(PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
-									getAccessControlContext());
-						}
-						else {
-							isEagerInit = (factory instanceof SmartFactoryBean &&
-									((SmartFactoryBean<?>) factory).isEagerInit());
-						}
-						if (isEagerInit) {
-							getBean(beanName);
-						}
-					}
-				}
-				// 普通bean
-				else {
-					getBean(beanName);
-				}
+		Executor bootstrapExecutor = getBootstrapExecutor();
+		if (bootstrapExecutor != null) {
+			preInstantiateSingletonsInParallel(beanNames, bootstrapExecutor);
+		}
+		else {
+			for (String beanName : beanNames) {
+				preInstantiateSingleton(beanName);
 			}
 		}
 
@@ -1000,6 +1028,244 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		}
 	}
 
+	/**
+	 * Instantiate the given bean if it is a non-lazy singleton,
+	 * including eager {@link SmartFactoryBean} objects.
+	 * @param beanName the name of the bean
+	 * @see #preInstantiateSingletons()
+	 */
+	private void preInstantiateSingleton(String beanName) {
+		RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+
+		// bean 非抽象 且单例 非惰性 的全部预先加载
+		if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+			// 工厂bean
+			if (isFactoryBean(beanName)) {
+				Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+				if (bean instanceof FactoryBean) {
+					FactoryBean<?> factory = (FactoryBean<?>) bean;
+					boolean isEagerInit;
+					if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+						isEagerInit = AccessController.doPrivileged(
+								(PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
+								getAccessControlContext());
+					}
+					else {
+						isEagerInit = (factory instanceof SmartFactoryBean &&
+								((SmartFactoryBean<?>) factory).isEagerInit());
+					}
+					if (isEagerInit) {
+						getBean(beanName);
+					}
+				}
+			}
+			// 普通bean
+			else {
+				getBean(beanName);
+			}
+		}
+	}
+
+	/**
+	 * Instantiate all non-lazy singletons on the given executor, grouping
+	 * beans that are connected through their bean definitions (bean references,
+	 * {@code depends-on} declarations and factory beans) and instantiating
+	 * independent groups in parallel. Within each group, beans are instantiated
+	 * in registration order, just like in the sequential case.
+	 * <p>Dependencies that are not declared in bean definitions, e.g. through
+	 * annotation-driven injection, are resolved on demand: a thread requesting
+	 * a singleton that is currently in creation in another thread waits for it.
+	 * Groups that fail with a circular reference across threads are instantiated
+	 * sequentially in the current thread afterwards.
+	 * @param beanNames the names of all bean definitions, in registration order
+	 * @param executor the executor to instantiate independent groups with
+	 * @see #setBootstrapExecutor
+	 */
+	private void preInstantiateSingletonsInParallel(List<String> beanNames, Executor executor) {
+		Collection<List<String>> groups = groupSingletonsByDependencies(beanNames);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Pre-instantiating " + groups.size() + " independent groups of singletons in parallel");
+		}
+		List<CompletableFuture<Void>> futures = new ArrayList<>(groups.size());
+		List<List<String>> groupsToRetry = new ArrayList<>();
+		setConcurrentSingletonCreation(true);
+		try {
+			for (List<String> group : groups) {
+				Runnable task = () -> {
+					StartupStep instantiateGroup = getApplicationStartup().start("spring.beans.instantiate-group")
+							.tag("beanName", group.get(0))
+							.tag("beanCount", String.valueOf(group.size()));
+					try {
+						for (String beanName : group) {
+							preInstantiateSingleton(beanName);
+						}
+					}
+					finally {
+						instantiateGroup.end();
+					}
+				};
+				try {
+					futures.add(CompletableFuture.runAsync(task, executor));
+				}
+				catch (RejectedExecutionException ex) {
+					// Executor saturated -> instantiate in the current thread instead
+					futures.add(runInCurrentThread(task));
+				}
+			}
+			RuntimeException failure = null;
+			Iterator<List<String>> groupIterator = groups.iterator();
+			for (CompletableFuture<Void> future : futures) {
+				List<String> group = groupIterator.next();
+				try {
+					future.join();
+				}
+				catch (CompletionException ex) {
+					Throwable cause = ex.getCause();
+					if (cause instanceof BeansException &&
+							((BeansException) cause).contains(BeanCurrentlyInCreationException.class)) {
+						// Circular reference across threads -> retry in the current thread
+						groupsToRetry.add(group);
+					}
+					else if (failure == null) {
+						failure = (cause instanceof RuntimeException ? (RuntimeException) cause : ex);
+					}
+				}
+			}
+			if (failure != null) {
+				throw failure;
+			}
+		}
+		finally {
+			setConcurrentSingletonCreation(false);
+		}
+
+		for (List<String> group : groupsToRetry) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Pre-instantiating singletons " + group +
+						" sequentially after circular reference across threads");
+			}
+			for (String beanName : group) {
+				preInstantiateSingleton(beanName);
+			}
+		}
+	}
+
+	private static CompletableFuture<Void> runInCurrentThread(Runnable task) {
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		try {
+			task.run();
+			future.complete(null);
+		}
+		catch (Throwable ex) {
+			future.completeExceptionally(ex);
+		}
+		return future;
+	}
+
+	/**
+	 * Group the non-lazy singletons among the given bean names into sets of
+	 * beans connected through their bean definitions, preserving registration
+	 * order within each group as well as across groups (by first member).
+	 * @param beanNames the names of all bean definitions, in registration order
+	 * @return the groups of non-lazy singleton bean names
+	 */
+	private Collection<List<String>> groupSingletonsByDependencies(List<String> beanNames) {
+		Map<String, String> parents = new HashMap<>(beanNames.size() * 2);
+		for (String beanName : beanNames) {
+			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+			Set<String> dependencies = new LinkedHashSet<>();
+			collectDeclaredDependencies(bd, dependencies);
+			for (String dependency : dependencies) {
+				union(parents, beanName, canonicalName(dependency));
+			}
+		}
+		Map<String, List<String>> groups = new LinkedHashMap<>();
+		for (String beanName : beanNames) {
+			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+				groups.computeIfAbsent(findRoot(parents, beanName), key -> new ArrayList<>()).add(beanName);
+			}
+		}
+		return groups.values();
+	}
+
+	private static void collectDeclaredDependencies(BeanDefinition bd, Set<String> dependencies) {
+		String[] dependsOn = bd.getDependsOn();
+		if (dependsOn != null) {
+			Collections.addAll(dependencies, dependsOn);
+		}
+		if (bd.getFactoryBeanName() != null) {
+			dependencies.add(bd.getFactoryBeanName());
+		}
+		if (bd.hasConstructorArgumentValues()) {
+			ConstructorArgumentValues args = bd.getConstructorArgumentValues();
+			for (ConstructorArgumentValues.ValueHolder valueHolder : args.getIndexedArgumentValues().values()) {
+				collectDeclaredDependencies(valueHolder.getValue(), dependencies);
+			}
+			for (ConstructorArgumentValues.ValueHolder valueHolder : args.getGenericArgumentValues()) {
+				collectDeclaredDependencies(valueHolder.getValue(), dependencies);
+			}
+		}
+		if (bd.hasPropertyValues()) {
+			for (PropertyValue pv : bd.getPropertyValues().getPropertyValues()) {
+				collectDeclaredDependencies(pv.getValue(), dependencies);
+			}
+		}
+	}
+
+	private static void collectDeclaredDependencies(@Nullable Object value, Set<String> dependencies) {
+		if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference ref = (RuntimeBeanReference) value;
+			if (ref.getBeanType() == null) {
+				dependencies.add(ref.getBeanName());
+			}
+		}
+		else if (value instanceof RuntimeBeanNameReference) {
+			dependencies.add(((RuntimeBeanNameReference) value).getBeanName());
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			collectDeclaredDependencies(((BeanDefinitionHolder) value).getBeanDefinition(), dependencies);
+		}
+		else if (value instanceof BeanDefinition) {
+			collectDeclaredDependencies((BeanDefinition) value, dependencies);
+		}
+		else if (value instanceof Collection) {
+			for (Object element : (Collection<?>) value) {
+				collectDeclaredDependencies(element, dependencies);
+			}
+		}
+		else if (value instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				collectDeclaredDependencies(entry.getKey(), dependencies);
+				collectDeclaredDependencies(entry.getValue(), dependencies);
+			}
+		}
+	}
+
+	private static void union(Map<String, String> parents, String name1, String name2) {
+		String root1 = findRoot(parents, name1);
+		String root2 = findRoot(parents, name2);
+		if (!root1.equals(root2)) {
+			parents.put(root2, root1);
+		}
+	}
+
+	private static String findRoot(Map<String, String> parents, String name) {
+		String root = name;
+		String parent;
+		while ((parent = parents.get(root)) != null) {
+			root = parent;
+		}
+		// Path compression
+		String current = name;
+		while (!current.equals(root)) {
+			String next = parents.get(current);
+			parents.put(current, root);
+			current = next;
+		}
+		return root;
+	}
+
 
 	//---------------------------------------------------------------------
 	// Implementation of BeanDefinitionRegistry interface
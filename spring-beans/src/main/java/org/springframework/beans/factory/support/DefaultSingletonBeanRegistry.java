@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -103,6 +103,15 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	@Nullable
 	private Set<Exception> suppressedExceptions;
 
+	/** Whether singletons may currently be created concurrently by multiple threads. */
+	private volatile boolean concurrentSingletonCreation = false;
+
+	/** Threads currently creating singletons in concurrent mode: bean name to thread. */
+	private final Map<String, Thread> singletonCreationThreads = new HashMap<>(16);
+
+	/** Threads waiting for singletons in creation in concurrent mode: thread to bean name. */
+	private final Map<Thread, String> singletonCreationWaits = new HashMap<>(16);
+
 	/** Flag that indicates whether we're currently within destroySingletons. */
 	// 标志，指示我们当前是否在destroysingleton中
 	private boolean singletonsCurrentlyInDestruction = false;
@@ -200,6 +209,11 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		// 检查缓存中是否存在实例
 		Object singletonObject = this.singletonObjects.get(beanName);
 		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
+			if (this.concurrentSingletonCreation && isSingletonCurrentlyInCreationInOtherThread(beanName)) {
+				// Never expose an early reference to another thread: the caller is going to
+				// wait for the creating thread in getSingleton(String, ObjectFactory) instead.
+				return null;
+			}
 			singletonObject = this.earlySingletonObjects.get(beanName);
 			if (singletonObject == null && allowEarlyReference) {
 				// 如果缓存中不存在，则锁定全局变量并进行处理
@@ -243,72 +257,193 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "Bean name must not be null");
 
+		if (this.concurrentSingletonCreation) {
+			return getSingletonConcurrently(beanName, singletonFactory);
+		}
+
 		// 全局变量需要同步
 		synchronized (this.singletonObjects) {
 
 			// 首先检查对应的bean是否已经加载过，因为是单例模式的，如果有直接返回
 			Object singletonObject = this.singletonObjects.get(beanName);
 			if (singletonObject == null) {
+				singletonObject = createSingleton(beanName, singletonFactory, (this.suppressedExceptions == null));
+			}
+			return singletonObject;
+		}
+	}
 
-				// 单例bean的初始化
-
-				if (this.singletonsCurrentlyInDestruction) {
-					throw new BeanCreationNotAllowedException(beanName,
-							"Singleton bean creation not allowed while singletons of this factory are in destruction " +
-							"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+	/**
+	 * Variant of {@link #getSingleton(String, ObjectFactory)} for concurrent
+	 * singleton creation: the full singleton lock is only held for bookkeeping,
+	 * with the actual creation happening outside of it. Threads requesting a
+	 * singleton that is currently in creation in another thread wait for it,
+	 * unless that other thread is waiting for a singleton that the current
+	 * thread is creating, in which case the circular reference is unresolvable.
+	 * Early references are only exposed within the creating thread, see
+	 * {@link #getSingleton(String, boolean)}.
+	 * @param beanName the name of the bean
+	 * @param singletonFactory the ObjectFactory to lazily create the singleton with
+	 * @return the registered singleton object
+	 * @see #setConcurrentSingletonCreation
+	 */
+	private Object getSingletonConcurrently(String beanName, ObjectFactory<?> singletonFactory) {
+		Thread currentThread = Thread.currentThread();
+		boolean creator;
+		synchronized (this.singletonObjects) {
+			for (;;) {
+				Object singletonObject = this.singletonObjects.get(beanName);
+				if (singletonObject != null) {
+					return singletonObject;
 				}
-				if (logger.isDebugEnabled()) {
-					logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
+				Thread creatingThread = this.singletonCreationThreads.get(beanName);
+				if (creatingThread == null || creatingThread == currentThread) {
+					// Either not in creation yet, or a circular reference within
+					// the current thread -> regular in-creation check applies
+					creator = (creatingThread == null);
+					break;
 				}
-
-				// 记录加载状态，通过this.singletonsCurrentlyInCreation.add(beanName)将当前正要创建的bean记录在缓存中，
-				// 便于对循环依赖进行检测
-				beforeSingletonCreation(beanName);
-
-				// 创建单例bean是否成功的标识
-				boolean newSingleton = false;
-				boolean recordSuppressedExceptions = (this.suppressedExceptions == null);
-				if (recordSuppressedExceptions) {
-					this.suppressedExceptions = new LinkedHashSet<>();
+				if (isWaitingForThread(creatingThread, currentThread)) {
+					throw new BeanCurrentlyInCreationException(beanName, "Requested bean is currently in creation " +
+							"in thread '" + creatingThread.getName() + "' which in turn waits for a bean in creation " +
+							"in the current thread: Is there an unresolvable circular reference?");
 				}
+				this.singletonCreationWaits.put(currentThread, beanName);
 				try {
-
-					// 初始化bean
-					singletonObject = singletonFactory.getObject();
-					newSingleton = true;
-				}
-				catch (IllegalStateException ex) {
-					// Has the singleton object implicitly appeared in the meantime ->
-					// if yes, proceed with it since the exception indicates that state.
-					singletonObject = this.singletonObjects.get(beanName);
-					if (singletonObject == null) {
-						throw ex;
-					}
+					this.singletonObjects.wait();
 				}
-				catch (BeanCreationException ex) {
-					if (recordSuppressedExceptions) {
-						for (Exception suppressedException : this.suppressedExceptions) {
-							ex.addRelatedCause(suppressedException);
-						}
-					}
-					throw ex;
+				catch (InterruptedException ex) {
+					currentThread.interrupt();
+					throw new BeanCreationException(beanName,
+							"Interrupted while waiting for singleton creation in thread '" + creatingThread.getName() + "'");
 				}
 				finally {
-					if (recordSuppressedExceptions) {
-						this.suppressedExceptions = null;
-					}
-
-					// 创建完bean之后需要移除缓存中对该bean正在加载状态的记录
-					afterSingletonCreation(beanName);
+					this.singletonCreationWaits.remove(currentThread);
 				}
-				if (newSingleton) {
+			}
+			if (creator) {
+				this.singletonCreationThreads.put(beanName, currentThread);
+			}
+		}
+		try {
+			// Suppressed exceptions are shared across threads, hence not recorded here
+			return createSingleton(beanName, singletonFactory, false);
+		}
+		finally {
+			if (creator) {
+				synchronized (this.singletonObjects) {
+					this.singletonCreationThreads.remove(beanName);
+					this.singletonObjects.notifyAll();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determine whether the specified singleton is currently in creation
+	 * in a thread other than the current thread, in concurrent mode.
+	 * @param beanName the name of the bean
+	 * @see #setConcurrentSingletonCreation
+	 */
+	private boolean isSingletonCurrentlyInCreationInOtherThread(String beanName) {
+		synchronized (this.singletonObjects) {
+			Thread creatingThread = this.singletonCreationThreads.get(beanName);
+			return (creatingThread != null && creatingThread != Thread.currentThread());
+		}
+	}
+
+	/**
+	 * Determine whether the given thread is (transitively) waiting for
+	 * a singleton that is currently in creation in the target thread.
+	 * <p>To be called within the full singleton lock.
+	 */
+	private boolean isWaitingForThread(Thread thread, Thread targetThread) {
+		Set<Thread> visited = new HashSet<>();
+		Thread current = thread;
+		while (visited.add(current)) {
+			String awaitedBeanName = this.singletonCreationWaits.get(current);
+			if (awaitedBeanName == null) {
+				return false;
+			}
+			current = this.singletonCreationThreads.get(awaitedBeanName);
+			if (current == null) {
+				return false;
+			}
+			if (current == targetThread) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Create and register a new singleton object through the given factory.
+	 * @param beanName the name of the bean
+	 * @param singletonFactory the ObjectFactory to create the singleton with
+	 * @param recordSuppressedExceptions whether to collect suppressed exceptions
+	 * as related causes for a top-level {@link BeanCreationException}
+	 * @return the newly created singleton object
+	 */
+	private Object createSingleton(String beanName, ObjectFactory<?> singletonFactory,
+			boolean recordSuppressedExceptions) {
+
+		// 单例bean的初始化
+
+		if (this.singletonsCurrentlyInDestruction) {
+			throw new BeanCreationNotAllowedException(beanName,
+					"Singleton bean creation not allowed while singletons of this factory are in destruction " +
+					"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
+		}
+
+		// 记录加载状态，通过this.singletonsCurrentlyInCreation.add(beanName)将当前正要创建的bean记录在缓存中，
+		// 便于对循环依赖进行检测
+		beforeSingletonCreation(beanName);
+
+		// 创建单例bean是否成功的标识
+		Object singletonObject;
+		boolean newSingleton = false;
+		if (recordSuppressedExceptions) {
+			this.suppressedExceptions = new LinkedHashSet<>();
+		}
+		try {
 
-					// 加入缓存并删除加载bean过程中所记录的各种辅助状态
-					addSingleton(beanName, singletonObject);
+			// 初始化bean
+			singletonObject = singletonFactory.getObject();
+			newSingleton = true;
+		}
+		catch (IllegalStateException ex) {
+			// Has the singleton object implicitly appeared in the meantime ->
+			// if yes, proceed with it since the exception indicates that state.
+			singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				throw ex;
+			}
+		}
+		catch (BeanCreationException ex) {
+			if (recordSuppressedExceptions) {
+				for (Exception suppressedException : this.suppressedExceptions) {
+					ex.addRelatedCause(suppressedException);
 				}
 			}
-			return singletonObject;
+			throw ex;
 		}
+		finally {
+			if (recordSuppressedExceptions) {
+				this.suppressedExceptions = null;
+			}
+
+			// 创建完bean之后需要移除缓存中对该bean正在加载状态的记录
+			afterSingletonCreation(beanName);
+		}
+		if (newSingleton) {
+
+			// 加入缓存并删除加载bean过程中所记录的各种辅助状态
+			addSingleton(beanName, singletonObject);
+		}
+		return singletonObject;
 	}
 
 	/**
@@ -363,6 +498,29 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	}
 
 
+	/**
+	 * Set whether singletons may currently be created concurrently by multiple
+	 * threads, for example during parallel pre-instantiation of singletons.
+	 * <p>Default is "false", holding the full singleton lock for the entire
+	 * creation of each singleton. If switched on, the full singleton lock is
+	 * only held for bookkeeping, with threads waiting for singletons that are
+	 * currently in creation in another thread. Early references to singletons
+	 * in creation are not exposed to other threads then.
+	 * @since 5.3.9
+	 * @see #getSingleton(String, ObjectFactory)
+	 */
+	protected void setConcurrentSingletonCreation(boolean concurrentSingletonCreation) {
+		this.concurrentSingletonCreation = concurrentSingletonCreation;
+	}
+
+	/**
+	 * Return whether singletons may currently be created concurrently.
+	 * @since 5.3.9
+	 */
+	protected boolean isConcurrentSingletonCreation() {
+		return this.concurrentSingletonCreation;
+	}
+
 	public void setCurrentlyInCreation(String beanName, boolean inCreation) {
 		Assert.notNull(beanName, "Bean name must not be null");
 		if (!inCreation) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,6 +37,10 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -53,6 +57,8 @@ import org.springframework.beans.PropertyEditorRegistry;
 import org.springframework.beans.PropertyValue;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.TypeMismatchException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.beans.factory.config.AutowiredPropertyMarker;
 import org.springframework.beans.factory.config.BeanDefinition;
@@ -149,6 +155,122 @@ class DefaultListableBeanFactoryTests {
 		assertThat(KnowsIfInstantiated.wasInstantiated()).as("singleton was instantiated").isTrue();
 	}
 
+	@Test
+	void parallelPreInstantiation() {
+		for (int i = 0; i < 10; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			if (i % 2 == 1) {
+				bd.getPropertyValues().add("spouse", new RuntimeBeanReference("tb" + (i - 1)));
+			}
+			lbf.registerBeanDefinition("tb" + i, bd);
+		}
+		RootBeanDefinition lazy = new RootBeanDefinition(TestBean.class);
+		lazy.setLazyInit(true);
+		lbf.registerBeanDefinition("lazy", lazy);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			lbf.setBootstrapExecutor(executor);
+			lbf.preInstantiateSingletons();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(lbf.containsSingleton("tb" + i)).isTrue();
+		}
+		assertThat(lbf.containsSingleton("lazy")).isFalse();
+		assertThat(lbf.getBean("tb1", TestBean.class).getSpouse()).isSameAs(lbf.getBean("tb0"));
+		assertThat(lbf.getBean("tb9", TestBean.class).getSpouse()).isSameAs(lbf.getBean("tb8"));
+	}
+
+	@Test
+	void parallelPreInstantiationWithCircularReference() {
+		RootBeanDefinition bd1 = new RootBeanDefinition(TestBean.class);
+		bd1.getPropertyValues().add("spouse", new RuntimeBeanReference("tb2"));
+		lbf.registerBeanDefinition("tb1", bd1);
+		RootBeanDefinition bd2 = new RootBeanDefinition(TestBean.class);
+		bd2.getPropertyValues().add("spouse", new RuntimeBeanReference("tb1"));
+		lbf.registerBeanDefinition("tb2", bd2);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			lbf.setBootstrapExecutor(executor);
+			lbf.preInstantiateSingletons();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		TestBean tb1 = lbf.getBean("tb1", TestBean.class);
+		TestBean tb2 = lbf.getBean("tb2", TestBean.class);
+		assertThat(tb1.getSpouse()).isSameAs(tb2);
+		assertThat(tb2.getSpouse()).isSameAs(tb1);
+	}
+
+	@Test
+	void parallelPreInstantiationWithUndeclaredDependencyInCreation() {
+		AutowiredAnnotationBeanPostProcessor bpp = new AutowiredAnnotationBeanPostProcessor();
+		bpp.setBeanFactory(lbf);
+		lbf.addBeanPostProcessor(bpp);
+		CountDownLatch initStarted = new CountDownLatch(1);
+		lbf.registerBeanDefinition("slow", new RootBeanDefinition(
+				SlowlyInitializingBean.class, () -> new SlowlyInitializingBean(initStarted)));
+		lbf.registerBeanDefinition("consumer", new RootBeanDefinition(
+				SlowlyInitializingBeanConsumer.class, () -> new SlowlyInitializingBeanConsumer(initStarted)));
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			lbf.setBootstrapExecutor(executor);
+			lbf.preInstantiateSingletons();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		SlowlyInitializingBeanConsumer consumer = lbf.getBean("consumer", SlowlyInitializingBeanConsumer.class);
+		assertThat(consumer.dependency).isSameAs(lbf.getBean("slow"));
+		assertThat(consumer.dependencyInitialized).isTrue();
+	}
+
+	@Test
+	void parallelPreInstantiationWithUndeclaredCircularReference() {
+		AutowiredAnnotationBeanPostProcessor bpp = new AutowiredAnnotationBeanPostProcessor();
+		bpp.setBeanFactory(lbf);
+		lbf.addBeanPostProcessor(bpp);
+		lbf.registerBeanDefinition("bean1", new RootBeanDefinition(AutowiredCircularBean.class));
+		lbf.registerBeanDefinition("bean2", new RootBeanDefinition(AutowiredCircularBean.class));
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			lbf.setBootstrapExecutor(executor);
+			lbf.preInstantiateSingletons();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		AutowiredCircularBean bean1 = lbf.getBean("bean1", AutowiredCircularBean.class);
+		AutowiredCircularBean bean2 = lbf.getBean("bean2", AutowiredCircularBean.class);
+		assertThat(bean1.other).isSameAs(bean2);
+		assertThat(bean2.other).isSameAs(bean1);
+	}
+
+	@Test
+	void parallelPreInstantiationWithFailure() {
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.getPropertyValues().add("spouse", new RuntimeBeanReference("unknown"));
+		lbf.registerBeanDefinition("broken", bd);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			lbf.setBootstrapExecutor(executor);
+			assertThatExceptionOfType(BeanCreationException.class).isThrownBy(lbf::preInstantiateSingletons)
+					.satisfies(ex -> assertThat(ex.getBeanName()).isEqualTo("broken"));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertThat(lbf.containsSingleton("tb")).isTrue();
+	}
+
 	@Test
 	void factoryBeanDidNotCreatePrototype() {
 		Properties p = new Properties();
@@ -3155,6 +3277,56 @@ class DefaultListableBeanFactoryTests {
 	}
 
 
+	private static class SlowlyInitializingBean implements InitializingBean {
+
+		private final CountDownLatch initStarted;
+
+		volatile boolean initialized;
+
+		SlowlyInitializingBean(CountDownLatch initStarted) {
+			this.initStarted = initStarted;
+		}
+
+		@Override
+		public void afterPropertiesSet() throws Exception {
+			this.initStarted.countDown();
+			Thread.sleep(100);
+			this.initialized = true;
+		}
+	}
+
+
+	private static class SlowlyInitializingBeanConsumer implements InitializingBean {
+
+		@Autowired
+		SlowlyInitializingBean dependency;
+
+		boolean dependencyInitialized;
+
+		SlowlyInitializingBeanConsumer(CountDownLatch initStarted) {
+			try {
+				// Request the dependency while it is still initializing in another thread
+				initStarted.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		@Override
+		public void afterPropertiesSet() {
+			this.dependencyInitialized = this.dependency.initialized;
+		}
+	}
+
+
+	static class AutowiredCircularBean {
+
+		@Autowired
+		AutowiredCircularBean other;
+	}
+
+
 	static class NonPublicEnumHolder {
 
 		final NonPublicEnum nonPublicEnum;
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.cache.Cache;
+
+/**
+ * Benchmarks for {@link BoundedConcurrentMapCache}, compared to the unbounded
+ * {@link ConcurrentMapCache}: with all keys fitting into the cache for reads,
+ * and with a key range exceeding the size limit for mixed reads and writes.
+ *
+ * @author agent (agent@local)
+ */
+@BenchmarkMode(Mode.Throughput)
+@Threads(4)
+public class BoundedConcurrentMapCacheBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"concurrentMap", "bounded", "boundedExpiring"})
+		public String cacheType;
+
+		@Param({"10000"})
+		public int maximumSize;
+
+		public Cache cache;
+
+		@Setup(Level.Iteration)
+		public void setup() {
+			switch (this.cacheType) {
+				case "concurrentMap":
+					this.cache = new ConcurrentMapCache("benchmark");
+					break;
+				case "bounded":
+					this.cache = new BoundedConcurrentMapCache("benchmark", this.maximumSize);
+					break;
+				case "boundedExpiring":
+					this.cache = new BoundedConcurrentMapCache("benchmark", this.maximumSize, -1, null,
+							Duration.ofMinutes(10), Duration.ofMinutes(1), true);
+					break;
+				default:
+					throw new IllegalStateException("Unknown cache type: " + this.cacheType);
+			}
+			for (int i = 0; i < this.maximumSize; i++) {
+				this.cache.put(i, "value" + i);
+			}
+		}
+	}
+
+	@Benchmark
+	public void read(BenchmarkData data, Blackhole bh) {
+		int key = ThreadLocalRandom.current().nextInt(data.maximumSize);
+		bh.consume(data.cache.get(key));
+	}
+
+	@Benchmark
+	public void readWithCallable(BenchmarkData data, Blackhole bh) {
+		int key = ThreadLocalRandom.current().nextInt(data.maximumSize);
+		bh.consume(data.cache.get(key, () -> "value" + key));
+	}
+
+	@Benchmark
+	public void readAndWriteBeyondLimit(BenchmarkData data, Blackhole bh) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int key = random.nextInt(data.maximumSize * 2);
+		if (random.nextInt(4) == 0) {
+			data.cache.put(key, "value" + key);
+		}
+		else {
+			bh.consume(data.cache.get(key));
+		}
+	}
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.ResolvableType;
+
+/**
+ * Benchmark for {@code publishEvent} throughput with a mix of domain events:
+ * {@link ApplicationEvent} subclasses as well as payload events of several
+ * types, each with a dedicated listener, compared to multicasting with an
+ * event type resolved for every event.
+ *
+ * @author agent (agent@local)
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ApplicationEventPublicationBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		public GenericApplicationContext context;
+
+		public ApplicationEventMulticaster multicaster;
+
+		public Object[] payloads;
+
+		public ApplicationEvent[] events;
+
+		private int index;
+
+		@Setup
+		public void setup() {
+			this.context = new GenericApplicationContext();
+			this.context.registerBean(OrderCreatedListener.class);
+			this.context.registerBean(OrderShippedListener.class);
+			this.context.registerBean(OrderCancelledListener.class);
+			this.context.registerBean(CustomerRegisteredListener.class);
+			this.context.registerBean(OrderEventListener.class);
+			this.context.registerBean(StatusEventListener.class);
+			this.context.refresh();
+			this.multicaster = this.context.getBean(
+					AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME, ApplicationEventMulticaster.class);
+			this.payloads = new Object[] {new OrderCreated(), new OrderShipped(), new OrderCancelled(),
+					new CustomerRegistered(), "status", 42L};
+			this.events = new ApplicationEvent[] {new OrderEvent(this), new StatusEvent(this)};
+		}
+
+		@TearDown
+		public void teardown() {
+			this.context.close();
+		}
+
+		public Object nextPayload() {
+			return this.payloads[(this.index++ & Integer.MAX_VALUE) % this.payloads.length];
+		}
+
+		public ApplicationEvent nextEvent() {
+			return this.events[(this.index++ & Integer.MAX_VALUE) % this.events.length];
+		}
+	}
+
+
+	@Benchmark
+	public void publishPayloadEvent(BenchmarkState state) {
+		state.context.publishEvent(state.nextPayload());
+	}
+
+	@Benchmark
+	public void publishApplicationEvent(BenchmarkState state) {
+		state.context.publishEvent(state.nextEvent());
+	}
+
+	@Benchmark
+	public void multicastPayloadEventWithResolvedType(BenchmarkState state, Blackhole bh) {
+		PayloadApplicationEvent<Object> event = new PayloadApplicationEvent<>(state.context, state.nextPayload());
+		ResolvableType eventType = event.getResolvableType();
+		state.multicaster.multicastEvent(event, eventType);
+		bh.consume(eventType);
+	}
+
+	@Benchmark
+	public void multicastApplicationEventWithResolvedType(BenchmarkState state, Blackhole bh) {
+		ApplicationEvent event = state.nextEvent();
+		ResolvableType eventType = ResolvableType.forInstance(event);
+		state.multicaster.multicastEvent(event, eventType);
+		bh.consume(eventType);
+	}
+
+
+	public static class OrderCreated {
+	}
+
+	public static class OrderShipped {
+	}
+
+	public static class OrderCancelled {
+	}
+
+	public static class CustomerRegistered {
+	}
+
+
+	@SuppressWarnings("serial")
+	public static class OrderEvent extends ApplicationEvent {
+
+		public OrderEvent(Object source) {
+			super(source);
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	public static class StatusEvent extends ApplicationEvent {
+
+		public StatusEvent(Object source) {
+			super(source);
+		}
+	}
+
+
+	public static class OrderCreatedListener implements ApplicationListener<PayloadApplicationEvent<OrderCreated>> {
+
+		public int count;
+
+		@Override
+		public void onApplicationEvent(PayloadApplicationEvent<OrderCreated> event) {
+			this.count++;
+		}
+	}
+
+
+	public static class OrderShippedListener implements ApplicationListener<PayloadApplicationEvent<OrderShipped>> {
+
+		public int count;
+
+		@Override
+		public void onApplicationEvent(PayloadApplicationEvent<OrderShipped> event) {
+			this.count++;
+		}
+	}
+
+
+	public static class OrderCancelledListener implements ApplicationListener<PayloadApplicationEvent<OrderCancelled>> {
+
+		public int count;
+
+		@Override
+		public void onApplicationEvent(PayloadApplicationEvent<OrderCancelled> event) {
+			this.count++;
+		}
+	}
+
+
+	public static class CustomerRegisteredListener
+			implements ApplicationListener<PayloadApplicationEvent<CustomerRegistered>> {
+
+		public int count;
+
+		@Override
+		public void onApplicationEvent(PayloadApplicationEvent<CustomerRegistered> event) {
+			this.count++;
+		}
+	}
+
+
+	public static class OrderEventListener implements ApplicationListener<OrderEvent> {
+
+		public int count;
+
+		@Override
+		public void onApplicationEvent(OrderEvent event) {
+			this.count++;
+		}
+	}
+
+
+	public static class StatusEventListener implements ApplicationListener<StatusEvent> {
+
+		public int count;
+
+		@Override
+		public void onApplicationEvent(StatusEvent event) {
+			this.count++;
+		}
+	}
+
+}
@@ -0,0 +1,592 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link org.springframework.cache.Cache} implementation based on the core JDK
+ * {@code java.util.concurrent} package, bounded by a maximum number of entries
+ * and/or a maximum total weight, with optional expiration of entries after a
+ * given time since their creation or their last access.
+ *
+ * <p>Lookups never lock: a cache hit merely marks the entry as referenced.
+ * Once a bound is exceeded, entries are evicted in approximate LRU order,
+ * based on a "second chance" (CLOCK) sweep over the entries in insertion
+ * order: an entry that has been referenced since the last sweep is retained
+ * and moved to the end of the queue, whereas an entry that has not been
+ * referenced is evicted. Expired entries are removed on access as well as
+ * through a periodic clean-up on write.
+ *
+ * <p>Hit, miss, eviction and expiration counts are recorded at all times
+ * and exposed through {@link #getStatistics()}.
+ *
+ * <p>Useful for simple local caching scenarios without a third-party cache
+ * provider, typically in combination with {@link BoundedConcurrentMapCacheManager}.
+ * For advanced local caching needs, consider
+ * {@link org.springframework.cache.caffeine.CaffeineCacheManager}.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see BoundedConcurrentMapCacheManager
+ * @see ConcurrentMapCache
+ */
+public class BoundedConcurrentMapCache extends AbstractValueAdaptingCache {
+
+	private final String name;
+
+	private final long maximumSize;
+
+	private final long maximumWeight;
+
+	@Nullable
+	private final ToIntBiFunction<Object, Object> weigher;
+
+	private final long expireAfterWriteNanos;
+
+	private final long expireAfterAccessNanos;
+
+	private final LongSupplier ticker;
+
+	private final ConcurrentHashMap<Object, Entry> store = new ConcurrentHashMap<>(256);
+
+	/** Queue of entries in eviction order, if bounded: may contain removed entries. */
+	@Nullable
+	private final Queue<Entry> evictionQueue;
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final AtomicLong size = new AtomicLong();
+
+	private final AtomicLong weight = new AtomicLong();
+
+	/** Number of removed entries still held in the eviction queue. */
+	private final AtomicLong removedInQueue = new AtomicLong();
+
+	private volatile long nextCleanUpTime;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	private final LongAdder expirationCount = new LongAdder();
+
+
+	/**
+	 * Create a new BoundedConcurrentMapCache with the specified name,
+	 * bounded by the given maximum number of entries.
+	 * @param name the name of the cache
+	 * @param maximumSize the maximum number of entries in the cache
+	 */
+	public BoundedConcurrentMapCache(String name, long maximumSize) {
+		this(name, maximumSize, -1, null, null, null, true);
+	}
+
+	/**
+	 * Create a new BoundedConcurrentMapCache with the specified name and settings.
+	 * @param name the name of the cache
+	 * @param maximumSize the maximum number of entries in the cache,
+	 * or -1 for no size limit
+	 * @param maximumWeight the maximum total weight of the entries in the cache,
+	 * or -1 for no weight limit
+	 * @param weigher the function determining the weight of an entry, given its
+	 * key and its store value (required if a maximum weight has been specified)
+	 * @param expireAfterWrite the time after which an entry expires since it has
+	 * been added to the cache, or {@code null} for no such expiration
+	 * @param expireAfterAccess the time after which an entry expires since it has
+	 * last been accessed, or {@code null} for no such expiration
+	 * @param allowNullValues whether to allow {@code null} values
+	 * (adapting them to an internal null holder value)
+	 */
+	public BoundedConcurrentMapCache(String name, long maximumSize, long maximumWeight,
+			@Nullable ToIntBiFunction<Object, Object> weigher, @Nullable Duration expireAfterWrite,
+			@Nullable Duration expireAfterAccess, boolean allowNullValues) {
+
+		this(name, maximumSize, maximumWeight, weigher, expireAfterWrite, expireAfterAccess,
+				allowNullValues, System::nanoTime);
+	}
+
+	/**
+	 * Create a new BoundedConcurrentMapCache with the specified name and settings,
+	 * measuring time through the given ticker (in nanoseconds).
+	 */
+	BoundedConcurrentMapCache(String name, long maximumSize, long maximumWeight,
+			@Nullable ToIntBiFunction<Object, Object> weigher, @Nullable Duration expireAfterWrite,
+			@Nullable Duration expireAfterAccess, boolean allowNullValues, LongSupplier ticker) {
+
+		super(allowNullValues);
+		Assert.notNull(name, "Name must not be null");
+		Assert.isTrue(maximumWeight < 0 || weigher != null, "Weigher is required for a maximum weight");
+		Assert.isTrue(expireAfterWrite == null || !expireAfterWrite.isNegative(),
+				"'expireAfterWrite' must not be negative");
+		Assert.isTrue(expireAfterAccess == null || !expireAfterAccess.isNegative(),
+				"'expireAfterAccess' must not be negative");
+		this.name = name;
+		this.maximumSize = maximumSize;
+		this.maximumWeight = maximumWeight;
+		this.weigher = weigher;
+		this.expireAfterWriteNanos = (expireAfterWrite != null ? expireAfterWrite.toNanos() : -1);
+		this.expireAfterAccessNanos = (expireAfterAccess != null ? expireAfterAccess.toNanos() : -1);
+		this.ticker = ticker;
+		this.evictionQueue = (maximumSize >= 0 || maximumWeight >= 0 ? new ConcurrentLinkedQueue<>() : null);
+		this.nextCleanUpTime = (isExpiring() ? ticker.getAsLong() + getCleanUpInterval() : 0);
+	}
+
+
+	@Override
+	public final String getName() {
+		return this.name;
+	}
+
+	/**
+	 * This implementation returns the cache itself, since its internal store
+	 * must not be modified directly.
+	 */
+	@Override
+	public final Object getNativeCache() {
+		return this;
+	}
+
+	/**
+	 * Return the maximum number of entries in this cache, or -1 if not limited.
+	 */
+	public final long getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	/**
+	 * Return the maximum total weight of the entries in this cache,
+	 * or -1 if not limited.
+	 */
+	public final long getMaximumWeight() {
+		return this.maximumWeight;
+	}
+
+	/**
+	 * Return the current number of entries in this cache,
+	 * possibly including expired entries which have not been removed yet.
+	 */
+	public long getSize() {
+		return this.size.get();
+	}
+
+	/**
+	 * Return the current total weight of the entries in this cache,
+	 * possibly including expired entries which have not been removed yet.
+	 */
+	public long getWeight() {
+		return this.weight.get();
+	}
+
+	/**
+	 * Return a snapshot of the statistics recorded for this cache.
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(this.hitCount.sum(), this.missCount.sum(),
+				this.evictionCount.sum(), this.expirationCount.sum());
+	}
+
+
+	@Override
+	@Nullable
+	protected Object lookup(Object key) {
+		Entry entry = this.store.get(key);
+		if (entry != null) {
+			long now = (isExpiring() ? this.ticker.getAsLong() : 0);
+			if (!isExpired(entry, now)) {
+				recordAccess(entry, now);
+				this.hitCount.increment();
+				return entry.value;
+			}
+			if (this.store.remove(key, entry)) {
+				onRemoval(entry, RemovalCause.EXPIRED);
+			}
+		}
+		this.missCount.increment();
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		Object value = lookup(key);
+		if (value != null) {
+			return (T) fromStoreValue(value);
+		}
+		Entry[] replaced = new Entry[1];
+		Entry[] created = new Entry[1];
+		Entry entry = this.store.compute(key, (k, existing) -> {
+			long now = (isExpiring() ? this.ticker.getAsLong() : 0);
+			if (existing != null && !isExpired(existing, now)) {
+				recordAccess(existing, now);
+				return existing;
+			}
+			Object storeValue;
+			try {
+				storeValue = toStoreValue(valueLoader.call());
+			}
+			catch (Throwable ex) {
+				throw new ValueRetrievalException(key, valueLoader, ex);
+			}
+			replaced[0] = existing;
+			created[0] = createEntry(k, storeValue, now);
+			return created[0];
+		});
+		if (created[0] != null) {
+			if (replaced[0] != null) {
+				onRemoval(replaced[0], RemovalCause.EXPIRED);
+			}
+			onAddition(created[0]);
+			afterWrite();
+		}
+		return (T) fromStoreValue(entry.value);
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		Entry entry = createEntry(key, toStoreValue(value), currentTimeIfExpiring());
+		Entry existing = this.store.put(key, entry);
+		if (existing != null) {
+			onRemoval(existing, RemovalCause.REPLACED);
+		}
+		onAddition(entry);
+		afterWrite();
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+		Entry entry = createEntry(key, toStoreValue(value), currentTimeIfExpiring());
+		while (true) {
+			Entry existing = this.store.putIfAbsent(key, entry);
+			if (existing == null) {
+				onAddition(entry);
+				afterWrite();
+				return null;
+			}
+			long now = currentTimeIfExpiring();
+			if (!isExpired(existing, now)) {
+				recordAccess(existing, now);
+				return toValueWrapper(existing.value);
+			}
+			if (this.store.replace(key, existing, entry)) {
+				onRemoval(existing, RemovalCause.EXPIRED);
+				onAddition(entry);
+				afterWrite();
+				return null;
+			}
+		}
+	}
+
+	@Override
+	public void evict(Object key) {
+		Entry existing = this.store.remove(key);
+		if (existing != null) {
+			onRemoval(existing, RemovalCause.EXPLICIT);
+		}
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		Entry existing = this.store.remove(key);
+		if (existing != null) {
+			onRemoval(existing, RemovalCause.EXPLICIT);
+			return !isExpired(existing, currentTimeIfExpiring());
+		}
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		invalidate();
+	}
+
+	@Override
+	public boolean invalidate() {
+		boolean notEmpty = false;
+		for (Entry entry : this.store.values()) {
+			if (this.store.remove(entry.key, entry)) {
+				onRemoval(entry, RemovalCause.EXPLICIT);
+				notEmpty = true;
+			}
+		}
+		return notEmpty;
+	}
+
+
+	private Entry createEntry(Object key, Object storeValue, long now) {
+		int weight = 0;
+		if (this.weigher != null) {
+			weight = this.weigher.applyAsInt(key, storeValue);
+			Assert.state(weight >= 0, "Weigher must not return a negative weight");
+		}
+		return new Entry(key, storeValue, weight, now);
+	}
+
+	private boolean isExpiring() {
+		return (this.expireAfterWriteNanos >= 0 || this.expireAfterAccessNanos >= 0);
+	}
+
+	private long currentTimeIfExpiring() {
+		return (isExpiring() ? this.ticker.getAsLong() : 0);
+	}
+
+	private boolean isExpired(Entry entry, long now) {
+		return ((this.expireAfterWriteNanos >= 0 && now - entry.writeTime >= this.expireAfterWriteNanos) ||
+				(this.expireAfterAccessNanos >= 0 && now - entry.accessTime >= this.expireAfterAccessNanos));
+	}
+
+	private long getCleanUpInterval() {
+		long interval = Long.MAX_VALUE;
+		if (this.expireAfterWriteNanos >= 0) {
+			interval = this.expireAfterWriteNanos;
+		}
+		if (this.expireAfterAccessNanos >= 0) {
+			interval = Math.min(interval, this.expireAfterAccessNanos);
+		}
+		// Clean up at least once per second, at most once per millisecond
+		return Math.max(Math.min(interval, 1_000_000_000L), 1_000_000L);
+	}
+
+	private void recordAccess(Entry entry, long now) {
+		if (!entry.referenced) {
+			entry.referenced = true;
+		}
+		if (this.expireAfterAccessNanos >= 0) {
+			entry.accessTime = now;
+		}
+	}
+
+	private void onAddition(Entry entry) {
+		this.size.incrementAndGet();
+		this.weight.addAndGet(entry.weight);
+		if (this.evictionQueue != null) {
+			this.evictionQueue.add(entry);
+		}
+	}
+
+	private void onRemoval(Entry entry, RemovalCause cause) {
+		entry.removed = true;
+		this.size.decrementAndGet();
+		this.weight.addAndGet(-entry.weight);
+		if (this.evictionQueue != null) {
+			this.removedInQueue.incrementAndGet();
+		}
+		if (cause == RemovalCause.EVICTED) {
+			this.evictionCount.increment();
+		}
+		else if (cause == RemovalCause.EXPIRED) {
+			this.expirationCount.increment();
+		}
+	}
+
+	private boolean isOverflowing() {
+		return ((this.maximumSize >= 0 && this.size.get() > this.maximumSize) ||
+				(this.maximumWeight >= 0 && this.weight.get() > this.maximumWeight));
+	}
+
+	/**
+	 * Perform maintenance after an entry has been added: evicting entries
+	 * if a bound is exceeded, and periodically removing expired entries as
+	 * well as removed entries from the eviction queue.
+	 */
+	private void afterWrite() {
+		if (isOverflowing()) {
+			this.evictionLock.lock();
+			try {
+				evict();
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+		boolean cleanUpExpired = (isExpiring() && this.ticker.getAsLong() - this.nextCleanUpTime >= 0);
+		boolean cleanUpQueue = (this.removedInQueue.get() > this.size.get());
+		if ((cleanUpExpired || cleanUpQueue) && this.evictionLock.tryLock()) {
+			try {
+				if (cleanUpExpired) {
+					removeExpired();
+				}
+				if (cleanUpQueue && this.evictionQueue != null) {
+					this.evictionQueue.removeIf(entry -> entry.removed);
+					this.removedInQueue.set(0);
+				}
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Evict entries until the cache is within its bounds again.
+	 * To be called with the eviction lock held.
+	 */
+	private void evict() {
+		Queue<Entry> queue = this.evictionQueue;
+		Assert.state(queue != null, "No eviction queue");
+		long now = currentTimeIfExpiring();
+		Entry entry;
+		while (isOverflowing() && (entry = queue.poll()) != null) {
+			if (entry.removed) {
+				this.removedInQueue.decrementAndGet();
+			}
+			else if (isExpired(entry, now)) {
+				if (this.store.remove(entry.key, entry)) {
+					onRemoval(entry, RemovalCause.EXPIRED);
+					this.removedInQueue.decrementAndGet();
+				}
+			}
+			else if (entry.referenced) {
+				// Second chance: retain recently used entry until the next sweep
+				entry.referenced = false;
+				queue.add(entry);
+			}
+			else if (this.store.remove(entry.key, entry)) {
+				onRemoval(entry, RemovalCause.EVICTED);
+				this.removedInQueue.decrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Remove all expired entries from the cache.
+	 * To be called with the eviction lock held.
+	 */
+	private void removeExpired() {
+		long now = this.ticker.getAsLong();
+		this.nextCleanUpTime = now + getCleanUpInterval();
+		for (Entry entry : this.store.values()) {
+			if (isExpired(entry, now) && this.store.remove(entry.key, entry)) {
+				onRemoval(entry, RemovalCause.EXPIRED);
+			}
+		}
+	}
+
+
+	private enum RemovalCause {
+
+		EXPLICIT, REPLACED, EXPIRED, EVICTED
+	}
+
+
+	private static final class Entry {
+
+		final Object key;
+
+		final Object value;
+
+		final int weight;
+
+		final long writeTime;
+
+		volatile long accessTime;
+
+		volatile boolean referenced;
+
+		volatile boolean removed;
+
+		Entry(Object key, Object value, int weight, long now) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+			this.writeTime = now;
+			this.accessTime = now;
+		}
+	}
+
+
+	/**
+	 * Snapshot of the statistics recorded for a {@link BoundedConcurrentMapCache}.
+	 */
+	public static final class Statistics {
+
+		private final long hitCount;
+
+		private final long missCount;
+
+		private final long evictionCount;
+
+		private final long expirationCount;
+
+		Statistics(long hitCount, long missCount, long evictionCount, long expirationCount) {
+			this.hitCount = hitCount;
+			this.missCount = missCount;
+			this.evictionCount = evictionCount;
+			this.expirationCount = expirationCount;
+		}
+
+		/**
+		 * Return the number of lookups which found a (non-expired) entry.
+		 */
+		public long getHitCount() {
+			return this.hitCount;
+		}
+
+		/**
+		 * Return the number of lookups which did not find a (non-expired) entry.
+		 */
+		public long getMissCount() {
+			return this.missCount;
+		}
+
+		/**
+		 * Return the ratio of hits to lookups, or 1.0 if there were no lookups.
+		 */
+		public double getHitRate() {
+			long requestCount = this.hitCount + this.missCount;
+			return (requestCount == 0 ? 1.0 : (double) this.hitCount / requestCount);
+		}
+
+		/**
+		 * Return the number of entries evicted because of a size or weight limit.
+		 */
+		public long getEvictionCount() {
+			return this.evictionCount;
+		}
+
+		/**
+		 * Return the number of entries removed because of their expiration.
+		 */
+		public long getExpirationCount() {
+			return this.expirationCount;
+		}
+
+		@Override
+		public String toString() {
+			return "hits=" + this.hitCount + ", misses=" + this.missCount +
+					", evictions=" + this.evictionCount + ", expirations=" + this.expirationCount;
+		}
+	}
+
+}
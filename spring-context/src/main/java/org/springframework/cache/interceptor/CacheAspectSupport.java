@@ -18,13 +18,18 @@ package org.springframework.cache.interceptor;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
@@ -48,6 +53,7 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.ObjectUtils;
@@ -89,6 +95,12 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 	private final CacheOperationExpressionEvaluator evaluator = new CacheOperationExpressionEvaluator();
 
+	/** In-flight invocations for coalesced cache misses and refreshes, keyed by caches and cache keys. */
+	private final Map<Object, InFlightInvocation> inFlightInvocations = new ConcurrentHashMap<>(64);
+
+	/** Load times of values computed through this aspect, for refresh-ahead purposes. */
+	private final Map<Object, Long> loadTimes = new ConcurrentReferenceHashMap<>(256);
+
 	@Nullable
 	private CacheOperationSource cacheOperationSource;
 
@@ -100,6 +112,13 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 	@Nullable
 	private BeanFactory beanFactory;
 
+	private boolean coalesceCacheMisses = false;
+
+	private long refreshAheadNanos = -1;
+
+	@Nullable
+	private Executor refreshExecutor;
+
 	private boolean initialized = false;
 
 
@@ -204,11 +223,78 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		this.beanFactory = beanFactory;
 	}
 
+	/**
+	 * Specify whether to coalesce concurrent cache misses for the same cache key
+	 * onto a single invocation of the underlying method, with all other callers
+	 * waiting for its result (or its exception) instead of invoking the method
+	 * themselves.
+	 * <p>This applies to any {@link Cache} implementation, for methods with
+	 * {@link CacheableOperation cacheable} operations only (no puts or evictions)
+	 * which are not marked as {@code sync} (with the latter delegating to
+	 * {@link Cache#get(Object, java.util.concurrent.Callable)} instead).
+	 * <p>Default is "false". Coalescing is implicitly active when a
+	 * {@link #setRefreshAheadTime refresh-ahead time} has been specified.
+	 * @since 5.3.9
+	 */
+	public void setCoalesceCacheMisses(boolean coalesceCacheMisses) {
+		this.coalesceCacheMisses = coalesceCacheMisses;
+	}
+
+	/**
+	 * Return whether concurrent cache misses for the same cache key get
+	 * coalesced onto a single invocation.
+	 * @since 5.3.9
+	 */
+	public boolean isCoalesceCacheMisses() {
+		return this.coalesceCacheMisses;
+	}
+
+	/**
+	 * Specify the time after which a value computed through this aspect gets
+	 * refreshed in the background on its next cache hit, with the hit itself
+	 * still returning the current value. Typically set somewhat shorter than
+	 * the time-to-live of the cache, so that hot entries get recomputed ahead
+	 * of their expiration rather than after a miss.
+	 * <p>Refreshes are coalesced with concurrent cache misses for the same key,
+	 * following the same rules as {@link #setCoalesceCacheMisses}. Load times
+	 * are tracked in a soft-referenced map within this aspect, so a value may
+	 * occasionally not get refreshed ahead of time under memory pressure.
+	 * <p>Requires a {@link #setRefreshExecutor refresh executor} to be specified
+	 * as well. Note that a refresh proceeds with the method invocation of the
+	 * cache hit that triggered it, including its arguments, but on a thread of
+	 * the refresh executor: any thread-bound context of the original caller
+	 * (e.g. transaction synchronization, security context, request attributes)
+	 * is not available to the method and to any further interceptors then.
+	 * Only use refresh-ahead for methods that do not depend on such context.
+	 * <p>Default is none, i.e. no refresh-ahead.
+	 * @since 5.3.9
+	 * @see #setRefreshExecutor
+	 */
+	public void setRefreshAheadTime(@Nullable Duration refreshAheadTime) {
+		this.refreshAheadNanos = (refreshAheadTime != null ? refreshAheadTime.toNanos() : -1);
+	}
+
+	/**
+	 * Specify the executor to perform refresh-ahead invocations with,
+	 * typically a thread pool with a bounded number of threads and a
+	 * bounded queue: refreshes rejected by the executor are simply skipped,
+	 * with the cached value getting recomputed on a later cache hit or miss.
+	 * <p>There is no default: an executor is required for refresh-ahead.
+	 * @since 5.3.9
+	 * @see #setRefreshAheadTime
+	 */
+	public void setRefreshExecutor(Executor refreshExecutor) {
+		Assert.notNull(refreshExecutor, "Executor must not be null");
+		this.refreshExecutor = refreshExecutor;
+	}
+
 
 	@Override
 	public void afterPropertiesSet() {
 		Assert.state(getCacheOperationSource() != null, "The 'cacheOperationSources' property is required: " +
 				"If there are no cacheable methods, then don't use a cache aspect.");
+		Assert.state(this.refreshAheadNanos < 0 || this.refreshExecutor != null,
+				"The 'refreshExecutor' property is required when a refresh-ahead time has been specified");
 	}
 
 	@Override
@@ -408,6 +494,18 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 					CacheOperationExpressionEvaluator.NO_RESULT, cachePutRequests);
 		}
 
+		// Coalesce cache misses and refreshes for pure @Cacheable methods, if enabled
+		if ((this.coalesceCacheMisses || this.refreshAheadNanos >= 0) && isCacheableOnly(contexts)) {
+			if (cacheHit == null) {
+				if (!cachePutRequests.isEmpty()) {
+					return executeCoalesced(invoker, method, contexts, cachePutRequests);
+				}
+			}
+			else if (this.refreshAheadNanos >= 0) {
+				refreshIfNecessary(invoker, contexts);
+			}
+		}
+
 		Object cacheValue;
 		Object returnValue;
 
@@ -452,6 +550,157 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return result;
 	}
 
+	private boolean isCacheableOnly(CacheOperationContexts contexts) {
+		return (contexts.get(CachePutOperation.class).isEmpty() && contexts.get(CacheEvictOperation.class).isEmpty());
+	}
+
+	/**
+	 * Invoke the underlying method for a cache miss unless an invocation for the
+	 * same caches and keys is in flight already, in which case its result is awaited.
+	 */
+	@Nullable
+	private Object executeCoalesced(CacheOperationInvoker invoker, Method method,
+			CacheOperationContexts contexts, List<CachePutRequest> cachePutRequests) {
+
+		Object invocationKey = createInvocationKey(cachePutRequests);
+		InFlightInvocation invocation = new InFlightInvocation(Thread.currentThread());
+		InFlightInvocation existingInvocation = this.inFlightInvocations.putIfAbsent(invocationKey, invocation);
+		if (existingInvocation != null) {
+			if (existingInvocation.owner == Thread.currentThread()) {
+				// Re-entrant call for the same key: awaiting our own invocation would never return
+				Object returnValue = invokeOperation(invoker);
+				Object cacheValue = unwrapReturnValue(returnValue);
+				for (CachePutRequest cachePutRequest : cachePutRequests) {
+					cachePutRequest.apply(cacheValue);
+				}
+				return returnValue;
+			}
+			if (logger.isTraceEnabled()) {
+				logger.trace("Awaiting in-flight invocation for cache miss on method " + method);
+			}
+			return wrapCacheValue(method, awaitInvocation(existingInvocation));
+		}
+
+		try {
+			// Check again: a previous invocation might have completed in the meantime
+			Cache.ValueWrapper cacheHit = findCachedItem(contexts.get(CacheableOperation.class));
+			Object cacheValue;
+			Object returnValue;
+			if (cacheHit != null) {
+				cacheValue = cacheHit.get();
+				returnValue = wrapCacheValue(method, cacheValue);
+			}
+			else {
+				returnValue = invokeOperation(invoker);
+				cacheValue = unwrapReturnValue(returnValue);
+				for (CachePutRequest cachePutRequest : cachePutRequests) {
+					cachePutRequest.apply(cacheValue);
+				}
+				recordLoadTime(invocationKey);
+			}
+			invocation.complete(cacheValue);
+			return returnValue;
+		}
+		catch (Throwable ex) {
+			invocation.completeExceptionally(ex);
+			throw ex;
+		}
+		finally {
+			this.inFlightInvocations.remove(invocationKey, invocation);
+		}
+	}
+
+	/**
+	 * Trigger an asynchronous refresh of the cached value if it has been
+	 * computed longer ago than the refresh-ahead time.
+	 */
+	private void refreshIfNecessary(CacheOperationInvoker invoker, CacheOperationContexts contexts) {
+		List<CachePutRequest> cachePutRequests = new ArrayList<>();
+		collectPutRequests(contexts.get(CacheableOperation.class),
+				CacheOperationExpressionEvaluator.NO_RESULT, cachePutRequests);
+		if (cachePutRequests.isEmpty()) {
+			return;
+		}
+		Executor executor = this.refreshExecutor;
+		if (executor == null) {
+			// No refresh-ahead without an explicitly specified executor
+			return;
+		}
+		Object invocationKey = createInvocationKey(cachePutRequests);
+		Long loadTime = this.loadTimes.get(invocationKey);
+		if (loadTime == null || System.nanoTime() - loadTime < this.refreshAheadNanos) {
+			return;
+		}
+		InFlightInvocation invocation = new InFlightInvocation(null);
+		if (this.inFlightInvocations.putIfAbsent(invocationKey, invocation) != null) {
+			// Refresh or coalesced cache miss in progress already
+			return;
+		}
+
+		try {
+			executor.execute(() -> {
+				try {
+					Object cacheValue = unwrapReturnValue(invokeOperation(invoker));
+					for (CachePutRequest cachePutRequest : cachePutRequests) {
+						cachePutRequest.apply(cacheValue);
+					}
+					invocation.complete(cacheValue);
+				}
+				catch (Throwable ex) {
+					invocation.completeExceptionally(ex);
+					if (logger.isDebugEnabled()) {
+						logger.debug("Failed to refresh cached value for " + cachePutRequests, ex);
+					}
+				}
+				finally {
+					// Also on failure, in order to retry after another refresh-ahead period only
+					recordLoadTime(invocationKey);
+					this.inFlightInvocations.remove(invocationKey, invocation);
+				}
+			});
+		}
+		catch (RejectedExecutionException ex) {
+			this.inFlightInvocations.remove(invocationKey, invocation);
+			invocation.completeExceptionally(ex);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Refresh executor rejected refresh of cached value for " + cachePutRequests, ex);
+			}
+		}
+	}
+
+	private Object createInvocationKey(List<CachePutRequest> cachePutRequests) {
+		List<Object> invocationKey = new ArrayList<>(cachePutRequests.size() * 2);
+		for (CachePutRequest cachePutRequest : cachePutRequests) {
+			invocationKey.addAll(cachePutRequest.context.getCaches());
+			invocationKey.add(cachePutRequest.key);
+		}
+		return invocationKey;
+	}
+
+	private void recordLoadTime(Object invocationKey) {
+		if (this.refreshAheadNanos >= 0) {
+			this.loadTimes.put(invocationKey, System.nanoTime());
+		}
+	}
+
+	@Nullable
+	private Object awaitInvocation(CompletableFuture<Object> invocation) {
+		try {
+			return invocation.join();
+		}
+		catch (CompletionException ex) {
+			// Propagate ThrowableWrapper from the invoker as-is
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw ex;
+		}
+	}
+
 	@Nullable
 	private Object wrapCacheValue(Method method, @Nullable Object cacheValue) {
 		if (method.getReturnType() == Optional.class &&
@@ -831,6 +1080,11 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			this.key = key;
 		}
 
+		@Override
+		public String toString() {
+			return "cache key [" + this.key + "] in cache(s) " + this.context.getCacheNames();
+		}
+
 		public void apply(@Nullable Object result) {
 			if (this.context.canPutToCache(result)) {
 				for (Cache cache : this.context.getCaches()) {
@@ -894,4 +1148,20 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 	}
 
+
+	/**
+	 * An in-flight invocation for a coalesced cache miss or a refresh,
+	 * along with the thread performing a cache miss invocation.
+	 */
+	@SuppressWarnings("serial")
+	private static class InFlightInvocation extends CompletableFuture<Object> {
+
+		@Nullable
+		final Thread owner;
+
+		InFlightInvocation(@Nullable Thread owner) {
+			this.owner = owner;
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,10 +19,15 @@ package org.springframework.context.annotation;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -31,11 +36,16 @@ import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.annotation.Lookup;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.index.CandidateComponentsIndex;
 import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.context.index.CandidateComponentsSnapshot;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.MergedAnnotation;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.EnvironmentCapable;
 import org.springframework.core.env.StandardEnvironment;
@@ -44,6 +54,8 @@ import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReader;
@@ -69,6 +81,15 @@ import org.springframework.util.ClassUtils;
  * supported: if any other include filter is specified, the index is ignored and
  * classpath scanning is used instead.
  *
+ * <p>Without an index, the stereotypes found by classpath scanning can be recorded
+ * in a {@link CandidateComponentsSnapshot} for the same kind of include filters,
+ * if a snapshot location has been specified: subsequent starts then only read the
+ * metadata of the candidate classes, as long as the scanned packages are unchanged.
+ *
+ * <p>Class files can optionally be read by several threads in parallel, see
+ * {@link #setScanParallelism}. Filters and conditions are always evaluated in
+ * the calling thread, in the order of the class files on the classpath.
+ *
  * <p>This implementation is based on Spring's
  * {@link org.springframework.core.type.classreading.MetadataReader MetadataReader}
  * facility, backed by an ASM {@link org.springframework.asm.ClassReader ClassReader}.
@@ -83,16 +104,28 @@ import org.springframework.util.ClassUtils;
  * @see org.springframework.core.type.AnnotationMetadata
  * @see ScannedGenericBeanDefinition
  * @see CandidateComponentsIndex
+ * @see CandidateComponentsSnapshot
  */
 public class ClassPathScanningCandidateComponentProvider implements EnvironmentCapable, ResourceLoaderAware {
 	// Candidate：候选人
 	static final String DEFAULT_RESOURCE_PATTERN = "**/*.class";
 
+	/**
+	 * System property that specifies the default number of threads to read
+	 * class files with during scanning, e.g. {@code "4"}.
+	 * <p>The default is 1, reading each class file in the calling thread.
+	 * @since 5.3.9
+	 * @see #setScanParallelism
+	 */
+	public static final String SCAN_PARALLELISM_PROPERTY_NAME = "spring.context.scan.parallelism";
+
 
 	protected final Log logger = LogFactory.getLog(getClass());
 
 	private String resourcePattern = DEFAULT_RESOURCE_PATTERN;
 
+	private int scanParallelism = getDefaultScanParallelism();
+
 	private final List<TypeFilter> includeFilters = new ArrayList<>();
 
 	private final List<TypeFilter> excludeFilters = new ArrayList<>();
@@ -112,6 +145,9 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Nullable
 	private CandidateComponentsIndex componentsIndex;
 
+	@Nullable
+	private CandidateComponentsSnapshot componentsSnapshot;
+
 
 	/**
 	 * Protected constructor for flexible subclass initialization.
@@ -161,6 +197,24 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		this.resourcePattern = resourcePattern;
 	}
 
+	/**
+	 * Set the number of threads to read the metadata of scanned class files with.
+	 * <p>Default is 1, reading each class file in the calling thread, unless
+	 * specified otherwise through the {@value #SCAN_PARALLELISM_PROPERTY_NAME}
+	 * property. A higher value reads the class files of each base package in a
+	 * {@link ForkJoinPool} of the given parallelism, which speeds up scanning of
+	 * large packages. Filters and conditions are still evaluated in the calling
+	 * thread, in classpath order, so the candidates are found in the same order.
+	 * <p>The {@link #setMetadataReaderFactory MetadataReaderFactory} needs to be
+	 * thread-safe for this purpose, as the default {@link CachingMetadataReaderFactory} is.
+	 * @since 5.3.9
+	 * @see #findCandidateComponents(String)
+	 */
+	public void setScanParallelism(int scanParallelism) {
+		Assert.isTrue(scanParallelism > 0, "'scanParallelism' must be positive");
+		this.scanParallelism = scanParallelism;
+	}
+
 	/**
 	 * Add an include type filter to the <i>end</i> of the inclusion list.
 	 */
@@ -264,6 +318,7 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		this.resourcePatternResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
 		this.metadataReaderFactory = new CachingMetadataReaderFactory(resourceLoader);
 		this.componentsIndex = CandidateComponentsIndexLoader.loadIndex(this.resourcePatternResolver.getClassLoader());
+		this.componentsSnapshot = CandidateComponentsSnapshot.getSnapshot();
 	}
 
 	/**
@@ -308,12 +363,37 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	 * @return a corresponding Set of autodetected bean definitions
 	 */
 	public Set<BeanDefinition> findCandidateComponents(String basePackage) {
+		StartupStep findCandidates = getApplicationStartup().start("spring.context.candidate-components.find")
+				.tag("basePackage", basePackage);
+		Set<BeanDefinition> candidates;
 		if (this.componentsIndex != null && indexSupportsIncludeFilters()) {
-			return addCandidateComponentsFromIndex(this.componentsIndex, basePackage);
+			findCandidates.tag("source", "index");
+			candidates = addCandidateComponentsFromIndex(this.componentsIndex, basePackage);
+		}
+		else if (this.componentsSnapshot != null && indexSupportsIncludeFilters()) {
+			candidates = findCandidateComponentsWithSnapshot(this.componentsSnapshot, basePackage, findCandidates);
 		}
 		else {
-			return scanCandidateComponents(basePackage);
+			findCandidates.tag("source", "classpath");
+			candidates = scanCandidateComponents(basePackage, null);
+		}
+		findCandidates.tag("candidates", String.valueOf(candidates.size())).end();
+		return candidates;
+	}
+
+	/**
+	 * Return the {@link ApplicationStartup} to record scanning steps with,
+	 * as exposed by the {@link #getRegistry() registry}, if any.
+	 */
+	private ApplicationStartup getApplicationStartup() {
+		BeanDefinitionRegistry registry = getRegistry();
+		if (registry instanceof ConfigurableApplicationContext) {
+			return ((ConfigurableApplicationContext) registry).getApplicationStartup();
+		}
+		if (registry instanceof ConfigurableBeanFactory) {
+			return ((ConfigurableBeanFactory) registry).getApplicationStartup();
 		}
+		return ApplicationStartup.DEFAULT;
 	}
 
 	/**
@@ -412,21 +492,127 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return candidates;
 	}
 
-	private Set<BeanDefinition> scanCandidateComponents(String basePackage) {
+	private Set<BeanDefinition> findCandidateComponentsWithSnapshot(
+			CandidateComponentsSnapshot snapshot, String basePackage, StartupStep findCandidates) {
+
+		String checksum;
+		try {
+			checksum = computeSnapshotChecksum(basePackage);
+		}
+		catch (IOException ex) {
+			throw new BeanDefinitionStoreException("I/O failure during classpath scanning", ex);
+		}
+		if (checksum == null) {
+			findCandidates.tag("source", "classpath");
+			return scanCandidateComponents(basePackage, null);
+		}
+		CandidateComponentsIndex index = snapshot.getIndex(basePackage, checksum);
+		if (index != null) {
+			findCandidates.tag("source", "snapshot");
+			return addCandidateComponentsFromIndex(index, basePackage);
+		}
+		findCandidates.tag("source", "classpath");
+		Map<String, Set<String>> stereotypes = new LinkedHashMap<>();
+		Set<BeanDefinition> candidates = scanCandidateComponents(basePackage, stereotypes);
+		snapshot.record(basePackage, checksum, stereotypes);
+		return candidates;
+	}
+
+	/**
+	 * Compute the checksum of the given base package for the snapshot.
+	 * @return the checksum, or {@code null} if not supported for the package
+	 */
+	@Nullable
+	private String computeSnapshotChecksum(String basePackage) throws IOException {
+		String packagePath = resolveBasePackage(basePackage);
+		if (packagePath.indexOf('*') != -1 || packagePath.indexOf('?') != -1) {
+			return null;
+		}
+		Resource[] packageRoots = getResourcePatternResolver().getResources(
+				ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX + packagePath + '/');
+		return CandidateComponentsSnapshot.computeChecksum(packageRoots, this.resourcePattern);
+	}
+
+	/**
+	 * Determine the stereotypes of the given class, as the
+	 * {@code spring-context-indexer} would for {@code META-INF/spring.components}:
+	 * annotations that are meta-annotated with {@link Indexed}, {@code javax}
+	 * annotations, and types in the class hierarchy annotated with {@link Indexed}.
+	 * @param metadataReader the ASM ClassReader for the class
+	 * @param stereotypes the stereotypes to add to
+	 */
+	private void collectStereotypes(MetadataReader metadataReader, Set<String> stereotypes) {
+		for (MergedAnnotation<Annotation> annotation : metadataReader.getAnnotationMetadata().getAnnotations()) {
+			Class<Annotation> annotationType = annotation.getType();
+			if (AnnotationUtils.isAnnotationDeclaredLocally(Indexed.class, annotationType) ||
+					(annotation.isDirectlyPresent() && annotationType.getName().startsWith("javax."))) {
+				stereotypes.add(annotationType.getName());
+			}
+		}
+		collectIndexedTypes(metadataReader, stereotypes, new HashSet<>());
+	}
+
+	private void collectIndexedTypes(MetadataReader metadataReader, Set<String> stereotypes, Set<String> seen) {
+		String className = metadataReader.getClassMetadata().getClassName();
+		if (!seen.add(className)) {
+			return;
+		}
+		if (metadataReader.getAnnotationMetadata().hasAnnotation(Indexed.class.getName())) {
+			stereotypes.add(className);
+		}
+		List<String> superTypes = new ArrayList<>();
+		if (metadataReader.getClassMetadata().hasSuperClass()) {
+			superTypes.add(metadataReader.getClassMetadata().getSuperClassName());
+		}
+		superTypes.addAll(Arrays.asList(metadataReader.getClassMetadata().getInterfaceNames()));
+		for (String superType : superTypes) {
+			if (superType != null && !superType.startsWith("java.")) {
+				try {
+					collectIndexedTypes(getMetadataReaderFactory().getMetadataReader(superType), stereotypes, seen);
+				}
+				catch (IOException ex) {
+					// Type not resolvable: no stereotypes to collect
+				}
+			}
+		}
+	}
+
+	private Set<BeanDefinition> scanCandidateComponents(
+			String basePackage, @Nullable Map<String, Set<String>> stereotypesToRecord) {
+
 		Set<BeanDefinition> candidates = new LinkedHashSet<>();
 		try {
 			String packageSearchPath = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX +
 					resolveBasePackage(basePackage) + '/' + this.resourcePattern;
 			Resource[] resources = getResourcePatternResolver().getResources(packageSearchPath);
+			Object[] readResults = (this.scanParallelism > 1 && resources.length > 1 ?
+					readMetadataInParallel(resources) : null);
 			boolean traceEnabled = logger.isTraceEnabled();
 			boolean debugEnabled = logger.isDebugEnabled();
-			for (Resource resource : resources) {
+			for (int i = 0; i < resources.length; i++) {
+				Resource resource = resources[i];
 				if (traceEnabled) {
 					logger.trace("Scanning " + resource);
 				}
-				if (resource.isReadable()) {
+				if (readResults != null ? readResults[i] != null : resource.isReadable()) {
 					try {
-						MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
+						MetadataReader metadataReader;
+						if (readResults != null) {
+							if (readResults[i] instanceof Throwable) {
+								throw (Throwable) readResults[i];
+							}
+							metadataReader = (MetadataReader) readResults[i];
+						}
+						else {
+							metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
+						}
+						if (stereotypesToRecord != null) {
+							Set<String> stereotypes = new LinkedHashSet<>();
+							collectStereotypes(metadataReader, stereotypes);
+							if (!stereotypes.isEmpty()) {
+								stereotypesToRecord.put(metadataReader.getClassMetadata().getClassName(), stereotypes);
+							}
+						}
 						if (isCandidateComponent(metadataReader)) {
 							ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
 							sbd.setSource(resource);
@@ -466,6 +652,25 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return candidates;
 	}
 
+	/**
+	 * Read the metadata of the given resources in a {@link ForkJoinPool}
+	 * with the configured {@link #setScanParallelism scan parallelism}.
+	 * @return the {@link MetadataReader} per resource, {@code null} if the
+	 * resource is not readable, or the {@link Throwable} thrown when reading it
+	 */
+	private Object[] readMetadataInParallel(Resource[] resources) {
+		Object[] readResults = new Object[resources.length];
+		ForkJoinPool pool = new ForkJoinPool(this.scanParallelism);
+		try {
+			pool.invoke(new MetadataReadingTask(
+					resources, getMetadataReaderFactory(), readResults, 0, resources.length));
+		}
+		finally {
+			pool.shutdown();
+		}
+		return readResults;
+	}
+
 
 	/**
 	 * Resolve the specified base package into a pattern specification for
@@ -539,4 +744,72 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		}
 	}
 
+
+	private static int getDefaultScanParallelism() {
+		String parallelism = SpringProperties.getProperty(SCAN_PARALLELISM_PROPERTY_NAME);
+		if (parallelism != null) {
+			try {
+				return Math.max(Integer.parseInt(parallelism.trim()), 1);
+			}
+			catch (NumberFormatException ex) {
+				// Invalid value -> scan in the calling thread.
+			}
+		}
+		return 1;
+	}
+
+
+	/**
+	 * Task reading the metadata of a range of scanned resources, split in
+	 * halves until reaching the threshold, with the result stored at the
+	 * index of each resource.
+	 */
+	@SuppressWarnings("serial")
+	private static class MetadataReadingTask extends RecursiveAction {
+
+		private static final int THRESHOLD = 16;
+
+		private final Resource[] resources;
+
+		private final MetadataReaderFactory metadataReaderFactory;
+
+		private final Object[] readResults;
+
+		private final int from;
+
+		private final int to;
+
+		MetadataReadingTask(Resource[] resources, MetadataReaderFactory metadataReaderFactory,
+				Object[] readResults, int from, int to) {
+
+			this.resources = resources;
+			this.metadataReaderFactory = metadataReaderFactory;
+			this.readResults = readResults;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from > THRESHOLD) {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new MetadataReadingTask(
+								this.resources, this.metadataReaderFactory, this.readResults, this.from, middle),
+						new MetadataReadingTask(
+								this.resources, this.metadataReaderFactory, this.readResults, middle, this.to));
+				return;
+			}
+			for (int i = this.from; i < this.to; i++) {
+				Resource resource = this.resources[i];
+				try {
+					this.readResults[i] = (resource.isReadable() ?
+							this.metadataReaderFactory.getMetadataReader(resource) : null);
+				}
+				catch (Throwable ex) {
+					this.readResults[i] = ex;
+				}
+			}
+		}
+	}
+
 }
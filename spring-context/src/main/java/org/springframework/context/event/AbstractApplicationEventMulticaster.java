@@ -16,8 +16,12 @@
 
 package org.springframework.context.event;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -34,12 +38,15 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
 import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Abstract implementation of the {@link ApplicationEventMulticaster} interface,
@@ -68,6 +75,11 @@ public abstract class AbstractApplicationEventMulticaster
 
 	final Map<ListenerCacheKey, CachedListenerRetriever> retrieverCache = new ConcurrentHashMap<>(64);
 
+	private volatile ListenerIndex listenerIndex = new ListenerIndex();
+
+	/** Whether the index applies, i.e. listener retrieval by type has not been overridden. */
+	private final boolean listenerIndexSupported = isDefaultListenerRetrieval(getClass());
+
 	@Nullable
 	private ClassLoader beanClassLoader;
 
@@ -110,7 +122,7 @@ public abstract class AbstractApplicationEventMulticaster
 				this.defaultRetriever.applicationListeners.remove(singletonTarget);
 			}
 			this.defaultRetriever.applicationListeners.add(listener);
-			this.retrieverCache.clear();
+			clearRetrieverCache();
 		}
 	}
 
@@ -119,7 +131,7 @@ public abstract class AbstractApplicationEventMulticaster
 	public void addApplicationListenerBean(String listenerBeanName) {
 		synchronized (this.defaultRetriever) {
 			this.defaultRetriever.applicationListenerBeans.add(listenerBeanName);
-			this.retrieverCache.clear();
+			clearRetrieverCache();
 		}
 	}
 
@@ -127,7 +139,7 @@ public abstract class AbstractApplicationEventMulticaster
 	public void removeApplicationListener(ApplicationListener<?> listener) {
 		synchronized (this.defaultRetriever) {
 			this.defaultRetriever.applicationListeners.remove(listener);
-			this.retrieverCache.clear();
+			clearRetrieverCache();
 		}
 	}
 
@@ -135,7 +147,7 @@ public abstract class AbstractApplicationEventMulticaster
 	public void removeApplicationListenerBean(String listenerBeanName) {
 		synchronized (this.defaultRetriever) {
 			this.defaultRetriever.applicationListenerBeans.remove(listenerBeanName);
-			this.retrieverCache.clear();
+			clearRetrieverCache();
 		}
 	}
 
@@ -143,7 +155,7 @@ public abstract class AbstractApplicationEventMulticaster
 	public void removeApplicationListeners(Predicate<ApplicationListener<?>> predicate) {
 		synchronized (this.defaultRetriever) {
 			this.defaultRetriever.applicationListeners.removeIf(predicate);
-			this.retrieverCache.clear();
+			clearRetrieverCache();
 		}
 	}
 
@@ -151,7 +163,7 @@ public abstract class AbstractApplicationEventMulticaster
 	public void removeApplicationListenerBeans(Predicate<String> predicate) {
 		synchronized (this.defaultRetriever) {
 			this.defaultRetriever.applicationListenerBeans.removeIf(predicate);
-			this.retrieverCache.clear();
+			clearRetrieverCache();
 		}
 	}
 
@@ -160,11 +172,21 @@ public abstract class AbstractApplicationEventMulticaster
 		synchronized (this.defaultRetriever) {
 			this.defaultRetriever.applicationListeners.clear();
 			this.defaultRetriever.applicationListenerBeans.clear();
-			this.retrieverCache.clear();
+			clearRetrieverCache();
 		}
 	}
 
 
+	/**
+	 * Clear the cached listener retrievers as well as the index by event class,
+	 * after a change in the registered listeners.
+	 */
+	private void clearRetrieverCache() {
+		this.retrieverCache.clear();
+		this.listenerIndex = new ListenerIndex();
+	}
+
+
 	/**
 	 * Return a Collection containing all ApplicationListeners.
 	 * @return a Collection of ApplicationListeners
@@ -225,6 +247,109 @@ public abstract class AbstractApplicationEventMulticaster
 		return retrieveApplicationListeners(eventType, sourceType, newRetriever);
 	}
 
+	/**
+	 * Return a Collection of ApplicationListeners matching the given event,
+	 * as determined by the default type of the event.
+	 * <p>The listeners for a specific event class (or payload class for a
+	 * {@link PayloadApplicationEvent}) and source type are retrieved through
+	 * {@link #getApplicationListeners(ApplicationEvent, ResolvableType)} once,
+	 * and then looked up in an index by event class, without resolving the
+	 * type of each event. This applies to events multicast without an event
+	 * type as well as to events multicast with their default event type.
+	 * Events that provide their own type through
+	 * {@link ResolvableTypeProvider} are not indexed. If a subclass overrides
+	 * {@link #getApplicationListeners(ApplicationEvent, ResolvableType)}, every
+	 * event is resolved through that method instead, without any index.
+	 * @param event the event to be propagated
+	 * @return a Collection of ApplicationListeners
+	 * @since 5.3.9
+	 * @see ResolvableType#forInstance(Object)
+	 */
+	protected Collection<ApplicationListener<?>> getApplicationListeners(ApplicationEvent event) {
+		if (!this.listenerIndexSupported) {
+			return getApplicationListeners(event, ResolvableType.forInstance(event));
+		}
+		ListenerIndex index = this.listenerIndex;
+		Map<Class<?>, IndexedEventType> eventTypes;
+		Class<?> eventClass;
+		if (event.getClass() == PayloadApplicationEvent.class) {
+			Object payload = ((PayloadApplicationEvent<?>) event).getPayload();
+			eventTypes = (payload instanceof ResolvableTypeProvider ? null : index.payloadEventTypes);
+			eventClass = payload.getClass();
+		}
+		else {
+			eventTypes = (event instanceof ResolvableTypeProvider ? null : index.eventTypes);
+			eventClass = event.getClass();
+		}
+		Object source = event.getSource();
+		if (eventTypes == null || source == null) {
+			return getApplicationListeners(event, ResolvableType.forInstance(event));
+		}
+
+		Class<?> sourceType = source.getClass();
+		IndexedEventType indexedType = eventTypes.get(eventClass);
+		if (indexedType != null) {
+			CachedListenerRetriever retriever = indexedType.retrievers.get(sourceType);
+			if (retriever != null) {
+				Collection<ApplicationListener<?>> result = retriever.getApplicationListeners();
+				return (result != null ? result : retrieveApplicationListeners(indexedType.eventType, sourceType, null));
+			}
+		}
+
+		// First event of its class from this source type: resolve through the retriever cache,
+		// then add the cached retriever (if cache-safe) to the index for subsequent events.
+		ResolvableType eventType = (indexedType != null ? indexedType.eventType :
+				eventTypes == index.payloadEventTypes ?
+						ResolvableType.forClassWithGenerics(PayloadApplicationEvent.class, eventClass) :
+						ResolvableType.forClass(eventClass));
+		Collection<ApplicationListener<?>> result = getApplicationListeners(event, eventType);
+		CachedListenerRetriever retriever = this.retrieverCache.get(new ListenerCacheKey(eventType, sourceType));
+		if (retriever != null) {
+			eventTypes.computeIfAbsent(eventClass, key -> new IndexedEventType(eventType))
+					.retrievers.putIfAbsent(sourceType, retriever);
+		}
+		return result;
+	}
+
+	/**
+	 * Determine whether the given event type is the default type of the given
+	 * event, as resolved by {@link ResolvableType#forInstance(Object)} or by
+	 * {@link PayloadApplicationEvent#getResolvableType()}, so that the listeners
+	 * can be looked up through {@link #getApplicationListeners(ApplicationEvent)}.
+	 * <p>Only compares classes by identity, without resolving the event type.
+	 * @param event the event to be propagated
+	 * @param eventType the event type passed along with the event
+	 * @since 5.3.9
+	 */
+	boolean isDefaultEventType(ApplicationEvent event, ResolvableType eventType) {
+		if (!this.listenerIndexSupported) {
+			return false;
+		}
+		Type type = eventType.getType();
+		if (event.getClass() == PayloadApplicationEvent.class) {
+			Object payload = ((PayloadApplicationEvent<?>) event).getPayload();
+			if (payload instanceof ResolvableTypeProvider || !(type instanceof ParameterizedType)) {
+				return false;
+			}
+			ParameterizedType parameterizedType = (ParameterizedType) type;
+			Type[] typeArguments = parameterizedType.getActualTypeArguments();
+			return (parameterizedType.getRawType() == PayloadApplicationEvent.class &&
+					typeArguments.length == 1 && typeArguments[0] == payload.getClass());
+		}
+		return (type == event.getClass() && !(event instanceof ResolvableTypeProvider));
+	}
+
+	/**
+	 * Determine whether the given multicaster class uses the default
+	 * {@link #getApplicationListeners(ApplicationEvent, ResolvableType)}
+	 * implementation, which the index by event class is based on.
+	 */
+	private static boolean isDefaultListenerRetrieval(Class<?> multicasterClass) {
+		Method method = ReflectionUtils.findMethod(multicasterClass, "getApplicationListeners",
+				ApplicationEvent.class, ResolvableType.class);
+		return (method != null && method.getDeclaringClass() == AbstractApplicationEventMulticaster.class);
+	}
+
 	/**
 	 * Actually retrieve the application listeners for the given event and source type.
 	 * @param eventType the event type
@@ -452,6 +577,9 @@ public abstract class AbstractApplicationEventMulticaster
 		@Nullable
 		public volatile Set<String> applicationListenerBeans;
 
+		@Nullable
+		private volatile Collection<ApplicationListener<?>> singletonListeners;
+
 		@Nullable
 		public Collection<ApplicationListener<?>> getApplicationListeners() {
 			Set<ApplicationListener<?>> applicationListeners = this.applicationListeners;
@@ -460,6 +588,15 @@ public abstract class AbstractApplicationEventMulticaster
 				// Not fully populated yet
 				return null;
 			}
+			if (applicationListenerBeans.isEmpty()) {
+				// Pre-filtered listener instances only: expose them as a shared collection
+				Collection<ApplicationListener<?>> singletonListeners = this.singletonListeners;
+				if (singletonListeners == null) {
+					singletonListeners = Collections.unmodifiableList(new ArrayList<>(applicationListeners));
+					this.singletonListeners = singletonListeners;
+				}
+				return singletonListeners;
+			}
 
 			List<ApplicationListener<?>> allListeners = new ArrayList<>(
 					applicationListeners.size() + applicationListenerBeans.size());
@@ -484,6 +621,34 @@ public abstract class AbstractApplicationEventMulticaster
 	}
 
 
+	/**
+	 * Index of cached listener retrievers by event class (or payload class)
+	 * and source type, replaced as a whole on any change in the listeners.
+	 */
+	private static final class ListenerIndex {
+
+		final Map<Class<?>, IndexedEventType> eventTypes = new ConcurrentHashMap<>(64);
+
+		final Map<Class<?>, IndexedEventType> payloadEventTypes = new ConcurrentHashMap<>(64);
+	}
+
+
+	/**
+	 * The resolved type for an indexed event class, along with the
+	 * cached listener retrievers for that type per source type.
+	 */
+	private static final class IndexedEventType {
+
+		final ResolvableType eventType;
+
+		final Map<Class<?>, CachedListenerRetriever> retrievers = new ConcurrentHashMap<>(4);
+
+		IndexedEventType(ResolvableType eventType) {
+			this.eventType = eventType;
+		}
+	}
+
+
 	/**
 	 * Helper class that encapsulates a general set of target listeners.
 	 */
@@ -16,6 +16,8 @@
 
 package org.springframework.context.event;
 
+import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.concurrent.Executor;
 
 import org.apache.commons.logging.Log;
@@ -28,6 +30,7 @@ import org.springframework.context.PayloadApplicationEvent;
 import org.springframework.core.ResolvableType;
 import org.springframework.lang.Nullable;
 import org.springframework.util.ErrorHandler;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Simple implementation of the {@link ApplicationEventMulticaster} interface.
@@ -59,6 +62,9 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 	@Nullable
 	private volatile Log lazyLogger;
 
+	/** Whether multicasting an event with a given type has not been overridden. */
+	private final boolean defaultTypedMulticast = isDefaultTypedMulticast(getClass());
+
 
 	/**
 	 * Create a new SimpleApplicationEventMulticaster.
@@ -128,7 +134,9 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 
 	@Override
 	public void multicastEvent(ApplicationEvent event) {
-		multicastEvent(event, resolveDefaultEventType(event));
+		// Without an overridden multicastEvent variant to pass the type to,
+		// leave it up to the listener index to avoid resolving the type
+		multicastEvent(event, (this.defaultTypedMulticast ? null : resolveDefaultEventType(event)));
 	}
 
 	// 当Spring产生事件时，会默认使用该方法来广播事件，调用监听器的onApplicationEvent方法
@@ -136,9 +144,10 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 	@Override
 	public void multicastEvent(final ApplicationEvent event, @Nullable ResolvableType eventType) {
 		// Resolvable : 可分解的类型
-		ResolvableType type = (eventType != null ? eventType : resolveDefaultEventType(event));
+		Collection<ApplicationListener<?>> listeners = (eventType != null && !isDefaultEventType(event, eventType) ?
+				getApplicationListeners(event, eventType) : getApplicationListeners(event));
 		Executor executor = getTaskExecutor();
-		for (ApplicationListener<?> listener : getApplicationListeners(event, type)) {
+		for (ApplicationListener<?> listener : listeners) {
 			if (executor != null) {
 				executor.execute(() -> invokeListener(listener, event));
 			}
@@ -152,6 +161,16 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 		return ResolvableType.forInstance(event);
 	}
 
+	/**
+	 * Determine whether the given multicaster class uses the default
+	 * {@link #multicastEvent(ApplicationEvent, ResolvableType)} implementation.
+	 */
+	private static boolean isDefaultTypedMulticast(Class<?> multicasterClass) {
+		Method method = ReflectionUtils.findMethod(multicasterClass, "multicastEvent",
+				ApplicationEvent.class, ResolvableType.class);
+		return (method != null && method.getDeclaringClass() == SimpleApplicationEventMulticaster.class);
+	}
+
 	/**
 	 * Invoke the given listener with the given event.
 	 * @param listener the ApplicationListener to invoke
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Snapshot of the stereotypes found by classpath scanning, persisted to a
+ * file and reused by subsequent application starts instead of reading the
+ * metadata of every class in the scanned packages again.
+ *
+ * <p>The snapshot is recorded per base package, in the same form as a
+ * {@link CandidateComponentsIndex} built from {@code META-INF/spring.components}
+ * by the {@code spring-context-indexer} at build time. Each base package
+ * entry is keyed by a checksum over the classpath roots of the package, so
+ * that it is invalidated as soon as any class file or jar in those roots
+ * changes. Exclude filters and {@code @Conditional} declarations are still
+ * evaluated against the actual candidate classes on every start.
+ *
+ * <p>The snapshot is only used if a file location is specified through the
+ * {@value #SNAPSHOT_LOCATION} property: the first start records it, later
+ * starts load it.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see CandidateComponentsIndex
+ * @see org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider
+ */
+public final class CandidateComponentsSnapshot {
+
+	/**
+	 * System property that specifies the file to load the snapshot from and
+	 * to store it to, e.g. {@code "/var/cache/myapp/components.snapshot"}.
+	 * <p>The default is none, not using a snapshot at all.
+	 */
+	public static final String SNAPSHOT_LOCATION = "spring.index.snapshot.location";
+
+	private static final int MAGIC = 0x53434353;
+
+	private static final int VERSION = 1;
+
+
+	private static final Log logger = LogFactory.getLog(CandidateComponentsSnapshot.class);
+
+	private static final ConcurrentMap<Path, CandidateComponentsSnapshot> cache = new ConcurrentHashMap<>();
+
+
+	private final Path file;
+
+	private final Map<String, PackageEntry> packages = new TreeMap<>();
+
+
+	private CandidateComponentsSnapshot(Path file) {
+		this.file = file;
+	}
+
+
+	/**
+	 * Return the index for the given base package, if it has been recorded
+	 * with the given checksum.
+	 * @param basePackage the base package as specified for scanning
+	 * @param checksum the current checksum of the base package
+	 * @return the index to use, or {@code null} if none has been recorded
+	 * or the recorded one is outdated
+	 * @see #computeChecksum
+	 */
+	@Nullable
+	public synchronized CandidateComponentsIndex getIndex(String basePackage, String checksum) {
+		PackageEntry entry = this.packages.get(basePackage);
+		if (entry == null || !entry.checksum.equals(checksum)) {
+			return null;
+		}
+		return entry.index;
+	}
+
+	/**
+	 * Record the stereotypes found by scanning the given base package and
+	 * store the snapshot.
+	 * @param basePackage the base package as specified for scanning
+	 * @param checksum the current checksum of the base package
+	 * @param stereotypes the stereotypes per type, as in
+	 * {@code META-INF/spring.components}
+	 */
+	public synchronized void record(String basePackage, String checksum, Map<String, Set<String>> stereotypes) {
+		this.packages.put(basePackage, new PackageEntry(checksum, new TreeMap<>(stereotypes)));
+		try {
+			store();
+		}
+		catch (IOException ex) {
+			logger.info("Unable to store candidate components snapshot to [" + this.file + "]", ex);
+		}
+	}
+
+	private void load() throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Unsupported snapshot format");
+			}
+			int packageCount = in.readInt();
+			for (int i = 0; i < packageCount; i++) {
+				String basePackage = in.readUTF();
+				String checksum = in.readUTF();
+				int typeCount = in.readInt();
+				Map<String, Set<String>> stereotypes = new TreeMap<>();
+				for (int j = 0; j < typeCount; j++) {
+					stereotypes.put(in.readUTF(), StringUtils.commaDelimitedListToSet(in.readUTF()));
+				}
+				this.packages.put(basePackage, new PackageEntry(checksum, stereotypes));
+			}
+		}
+	}
+
+	private void store() throws IOException {
+		Path directory = Files.createDirectories(this.file.getParent());
+		Path tempFile = Files.createTempFile(directory, "snapshot", ".tmp");
+		try {
+			try (OutputStream os = Files.newOutputStream(tempFile);
+					DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(this.packages.size());
+				for (Map.Entry<String, PackageEntry> entry : this.packages.entrySet()) {
+					out.writeUTF(entry.getKey());
+					out.writeUTF(entry.getValue().checksum);
+					out.writeInt(entry.getValue().stereotypes.size());
+					for (Map.Entry<String, Set<String>> type : entry.getValue().stereotypes.entrySet()) {
+						out.writeUTF(type.getKey());
+						out.writeUTF(StringUtils.collectionToCommaDelimitedString(type.getValue()));
+					}
+				}
+			}
+			// Concurrently starting applications see either the old or the new snapshot
+			Files.move(tempFile, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(tempFile);
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Stored candidate components snapshot for " + this.packages.keySet() +
+					" to [" + this.file + "]");
+		}
+	}
+
+
+	/**
+	 * Return the snapshot for the file specified through the
+	 * {@value #SNAPSHOT_LOCATION} property, loading it if necessary.
+	 * @return the snapshot to use, or {@code null} if no location has been specified
+	 */
+	@Nullable
+	public static CandidateComponentsSnapshot getSnapshot() {
+		String location = SpringProperties.getProperty(SNAPSHOT_LOCATION);
+		if (!StringUtils.hasText(location)) {
+			return null;
+		}
+		return getSnapshot(Paths.get(location.trim()));
+	}
+
+	/**
+	 * Return the snapshot for the given file, loading it if necessary.
+	 * <p>An unreadable or outdated file leads to an empty snapshot which
+	 * replaces the file once the first base package has been recorded.
+	 * @param file the file to load the snapshot from and to store it to
+	 * @return the snapshot to use
+	 */
+	public static CandidateComponentsSnapshot getSnapshot(Path file) {
+		return cache.computeIfAbsent(file.toAbsolutePath().normalize(), key -> {
+			CandidateComponentsSnapshot snapshot = new CandidateComponentsSnapshot(key);
+			if (Files.exists(key)) {
+				try {
+					snapshot.load();
+					if (logger.isDebugEnabled()) {
+						logger.debug("Loaded candidate components snapshot for " +
+								snapshot.packages.keySet() + " from [" + key + "]");
+					}
+				}
+				catch (IOException ex) {
+					snapshot.packages.clear();
+					if (logger.isDebugEnabled()) {
+						logger.debug("Ignoring unreadable candidate components snapshot [" + key + "]", ex);
+					}
+				}
+			}
+			return snapshot;
+		});
+	}
+
+	/**
+	 * Compute a checksum over the given classpath roots of a base package,
+	 * i.e. the directories or jar entries resolved for the package path.
+	 * <p>Directories are walked for the size and last-modified timestamp of
+	 * each file; jar files are covered by their own size and timestamp. Class
+	 * files are not read.
+	 * @param packageRoots the roots of the base package on the classpath
+	 * @param resourcePattern the pattern that is applied within each root
+	 * @return the checksum, or {@code null} if any root cannot be checked
+	 * @throws IOException in case of I/O errors
+	 */
+	@Nullable
+	public static String computeChecksum(Resource[] packageRoots, String resourcePattern) throws IOException {
+		StringBuilder content = new StringBuilder(resourcePattern).append('\n');
+		for (Resource root : packageRoots) {
+			URL url = root.getURL();
+			content.append(url).append('\n');
+			if (ResourceUtils.isJarURL(url)) {
+				URL archiveUrl = ResourceUtils.extractArchiveURL(url);
+				if (!ResourceUtils.isFileURL(archiveUrl)) {
+					return null;
+				}
+				File archive = ResourceUtils.getFile(archiveUrl);
+				content.append(archive.length()).append(' ').append(archive.lastModified()).append('\n');
+			}
+			else if (ResourceUtils.isFileURL(url)) {
+				Path directory = root.getFile().toPath();
+				List<Path> files;
+				try (Stream<Path> stream = Files.walk(directory)) {
+					files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+				}
+				for (Path file : files) {
+					content.append(directory.relativize(file)).append(' ').append(Files.size(file)).append(' ')
+							.append(Files.getLastModifiedTime(file).toMillis()).append('\n');
+				}
+			}
+			else {
+				return null;
+			}
+		}
+		return DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+
+	/**
+	 * The recorded stereotypes of a base package.
+	 */
+	private static class PackageEntry {
+
+		final String checksum;
+
+		final Map<String, Set<String>> stereotypes;
+
+		final CandidateComponentsIndex index;
+
+		PackageEntry(String checksum, Map<String, Set<String>> stereotypes) {
+			this.checksum = checksum;
+			this.stereotypes = stereotypes;
+			Properties properties = new Properties();
+			stereotypes.forEach((type, values) ->
+					properties.put(type, StringUtils.collectionToCommaDelimitedString(values)));
+			this.index = new CandidateComponentsIndex(Collections.singletonList(properties));
+		}
+	}
+
+}
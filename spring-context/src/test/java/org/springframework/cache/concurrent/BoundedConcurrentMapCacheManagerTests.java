@@ -0,0 +1,84 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.Cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * @author agent (agent@local)
+ */
+public class BoundedConcurrentMapCacheManagerTests {
+
+	@Test
+	public void testDynamicMode() {
+		BoundedConcurrentMapCacheManager cm = new BoundedConcurrentMapCacheManager();
+		cm.setMaximumSize(2);
+		Cache cache1 = cm.getCache("c1");
+		assertThat(cache1 instanceof BoundedConcurrentMapCache).isTrue();
+		assertThat(cm.getCache("c1")).isSameAs(cache1);
+		assertThat(((BoundedConcurrentMapCache) cache1).getMaximumSize()).isEqualTo(2);
+
+		cache1.put("key1", "value1");
+		cache1.put("key2", null);
+		assertThat(cache1.get("key2").get()).isNull();
+		cache1.put("key3", "value3");
+		assertThat(((BoundedConcurrentMapCache) cache1).getSize()).isEqualTo(2);
+		assertThat(cm.getCacheNames()).containsExactly("c1");
+	}
+
+	@Test
+	public void testStaticMode() {
+		BoundedConcurrentMapCacheManager cm = new BoundedConcurrentMapCacheManager("c1", "c2");
+		assertThat(cm.getCacheNames()).containsExactlyInAnyOrder("c1", "c2");
+		assertThat(cm.getCache("c3")).isNull();
+
+		Cache cache1 = cm.getCache("c1");
+		cm.setMaximumWeight(100);
+		cm.setWeigher((key, value) -> 1);
+		Cache cache1x = cm.getCache("c1");
+		assertThat(cache1x).isNotSameAs(cache1);
+		assertThat(((BoundedConcurrentMapCache) cache1x).getMaximumWeight()).isEqualTo(100);
+	}
+
+	@Test
+	public void testMaximumWeightWithoutWeigher() {
+		BoundedConcurrentMapCacheManager cm = new BoundedConcurrentMapCacheManager("c1");
+		cm.setMaximumWeight(100);
+		assertThatIllegalStateException().isThrownBy(() -> cm.getCache("c1"));
+
+		cm.setWeigher((key, value) -> 1);
+		assertThat(((BoundedConcurrentMapCache) cm.getCache("c1")).getMaximumWeight()).isEqualTo(100);
+	}
+
+	@Test
+	public void testChangeAllowNullValues() {
+		BoundedConcurrentMapCacheManager cm = new BoundedConcurrentMapCacheManager("c1");
+		Cache cache1 = cm.getCache("c1");
+		assertThat(((BoundedConcurrentMapCache) cache1).isAllowNullValues()).isTrue();
+
+		cm.setAllowNullValues(false);
+		Cache cache1x = cm.getCache("c1");
+		assertThat(cache1x).isNotSameAs(cache1);
+		assertThat(((BoundedConcurrentMapCache) cache1x).isAllowNullValues()).isFalse();
+	}
+
+}
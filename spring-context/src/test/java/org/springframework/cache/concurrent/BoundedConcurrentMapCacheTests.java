@@ -0,0 +1,184 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.context.testfixture.cache.AbstractValueAdaptingCacheTests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * @author agent (agent@local)
+ */
+public class BoundedConcurrentMapCacheTests extends AbstractValueAdaptingCacheTests<BoundedConcurrentMapCache> {
+
+	private final AtomicLong ticker = new AtomicLong();
+
+	private BoundedConcurrentMapCache cache;
+
+	private BoundedConcurrentMapCache cacheNoNull;
+
+
+	@BeforeEach
+	public void setup() {
+		this.cache = new BoundedConcurrentMapCache(CACHE_NAME, 1000);
+		this.cacheNoNull = new BoundedConcurrentMapCache(CACHE_NAME_NO_NULL, 1000, -1, null, null, null, false);
+	}
+
+	@Override
+	protected BoundedConcurrentMapCache getCache() {
+		return getCache(true);
+	}
+
+	@Override
+	protected BoundedConcurrentMapCache getCache(boolean allowNull) {
+		return (allowNull ? this.cache : this.cacheNoNull);
+	}
+
+	@Override
+	protected Object getNativeCache() {
+		return this.cache;
+	}
+
+
+	@Test
+	public void testMaximumSize() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, 3);
+		cache.put("key1", "value1");
+		cache.put("key2", "value2");
+		cache.put("key3", "value3");
+		assertThat(cache.get("key1").get()).isEqualTo("value1");
+
+		cache.put("key4", "value4");
+		assertThat(cache.getSize()).isEqualTo(3);
+		assertThat(cache.get("key1").get()).isEqualTo("value1");
+		assertThat(cache.get("key2")).isNull();
+		assertThat(cache.get("key3").get()).isEqualTo("value3");
+		assertThat(cache.get("key4").get()).isEqualTo("value4");
+		assertThat(cache.getStatistics().getEvictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testMaximumSizeWithReplacedEntries() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, 10);
+		for (int i = 0; i < 1000; i++) {
+			cache.put("key" + (i % 5), i);
+		}
+		assertThat(cache.getSize()).isEqualTo(5);
+		assertThat(cache.get("key4").get()).isEqualTo(999);
+		assertThat(cache.getStatistics().getEvictionCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testMaximumWeight() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, -1, 10,
+				(key, value) -> ((String) value).length(), null, null, true);
+		cache.put("key1", "aaaa");
+		cache.put("key2", "bbbb");
+		assertThat(cache.getWeight()).isEqualTo(8);
+
+		cache.put("key3", "cccc");
+		assertThat(cache.getWeight()).isEqualTo(8);
+		assertThat(cache.getSize()).isEqualTo(2);
+		assertThat(cache.get("key1")).isNull();
+		assertThat(cache.getStatistics().getEvictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testMaximumWeightWithoutWeigher() {
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				new BoundedConcurrentMapCache(CACHE_NAME, -1, 10, null, null, null, true));
+	}
+
+	@Test
+	public void testExpireAfterWrite() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, -1, -1, null,
+				Duration.ofSeconds(10), null, true, this.ticker::get);
+		cache.put("key1", "value1");
+		advance(Duration.ofSeconds(5));
+		assertThat(cache.get("key1").get()).isEqualTo("value1");
+
+		advance(Duration.ofSeconds(5));
+		assertThat(cache.get("key1")).isNull();
+		assertThat(cache.getSize()).isEqualTo(0);
+		assertThat(cache.getStatistics().getExpirationCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testExpireAfterAccess() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, -1, -1, null,
+				null, Duration.ofSeconds(10), true, this.ticker::get);
+		cache.put("key1", "value1");
+		advance(Duration.ofSeconds(5));
+		assertThat(cache.get("key1").get()).isEqualTo("value1");
+		advance(Duration.ofSeconds(5));
+		assertThat(cache.get("key1").get()).isEqualTo("value1");
+
+		advance(Duration.ofSeconds(10));
+		assertThat(cache.get("key1")).isNull();
+	}
+
+	@Test
+	public void testExpiredEntriesRemovedOnWrite() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, -1, -1, null,
+				Duration.ofSeconds(10), null, true, this.ticker::get);
+		cache.put("key1", "value1");
+		cache.put("key2", "value2");
+		advance(Duration.ofSeconds(11));
+
+		cache.put("key3", "value3");
+		assertThat(cache.getSize()).isEqualTo(1);
+		assertThat(cache.getStatistics().getExpirationCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void testExpiredEntryReplacedByCallable() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, -1, -1, null,
+				Duration.ofSeconds(10), null, true, this.ticker::get);
+		cache.put("key1", "value1");
+		advance(Duration.ofSeconds(10));
+
+		assertThat(cache.get("key1", () -> "value2")).isEqualTo("value2");
+		assertThat(cache.putIfAbsent("key1", "value3").get()).isEqualTo("value2");
+		assertThat(cache.getSize()).isEqualTo(1);
+	}
+
+	@Test
+	public void testStatistics() {
+		this.cache.put("key1", "value1");
+		this.cache.get("key1");
+		this.cache.get("key1");
+		this.cache.get("key2");
+
+		BoundedConcurrentMapCache.Statistics statistics = this.cache.getStatistics();
+		assertThat(statistics.getHitCount()).isEqualTo(2);
+		assertThat(statistics.getMissCount()).isEqualTo(1);
+		assertThat(statistics.getHitRate()).isEqualTo(2.0 / 3);
+	}
+
+
+	private void advance(Duration duration) {
+		this.ticker.addAndGet(duration.toNanos());
+	}
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.CachingConfigurerSupport;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.Nullable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for coalesced cache misses and refresh-ahead in {@link CacheAspectSupport}.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ */
+public class CacheCoalescingTests {
+
+	private ConfigurableApplicationContext context;
+
+	private CacheInterceptor cacheInterceptor;
+
+	private SimpleService simpleService;
+
+
+	@BeforeEach
+	public void setUp() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.cacheInterceptor = this.context.getBean(CacheInterceptor.class);
+		this.simpleService = this.context.getBean(SimpleService.class);
+	}
+
+	@AfterEach
+	public void closeContext() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+
+	@Test
+	public void coalescedCacheMisses() throws Exception {
+		this.cacheInterceptor.setCoalesceCacheMisses(true);
+		CountDownLatch latch = new CountDownLatch(1);
+		this.simpleService.setLatch(latch);
+
+		ExecutorService executor = Executors.newFixedThreadPool(5);
+		try {
+			List<Future<Object>> results = new ArrayList<>();
+			for (int i = 0; i < 5; i++) {
+				results.add(executor.submit(() -> this.simpleService.get("key")));
+			}
+			while (this.simpleService.getInvocationCount() == 0) {
+				Thread.sleep(10);
+			}
+			latch.countDown();
+			for (Future<Object> result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(1L);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertThat(this.simpleService.getInvocationCount()).isEqualTo(1);
+		assertThat(this.simpleService.get("key")).isEqualTo(1L);
+	}
+
+	@Test
+	public void coalescedCacheMissWithException() {
+		this.cacheInterceptor.setCoalesceCacheMisses(true);
+		assertThatIllegalStateException().isThrownBy(() -> this.simpleService.getOrFail("key"));
+		assertThatIllegalStateException().isThrownBy(() -> this.simpleService.getOrFail("key"));
+		assertThat(this.simpleService.getInvocationCount()).isEqualTo(2);
+	}
+
+	@Test
+	@Timeout(5)
+	public void coalescedCacheMissWithReentrantInvocation() throws Exception {
+		this.cacheInterceptor.setCoalesceCacheMisses(true);
+		this.simpleService.setSelf(this.simpleService);
+
+		// Nested call for the same key on the same thread, invoked rather than awaited
+		assertThat(this.simpleService.getReentrant("key")).isEqualTo(2L);
+		assertThat(this.simpleService.getInvocationCount()).isEqualTo(2);
+		assertThat(this.simpleService.get("key")).isEqualTo(2L);
+	}
+
+	@Test
+	public void refreshAhead() throws Exception {
+		this.cacheInterceptor.setRefreshAheadTime(Duration.ZERO);
+		this.cacheInterceptor.setRefreshExecutor(Runnable::run);
+
+		assertThat(this.simpleService.get("key")).isEqualTo(1L);
+		// Cache hit returning the current value, refreshing it for subsequent calls
+		assertThat(this.simpleService.get("key")).isEqualTo(1L);
+		assertThat(this.simpleService.get("key")).isEqualTo(2L);
+		assertThat(this.simpleService.getInvocationCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void noRefreshAheadWithinRefreshTime() throws Exception {
+		this.cacheInterceptor.setRefreshAheadTime(Duration.ofHours(1));
+		this.cacheInterceptor.setRefreshExecutor(Runnable::run);
+
+		assertThat(this.simpleService.get("key")).isEqualTo(1L);
+		assertThat(this.simpleService.get("key")).isEqualTo(1L);
+		assertThat(this.simpleService.getInvocationCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void refreshAheadRequiresExecutor() {
+		this.cacheInterceptor.setRefreshAheadTime(Duration.ZERO);
+		assertThatIllegalStateException().isThrownBy(this.cacheInterceptor::afterPropertiesSet);
+	}
+
+	@Test
+	public void noRefreshAheadWithoutExecutor() throws Exception {
+		this.cacheInterceptor.setRefreshAheadTime(Duration.ZERO);
+
+		assertThat(this.simpleService.get("key")).isEqualTo(1L);
+		assertThat(this.simpleService.get("key")).isEqualTo(1L);
+		assertThat(this.simpleService.get("key")).isEqualTo(1L);
+		assertThat(this.simpleService.getInvocationCount()).isEqualTo(1);
+	}
+
+
+	static class SimpleService {
+
+		private final AtomicLong counter = new AtomicLong();
+
+		@Nullable
+		private volatile CountDownLatch latch;
+
+		@Nullable
+		private volatile SimpleService self;
+
+		public void setLatch(@Nullable CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		public void setSelf(@Nullable SimpleService self) {
+			this.self = self;
+		}
+
+		public long getInvocationCount() {
+			return this.counter.get();
+		}
+
+		@Cacheable("testCache")
+		public Object get(Object key) throws InterruptedException {
+			long value = this.counter.incrementAndGet();
+			CountDownLatch latch = this.latch;
+			if (latch != null) {
+				latch.await(5, TimeUnit.SECONDS);
+			}
+			return value;
+		}
+
+		@Cacheable("testCache")
+		public Object getReentrant(Object key) throws InterruptedException {
+			this.counter.incrementAndGet();
+			SimpleService self = this.self;
+			return (self != null ? self.get(key) : null);
+		}
+
+		@Cacheable("testCache")
+		public Object getOrFail(Object key) {
+			this.counter.incrementAndGet();
+			throw new IllegalStateException("Failed for " + key);
+		}
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config extends CachingConfigurerSupport {
+
+		@Override
+		@Bean
+		public CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager("testCache");
+		}
+
+		@Bean
+		public SimpleService simpleService() {
+			return new SimpleService();
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,16 @@
 
 package org.springframework.context.annotation;
 
+import java.io.IOException;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import example.gh24375.AnnotatedComponent;
 import example.profilescan.DevComponent;
@@ -40,13 +46,19 @@ import example.scannable.StubFooDao;
 import example.scannable.sub.BarComponent;
 import org.aspectj.lang.annotation.Aspect;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.index.CandidateComponentsSnapshot;
 import org.springframework.context.testfixture.index.CandidateComponentsTestClassLoader;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.core.type.filter.RegexPatternTypeFilter;
@@ -89,6 +101,34 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		testDefault(provider);
 	}
 
+	@Test
+	public void defaultsWithParallelScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		provider.setScanParallelism(4);
+		testDefault(provider);
+	}
+
+	@Test
+	public void parallelScanPreservesOrder() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		List<String> expected = beanClassNames(provider.findCandidateComponents(TEST_BASE_PACKAGE));
+
+		provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		provider.setScanParallelism(4);
+		assertThat(beanClassNames(provider.findCandidateComponents(TEST_BASE_PACKAGE))).isEqualTo(expected);
+	}
+
+	@Test
+	public void defaultsWithSnapshot(@TempDir Path tempDir) {
+		testWithSnapshot(tempDir, true, this::testDefault);
+	}
+
 	private void testDefault(ClassPathScanningCandidateComponentProvider provider) {
 		Set<BeanDefinition> candidates = provider.findCandidateComponents(TEST_BASE_PACKAGE);
 		assertThat(containsBeanClass(candidates, DefaultNamedComponent.class)).isTrue();
@@ -186,6 +226,11 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		testCustomAssignableTypeIncludeFilter(provider);
 	}
 
+	@Test
+	public void customAssignableTypeIncludeFilterWithSnapshot(@TempDir Path tempDir) {
+		testWithSnapshot(tempDir, false, this::testCustomAssignableTypeIncludeFilter);
+	}
+
 	private void testCustomAssignableTypeIncludeFilter(ClassPathScanningCandidateComponentProvider provider) {
 		provider.addIncludeFilter(new AssignableTypeFilter(FooService.class));
 		Set<BeanDefinition> candidates = provider.findCandidateComponents(TEST_BASE_PACKAGE);
@@ -265,6 +310,24 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		testExclude(provider);
 	}
 
+	@Test
+	public void excludeFilterWithParallelScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		provider.setScanParallelism(4);
+		provider.addExcludeFilter(new RegexPatternTypeFilter(Pattern.compile(TEST_BASE_PACKAGE + ".*Named.*")));
+		testExclude(provider);
+	}
+
+	@Test
+	public void excludeFilterWithSnapshot(@TempDir Path tempDir) {
+		testWithSnapshot(tempDir, true, provider -> {
+			provider.addExcludeFilter(new RegexPatternTypeFilter(Pattern.compile(TEST_BASE_PACKAGE + ".*Named.*")));
+			testExclude(provider);
+		});
+	}
+
 	private void testExclude(ClassPathScanningCandidateComponentProvider provider) {
 		Set<BeanDefinition> candidates = provider.findCandidateComponents(TEST_BASE_PACKAGE);
 		assertThat(containsBeanClass(candidates, FooServiceImpl.class)).isTrue();
@@ -503,6 +566,41 @@ public class ClassPathScanningCandidateComponentProviderTests {
 	}
 
 
+	private void testWithSnapshot(Path tempDir, boolean useDefaultFilters,
+			Consumer<ClassPathScanningCandidateComponentProvider> test) {
+
+		Path snapshotFile = tempDir.resolve("components.snapshot");
+		SpringProperties.setProperty(CandidateComponentsSnapshot.SNAPSHOT_LOCATION, snapshotFile.toString());
+		try {
+			// First run: scan and record the snapshot
+			AtomicInteger scanReads = new AtomicInteger();
+			test.accept(snapshotProvider(useDefaultFilters, scanReads));
+			assertThat(snapshotFile).exists();
+
+			// Second run: read the recorded candidates only
+			AtomicInteger snapshotReads = new AtomicInteger();
+			test.accept(snapshotProvider(useDefaultFilters, snapshotReads));
+			assertThat(snapshotReads.get()).isLessThan(scanReads.get());
+		}
+		finally {
+			SpringProperties.setProperty(CandidateComponentsSnapshot.SNAPSHOT_LOCATION, null);
+		}
+	}
+
+	private ClassPathScanningCandidateComponentProvider snapshotProvider(boolean useDefaultFilters, AtomicInteger reads) {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(useDefaultFilters);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		provider.setMetadataReaderFactory(new CachingMetadataReaderFactory() {
+			@Override
+			public MetadataReader getMetadataReader(Resource resource) throws IOException {
+				reads.incrementAndGet();
+				return super.getMetadataReader(resource);
+			}
+		});
+		return provider;
+	}
+
 	private boolean containsBeanClass(Set<BeanDefinition> candidates, Class<?> beanClass) {
 		for (BeanDefinition candidate : candidates) {
 			if (beanClass.getName().equals(candidate.getBeanClassName())) {
@@ -512,6 +610,10 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		return false;
 	}
 
+	private List<String> beanClassNames(Set<BeanDefinition> candidates) {
+		return candidates.stream().map(BeanDefinition::getBeanClassName).collect(Collectors.toList());
+	}
+
 	private void assertBeanDefinitionType(Set<BeanDefinition> candidates) {
 		candidates.forEach(c ->
 			assertThat(c).isInstanceOf(ScannedGenericBeanDefinition.class)
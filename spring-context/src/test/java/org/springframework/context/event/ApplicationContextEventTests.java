@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.context.event;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -49,6 +50,7 @@ import org.springframework.context.testfixture.beans.BeanThatListens;
 import org.springframework.core.Ordered;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.Order;
+import org.springframework.lang.Nullable;
 import org.springframework.scheduling.support.TaskUtils;
 import org.springframework.util.ReflectionUtils;
 
@@ -198,6 +200,97 @@ public class ApplicationContextEventTests extends AbstractApplicationEventListen
 		assertThat(listener1.seenEvents.size()).isEqualTo(2);
 	}
 
+	@Test
+	public void indexedListenersAfterListenerRegistration() {
+		MyOrderedListener1 listener1 = new MyOrderedListener1();
+		MyPayloadListener listener2 = new MyPayloadListener();
+
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.addApplicationListener(listener1);
+		MyEvent event1 = new MyEvent(this);
+		smc.multicastEvent(event1);
+		smc.multicastEvent(event1);
+		assertThat(smc.getApplicationListeners(event1)).isSameAs(smc.getApplicationListeners(new MyEvent(this)));
+		assertThat(smc.retrieverCache.size()).isEqualTo(1);
+
+		smc.addApplicationListener(listener2);
+		smc.multicastEvent(new PayloadApplicationEvent<>(this, "payload"));
+		smc.multicastEvent(event1);
+		assertThat(listener1.seenEvents).hasSize(4);
+		assertThat(listener2.seenPayloads).containsExactly("payload");
+		assertThat(smc.getApplicationListeners(event1)).containsExactly(listener1);
+		assertThat(smc.retrieverCache.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void overriddenListenerRetrievalNotBypassedByIndex() {
+		MyOrderedListener1 listener1 = new MyOrderedListener1();
+		List<ResolvableType> eventTypes = new ArrayList<>();
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster() {
+			@Override
+			protected Collection<ApplicationListener<?>> getApplicationListeners(
+					ApplicationEvent event, ResolvableType eventType) {
+				eventTypes.add(eventType);
+				return super.getApplicationListeners(event, eventType);
+			}
+		};
+		smc.addApplicationListener(listener1);
+		smc.multicastEvent(new MyEvent(this), null);
+		smc.multicastEvent(new MyEvent(this), null);
+		assertThat(eventTypes).hasSize(2);
+		assertThat(eventTypes.get(1).toClass()).isEqualTo(MyEvent.class);
+		assertThat(listener1.seenEvents).hasSize(2);
+	}
+
+	@Test
+	public void listenerIndexUsedForEventsPublishedThroughContext() {
+		StaticApplicationContext context = new StaticApplicationContext();
+		SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+		context.getBeanFactory().registerSingleton(
+				StaticApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME, multicaster);
+		MyOrderedListener1 listener1 = new MyOrderedListener1();
+		context.addApplicationListener(listener1);
+		context.refresh();
+
+		context.publishEvent(new MyEvent(context));
+		context.publishEvent("payload");
+		assertThat(multicaster.retrieverCache).isNotEmpty();
+
+		// Subsequent events of the same classes get their listeners from the index
+		multicaster.retrieverCache.clear();
+		context.publishEvent(new MyEvent(context));
+		context.publishEvent("payload");
+		assertThat(multicaster.retrieverCache).isEmpty();
+		assertThat(listener1.seenEvents).hasSize(5);
+		context.close();
+	}
+
+	@Test
+	public void payloadEventTypeResolvedByContext() {
+		List<ResolvableType> eventTypes = new ArrayList<>();
+		StaticApplicationContext context = new StaticApplicationContext();
+		SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster() {
+			@Override
+			public void multicastEvent(ApplicationEvent event, @Nullable ResolvableType eventType) {
+				if (event instanceof PayloadApplicationEvent) {
+					eventTypes.add(eventType);
+				}
+				super.multicastEvent(event, eventType);
+			}
+		};
+		context.getBeanFactory().registerSingleton(
+				StaticApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME, multicaster);
+		context.refresh();
+
+		context.publishEvent("payload");
+		assertThat(eventTypes).hasSize(1);
+		assertThat(eventTypes.get(0)).isNotNull();
+		assertThat(eventTypes.get(0).toClass()).isEqualTo(PayloadApplicationEvent.class);
+		assertThat(eventTypes.get(0).resolveGeneric()).isEqualTo(String.class);
+
+		context.close();
+	}
+
 	@Test
 	public void orderedListenersWithAnnotation() {
 		MyOrderedListener3 listener1 = new MyOrderedListener3();
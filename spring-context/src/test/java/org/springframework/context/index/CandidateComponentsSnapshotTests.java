@@ -0,0 +1,109 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CandidateComponentsSnapshot}.
+ *
+ * @author agent (agent@local)
+ */
+public class CandidateComponentsSnapshotTests {
+
+	@Test
+	public void recordAndLoad(@TempDir Path tempDir) throws Exception {
+		Path file = tempDir.resolve("record/components.snapshot");
+		CandidateComponentsSnapshot.getSnapshot(file).record("com.example", "abc", createSampleStereotypes());
+		assertThat(file).exists();
+
+		Path copy = Files.copy(file, tempDir.resolve("copy.snapshot"));
+		CandidateComponentsSnapshot snapshot = CandidateComponentsSnapshot.getSnapshot(copy);
+		CandidateComponentsIndex index = snapshot.getIndex("com.example", "abc");
+		assertThat(index).isNotNull();
+		assertThat(index.getCandidateTypes("com.example", "service"))
+				.containsExactlyInAnyOrder("com.example.service.One", "com.example.service.sub.Two");
+		assertThat(index.getCandidateTypes("com.example.service.sub", "service"))
+				.containsExactly("com.example.service.sub.Two");
+		assertThat(index.getCandidateTypes("com.example", "entity"))
+				.containsExactlyInAnyOrder("com.example.service.sub.Two", "com.example.domain.Three");
+		assertThat(snapshot.getIndex("com.example.other", "abc")).isNull();
+	}
+
+	@Test
+	public void outdatedChecksum(@TempDir Path tempDir) {
+		CandidateComponentsSnapshot snapshot =
+				CandidateComponentsSnapshot.getSnapshot(tempDir.resolve("components.snapshot"));
+		snapshot.record("com.example", "abc", createSampleStereotypes());
+		assertThat(snapshot.getIndex("com.example", "abc")).isNotNull();
+		assertThat(snapshot.getIndex("com.example", "def")).isNull();
+	}
+
+	@Test
+	public void unreadableFile(@TempDir Path tempDir) throws Exception {
+		Path file = Files.write(tempDir.resolve("components.snapshot"), "bogus".getBytes(StandardCharsets.UTF_8));
+		CandidateComponentsSnapshot snapshot = CandidateComponentsSnapshot.getSnapshot(file);
+		assertThat(snapshot.getIndex("com.example", "abc")).isNull();
+
+		snapshot.record("com.example", "abc", createSampleStereotypes());
+		assertThat(CandidateComponentsSnapshot.getSnapshot(Files.copy(file, tempDir.resolve("copy.snapshot")))
+				.getIndex("com.example", "abc")).isNotNull();
+	}
+
+	@Test
+	public void checksumOfDirectory(@TempDir Path tempDir) throws Exception {
+		Path classFile = Files.write(Files.createDirectories(tempDir.resolve("com/example")).resolve("One.class"),
+				new byte[] {1, 2, 3});
+		Resource[] roots = new Resource[] {new FileSystemResource(tempDir.resolve("com/example"))};
+		String checksum = CandidateComponentsSnapshot.computeChecksum(roots, "**/*.class");
+		assertThat(checksum).isNotNull();
+		assertThat(CandidateComponentsSnapshot.computeChecksum(roots, "**/*.class")).isEqualTo(checksum);
+		assertThat(CandidateComponentsSnapshot.computeChecksum(roots, "*.class")).isNotEqualTo(checksum);
+
+		Files.setLastModifiedTime(classFile, FileTime.fromMillis(Files.getLastModifiedTime(classFile).toMillis() - 10000));
+		String modifiedChecksum = CandidateComponentsSnapshot.computeChecksum(roots, "**/*.class");
+		assertThat(modifiedChecksum).isNotEqualTo(checksum);
+
+		Files.write(tempDir.resolve("com/example/Two.class"), new byte[] {4, 5});
+		assertThat(CandidateComponentsSnapshot.computeChecksum(roots, "**/*.class")).isNotEqualTo(modifiedChecksum);
+	}
+
+	private static Map<String, Set<String>> createSampleStereotypes() {
+		Map<String, Set<String>> stereotypes = new LinkedHashMap<>();
+		stereotypes.put("com.example.service.One", new HashSet<>(Arrays.asList("service")));
+		stereotypes.put("com.example.service.sub.Two", new HashSet<>(Arrays.asList("service", "entity")));
+		stereotypes.put("com.example.domain.Three", new HashSet<>(Arrays.asList("entity")));
+		return stereotypes;
+	}
+
+}
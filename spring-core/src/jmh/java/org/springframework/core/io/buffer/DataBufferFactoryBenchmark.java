@@ -0,0 +1,105 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for allocating, writing, reading and releasing buffers through
+ * {@link PooledDataBufferFactory}, compared with heap and direct buffers
+ * from a {@link DefaultDataBufferFactory}.
+ *
+ * @author agent (agent@local)
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DataBufferFactoryBenchmark {
+
+	@Benchmark
+	@Threads(1)
+	public void writeAndRead1Thread(BenchmarkData data, Blackhole bh) {
+		writeAndRead(data, bh);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void writeAndRead4Threads(BenchmarkData data, Blackhole bh) {
+		writeAndRead(data, bh);
+	}
+
+	@Benchmark
+	public void joinChunks(BenchmarkData data, Blackhole bh) {
+		List<DataBuffer> buffers = new ArrayList<>(4);
+		for (int i = 0; i < 4; i++) {
+			DataBuffer buffer = data.bufferFactory.allocateBuffer(data.size / 4);
+			buffer.write(data.content, 0, data.size / 4);
+			buffers.add(buffer);
+		}
+		DataBuffer joined = data.bufferFactory.join(buffers);
+		bh.consume(joined.read());
+		DataBufferUtils.release(joined);
+	}
+
+	private static void writeAndRead(BenchmarkData data, Blackhole bh) {
+		DataBuffer buffer = data.bufferFactory.allocateBuffer(data.size);
+		buffer.write(data.content);
+		buffer.read(data.target);
+		bh.consume(data.target);
+		DataBufferUtils.release(buffer);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"heap", "direct", "pooled"})
+		public String bufferFactoryType;
+
+		@Param({"256", "8192"})
+		public int size;
+
+		DataBufferFactory bufferFactory;
+
+		byte[] content;
+
+		byte[] target;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			if ("pooled".equals(this.bufferFactoryType)) {
+				this.bufferFactory = new PooledDataBufferFactory();
+			}
+			else {
+				this.bufferFactory = new DefaultDataBufferFactory("direct".equals(this.bufferFactoryType));
+			}
+			this.content = new byte[this.size];
+			this.target = new byte[this.size];
+		}
+	}
+
+}
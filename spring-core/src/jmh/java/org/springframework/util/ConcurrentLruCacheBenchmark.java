@@ -0,0 +1,180 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link ConcurrentLruCache}, compared with the previous
+ * lock-based implementation, under an increasing number of threads.
+ *
+ * @author agent (agent@local)
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ConcurrentLruCacheBenchmark {
+
+	@Benchmark
+	@Threads(1)
+	public void lookup1Thread(BenchmarkData data, Blackhole bh) {
+		lookup(data, bh);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void lookup4Threads(BenchmarkData data, Blackhole bh) {
+		lookup(data, bh);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public void lookup16Threads(BenchmarkData data, Blackhole bh) {
+		lookup(data, bh);
+	}
+
+	@Benchmark
+	@Threads(64)
+	public void lookup64Threads(BenchmarkData data, Blackhole bh) {
+		lookup(data, bh);
+	}
+
+	private static void lookup(BenchmarkData data, Blackhole bh) {
+		String[] keys = data.keys;
+		int offset = ThreadLocalRandom.current().nextInt(keys.length);
+		for (int i = 0; i < keys.length; i++) {
+			bh.consume(data.cache.apply(keys[(offset + i) % keys.length]));
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"concurrentLruCache", "lockingLruCache"})
+		public String implementation;
+
+		@Param({"64"})
+		public int capacity;
+
+		@Param({"0.1", "0.5", "1.0", "2.0"})
+		public double keysRatio;
+
+		Function<String, String> cache;
+
+		String[] keys;
+
+		@Setup(Level.Iteration)
+		public void setup() {
+			Function<String, String> generator = key -> key + "value";
+			if ("concurrentLruCache".equals(this.implementation)) {
+				this.cache = new ConcurrentLruCache<>(this.capacity, generator)::get;
+			}
+			else {
+				this.cache = new LockingLruCache<>(this.capacity, generator)::get;
+			}
+			int keyCount = (int) Math.max(1, this.capacity * this.keysRatio);
+			this.keys = new String[keyCount];
+			for (int i = 0; i < keyCount; i++) {
+				this.keys[i] = "key" + i;
+			}
+		}
+	}
+
+
+	/**
+	 * The previous {@link ConcurrentLruCache} implementation, taking a global
+	 * write lock on cache misses and reordering its key queue on cache hits.
+	 */
+	private static class LockingLruCache<K, V> {
+
+		private final int sizeLimit;
+
+		private final Function<K, V> generator;
+
+		private final ConcurrentHashMap<K, V> cache = new ConcurrentHashMap<>();
+
+		private final ConcurrentLinkedDeque<K> queue = new ConcurrentLinkedDeque<>();
+
+		private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+		private volatile int size;
+
+		LockingLruCache(int sizeLimit, Function<K, V> generator) {
+			this.sizeLimit = sizeLimit;
+			this.generator = generator;
+		}
+
+		V get(K key) {
+			V cached = this.cache.get(key);
+			if (cached != null) {
+				if (this.size < this.sizeLimit) {
+					return cached;
+				}
+				this.lock.readLock().lock();
+				try {
+					if (this.queue.removeLastOccurrence(key)) {
+						this.queue.offer(key);
+					}
+					return cached;
+				}
+				finally {
+					this.lock.readLock().unlock();
+				}
+			}
+			this.lock.writeLock().lock();
+			try {
+				cached = this.cache.get(key);
+				if (cached != null) {
+					if (this.queue.removeLastOccurrence(key)) {
+						this.queue.offer(key);
+					}
+					return cached;
+				}
+				V value = this.generator.apply(key);
+				if (this.size == this.sizeLimit) {
+					K leastUsed = this.queue.poll();
+					if (leastUsed != null) {
+						this.cache.remove(leastUsed);
+					}
+				}
+				this.queue.offer(key);
+				this.cache.put(key, value);
+				this.size = this.cache.size();
+				return value;
+			}
+			finally {
+				this.lock.writeLock().unlock();
+			}
+		}
+	}
+
+}
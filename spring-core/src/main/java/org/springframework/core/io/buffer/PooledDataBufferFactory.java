@@ -0,0 +1,528 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Pooling variant of {@link DefaultDataBufferFactory}, for runtimes other than
+ * Netty where {@link NettyDataBufferFactory} with a pooled allocator is not an option.
+ *
+ * <p>Buffers allocated by this factory are {@link PooledDataBuffer PooledDataBuffers}
+ * backed by direct (off-heap) {@link ByteBuffer ByteBuffers} from a pool. Pooled
+ * capacities are organized in power-of-two size classes, from 64 bytes up to the
+ * {@linkplain #PooledDataBufferFactory(int, int) maximum pooled capacity}; larger
+ * buffers are allocated on demand. Released buffers are kept in a cache local to
+ * the releasing thread first, and in a pool shared between threads once the
+ * thread-local cache is full. The thread-local cache is bounded in bytes across
+ * all size classes, so that the memory held by each thread stays small.
+ *
+ * <p>As with {@link NettyDataBufferFactory}, buffers must be
+ * {@linkplain DataBufferUtils#release(DataBuffer) released} after use, and must
+ * not be used after their release. For tests, {@linkplain #setLeakDetection leak
+ * detection} tracks allocated buffers that have not been released, along with
+ * where they were allocated.
+ *
+ * <p>Buffers created through {@link #wrap} wrap the given content as-is, and are
+ * therefore not pooled.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ */
+public class PooledDataBufferFactory extends DefaultDataBufferFactory {
+
+	/**
+	 * The default maximum capacity for pooled buffers: 64K.
+	 * @see #PooledDataBufferFactory(int, int)
+	 */
+	public static final int DEFAULT_MAX_POOLED_CAPACITY = 64 * 1024;
+
+	private static final int MIN_SIZE_CLASS_SHIFT = 6;
+
+	private static final int MIN_SIZE_CLASS = 1 << MIN_SIZE_CLASS_SHIFT;
+
+
+	private final int maxPooledCapacity;
+
+	private final SizeClassPool[] sharedPools;
+
+	private final ThreadLocal<ThreadCache> threadCache;
+
+	private int threadCacheSize = 32 * 1024;
+
+	private int sharedPoolSize = 1024 * 1024;
+
+	private volatile boolean leakDetection;
+
+	private final Map<AllocationRecord, Boolean> allocationRecords = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} with default settings.
+	 */
+	public PooledDataBufferFactory() {
+		this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_POOLED_CAPACITY);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} with the given capacities.
+	 * @param defaultInitialCapacity the capacity for {@link #allocateBuffer()}
+	 * @param maxPooledCapacity the maximum capacity of pooled buffers, i.e. the
+	 * largest size class (a power of two, at least 64)
+	 */
+	public PooledDataBufferFactory(int defaultInitialCapacity, int maxPooledCapacity) {
+		super(true, defaultInitialCapacity);
+		Assert.isTrue(maxPooledCapacity >= MIN_SIZE_CLASS && Integer.bitCount(maxPooledCapacity) == 1,
+				"'maxPooledCapacity' must be a power of two and at least " + MIN_SIZE_CLASS);
+		this.maxPooledCapacity = maxPooledCapacity;
+		this.sharedPools = new SizeClassPool[sizeClassIndex(maxPooledCapacity) + 1];
+		for (int i = 0; i < this.sharedPools.length; i++) {
+			this.sharedPools[i] = new SizeClassPool();
+		}
+		this.threadCache = ThreadLocal.withInitial(() -> new ThreadCache(this.sharedPools.length));
+	}
+
+
+	/**
+	 * Return the maximum capacity of pooled buffers.
+	 */
+	public int getMaxPooledCapacity() {
+		return this.maxPooledCapacity;
+	}
+
+	/**
+	 * Set the maximum number of bytes to keep in the cache of each thread,
+	 * across all size classes. Buffers released once the cache is full go to
+	 * the shared pool instead.
+	 * <p>The default is 32K, e.g. 8 buffers of 4K or 512 buffers of 64 bytes.
+	 * Set this to 0 in order to only use the shared pool.
+	 */
+	public void setThreadCacheSize(int threadCacheSize) {
+		Assert.isTrue(threadCacheSize >= 0, "'threadCacheSize' must not be negative");
+		this.threadCacheSize = threadCacheSize;
+	}
+
+	/**
+	 * Return the maximum number of bytes to keep in the cache of each thread.
+	 */
+	public int getThreadCacheSize() {
+		return this.threadCacheSize;
+	}
+
+	/**
+	 * Set the number of bytes per size class to keep in the pool shared between
+	 * threads, for buffers that do not fit into the cache of the releasing thread.
+	 * <p>The default is 1M, i.e. up to 1M for every size class.
+	 */
+	public void setSharedPoolSize(int sharedPoolSize) {
+		Assert.isTrue(sharedPoolSize >= 0, "'sharedPoolSize' must not be negative");
+		this.sharedPoolSize = sharedPoolSize;
+	}
+
+	/**
+	 * Return the number of bytes per size class to keep in the shared pool.
+	 */
+	public int getSharedPoolSize() {
+		return this.sharedPoolSize;
+	}
+
+	/**
+	 * Specify whether to track allocated buffers until their release, recording
+	 * where each buffer was allocated as well as the hints given to
+	 * {@link PooledDataBuffer#touch}. This adds considerable overhead to every
+	 * allocation and is therefore intended for tests.
+	 * <p>The default is {@code false}.
+	 * @see #checkForLeaks()
+	 */
+	public void setLeakDetection(boolean leakDetection) {
+		this.leakDetection = leakDetection;
+	}
+
+	/**
+	 * Return whether leak detection is turned on.
+	 */
+	public boolean isLeakDetection() {
+		return this.leakDetection;
+	}
+
+	/**
+	 * Check that all buffers allocated while leak detection was turned on
+	 * have been released.
+	 * @throws IllegalStateException if any buffers have not been released,
+	 * with the recorded allocation of each buffer as a suppressed exception
+	 * @see #setLeakDetection
+	 */
+	public void checkForLeaks() {
+		List<AllocationRecord> records = new ArrayList<>(this.allocationRecords.keySet());
+		if (!records.isEmpty()) {
+			IllegalStateException ex = new IllegalStateException(
+					records.size() + " buffer leaks detected in " + this);
+			records.forEach(record -> ex.addSuppressed(record.toException()));
+			throw ex;
+		}
+	}
+
+
+	@Override
+	public DefaultDataBuffer allocateBuffer(int initialCapacity) {
+		return new PooledByteBufferDataBuffer(this, initialCapacity);
+	}
+
+	/**
+	 * Obtain a buffer with at least the given capacity from the pool.
+	 */
+	private ByteBuffer allocateChunk(int capacity) {
+		if (capacity > this.maxPooledCapacity) {
+			return ByteBuffer.allocateDirect(capacity);
+		}
+		int index = sizeClassIndex(capacity);
+		ByteBuffer chunk = this.threadCache.get().poll(index);
+		if (chunk == null) {
+			chunk = this.sharedPools[index].poll();
+		}
+		if (chunk == null) {
+			chunk = ByteBuffer.allocateDirect(MIN_SIZE_CLASS << index);
+		}
+		return chunk;
+	}
+
+	/**
+	 * Return the given buffer obtained from {@link #allocateChunk} to the pool.
+	 */
+	private void recycleChunk(ByteBuffer chunk) {
+		int capacity = chunk.capacity();
+		if (capacity > this.maxPooledCapacity) {
+			return;
+		}
+		chunk.clear();
+		int index = sizeClassIndex(capacity);
+		if (!this.threadCache.get().offer(index, chunk, this.threadCacheSize)) {
+			this.sharedPools[index].offer(chunk, this.sharedPoolSize >> (MIN_SIZE_CLASS_SHIFT + index));
+		}
+	}
+
+	private static int sizeClassIndex(int capacity) {
+		return (capacity <= MIN_SIZE_CLASS ? 0 :
+				Integer.SIZE - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SIZE_CLASS_SHIFT);
+	}
+
+
+	@Override
+	public String toString() {
+		return "PooledDataBufferFactory (maxPooledCapacity=" + this.maxPooledCapacity + ")";
+	}
+
+
+	/**
+	 * Pool of buffers of one size class, shared between threads.
+	 */
+	private static class SizeClassPool {
+
+		private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+		private final AtomicInteger size = new AtomicInteger();
+
+		@Nullable
+		ByteBuffer poll() {
+			ByteBuffer buffer = this.buffers.poll();
+			if (buffer != null) {
+				this.size.decrementAndGet();
+			}
+			return buffer;
+		}
+
+		void offer(ByteBuffer buffer, int maxSize) {
+			if (this.size.incrementAndGet() <= maxSize) {
+				this.buffers.offer(buffer);
+			}
+			else {
+				this.size.decrementAndGet();
+			}
+		}
+	}
+
+
+	/**
+	 * Cache of buffers for each size class, local to a thread.
+	 */
+	private static class ThreadCache {
+
+		private final ArrayDeque<ByteBuffer>[] buffers;
+
+		/** Total capacity of the cached buffers, in bytes. */
+		private int size;
+
+		@SuppressWarnings("unchecked")
+		ThreadCache(int sizeClasses) {
+			this.buffers = new ArrayDeque[sizeClasses];
+			for (int i = 0; i < sizeClasses; i++) {
+				this.buffers[i] = new ArrayDeque<>();
+			}
+		}
+
+		@Nullable
+		ByteBuffer poll(int index) {
+			ByteBuffer buffer = this.buffers[index].pollLast();
+			if (buffer != null) {
+				this.size -= buffer.capacity();
+			}
+			return buffer;
+		}
+
+		boolean offer(int index, ByteBuffer buffer, int maxSize) {
+			int capacity = buffer.capacity();
+			if (this.size + capacity <= maxSize) {
+				this.buffers[index].addLast(buffer);
+				this.size += capacity;
+				return true;
+			}
+			return false;
+		}
+	}
+
+
+	/**
+	 * Record of the allocation of a buffer, for leak detection.
+	 */
+	private static final class AllocationRecord {
+
+		private final String buffer;
+
+		private final Throwable allocation = new Throwable("Allocation");
+
+		private final List<Object> hints = Collections.synchronizedList(new ArrayList<>(2));
+
+		AllocationRecord(int capacity) {
+			this.buffer = "buffer with initial capacity " + capacity;
+		}
+
+		IllegalStateException toException() {
+			IllegalStateException ex = new IllegalStateException("Leaked " + this.buffer +
+					(this.hints.isEmpty() ? "" : ", touched with hints " + this.hints), this.allocation);
+			ex.setStackTrace(new StackTraceElement[0]);
+			return ex;
+		}
+	}
+
+
+	/**
+	 * {@link DefaultDataBuffer} backed by a buffer from the pool of the factory,
+	 * returned to the pool when the reference count drops to zero.
+	 */
+	private static class PooledByteBufferDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+		private final PooledDataBufferFactory factory;
+
+		private ByteBuffer chunk;
+
+		private final AtomicInteger refCount = new AtomicInteger(1);
+
+		@Nullable
+		private final AllocationRecord allocationRecord;
+
+		PooledByteBufferDataBuffer(PooledDataBufferFactory factory, int capacity) {
+			this(factory, factory.allocateChunk(capacity), capacity);
+		}
+
+		private PooledByteBufferDataBuffer(PooledDataBufferFactory factory, ByteBuffer chunk, int capacity) {
+			super(factory, slice(chunk, capacity));
+			this.factory = factory;
+			this.chunk = chunk;
+			if (factory.leakDetection) {
+				this.allocationRecord = new AllocationRecord(capacity);
+				factory.allocationRecords.put(this.allocationRecord, Boolean.TRUE);
+			}
+			else {
+				this.allocationRecord = null;
+			}
+		}
+
+		private static ByteBuffer slice(ByteBuffer chunk, int capacity) {
+			ByteBuffer duplicate = chunk.duplicate();
+			duplicate.clear().limit(capacity);
+			return duplicate.slice();
+		}
+
+		@Override
+		public DefaultDataBuffer capacity(int newCapacity) {
+			ByteBuffer oldChunk = this.chunk;
+			super.capacity(newCapacity);
+			if (this.chunk != oldChunk) {
+				this.factory.recycleChunk(oldChunk);
+			}
+			return this;
+		}
+
+		@Override
+		ByteBuffer allocate(int capacity, boolean direct) {
+			// Reuse the current chunk if it is large enough, or replace it
+			// with a new chunk, to be recycled in capacity(int) after copying
+			if (capacity > this.chunk.capacity()) {
+				this.chunk = this.factory.allocateChunk(capacity);
+			}
+			return slice(this.chunk, capacity);
+		}
+
+		@Override
+		public DataBuffer retainedSlice(int index, int length) {
+			ByteBuffer byteBuffer = asByteBuffer(index, length);
+			retain();
+			return new RetainedSlice(this, byteBuffer);
+		}
+
+		@Override
+		public InputStream asInputStream(boolean releaseOnClose) {
+			InputStream inputStream = asInputStream();
+			return (releaseOnClose ? new ReleasingInputStream(inputStream, this) : inputStream);
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return (this.refCount.get() > 0);
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			while (true) {
+				int count = this.refCount.get();
+				if (count <= 0) {
+					throw new IllegalStateException("Cannot retain buffer that has been released: " + this);
+				}
+				if (this.refCount.compareAndSet(count, count + 1)) {
+					return this;
+				}
+			}
+		}
+
+		@Override
+		public PooledDataBuffer touch(Object hint) {
+			if (this.allocationRecord != null) {
+				this.allocationRecord.hints.add(hint);
+			}
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			while (true) {
+				int count = this.refCount.get();
+				if (count <= 0) {
+					throw new IllegalStateException("Buffer has been released already: " + this);
+				}
+				if (this.refCount.compareAndSet(count, count - 1)) {
+					if (count > 1) {
+						return false;
+					}
+					if (this.allocationRecord != null) {
+						this.factory.allocationRecords.remove(this.allocationRecord);
+					}
+					this.factory.recycleChunk(this.chunk);
+					return true;
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return String.format("PooledByteBufferDataBuffer (r: %d, w: %d, c: %d, refCount: %d)",
+					readPosition(), writePosition(), capacity(), this.refCount.get());
+		}
+	}
+
+
+	/**
+	 * Retained slice of a pooled buffer, sharing its reference count.
+	 */
+	private static class RetainedSlice extends DefaultDataBuffer implements PooledDataBuffer {
+
+		private final PooledByteBufferDataBuffer parent;
+
+		RetainedSlice(PooledByteBufferDataBuffer parent, ByteBuffer byteBuffer) {
+			super(parent.factory, byteBuffer);
+			this.parent = parent;
+			writePosition(byteBuffer.remaining());
+		}
+
+		@Override
+		public DefaultDataBuffer capacity(int newCapacity) {
+			throw new UnsupportedOperationException("Changing the capacity of a sliced buffer is not supported");
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return this.parent.isAllocated();
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			this.parent.retain();
+			return this;
+		}
+
+		@Override
+		public PooledDataBuffer touch(Object hint) {
+			this.parent.touch(hint);
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			return this.parent.release();
+		}
+	}
+
+
+	/**
+	 * InputStream that releases the buffer it reads from when closed.
+	 */
+	private static class ReleasingInputStream extends FilterInputStream {
+
+		private final PooledDataBuffer buffer;
+
+		private boolean closed;
+
+		ReleasingInputStream(InputStream in, PooledDataBuffer buffer) {
+			super(in);
+			this.buffer = buffer;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!this.closed) {
+				this.closed = true;
+				DataBufferUtils.release(this.buffer);
+			}
+			super.close();
+		}
+	}
+
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.IntStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.ResourceUtils;
+
+/**
+ * Index of the entry names of a jar file, sorted by name, for finding the
+ * entries that match a path pattern through a range query on the root entry
+ * path of the pattern instead of checking every entry of the jar file.
+ *
+ * <p>Indexes are cached per jar file URL for the lifetime of the JVM, as
+ * long as the jar file is unchanged, with soft references so that they can
+ * be garbage-collected under memory pressure. A jar file nested in another
+ * jar file is considered unchanged as long as the outer jar file is, and
+ * the index of a jar file that cannot be traced to a local file is not
+ * cached at all. If the
+ * {@value #PERSIST_PROPERTY_NAME} property is set, the index of a local jar
+ * file is also stored next to it, in a file with the same name plus the
+ * {@value #PERSISTED_INDEX_SUFFIX} suffix, and loaded from there by
+ * subsequent JVMs instead of enumerating the entries of the jar file.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see PathMatchingResourcePatternResolver#doFindPathMatchingJarResources
+ */
+final class JarEntryIndex {
+
+	/**
+	 * System property that instructs Spring to store the index of each local
+	 * jar file next to it and to load it from there on subsequent starts,
+	 * e.g. for read-only deployments that are started many times.
+	 * <p>The default is "false", keeping the index in memory only.
+	 */
+	static final String PERSIST_PROPERTY_NAME = "spring.jar-index.persist";
+
+	/**
+	 * The suffix of the file that the index of a jar file is stored in.
+	 */
+	static final String PERSISTED_INDEX_SUFFIX = ".spring-index";
+
+	private static final int MAGIC = 0x534A4549;
+
+	private static final int VERSION = 1;
+
+
+	private static final Log logger = LogFactory.getLog(JarEntryIndex.class);
+
+	private static final boolean shouldPersist = SpringProperties.getFlag(PERSIST_PROPERTY_NAME);
+
+	private static final Map<String, JarEntryIndex> cache = new ConcurrentReferenceHashMap<>();
+
+
+	private final long length;
+
+	private final long lastModified;
+
+	/** Entry names in the order of the jar file. */
+	private final String[] entries;
+
+	/** Positions of the entries, sorted by entry name. */
+	private final int[] sortedPositions;
+
+
+	private JarEntryIndex(long length, long lastModified, String[] entries, int[] sortedPositions) {
+		this.length = length;
+		this.lastModified = lastModified;
+		this.entries = entries;
+		this.sortedPositions = sortedPositions;
+	}
+
+
+	/**
+	 * Return the entries below the given root entry path that match the given
+	 * pattern, in the order of the jar file.
+	 * @param rootEntryPath the root entry path, ending with a slash unless empty
+	 * @param subPattern the pattern to match against the path relative to the root
+	 * @param pathMatcher the path matcher to use
+	 * @return the matching paths, relative to the root entry path
+	 */
+	List<String> findMatchingEntries(String rootEntryPath, String subPattern, PathMatcher pathMatcher) {
+		int[] matches = new int[8];
+		int matchCount = 0;
+		for (int i = lowerBound(rootEntryPath); i < this.sortedPositions.length; i++) {
+			int position = this.sortedPositions[i];
+			String entryPath = this.entries[position];
+			if (!entryPath.startsWith(rootEntryPath)) {
+				break;
+			}
+			if (pathMatcher.match(subPattern, entryPath.substring(rootEntryPath.length()))) {
+				if (matchCount == matches.length) {
+					matches = Arrays.copyOf(matches, matchCount * 2);
+				}
+				matches[matchCount++] = position;
+			}
+		}
+		if (matchCount == 0) {
+			return Collections.emptyList();
+		}
+		Arrays.sort(matches, 0, matchCount);
+		List<String> result = new ArrayList<>(matchCount);
+		for (int i = 0; i < matchCount; i++) {
+			result.add(this.entries[matches[i]].substring(rootEntryPath.length()));
+		}
+		return result;
+	}
+
+	/**
+	 * Return the index of the first sorted entry that is not less than the given prefix.
+	 */
+	private int lowerBound(String prefix) {
+		int low = 0;
+		int high = this.sortedPositions.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (this.entries[this.sortedPositions[mid]].compareTo(prefix) < 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private boolean isUpToDate(long length, long lastModified, int size) {
+		return (this.length == length && this.lastModified == lastModified && this.entries.length == size);
+	}
+
+	private void store(File indexFile) throws IOException {
+		File tempFile = File.createTempFile(indexFile.getName(), ".tmp", indexFile.getParentFile());
+		try {
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(this.length);
+				out.writeLong(this.lastModified);
+				out.writeInt(this.entries.length);
+				for (String entry : this.entries) {
+					out.writeUTF(entry);
+				}
+				for (int position : this.sortedPositions) {
+					out.writeInt(position);
+				}
+			}
+			Files.move(tempFile.toPath(), indexFile.toPath(),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+
+
+	/**
+	 * Return the index for the given jar file, building it if necessary.
+	 * @param jarFileUrl the URL of the jar file, as the key for the cache
+	 * @param jarFile the jar file to index
+	 * @return the index of the jar file
+	 */
+	static JarEntryIndex forJarFile(String jarFileUrl, JarFile jarFile) {
+		File file = new File(jarFile.getName());
+		boolean localFile = file.isFile();
+		File outerFile = (localFile ? file : getOuterFile(jarFile.getName()));
+		if (outerFile == null) {
+			// No timestamp to tell whether a cached index is still up to date
+			return build(jarFile, -1, -1);
+		}
+		long length = outerFile.length();
+		long lastModified = outerFile.lastModified();
+		int size = jarFile.size();
+
+		JarEntryIndex index = cache.get(jarFileUrl);
+		if (index != null && index.isUpToDate(length, lastModified, size)) {
+			return index;
+		}
+		File indexFile = (shouldPersist && localFile ?
+				new File(file.getParentFile(), file.getName() + PERSISTED_INDEX_SUFFIX) : null);
+		if (indexFile != null && indexFile.isFile()) {
+			index = load(indexFile);
+		}
+		if (index == null || !index.isUpToDate(length, lastModified, size)) {
+			index = build(jarFile, length, lastModified);
+			if (indexFile != null) {
+				try {
+					index.store(indexFile);
+				}
+				catch (IOException ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Unable to store index of jar file [" + jarFileUrl + "]: " + ex);
+					}
+				}
+			}
+		}
+		cache.put(jarFileUrl, index);
+		return index;
+	}
+
+	/**
+	 * Return the local jar file that contains the jar file with the given name,
+	 * e.g. "/app.jar" for "/app.jar!/lib/nested.jar", if any.
+	 */
+	@Nullable
+	private static File getOuterFile(String jarFileName) {
+		int separatorIndex = jarFileName.indexOf(ResourceUtils.JAR_URL_SEPARATOR);
+		if (separatorIndex == -1) {
+			return null;
+		}
+		String outerFileName = jarFileName.substring(0, separatorIndex);
+		if (outerFileName.startsWith(ResourceUtils.FILE_URL_PREFIX)) {
+			outerFileName = outerFileName.substring(ResourceUtils.FILE_URL_PREFIX.length());
+		}
+		File outerFile = new File(outerFileName);
+		return (outerFile.isFile() ? outerFile : null);
+	}
+
+	private static JarEntryIndex build(JarFile jarFile, long length, long lastModified) {
+		long startTime = System.nanoTime();
+		List<String> entryList = new ArrayList<>(jarFile.size());
+		for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
+			entryList.add(entries.nextElement().getName());
+		}
+		String[] entries = entryList.toArray(new String[0]);
+		int[] sortedPositions = IntStream.range(0, entries.length).boxed()
+				.sorted(Comparator.comparing(position -> entries[position]))
+				.mapToInt(Integer::intValue).toArray();
+		if (logger.isDebugEnabled()) {
+			logger.debug("Indexed " + entries.length + " entries of jar file [" + jarFile.getName() + "] in " +
+					(System.nanoTime() - startTime) / 1000000 + " ms");
+		}
+		return new JarEntryIndex(length, lastModified, entries, sortedPositions);
+	}
+
+	@Nullable
+	private static JarEntryIndex load(File indexFile) {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return null;
+			}
+			long length = in.readLong();
+			long lastModified = in.readLong();
+			String[] entries = new String[in.readInt()];
+			for (int i = 0; i < entries.length; i++) {
+				entries[i] = in.readUTF();
+			}
+			int[] sortedPositions = new int[entries.length];
+			for (int i = 0; i < sortedPositions.length; i++) {
+				sortedPositions[i] = in.readInt();
+				if (sortedPositions[i] < 0 || sortedPositions[i] >= entries.length) {
+					return null;
+				}
+			}
+			return new JarEntryIndex(length, lastModified, entries, sortedPositions);
+		}
+		catch (IOException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring unreadable jar index file [" + indexFile + "]: " + ex);
+			}
+			return null;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,12 +27,14 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLConnection;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.zip.ZipException;
@@ -169,6 +171,11 @@ import org.springframework.util.StringUtils;
  * Ant-style pattern in such a case, which will search <i>all</i> class path
  * locations that contain the root package.
  *
+ * <p>Jar files are searched through an index of their entry names, built once
+ * per jar file and cached for the lifetime of the JVM: see
+ * {@link #doFindPathMatchingJarResources}. The total time spent searching jar
+ * files is available through {@link #getJarScanTime()}.
+ *
  * @author Juergen Hoeller
  * @author Colin Sampaleanu
  * @author Marius Bogoevici
@@ -205,6 +212,8 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 
 	private PathMatcher pathMatcher = new AntPathMatcher();
 
+	private final LongAdder jarScanNanos = new LongAdder();
+
 
 	/**
 	 * Create a new PathMatchingResourcePatternResolver with a DefaultResourceLoader.
@@ -268,6 +277,17 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		return this.pathMatcher;
 	}
 
+	/**
+	 * Return the total time that this resolver has spent searching jar files
+	 * for matching resources so far, including the time for indexing their
+	 * entries on first access.
+	 * @since 5.3.9
+	 * @see #doFindPathMatchingJarResources
+	 */
+	public Duration getJarScanTime() {
+		return Duration.ofNanos(this.jarScanNanos.sum());
+	}
+
 
 	@Override
 	public Resource getResource(String location) {
@@ -579,6 +599,9 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 	/**
 	 * Find all resources in jar files that match the given location pattern
 	 * via the Ant-style PathMatcher.
+	 * <p>As of 5.3.9, the entries of each jar file are indexed on first access,
+	 * and only the entries below the root directory are matched against the
+	 * sub pattern, in the order of the jar file.
 	 * @param rootDirResource the root directory as Resource
 	 * @param rootDirURL the pre-resolved root directory URL
 	 * @param subPattern the sub pattern to match (below the root directory)
@@ -591,6 +614,18 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 	protected Set<Resource> doFindPathMatchingJarResources(Resource rootDirResource, URL rootDirURL, String subPattern)
 			throws IOException {
 
+		long startTime = System.nanoTime();
+		try {
+			return doFindPathMatchingJarEntries(rootDirResource, rootDirURL, subPattern);
+		}
+		finally {
+			this.jarScanNanos.add(System.nanoTime() - startTime);
+		}
+	}
+
+	private Set<Resource> doFindPathMatchingJarEntries(Resource rootDirResource, URL rootDirURL, String subPattern)
+			throws IOException {
+
 		URLConnection con = rootDirURL.openConnection();
 		JarFile jarFile;
 		String jarFileUrl;
@@ -648,15 +683,9 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 				rootEntryPath = rootEntryPath + "/";
 			}
 			Set<Resource> result = new LinkedHashSet<>(8);
-			for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
-				JarEntry entry = entries.nextElement();
-				String entryPath = entry.getName();
-				if (entryPath.startsWith(rootEntryPath)) {
-					String relativePath = entryPath.substring(rootEntryPath.length());
-					if (getPathMatcher().match(subPattern, relativePath)) {
-						result.add(rootDirResource.createRelative(relativePath));
-					}
-				}
+			JarEntryIndex index = JarEntryIndex.forJarFile(jarFileUrl, jarFile);
+			for (String relativePath : index.findMatchingEntries(rootEntryPath, subPattern, getPathMatcher())) {
+				result.add(rootDirResource.createRelative(relativePath));
 			}
 			return result;
 		}
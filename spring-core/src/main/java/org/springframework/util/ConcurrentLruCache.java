@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,18 +16,33 @@
 
 package org.springframework.util;
 
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 
+import org.springframework.lang.Nullable;
+
 /**
  * Simple LRU (Least Recently Used) cache, bounded by a specified cache limit.
  *
  * <p>This implementation is backed by a {@code ConcurrentHashMap} for storing
- * the cached values and a {@code ConcurrentLinkedDeque} for ordering the keys
- * and choosing the least recently used key when the cache is at full capacity.
+ * the cached values. Cache hits never lock: accesses are recorded in striped,
+ * lossy read buffers, while additions and removals are recorded in a write
+ * buffer. Both buffers are drained in batches by whichever thread manages to
+ * acquire the eviction lock, which then reorders the eviction queue and
+ * evicts the least recently used entries if the cache is over capacity.
+ *
+ * <p>This design is inspired by the
+ * <a href="https://github.com/ben-manes/concurrentlinkedhashmap">ConcurrentLinkedHashMap</a>
+ * and <a href="https://github.com/ben-manes/caffeine">Caffeine</a> libraries.
+ * As a consequence, the size of the cache may temporarily exceed its limit
+ * under heavy concurrent writes, until pending operations have been drained.
  *
  * @author Brian Clozel
  * @author Juergen Hoeller
@@ -42,13 +57,19 @@ public class ConcurrentLruCache<K, V> {
 
 	private final Function<K, V> generator;
 
-	private final ConcurrentHashMap<K, V> cache = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<K, Node<K, V>> cache = new ConcurrentHashMap<>();
+
+	private final AtomicInteger currentSize = new AtomicInteger();
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
 
-	private final ConcurrentLinkedDeque<K> queue = new ConcurrentLinkedDeque<>();
+	private final EvictionQueue<K, V> evictionQueue = new EvictionQueue<>();
 
-	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final ReadOperations<K, V> readOperations = new ReadOperations<>(this.evictionQueue);
 
-	private volatile int size;
+	private final WriteOperations writeOperations = new WriteOperations();
+
+	private final AtomicReference<DrainStatus> drainStatus = new AtomicReference<>(DrainStatus.IDLE);
 
 
 	/**
@@ -75,50 +96,24 @@ public class ConcurrentLruCache<K, V> {
 		if (this.sizeLimit == 0) {
 			return this.generator.apply(key);
 		}
-
-		V cached = this.cache.get(key);
-		if (cached != null) {
-			if (this.size < this.sizeLimit) {
-				return cached;
-			}
-			this.lock.readLock().lock();
-			try {
-				if (this.queue.removeLastOccurrence(key)) {
-					this.queue.offer(key);
-				}
-				return cached;
-			}
-			finally {
-				this.lock.readLock().unlock();
-			}
+		Node<K, V> node = this.cache.get(key);
+		if (node == null) {
+			return put(key, this.generator.apply(key));
 		}
+		processRead(node);
+		return node.getValue();
+	}
 
-		this.lock.writeLock().lock();
-		try {
-			// Retrying in case of concurrent reads on the same key
-			cached = this.cache.get(key);
-			if (cached != null) {
-				if (this.queue.removeLastOccurrence(key)) {
-					this.queue.offer(key);
-				}
-				return cached;
-			}
-			// Generate value first, to prevent size inconsistency
-			V value = this.generator.apply(key);
-			if (this.size == this.sizeLimit) {
-				K leastUsed = this.queue.poll();
-				if (leastUsed != null) {
-					this.cache.remove(leastUsed);
-				}
-			}
-			this.queue.offer(key);
-			this.cache.put(key, value);
-			this.size = this.cache.size();
+	private V put(K key, V value) {
+		Node<K, V> node = new Node<>(key, new CacheEntry<>(value, CacheEntryState.ACTIVE));
+		Node<K, V> prior = this.cache.putIfAbsent(key, node);
+		if (prior == null) {
+			processWrite(new AddTask(node));
 			return value;
 		}
-		finally {
-			this.lock.writeLock().unlock();
-		}
+		// Concurrent generation for the same key: keep the winning value
+		processRead(prior);
+		return prior.getValue();
 	}
 
 	/**
@@ -138,30 +133,31 @@ public class ConcurrentLruCache<K, V> {
 	 * {@code false} if there was no matching key
 	 */
 	public boolean remove(K key) {
-		this.lock.writeLock().lock();
-		try {
-			boolean wasPresent = (this.cache.remove(key) != null);
-			this.queue.remove(key);
-			this.size = this.cache.size();
-			return wasPresent;
-		}
-		finally {
-			this.lock.writeLock().unlock();
+		Node<K, V> node = this.cache.remove(key);
+		if (node == null) {
+			return false;
 		}
+		markForRemoval(node);
+		processWrite(new RemovalTask(node));
+		return true;
 	}
 
 	/**
 	 * Immediately remove all entries from this cache.
 	 */
 	public void clear() {
-		this.lock.writeLock().lock();
+		this.evictionLock.lock();
 		try {
-			this.cache.clear();
-			this.queue.clear();
-			this.size = 0;
+			this.writeOperations.drainAll();
+			Node<K, V> node;
+			while ((node = this.evictionQueue.poll()) != null) {
+				this.cache.remove(node.key, node);
+				markAsRemoved(node);
+			}
+			this.readOperations.clear();
 		}
 		finally {
-			this.lock.writeLock().unlock();
+			this.evictionLock.unlock();
 		}
 	}
 
@@ -170,7 +166,7 @@ public class ConcurrentLruCache<K, V> {
 	 * @see #sizeLimit()
 	 */
 	public int size() {
-		return this.size;
+		return this.cache.size();
 	}
 
 	/**
@@ -182,4 +178,423 @@ public class ConcurrentLruCache<K, V> {
 		return this.sizeLimit;
 	}
 
+
+	private void processRead(Node<K, V> node) {
+		boolean delayable = this.readOperations.recordRead(node);
+		if (this.drainStatus.get().shouldDrainBuffers(delayable)) {
+			drainOperations();
+		}
+	}
+
+	private void processWrite(Runnable task) {
+		this.writeOperations.add(task);
+		this.drainStatus.lazySet(DrainStatus.REQUIRED);
+		drainOperations();
+	}
+
+	private void drainOperations() {
+		if (this.evictionLock.tryLock()) {
+			try {
+				this.drainStatus.lazySet(DrainStatus.PROCESSING);
+				this.readOperations.drain();
+				this.writeOperations.drain();
+			}
+			finally {
+				this.drainStatus.compareAndSet(DrainStatus.PROCESSING, DrainStatus.IDLE);
+				this.evictionLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Evict least recently used entries while the cache is over capacity.
+	 * <p>Must be called while holding the eviction lock.
+	 */
+	private void evictEntries() {
+		while (this.currentSize.get() > this.sizeLimit) {
+			Node<K, V> node = this.evictionQueue.poll();
+			if (node == null) {
+				return;
+			}
+			this.cache.remove(node.key, node);
+			markAsRemoved(node);
+		}
+	}
+
+	private void markForRemoval(Node<K, V> node) {
+		for (;;) {
+			CacheEntry<V> current = node.get();
+			if (!current.isActive()) {
+				return;
+			}
+			CacheEntry<V> pending = new CacheEntry<>(current.value, CacheEntryState.PENDING_REMOVAL);
+			if (node.compareAndSet(current, pending)) {
+				return;
+			}
+		}
+	}
+
+	private void markAsRemoved(Node<K, V> node) {
+		for (;;) {
+			CacheEntry<V> current = node.get();
+			if (current.state == CacheEntryState.REMOVED) {
+				return;
+			}
+			CacheEntry<V> removed = new CacheEntry<>(current.value, CacheEntryState.REMOVED);
+			if (node.compareAndSet(current, removed)) {
+				this.currentSize.lazySet(this.currentSize.get() - 1);
+				return;
+			}
+		}
+	}
+
+
+	/**
+	 * Write operation recording a newly added node.
+	 */
+	private final class AddTask implements Runnable {
+
+		private final Node<K, V> node;
+
+		AddTask(Node<K, V> node) {
+			this.node = node;
+		}
+
+		@Override
+		public void run() {
+			currentSize.lazySet(currentSize.get() + 1);
+			if (this.node.get().isActive()) {
+				evictionQueue.add(this.node);
+				evictEntries();
+			}
+		}
+	}
+
+
+	/**
+	 * Write operation recording an explicitly removed node.
+	 */
+	private final class RemovalTask implements Runnable {
+
+		private final Node<K, V> node;
+
+		RemovalTask(Node<K, V> node) {
+			this.node = node;
+		}
+
+		@Override
+		public void run() {
+			evictionQueue.remove(this.node);
+			markAsRemoved(this.node);
+		}
+	}
+
+
+	/**
+	 * Drain status for the read and write buffers.
+	 */
+	private enum DrainStatus {
+
+		/**
+		 * No drain operation is currently running.
+		 */
+		IDLE {
+			@Override
+			boolean shouldDrainBuffers(boolean delayable) {
+				return !delayable;
+			}
+		},
+
+		/**
+		 * A drain operation is required due to a pending write modification.
+		 */
+		REQUIRED {
+			@Override
+			boolean shouldDrainBuffers(boolean delayable) {
+				return true;
+			}
+		},
+
+		/**
+		 * A drain operation is in progress.
+		 */
+		PROCESSING {
+			@Override
+			boolean shouldDrainBuffers(boolean delayable) {
+				return false;
+			}
+		};
+
+		/**
+		 * Determine whether the buffers should be drained.
+		 * @param delayable if a drain should be delayed until required
+		 * @return whether the buffers should be drained
+		 */
+		abstract boolean shouldDrainBuffers(boolean delayable);
+	}
+
+
+	private enum CacheEntryState {
+
+		ACTIVE, PENDING_REMOVAL, REMOVED
+	}
+
+
+	private static final class CacheEntry<V> {
+
+		final V value;
+
+		final CacheEntryState state;
+
+		CacheEntry(V value, CacheEntryState state) {
+			this.value = value;
+			this.state = state;
+		}
+
+		boolean isActive() {
+			return (this.state == CacheEntryState.ACTIVE);
+		}
+	}
+
+
+	/**
+	 * A cache node holding the current {@link CacheEntry} for a key,
+	 * linked into the {@link EvictionQueue} while it is active.
+	 */
+	@SuppressWarnings("serial")
+	private static final class Node<K, V> extends AtomicReference<CacheEntry<V>> {
+
+		final K key;
+
+		// Guarded by the eviction lock
+		@Nullable
+		Node<K, V> prev;
+
+		// Guarded by the eviction lock
+		@Nullable
+		Node<K, V> next;
+
+		Node(K key, CacheEntry<V> cacheEntry) {
+			super(cacheEntry);
+			this.key = key;
+		}
+
+		V getValue() {
+			return get().value;
+		}
+	}
+
+
+	/**
+	 * Linked deque of nodes in access order, least recently used first.
+	 * <p>Not thread-safe: must only be used while holding the eviction lock.
+	 */
+	private static final class EvictionQueue<K, V> {
+
+		@Nullable
+		private Node<K, V> first;
+
+		@Nullable
+		private Node<K, V> last;
+
+		@Nullable
+		Node<K, V> poll() {
+			Node<K, V> node = this.first;
+			if (node == null) {
+				return null;
+			}
+			unlink(node);
+			return node;
+		}
+
+		void add(Node<K, V> node) {
+			if (!contains(node)) {
+				linkLast(node);
+			}
+		}
+
+		void remove(Node<K, V> node) {
+			if (contains(node)) {
+				unlink(node);
+			}
+		}
+
+		void moveToBack(Node<K, V> node) {
+			if (contains(node) && node != this.last) {
+				unlink(node);
+				linkLast(node);
+			}
+		}
+
+		private boolean contains(Node<K, V> node) {
+			return (node.prev != null || node.next != null || node == this.first);
+		}
+
+		private void linkLast(Node<K, V> node) {
+			Node<K, V> l = this.last;
+			this.last = node;
+			if (l == null) {
+				this.first = node;
+			}
+			else {
+				l.next = node;
+				node.prev = l;
+			}
+		}
+
+		private void unlink(Node<K, V> node) {
+			Node<K, V> prev = node.prev;
+			Node<K, V> next = node.next;
+			if (prev == null) {
+				this.first = next;
+			}
+			else {
+				prev.next = next;
+				node.prev = null;
+			}
+			if (next == null) {
+				this.last = prev;
+			}
+			else {
+				next.prev = prev;
+				node.next = null;
+			}
+		}
+	}
+
+
+	/**
+	 * Striped, lossy ring buffers recording cache hits.
+	 * <p>Each thread records reads into one of the buffers without locking;
+	 * recorded reads may get overwritten under contention, which only
+	 * affects the precision of the LRU ordering.
+	 */
+	private static final class ReadOperations<K, V> {
+
+		private static final int BUFFER_COUNT = detectNumberOfBuffers();
+
+		private static final int BUFFERS_MASK = BUFFER_COUNT - 1;
+
+		private static final int MAX_PENDING_OPERATIONS = 32;
+
+		private static final int MAX_DRAIN_COUNT = 2 * MAX_PENDING_OPERATIONS;
+
+		private static final int BUFFER_SIZE = 2 * MAX_DRAIN_COUNT;
+
+		private static final int BUFFER_INDEX_MASK = BUFFER_SIZE - 1;
+
+		private static int detectNumberOfBuffers() {
+			int availableProcessors = Runtime.getRuntime().availableProcessors();
+			int nextPowerOfTwo = 1 << (Integer.SIZE - Integer.numberOfLeadingZeros(availableProcessors - 1));
+			return Math.min(4, nextPowerOfTwo);
+		}
+
+		private final AtomicLongArray recordedCount = new AtomicLongArray(BUFFER_COUNT);
+
+		// Guarded by the eviction lock
+		private final long[] readCount = new long[BUFFER_COUNT];
+
+		private final AtomicLongArray processedCount = new AtomicLongArray(BUFFER_COUNT);
+
+		private final AtomicReferenceArray<Node<K, V>>[] buffers;
+
+		private final EvictionQueue<K, V> evictionQueue;
+
+		@SuppressWarnings("unchecked")
+		ReadOperations(EvictionQueue<K, V> evictionQueue) {
+			this.evictionQueue = evictionQueue;
+			this.buffers = new AtomicReferenceArray[BUFFER_COUNT];
+			for (int i = 0; i < BUFFER_COUNT; i++) {
+				this.buffers[i] = new AtomicReferenceArray<>(BUFFER_SIZE);
+			}
+		}
+
+		private static int getBufferIndex() {
+			return ((int) Thread.currentThread().getId()) & BUFFERS_MASK;
+		}
+
+		/**
+		 * Record a read for the given node.
+		 * @return {@code true} if draining may be delayed,
+		 * {@code false} if too many reads are pending
+		 */
+		boolean recordRead(Node<K, V> node) {
+			int bufferIndex = getBufferIndex();
+			long writeCount = this.recordedCount.get(bufferIndex);
+			this.recordedCount.lazySet(bufferIndex, writeCount + 1);
+			int index = (int) (writeCount & BUFFER_INDEX_MASK);
+			this.buffers[bufferIndex].lazySet(index, node);
+			long pending = (writeCount - this.processedCount.get(bufferIndex));
+			return (pending < MAX_PENDING_OPERATIONS);
+		}
+
+		void drain() {
+			int start = (int) Thread.currentThread().getId();
+			int end = start + BUFFER_COUNT;
+			for (int i = start; i < end; i++) {
+				drainReadBuffer(i & BUFFERS_MASK);
+			}
+		}
+
+		void clear() {
+			for (int i = 0; i < BUFFER_COUNT; i++) {
+				AtomicReferenceArray<Node<K, V>> buffer = this.buffers[i];
+				for (int j = 0; j < BUFFER_SIZE; j++) {
+					buffer.lazySet(j, null);
+				}
+				long writeCount = this.recordedCount.get(i);
+				this.readCount[i] = writeCount;
+				this.processedCount.lazySet(i, writeCount);
+			}
+		}
+
+		private void drainReadBuffer(int bufferIndex) {
+			long writeCount = this.recordedCount.get(bufferIndex);
+			AtomicReferenceArray<Node<K, V>> buffer = this.buffers[bufferIndex];
+			for (int i = 0; i < MAX_DRAIN_COUNT; i++) {
+				int index = (int) (this.readCount[bufferIndex] & BUFFER_INDEX_MASK);
+				Node<K, V> node = buffer.get(index);
+				if (node == null) {
+					break;
+				}
+				buffer.lazySet(index, null);
+				this.evictionQueue.moveToBack(node);
+				this.readCount[bufferIndex]++;
+			}
+			this.processedCount.lazySet(bufferIndex, writeCount);
+		}
+	}
+
+
+	/**
+	 * Unbounded buffer of pending write operations, applied in order.
+	 */
+	private static final class WriteOperations {
+
+		private static final int DRAIN_THRESHOLD = 16;
+
+		private final Queue<Runnable> operations = new ConcurrentLinkedQueue<>();
+
+		void add(Runnable task) {
+			this.operations.add(task);
+		}
+
+		void drain() {
+			for (int i = 0; i < DRAIN_THRESHOLD; i++) {
+				Runnable task = this.operations.poll();
+				if (task == null) {
+					break;
+				}
+				task.run();
+			}
+		}
+
+		void drainAll() {
+			Runnable task;
+			while ((task = this.operations.poll()) != null) {
+				task.run();
+			}
+		}
+	}
+
 }
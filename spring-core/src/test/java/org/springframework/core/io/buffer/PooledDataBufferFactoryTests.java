@@ -0,0 +1,176 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link PooledDataBufferFactory}.
+ *
+ * @author agent (agent@local)
+ */
+class PooledDataBufferFactoryTests {
+
+	private final PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory();
+
+
+	@Test
+	void allocateDirectBufferWithExactCapacity() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		assertThat(buffer).isInstanceOf(PooledDataBuffer.class);
+		assertThat(buffer.capacity()).isEqualTo(100);
+		assertThat(buffer.asByteBuffer().isDirect()).isTrue();
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+	}
+
+	@Test
+	void reuseReleasedBuffer() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		buffer.write((byte) 'a');
+		DataBufferUtils.release(buffer);
+
+		// Same size class: expect the previous content of the pooled buffer
+		buffer = this.bufferFactory.allocateBuffer(120);
+		assertThat(buffer.readableByteCount()).isEqualTo(0);
+		assertThat(buffer.asByteBuffer(0, 1).get(0)).isEqualTo((byte) 'a');
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	void threadCacheBoundedAcrossSizeClasses() {
+		this.bufferFactory.setThreadCacheSize(1024);
+		this.bufferFactory.setSharedPoolSize(0);
+
+		DataBuffer[] small = new DataBuffer[8];
+		for (int i = 0; i < small.length; i++) {
+			small[i] = this.bufferFactory.allocateBuffer(128);
+		}
+		DataBuffer large = this.bufferFactory.allocateBuffer(1024);
+		large.write((byte) 'a');
+		for (DataBuffer buffer : small) {
+			DataBufferUtils.release(buffer);
+		}
+		// Thread cache already full with 8 x 128 bytes: the large buffer is dropped
+		DataBufferUtils.release(large);
+
+		large = this.bufferFactory.allocateBuffer(1024);
+		assertThat(large.asByteBuffer(0, 1).get(0)).isEqualTo((byte) 0);
+		DataBufferUtils.release(large);
+	}
+
+	@Test
+	void growAndShrinkCapacity() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(4);
+		buffer.write("abcd", StandardCharsets.UTF_8);
+		buffer.write("efghijklmnop", StandardCharsets.UTF_8);
+		assertThat(buffer.capacity()).isGreaterThanOrEqualTo(16);
+		assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("abcdefghijklmnop");
+
+		buffer.capacity(8);
+		assertThat(buffer.capacity()).isEqualTo(8);
+		assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("abcdefgh");
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	void allocateBufferAboveMaxPooledCapacity() {
+		PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(256, 1024);
+		DataBuffer buffer = bufferFactory.allocateBuffer(4096);
+		assertThat(buffer.capacity()).isEqualTo(4096);
+		buffer.write(new byte[4096]);
+		assertThat(buffer.readableByteCount()).isEqualTo(4096);
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+	}
+
+	@Test
+	void maxPooledCapacityMustBePowerOfTwo() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new PooledDataBufferFactory(256, 1000));
+		assertThatIllegalArgumentException().isThrownBy(() -> new PooledDataBufferFactory(256, 32));
+	}
+
+	@Test
+	void retainedSliceSharesReferenceCount() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(8);
+		buffer.write("abcdefgh", StandardCharsets.UTF_8);
+
+		DataBuffer slice = buffer.retainedSlice(2, 3);
+		assertThat(slice.toString(StandardCharsets.UTF_8)).isEqualTo("cde");
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+		assertThat(((PooledDataBuffer) slice).isAllocated()).isTrue();
+		assertThat(DataBufferUtils.release(slice)).isTrue();
+		assertThat(((PooledDataBuffer) buffer).isAllocated()).isFalse();
+	}
+
+	@Test
+	void releaseOnCloseOfInputStream() throws Exception {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(3);
+		buffer.write("abc", StandardCharsets.UTF_8);
+
+		try (InputStream inputStream = buffer.asInputStream(true)) {
+			assertThat(inputStream.read()).isEqualTo('a');
+		}
+		assertThat(((PooledDataBuffer) buffer).isAllocated()).isFalse();
+	}
+
+	@Test
+	void joinReleasesBuffers() {
+		DataBuffer buffer1 = this.bufferFactory.allocateBuffer(2);
+		buffer1.write("ab", StandardCharsets.UTF_8);
+		DataBuffer buffer2 = this.bufferFactory.allocateBuffer(2);
+		buffer2.write("cd", StandardCharsets.UTF_8);
+
+		DataBuffer result = this.bufferFactory.join(Arrays.asList(buffer1, buffer2));
+		assertThat(result.toString(StandardCharsets.UTF_8)).isEqualTo("abcd");
+		assertThat(((PooledDataBuffer) buffer1).isAllocated()).isFalse();
+		assertThat(((PooledDataBuffer) buffer2).isAllocated()).isFalse();
+		DataBufferUtils.release(result);
+	}
+
+	@Test
+	void leakDetection() {
+		this.bufferFactory.setLeakDetection(true);
+		PooledDataBuffer buffer = (PooledDataBuffer) this.bufferFactory.allocateBuffer(16);
+		buffer.touch("decoder");
+
+		assertThatIllegalStateException().isThrownBy(this.bufferFactory::checkForLeaks)
+				.withMessageStartingWith("1 buffer leaks detected")
+				.satisfies(ex -> assertThat(ex.getSuppressed()).hasSize(1)
+						.allSatisfy(leak -> assertThat(leak.getMessage()).contains("decoder")));
+
+		buffer.release();
+		this.bufferFactory.checkForLeaks();
+	}
+
+	@Test
+	void tooManyReleasesOfRetainedSlice() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(4);
+		buffer.write("abcd", StandardCharsets.UTF_8);
+		DataBuffer slice = buffer.retainedSlice(0, 2);
+		DataBufferUtils.release(slice);
+		DataBufferUtils.release(buffer);
+		assertThatIllegalStateException().isThrownBy(((PooledDataBuffer) slice)::release);
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.util.AntPathMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link JarEntryIndex}.
+ *
+ * @author agent (agent@local)
+ */
+class JarEntryIndexTests {
+
+	private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+
+	@Test
+	void localJarFileIsCachedUntilModified(@TempDir Path tempDir) throws IOException {
+		Path jar = createJarFile(tempDir.resolve("local.jar"), "b/z.txt");
+		String url = jar.toUri().toString();
+		JarEntryIndex index = indexOf(url, jar, jar.toString());
+		assertThat(indexOf(url, jar, jar.toString())).isSameAs(index);
+
+		createJarFile(jar, "b/a.txt");
+		jar.toFile().setLastModified(jar.toFile().lastModified() + 2000);
+		assertThat(findTextFiles(indexOf(url, jar, jar.toString()))).containsExactly("a.txt");
+	}
+
+	@Test
+	void nestedJarFileIsCachedUntilOuterJarFileModified(@TempDir Path tempDir) throws IOException {
+		File outer = createJarFile(tempDir.resolve("outer.jar"), "lib/nested.jar").toFile();
+		Path nested = createJarFile(tempDir.resolve("nested.jar"), "b/z.txt");
+		String name = outer.getPath() + "!/lib/nested.jar";
+		String url = "jar:" + outer.toURI() + "!/lib/nested.jar";
+		JarEntryIndex index = indexOf(url, nested, name);
+		assertThat(indexOf(url, nested, name)).isSameAs(index);
+
+		// Same entry count, but different entries
+		createJarFile(nested, "b/a.txt");
+		outer.setLastModified(outer.lastModified() + 2000);
+		assertThat(findTextFiles(indexOf(url, nested, name))).containsExactly("a.txt");
+	}
+
+	@Test
+	void jarFileWithoutLocalFileIsNotCached(@TempDir Path tempDir) throws IOException {
+		Path jar = createJarFile(tempDir.resolve("remote.jar"), "b/z.txt");
+		String name = "https://example.org/remote.jar";
+		assertThat(findTextFiles(indexOf(name, jar, name))).containsExactly("z.txt");
+
+		createJarFile(jar, "b/a.txt");
+		assertThat(findTextFiles(indexOf(name, jar, name))).containsExactly("a.txt");
+	}
+
+
+	private List<String> findTextFiles(JarEntryIndex index) {
+		return index.findMatchingEntries("b/", "*.txt", this.pathMatcher);
+	}
+
+	private static JarEntryIndex indexOf(String jarFileUrl, Path jar, String jarFileName) throws IOException {
+		try (JarFile jarFile = new JarFile(jar.toFile()) {
+			@Override
+			public String getName() {
+				return jarFileName;
+			}
+		}) {
+			return JarEntryIndex.forJarFile(jarFileUrl, jarFile);
+		}
+	}
+
+	private static Path createJarFile(Path jarFile, String... entryNames) throws IOException {
+		try (OutputStream out = Files.newOutputStream(jarFile); JarOutputStream jar = new JarOutputStream(out)) {
+			for (String entryName : entryNames) {
+				jar.putNextEntry(new JarEntry(entryName));
+				jar.closeEntry();
+			}
+		}
+		return jarFile;
+	}
+
+}
@@ -19,12 +19,18 @@ package org.springframework.core.io.support;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.springframework.core.io.Resource;
 import org.springframework.util.StringUtils;
@@ -129,6 +135,44 @@ class PathMatchingResourcePatternResolverTests {
 		assertThat(found).as("Could not find aspectj_1_5_0.dtd in the root of the aspectjweaver jar").isTrue();
 	}
 
+	@Test
+	void patternInJarFileKeepsJarFileOrder(@TempDir Path tempDir) throws IOException {
+		String jarUrl = createJarFile(tempDir, "b/", "b/z.txt", "b/sub/", "b/sub/m.txt", "b/a.txt", "a.txt", "b/a.xml");
+
+		Resource[] resources = resolver.getResources("jar:" + jarUrl + "!/b/**/*.txt");
+		assertThat(resources).extracting(Resource::getURL).extracting(Object::toString).containsExactly(
+				"jar:" + jarUrl + "!/b/z.txt", "jar:" + jarUrl + "!/b/sub/m.txt", "jar:" + jarUrl + "!/b/a.txt");
+
+		resources = resolver.getResources("jar:" + jarUrl + "!/b/sub/**");
+		assertThat(resources).extracting(Resource::getFilename).containsExactly("", "m.txt");
+
+		resources = resolver.getResources("jar:" + jarUrl + "!/*.txt");
+		assertThat(resources).extracting(Resource::getFilename).containsExactly("a.txt");
+		assertThat(resolver.getJarScanTime()).isPositive();
+	}
+
+	@Test
+	void patternInModifiedJarFile(@TempDir Path tempDir) throws IOException {
+		String jarUrl = createJarFile(tempDir, "b/", "b/z.txt");
+		Resource[] resources = resolver.getResources("jar:" + jarUrl + "!/b/*.txt");
+		assertThat(resources).extracting(Resource::getFilename).containsExactly("z.txt");
+
+		createJarFile(tempDir, "b/", "b/z.txt", "b/a.txt");
+		resources = resolver.getResources("jar:" + jarUrl + "!/b/*.txt");
+		assertThat(resources).extracting(Resource::getFilename).containsExactly("z.txt", "a.txt");
+	}
+
+
+	private String createJarFile(Path directory, String... entryNames) throws IOException {
+		Path jarFile = directory.resolve("test.jar");
+		try (OutputStream out = Files.newOutputStream(jarFile); JarOutputStream jar = new JarOutputStream(out)) {
+			for (String entryName : entryNames) {
+				jar.putNextEntry(new JarEntry(entryName));
+				jar.closeEntry();
+			}
+		}
+		return jarFile.toUri().toURL().toString();
+	}
 
 	private void assertProtocolAndFilenames(Resource[] resources, String protocol, String... filenames)
 			throws IOException {
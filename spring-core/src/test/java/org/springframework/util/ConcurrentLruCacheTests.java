@@ -46,6 +46,26 @@ class ConcurrentLruCacheTests {
 		assertThat(this.cache.contains("k3")).isTrue();
 	}
 
+	@Test
+	void evictsLeastRecentlyUsed() {
+		assertThat(this.cache.get("k1")).isEqualTo("k1value");
+		assertThat(this.cache.get("k2")).isEqualTo("k2value");
+		assertThat(this.cache.get("k1")).isEqualTo("k1value");
+		assertThat(this.cache.get("k3")).isEqualTo("k3value");
+		assertThat(this.cache.size()).isEqualTo(2);
+		assertThat(this.cache.contains("k1")).isTrue();
+		assertThat(this.cache.contains("k2")).isFalse();
+		assertThat(this.cache.contains("k3")).isTrue();
+	}
+
+	@Test
+	void zeroSizeLimitAlwaysGenerates() {
+		ConcurrentLruCache<String, String> noCache = new ConcurrentLruCache<>(0, key -> key + "value");
+		assertThat(noCache.get("k1")).isEqualTo("k1value");
+		assertThat(noCache.size()).isEqualTo(0);
+		assertThat(noCache.contains("k1")).isFalse();
+	}
+
 	@Test
 	void removeAndSize() {
 		assertThat(this.cache.get("k1")).isEqualTo("k1value");
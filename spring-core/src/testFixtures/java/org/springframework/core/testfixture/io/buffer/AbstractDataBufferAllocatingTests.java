@@ -46,6 +46,7 @@ import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.core.io.buffer.PooledDataBufferFactory;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -144,6 +145,14 @@ public abstract class AbstractDataBufferAllocatingTests {
 				}
 			}
 		}
+		else if (this.bufferFactory instanceof PooledDataBufferFactory) {
+			try {
+				((PooledDataBufferFactory) this.bufferFactory).checkForLeaks();
+			}
+			catch (IllegalStateException ex) {
+				throw new AssertionError(ex.getMessage(), ex);
+			}
+		}
 	}
 
 	private static long getAllocations(List<PoolArenaMetric> metrics) {
@@ -174,8 +183,16 @@ public abstract class AbstractDataBufferAllocatingTests {
 			arguments("DefaultDataBufferFactory - preferDirect = true",
 					new DefaultDataBufferFactory(true)),
 			arguments("DefaultDataBufferFactory - preferDirect = false",
-					new DefaultDataBufferFactory(false))
+					new DefaultDataBufferFactory(false)),
+			arguments("PooledDataBufferFactory",
+					createPooledDataBufferFactory())
 		);
 	}
 
+	private static PooledDataBufferFactory createPooledDataBufferFactory() {
+		PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory();
+		bufferFactory.setLeakDetection(true);
+		return bufferFactory;
+	}
+
 }
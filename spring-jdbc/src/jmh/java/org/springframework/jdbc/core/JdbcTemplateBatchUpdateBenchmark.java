@@ -0,0 +1,97 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Benchmark for {@link JdbcTemplate#batchUpdate(String, java.util.Collection, int, ParameterizedPreparedStatementSetter)}
+ * against embedded H2 and HSQL databases, with and without multi-row INSERT rewriting.
+ *
+ * @author agent (agent@local)
+ */
+@BenchmarkMode(Mode.Throughput)
+public class JdbcTemplateBatchUpdateBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"H2", "HSQL"})
+		public EmbeddedDatabaseType databaseType;
+
+		/** Bind parameter limit for multi-row INSERT statements, or -1 for regular batches. */
+		@Param({"-1", "1000"})
+		public int parameterLimit;
+
+		@Param({"1000"})
+		public int rows;
+
+		public EmbeddedDatabase database;
+
+		public JdbcTemplate jdbcTemplate;
+
+		public List<Object[]> batchArgs;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.database = new EmbeddedDatabaseBuilder().setType(this.databaseType).generateUniqueName(true).build();
+			this.jdbcTemplate = new JdbcTemplate(this.database);
+			this.jdbcTemplate.setMultiRowInsertParameterLimit(this.parameterLimit);
+			this.jdbcTemplate.execute("CREATE TABLE person (id INTEGER, name VARCHAR(50), age INTEGER)");
+			this.batchArgs = new ArrayList<>(this.rows);
+			for (int i = 0; i < this.rows; i++) {
+				this.batchArgs.add(new Object[] {i, "name" + i, i % 100});
+			}
+		}
+
+		@Setup(Level.Invocation)
+		public void clearTable() {
+			this.jdbcTemplate.execute("DELETE FROM person");
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			this.database.shutdown();
+		}
+	}
+
+	@Benchmark
+	public int[][] batchInsert(BenchmarkState state) {
+		return state.jdbcTemplate.batchUpdate("INSERT INTO person (id, name, age) VALUES (?, ?, ?)",
+				state.batchArgs, 500, (ps, args) -> {
+					ps.setInt(1, (Integer) args[0]);
+					ps.setString(2, (String) args[1]);
+					ps.setInt(3, (Integer) args[2]);
+				});
+	}
+
+}
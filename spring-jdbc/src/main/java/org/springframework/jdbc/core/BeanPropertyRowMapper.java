@@ -17,11 +17,16 @@
 package org.springframework.jdbc.core;
 
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -36,6 +41,7 @@ import org.springframework.beans.NotWritablePropertyException;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.TypeMismatchException;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
@@ -43,6 +49,7 @@ import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -69,7 +76,8 @@ import org.springframework.util.StringUtils;
  * will have been set to the primitive's default value instead of null.
  *
  * <p>Please note that this class is designed to provide convenience rather than high performance.
- * For best performance, consider using a custom {@link RowMapper} implementation.
+ * For best performance, consider using a custom {@link RowMapper} implementation, or switch on
+ * {@link #setCompiledMapping compiled mapping} which generates such an implementation at runtime.
  *
  * @author Thomas Risberg
  * @author Juergen Hoeller
@@ -104,6 +112,13 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	@Nullable
 	private Set<String> mappedProperties;
 
+	/** Whether we're mapping rows through code generated for each column layout. */
+	private boolean compiledMapping = false;
+
+	/** The plan for the column layout most recently seen in compiled mode. */
+	@Nullable
+	private volatile CompiledMappingPlan compiledMappingPlan;
+
 
 	/**
 	 * Create a new {@code BeanPropertyRowMapper} for bean-style configuration.
@@ -181,6 +196,7 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	 */
 	public void setPrimitivesDefaultedForNullValue(boolean primitivesDefaultedForNullValue) {
 		this.primitivesDefaultedForNullValue = primitivesDefaultedForNullValue;
+		this.compiledMappingPlan = null;
 	}
 
 	/**
@@ -213,6 +229,37 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		return this.conversionService;
 	}
 
+	/**
+	 * Set whether to map rows through code generated at runtime, as opposed to
+	 * bean property access for every single row.
+	 * <p>Default is {@code false}. If switched on, a mapping class is generated
+	 * for the first row of each column layout, and cached per mapped class and
+	 * column layout: reading column values through typed {@link ResultSet}
+	 * getters and calling the constructor and setter methods of the mapped class
+	 * directly. Columns with target types that no typed getter exists for (e.g.
+	 * {@code java.time} types or enums) are still mapped through a BeanWrapper.
+	 * <p>Values read through typed getters match their target types already and
+	 * are therefore not passed through the {@link ConversionService}; a {@code null}
+	 * value for a primitive constructor parameter is passed as the primitive's
+	 * default value, as with {@link BeanUtils#instantiateClass}. The regular
+	 * mapping algorithm remains in place for mapped classes or members which are
+	 * not public, for Kotlin classes, and for subclasses which customize
+	 * {@code getColumnValue} or {@code constructMappedInstance}.
+	 * @since 5.3.9
+	 */
+	public void setCompiledMapping(boolean compiledMapping) {
+		this.compiledMapping = compiledMapping;
+		this.compiledMappingPlan = null;
+	}
+
+	/**
+	 * Return whether we're mapping rows through code generated at runtime.
+	 * @since 5.3.9
+	 */
+	public boolean isCompiledMapping() {
+		return this.compiledMapping;
+	}
+
 
 	/**
 	 * Initialize the mapping meta-data for the given class.
@@ -222,6 +269,7 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		this.mappedClass = mappedClass;
 		this.mappedFields = new HashMap<>();
 		this.mappedProperties = new HashSet<>();
+		this.compiledMappingPlan = null;
 
 		for (PropertyDescriptor pd : BeanUtils.getPropertyDescriptors(mappedClass)) {
 			if (pd.getWriteMethod() != null) {
@@ -280,6 +328,13 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	 */
 	@Override
 	public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
+		if (this.compiledMapping) {
+			CompiledMappingPlan plan = obtainCompiledMappingPlan(rs.getMetaData());
+			if (plan.compiledRowMapping != null) {
+				return mapRowCompiled(rs, rowNumber, plan);
+			}
+		}
+
 		BeanWrapperImpl bw = new BeanWrapperImpl();
 		initBeanWrapper(bw);
 
@@ -295,36 +350,13 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 			String field = lowerCaseName(StringUtils.delete(column, " "));
 			PropertyDescriptor pd = (this.mappedFields != null ? this.mappedFields.get(field) : null);
 			if (pd != null) {
-				try {
-					Object value = getColumnValue(rs, index, pd);
-					if (rowNumber == 0 && logger.isDebugEnabled()) {
-						logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
-								"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
-					}
-					try {
-						bw.setPropertyValue(pd.getName(), value);
-					}
-					catch (TypeMismatchException ex) {
-						if (value == null && this.primitivesDefaultedForNullValue) {
-							if (logger.isDebugEnabled()) {
-								logger.debug("Intercepted TypeMismatchException for row " + rowNumber +
-										" and column '" + column + "' with null value when setting property '" +
-										pd.getName() + "' of type '" +
-										ClassUtils.getQualifiedName(pd.getPropertyType()) +
-										"' on object: " + mappedObject, ex);
-							}
-						}
-						else {
-							throw ex;
-						}
-					}
-					if (populatedProperties != null) {
-						populatedProperties.add(pd.getName());
-					}
+				if (rowNumber == 0 && logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
+							"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
 				}
-				catch (NotWritablePropertyException ex) {
-					throw new DataRetrievalFailureException(
-							"Unable to map column '" + column + "' to property '" + pd.getName() + "'", ex);
+				setPropertyValue(bw, rs, rowNumber, index, column, pd);
+				if (populatedProperties != null) {
+					populatedProperties.add(pd.getName());
 				}
 			}
 			else {
@@ -343,6 +375,238 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		return mappedObject;
 	}
 
+	/**
+	 * Apply the value of the given column to the given bean property.
+	 */
+	private void setPropertyValue(BeanWrapper bw, ResultSet rs, int rowNumber, int index, String column,
+			PropertyDescriptor pd) throws SQLException {
+
+		try {
+			Object value = getColumnValue(rs, index, pd);
+			try {
+				bw.setPropertyValue(pd.getName(), value);
+			}
+			catch (TypeMismatchException ex) {
+				if (value == null && this.primitivesDefaultedForNullValue) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Intercepted TypeMismatchException for row " + rowNumber +
+								" and column '" + column + "' with null value when setting property '" +
+								pd.getName() + "' of type '" +
+								ClassUtils.getQualifiedName(pd.getPropertyType()) +
+								"' on object: " + bw.getWrappedInstance(), ex);
+					}
+				}
+				else {
+					throw ex;
+				}
+			}
+		}
+		catch (NotWritablePropertyException ex) {
+			throw new DataRetrievalFailureException(
+					"Unable to map column '" + column + "' to property '" + pd.getName() + "'", ex);
+		}
+	}
+
+	/**
+	 * Map the current row through the compiled mapping of the given plan,
+	 * applying the remaining columns through a BeanWrapper.
+	 */
+	@SuppressWarnings("unchecked")
+	private T mapRowCompiled(ResultSet rs, int rowNumber, CompiledMappingPlan plan) throws SQLException {
+		Assert.state(plan.compiledRowMapping != null, "No compiled mapping available");
+		if (plan.incompletelyPopulated) {
+			throw new InvalidDataAccessApiUsageException("Given ResultSet does not contain all fields " +
+					"necessary to populate object of " + this.mappedClass + ": " + this.mappedProperties);
+		}
+
+		BeanWrapperImpl bw = null;
+		Object[] args = null;
+		TypeDescriptor[] parameterTypes = getConstructorParameterTypes();
+		if (plan.argumentColumns != null && parameterTypes != null) {
+			bw = new BeanWrapperImpl();
+			initBeanWrapper(bw);
+			args = new Object[plan.argumentColumns.length];
+			for (int i = 0; i < args.length; i++) {
+				int index = plan.argumentColumns[i];
+				if (index > 0) {
+					TypeDescriptor td = parameterTypes[i];
+					Object value = getColumnValue(rs, index, td.getType());
+					args[i] = bw.convertIfNecessary(value, td.getType(), td);
+				}
+			}
+		}
+
+		T mappedObject = (T) plan.compiledRowMapping.mapRow(rs, args);
+
+		if (plan.properties.length > 0) {
+			if (bw == null) {
+				bw = new BeanWrapperImpl();
+				initBeanWrapper(bw);
+			}
+			bw.setBeanInstance(mappedObject);
+			for (int i = 0; i < plan.properties.length; i++) {
+				int index = plan.propertyColumns[i];
+				setPropertyValue(bw, rs, rowNumber, index, plan.columns[index - 1], plan.properties[i]);
+			}
+		}
+		return mappedObject;
+	}
+
+	/**
+	 * Obtain the compiled mapping plan for the given column layout,
+	 * reusing the plan for the previous row where possible.
+	 */
+	private CompiledMappingPlan obtainCompiledMappingPlan(ResultSetMetaData rsmd) throws SQLException {
+		int columnCount = rsmd.getColumnCount();
+		String[] columns = new String[columnCount];
+		int[] columnTypes = new int[columnCount];
+		for (int index = 1; index <= columnCount; index++) {
+			columns[index - 1] = JdbcUtils.lookupColumnName(rsmd, index);
+			columnTypes[index - 1] = rsmd.getColumnType(index);
+		}
+		CompiledMappingPlan plan = this.compiledMappingPlan;
+		if (plan == null || !plan.isFor(columns, columnTypes)) {
+			plan = buildCompiledMappingPlan(columns, columnTypes);
+			this.compiledMappingPlan = plan;
+		}
+		return plan;
+	}
+
+	/**
+	 * Determine the constructor arguments and setters for the given column
+	 * layout and compile a corresponding mapping, if possible.
+	 */
+	private CompiledMappingPlan buildCompiledMappingPlan(String[] columns, int[] columnTypes) {
+		Constructor<T> constructor = (isCompiledMappingApplicable() ? getMappedConstructor() : null);
+		if (constructor == null) {
+			return new CompiledMappingPlan(columns, columnTypes, null, null, new int[0], new PropertyDescriptor[0], false);
+		}
+
+		// Constructor arguments: read in generated code or to be pre-resolved
+		Class<?>[] parameterTypes = constructor.getParameterTypes();
+		String[] parameterNames = getConstructorParameterNames();
+		int[] generatedArgumentColumns = new int[parameterTypes.length];
+		int[] argumentColumns = null;
+		for (int i = 0; i < parameterTypes.length; i++) {
+			int index = (parameterNames != null ? findColumn(columns, underscoreName(parameterNames[i])) : 0);
+			if (index == 0) {
+				// Let the regular algorithm report the missing column
+				return new CompiledMappingPlan(columns, columnTypes, null, null, new int[0], new PropertyDescriptor[0], false);
+			}
+			if (RowMappingCompiler.isDirectlyReadable(parameterTypes[i])) {
+				generatedArgumentColumns[i] = index;
+			}
+			else {
+				if (argumentColumns == null) {
+					argumentColumns = new int[parameterTypes.length];
+				}
+				argumentColumns[i] = index;
+			}
+		}
+
+		// Bean properties: applied through setters in generated code or through a BeanWrapper
+		List<Method> setters = new ArrayList<>();
+		List<Integer> setterColumns = new ArrayList<>();
+		List<PropertyDescriptor> properties = new ArrayList<>();
+		List<Integer> propertyColumns = new ArrayList<>();
+		Set<String> populatedProperties = new HashSet<>();
+		for (int index = 1; index <= columns.length; index++) {
+			String column = columns[index - 1];
+			String field = lowerCaseName(StringUtils.delete(column, " "));
+			PropertyDescriptor pd = (this.mappedFields != null ? this.mappedFields.get(field) : null);
+			if (pd != null) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
+							"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
+				}
+				Method writeMethod = pd.getWriteMethod();
+				if (writeMethod != null && writeMethod.getParameterCount() == 1 &&
+						writeMethod.getParameterTypes()[0] == pd.getPropertyType() &&
+						RowMappingCompiler.isDirectlyReadable(pd.getPropertyType())) {
+					setters.add(writeMethod);
+					setterColumns.add(index);
+				}
+				else {
+					properties.add(pd);
+					propertyColumns.add(index);
+				}
+				populatedProperties.add(pd.getName());
+			}
+			else if (logger.isDebugEnabled()) {
+				logger.debug("No property found for column '" + column + "' mapped to field '" + field + "'");
+			}
+		}
+
+		CompiledRowMapping compiledRowMapping = RowMappingCompiler.compile(constructor, generatedArgumentColumns,
+				setters.toArray(new Method[0]), toIntArray(setterColumns), this.primitivesDefaultedForNullValue);
+		return new CompiledMappingPlan(columns, columnTypes, compiledRowMapping, argumentColumns,
+				toIntArray(propertyColumns), properties.toArray(new PropertyDescriptor[0]),
+				isCheckFullyPopulated() && !populatedProperties.equals(this.mappedProperties));
+	}
+
+	/**
+	 * Determine whether compiled mapping is applicable to this row mapper,
+	 * i.e. whether column value retrieval and instantiation are not customized.
+	 */
+	private boolean isCompiledMappingApplicable() {
+		Class<?> clazz = getClass();
+		return (isDeclaredByDefault(ReflectionUtils.findMethod(clazz, "constructMappedInstance",
+						ResultSet.class, TypeConverter.class)) &&
+				isDeclaredByDefault(ReflectionUtils.findMethod(clazz, "getColumnValue",
+						ResultSet.class, int.class, PropertyDescriptor.class)) &&
+				isDeclaredByDefault(ReflectionUtils.findMethod(clazz, "getColumnValue",
+						ResultSet.class, int.class, Class.class)));
+	}
+
+	private static boolean isDeclaredByDefault(@Nullable Method method) {
+		return (method != null && (method.getDeclaringClass() == BeanPropertyRowMapper.class ||
+				method.getDeclaringClass() == DataClassRowMapper.class));
+	}
+
+	private static int findColumn(String[] columns, String name) {
+		for (int i = 0; i < columns.length; i++) {
+			if (columns[i].equalsIgnoreCase(name)) {
+				return i + 1;
+			}
+		}
+		return 0;
+	}
+
+	private static int[] toIntArray(List<Integer> list) {
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+	/**
+	 * Return the constructor to call for the mapped class in compiled mode.
+	 * <p>The default implementation returns the public no-arg constructor, if any.
+	 */
+	@Nullable
+	Constructor<T> getMappedConstructor() {
+		return (this.mappedClass != null ? ClassUtils.getConstructorIfAvailable(this.mappedClass) : null);
+	}
+
+	/**
+	 * Return the names of the parameters of the {@link #getMappedConstructor()
+	 * mapped constructor}, or {@code null} if it does not declare any.
+	 */
+	@Nullable
+	String[] getConstructorParameterNames() {
+		return null;
+	}
+
+	/**
+	 * Return the types of the parameters of the {@link #getMappedConstructor()
+	 * mapped constructor}, or {@code null} if it does not declare any.
+	 */
+	@Nullable
+	TypeDescriptor[] getConstructorParameterTypes() {
+		return null;
+	}
+
 	/**
 	 * Construct an instance of the mapped class for the current row.
 	 * @param rs the ResultSet to map (pre-initialized for the current row)
@@ -434,4 +698,46 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		return rowMapper;
 	}
 
+
+	/**
+	 * The compiled mapping for a specific column layout, along with the
+	 * constructor arguments and bean properties to be resolved outside of it.
+	 */
+	private static final class CompiledMappingPlan {
+
+		final String[] columns;
+
+		private final int[] columnTypes;
+
+		@Nullable
+		final CompiledRowMapping compiledRowMapping;
+
+		/** Column index per constructor argument to pre-resolve, 0 for arguments read in generated code. */
+		@Nullable
+		final int[] argumentColumns;
+
+		final int[] propertyColumns;
+
+		final PropertyDescriptor[] properties;
+
+		final boolean incompletelyPopulated;
+
+		CompiledMappingPlan(String[] columns, int[] columnTypes,
+				@Nullable CompiledRowMapping compiledRowMapping, @Nullable int[] argumentColumns,
+				int[] propertyColumns, PropertyDescriptor[] properties, boolean incompletelyPopulated) {
+
+			this.columns = columns;
+			this.columnTypes = columnTypes;
+			this.compiledRowMapping = compiledRowMapping;
+			this.argumentColumns = argumentColumns;
+			this.propertyColumns = propertyColumns;
+			this.properties = properties;
+			this.incompletelyPopulated = incompletelyPopulated;
+		}
+
+		boolean isFor(String[] columns, int[] columnTypes) {
+			return (Arrays.equals(this.columns, columns) && Arrays.equals(this.columnTypes, columnTypes));
+		}
+	}
+
 }
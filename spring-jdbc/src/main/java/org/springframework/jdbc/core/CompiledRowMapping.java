@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.lang.Nullable;
+
+/**
+ * Base superclass for row mappings generated at runtime for
+ * {@link BeanPropertyRowMapper#setCompiledMapping compiled mode}.
+ * A generated subclass reads the values of a specific column layout
+ * through typed {@link ResultSet} getters and passes them straight to the
+ * constructor and the setter methods of the mapped class.
+ *
+ * <p>Needs to be public for generated classes in a child ClassLoader to
+ * extend it; not intended to be used by application code.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see RowMappingCompiler
+ */
+public abstract class CompiledRowMapping {
+
+	/**
+	 * Construct and populate an instance of the mapped class for the current row.
+	 * @param rs the ResultSet to map (pre-initialized for the current row)
+	 * @param args pre-resolved constructor arguments for those parameters that
+	 * cannot be read through a typed getter, or {@code null} if there are none
+	 * (values for parameters read by the generated code are ignored)
+	 * @return the mapped object
+	 * @throws SQLException if an SQLException is encountered
+	 */
+	public abstract Object mapRow(ResultSet rs, @Nullable Object[] args) throws SQLException;
+
+
+	/**
+	 * Create the exception for a {@code null} column value that cannot be
+	 * applied to a setter for the given primitive type. Called from generated code.
+	 * @param primitiveType the primitive target type
+	 * @return the exception to throw
+	 */
+	protected static TypeMismatchException nullValueForPrimitive(Class<?> primitiveType) {
+		return new TypeMismatchException((Object) null, primitiveType);
+	}
+
+}
@@ -108,6 +108,24 @@ public class DataClassRowMapper<T> extends BeanPropertyRowMapper<T> {
 		return BeanUtils.instantiateClass(this.mappedConstructor, args);
 	}
 
+	@Override
+	@Nullable
+	Constructor<T> getMappedConstructor() {
+		return this.mappedConstructor;
+	}
+
+	@Override
+	@Nullable
+	String[] getConstructorParameterNames() {
+		return this.constructorParameterNames;
+	}
+
+	@Override
+	@Nullable
+	TypeDescriptor[] getConstructorParameterTypes() {
+		return this.constructorParameterTypes;
+	}
+
 
 	/**
 	 * Static factory method to create a new {@code DataClassRowMapper}.
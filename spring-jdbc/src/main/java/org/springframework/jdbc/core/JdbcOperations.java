@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.jdbc.core;
 
+import java.sql.PreparedStatement;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -591,6 +592,69 @@ public interface JdbcOperations {
 	<T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, @Nullable Object... args)
 			throws DataAccessException;
 
+	/**
+	 * Query using a prepared statement, mapping each row to a result object
+	 * via a RowMapper, and turning it into an iterable and closeable Stream
+	 * that fetches rows from the database in chunks of the given fetch size.
+	 * <p>In contrast to the regular {@code queryForStream} variants, this
+	 * applies vendor-specific settings where the JDBC driver would otherwise
+	 * read the entire result set into memory: e.g. MySQL's row-by-row streaming
+	 * mode, or switching off auto-commit for the duration of the Stream on
+	 * PostgreSQL. This allows for processing large results in constant memory.
+	 * <p>The default implementation only applies the fetch size to the statement,
+	 * without any vendor-specific settings; {@link JdbcTemplate} overrides it.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param fetchSize the number of rows to fetch from the database at a time
+	 * @param rowMapper a callback that will map one object per row
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once processed (e.g. through a try-with-resources clause),
+	 * also in case of early termination
+	 * @throws DataAccessException if there is any problem
+	 * @since 5.3.9
+	 * @see #queryForStream(PreparedStatementCreator, RowMapper)
+	 */
+	default <T> Stream<T> queryForStream(PreparedStatementCreator psc, int fetchSize, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		// Plain fetch size without vendor-specific settings: to be overridden (see JdbcTemplate)
+		return queryForStream(con -> {
+			PreparedStatement ps = psc.createPreparedStatement(con);
+			ps.setFetchSize(fetchSize);
+			return ps;
+		}, rowMapper);
+	}
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list of
+	 * arguments to bind to the query, mapping each row to a result object
+	 * via a RowMapper, and turning it into an iterable and closeable Stream
+	 * that fetches rows from the database in chunks of the given fetch size.
+	 * <p>See {@link #queryForStream(PreparedStatementCreator, int, RowMapper)}
+	 * for the vendor-specific settings applied for streaming.
+	 * @param sql the SQL query to execute
+	 * @param fetchSize the number of rows to fetch from the database at a time
+	 * @param rowMapper a callback that will map one object per row
+	 * @param args arguments to bind to the query
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL type);
+	 * may also contain {@link SqlParameterValue} objects which indicate not
+	 * only the argument value but also the SQL type and optionally the scale
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once processed (e.g. through a try-with-resources clause),
+	 * also in case of early termination
+	 * @throws DataAccessException if the query fails
+	 * @since 5.3.9
+	 */
+	default <T> Stream<T> queryForStream(String sql, int fetchSize, RowMapper<T> rowMapper, @Nullable Object... args)
+			throws DataAccessException {
+
+		// Plain fetch size without vendor-specific settings: to be overridden (see JdbcTemplate)
+		PreparedStatementSetter argumentSetter = new ArgumentPreparedStatementSetter(args);
+		return queryForStream(sql, ps -> {
+			ps.setFetchSize(fetchSize);
+			argumentSetter.setValues(ps);
+		}, rowMapper);
+	}
+
 	/**
 	 * Query given SQL to create a prepared statement from SQL and a list
 	 * of arguments to bind to the query, mapping a single result row to a
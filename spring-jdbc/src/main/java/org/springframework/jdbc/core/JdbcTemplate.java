@@ -23,6 +23,7 @@ import java.lang.reflect.Proxy;
 import java.sql.BatchUpdateException;
 import java.sql.CallableStatement;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -31,6 +32,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -153,6 +155,13 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	 */
 	private boolean resultsMapCaseInsensitive = false;
 
+	/**
+	 * If this variable is set to a positive value, single-row INSERT statements in
+	 * batch updates will be rewritten into multi-row INSERT statements with up to
+	 * this number of bind parameters each.
+	 */
+	private int multiRowInsertParameterLimit = -1;
+
 
 	/**
 	 * Construct a new JdbcTemplate for bean usage.
@@ -317,6 +326,37 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return this.resultsMapCaseInsensitive;
 	}
 
+	/**
+	 * Set the maximum number of bind parameters per statement for rewriting
+	 * a single-row {@code INSERT INTO ... VALUES (?, ...)} statement into
+	 * multi-row {@code INSERT} statements in a batch update, sending several
+	 * rows per statement instead of one statement per row to the database.
+	 * <p>Default is -1, not rewriting any statements. Set this to the bind
+	 * parameter limit of the database (or a lower value) in order to reduce
+	 * the number of statements and therefore round trips for large batches,
+	 * in particular with JDBC drivers which execute a batch row by row.
+	 * <p>Applies to {@link #batchUpdate(String, Collection, int, ParameterizedPreparedStatementSetter)}
+	 * with plain INSERT statements only. Per-row update counts are reported
+	 * as {@code 1} for each row of a fully applied multi-row statement, or
+	 * as {@link Statement#SUCCESS_NO_INFO} if the database reports otherwise.
+	 * Note that the given {@link ParameterizedPreparedStatementSetter} is expected
+	 * to set parameter values only, with parameter indexes transparently being
+	 * adapted to the position of each row within a multi-row statement.
+	 * @since 5.3.9
+	 */
+	public void setMultiRowInsertParameterLimit(int multiRowInsertParameterLimit) {
+		this.multiRowInsertParameterLimit = multiRowInsertParameterLimit;
+	}
+
+	/**
+	 * Return the maximum number of bind parameters per statement for
+	 * rewriting single-row INSERT statements in a batch update.
+	 * @since 5.3.9
+	 */
+	public int getMultiRowInsertParameterLimit() {
+		return this.multiRowInsertParameterLimit;
+	}
+
 
 	//-------------------------------------------------------------------------
 	// Methods dealing with a plain java.sql.Connection
@@ -831,28 +871,139 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, @Nullable PreparedStatementSetter pss,
 			RowMapper<T> rowMapper) throws DataAccessException {
 
+		return doQueryForStream(psc, pss, -1, rowMapper);
+	}
+
+	/**
+	 * Query using a prepared statement, allowing for a PreparedStatementCreator
+	 * and a PreparedStatementSetter, and fetching rows from the database in
+	 * chunks of the given fetch size, applying vendor-specific settings where
+	 * needed for the driver to actually stream the results.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param pss a callback that knows how to set values on the prepared statement.
+	 * If this is {@code null}, the SQL will be assumed to contain no bind parameters.
+	 * @param fetchSize the number of rows to fetch from the database at a time
+	 * @param rowMapper a callback that will map one object per row
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once processed (e.g. through a try-with-resources clause),
+	 * also in case of early termination
+	 * @throws DataAccessException if the query fails
+	 * @since 5.3.9
+	 * @see #prepareStatementForStreaming
+	 */
+	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, @Nullable PreparedStatementSetter pss,
+			int fetchSize, RowMapper<T> rowMapper) throws DataAccessException {
+
+		Assert.isTrue(fetchSize > 0, "Fetch size must be greater than 0");
+		return doQueryForStream(psc, pss, fetchSize, rowMapper);
+	}
+
+	private <T> Stream<T> doQueryForStream(PreparedStatementCreator psc, @Nullable PreparedStatementSetter pss,
+			int fetchSize, RowMapper<T> rowMapper) throws DataAccessException {
+
 		return result(execute(psc, ps -> {
-			if (pss != null) {
-				pss.setValues(ps);
-			}
-			ResultSet rs = ps.executeQuery();
 			Connection con = ps.getConnection();
+			boolean resetAutoCommit = (fetchSize > 0 && prepareStatementForStreaming(con, ps, fetchSize));
+			ResultSet rs;
+			try {
+				if (pss != null) {
+					pss.setValues(ps);
+				}
+				rs = ps.executeQuery();
+			}
+			catch (SQLException | RuntimeException ex) {
+				if (resetAutoCommit) {
+					resetAutoCommitAfterStreaming(con);
+				}
+				throw ex;
+			}
 			return new ResultSetSpliterator<>(rs, rowMapper).stream().onClose(() -> {
 				JdbcUtils.closeResultSet(rs);
 				if (pss instanceof ParameterDisposer) {
 					((ParameterDisposer) pss).cleanupParameters();
 				}
 				JdbcUtils.closeStatement(ps);
+				if (resetAutoCommit) {
+					resetAutoCommitAfterStreaming(con);
+				}
 				DataSourceUtils.releaseConnection(con, getDataSource());
 			});
 		}, false));
 	}
 
+	/**
+	 * Prepare the given statement for streaming its results in chunks of the
+	 * given fetch size, applying vendor-specific settings where the JDBC driver
+	 * would otherwise read the entire result set into memory.
+	 * <p>The default implementation uses the row-by-row streaming mode of
+	 * MySQL Connector/J (a fetch size of {@code Integer.MIN_VALUE}), unless
+	 * server-side cursors have been enabled through the "useCursorFetch"
+	 * connection property, and switches off auto-commit on PostgreSQL, where
+	 * a fetch size is only respected within a transaction. For all other
+	 * drivers and databases (including MariaDB Connector/J, which respects
+	 * a regular fetch size), the fetch size is simply applied to the statement.
+	 * @param con the Connection that the statement has been created for
+	 * @param ps the PreparedStatement to prepare
+	 * @param fetchSize the number of rows to fetch from the database at a time
+	 * @return whether auto-commit has been switched off on the given Connection,
+	 * in which case it will be switched on again once the Stream is closed
+	 * @throws SQLException if thrown by JDBC methods
+	 * @since 5.3.9
+	 */
+	protected boolean prepareStatementForStreaming(Connection con, PreparedStatement ps, int fetchSize)
+			throws SQLException {
+
+		DatabaseMetaData metaData = con.getMetaData();
+		if (isMySqlConnectorWithoutCursorFetch(metaData)) {
+			ps.setFetchSize(Integer.MIN_VALUE);
+			return false;
+		}
+		ps.setFetchSize(fetchSize);
+		if ("PostgreSQL".equals(metaData.getDatabaseProductName()) && con.getAutoCommit()) {
+			con.setAutoCommit(false);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Determine whether the given metadata indicates MySQL Connector/J,
+	 * which reads the entire result set into memory for any regular fetch size
+	 * unless server-side cursors have been enabled for the connection.
+	 * <p>The driver name is checked rather than the database product name,
+	 * since other drivers (e.g. MariaDB Connector/J) may report a MySQL server
+	 * but do respect a regular fetch size.
+	 */
+	private static boolean isMySqlConnectorWithoutCursorFetch(DatabaseMetaData metaData) throws SQLException {
+		String driverName = metaData.getDriverName();
+		if (driverName == null || !driverName.startsWith("MySQL Connector")) {
+			return false;
+		}
+		String url = metaData.getURL();
+		return (url == null || !url.contains("useCursorFetch=true"));
+	}
+
+	private void resetAutoCommitAfterStreaming(Connection con) {
+		try {
+			con.setAutoCommit(true);
+		}
+		catch (SQLException ex) {
+			logger.debug("Could not reset auto-commit after streaming query results", ex);
+		}
+	}
+
 	@Override
 	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, RowMapper<T> rowMapper) throws DataAccessException {
 		return queryForStream(psc, null, rowMapper);
 	}
 
+	@Override
+	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, int fetchSize, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return queryForStream(psc, null, fetchSize, rowMapper);
+	}
+
 	@Override
 	public <T> Stream<T> queryForStream(String sql, @Nullable PreparedStatementSetter pss, RowMapper<T> rowMapper) throws DataAccessException {
 		return queryForStream(new SimplePreparedStatementCreator(sql), pss, rowMapper);
@@ -863,6 +1014,14 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return queryForStream(new SimplePreparedStatementCreator(sql), newArgPreparedStatementSetter(args), rowMapper);
 	}
 
+	@Override
+	public <T> Stream<T> queryForStream(String sql, int fetchSize, RowMapper<T> rowMapper, @Nullable Object... args)
+			throws DataAccessException {
+
+		return queryForStream(new SimplePreparedStatementCreator(sql), newArgPreparedStatementSetter(args),
+				fetchSize, rowMapper);
+	}
+
 	@Override
 	@Nullable
 	public <T> T queryForObject(String sql, Object[] args, int[] argTypes, RowMapper<T> rowMapper)
@@ -1124,6 +1283,12 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		if (logger.isDebugEnabled()) {
 			logger.debug("Executing SQL batch update [" + sql + "] with a batch size of " + batchSize);
 		}
+		if (this.multiRowInsertParameterLimit > 0 && batchSize > 1 && batchArgs.size() > 1) {
+			MultiRowInsert insert = MultiRowInsert.forSql(sql);
+			if (insert != null && this.multiRowInsertParameterLimit / insert.getParameterCount() > 1) {
+				return batchUpdateAsMultiRowInsert(insert, batchArgs, batchSize, pss);
+			}
+		}
 		int[][] result = execute(sql, (PreparedStatementCallback<int[][]>) ps -> {
 			List<int[]> rowsAffected = new ArrayList<>();
 			try {
@@ -1165,6 +1330,90 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return result;
 	}
 
+	/**
+	 * Execute the given batch through multi-row INSERT statements: for each batch
+	 * of the given size, as many statements with the maximum number of rows as
+	 * possible (sent as a JDBC batch if supported) plus one for the remaining rows.
+	 */
+	private <T> int[][] batchUpdateAsMultiRowInsert(MultiRowInsert insert, Collection<T> batchArgs,
+			int batchSize, ParameterizedPreparedStatementSetter<T> pss) throws DataAccessException {
+
+		int parameterCount = insert.getParameterCount();
+		int rowsPerStatement = Math.min(this.multiRowInsertParameterLimit / parameterCount,
+				Math.min(batchSize, batchArgs.size()));
+		if (logger.isDebugEnabled()) {
+			logger.debug("Rewriting SQL batch update as multi-row INSERT with up to " +
+					rowsPerStatement + " rows per statement");
+		}
+
+		int[][] result = execute(insert.getSql(rowsPerStatement), (PreparedStatementCallback<int[][]>) ps -> {
+			List<int[]> rowsAffected = new ArrayList<>();
+			PreparedStatement remainderPs = null;
+			try {
+				boolean batchSupported = JdbcUtils.supportsBatchUpdates(ps.getConnection());
+				ParameterIndexShiftingInvocationHandler handler = new ParameterIndexShiftingInvocationHandler(ps);
+				int remainderRows = 0;
+				ParameterIndexShiftingInvocationHandler remainderHandler = null;
+				Iterator<T> it = batchArgs.iterator();
+				int remaining = batchArgs.size();
+				while (remaining > 0 && it.hasNext()) {
+					int rows = Math.min(batchSize, remaining);
+					remaining -= rows;
+					int[] batchRowsAffected = new int[rows];
+					int statements = rows / rowsPerStatement;
+					int[] updateCounts = new int[statements];
+					for (int i = 0; i < statements; i++) {
+						handler.setValues(it, rowsPerStatement, parameterCount, pss);
+						if (batchSupported) {
+							ps.addBatch();
+						}
+						else {
+							updateCounts[i] = ps.executeUpdate();
+						}
+					}
+					if (batchSupported && statements > 0) {
+						updateCounts = ps.executeBatch();
+					}
+					for (int i = 0; i < statements; i++) {
+						MultiRowInsert.distributeUpdateCount(
+								updateCounts[i], batchRowsAffected, i * rowsPerStatement, rowsPerStatement);
+					}
+					int rest = rows - statements * rowsPerStatement;
+					if (rest > 0) {
+						if (remainderPs == null || remainderHandler == null || remainderRows != rest) {
+							JdbcUtils.closeStatement(remainderPs);
+							remainderPs = ps.getConnection().prepareStatement(insert.getSql(rest));
+							applyStatementSettings(remainderPs);
+							remainderHandler = new ParameterIndexShiftingInvocationHandler(remainderPs);
+							remainderRows = rest;
+						}
+						remainderHandler.setValues(it, rest, parameterCount, pss);
+						MultiRowInsert.distributeUpdateCount(
+								remainderPs.executeUpdate(), batchRowsAffected, statements * rowsPerStatement, rest);
+					}
+					if (logger.isTraceEnabled()) {
+						logger.trace("Sent SQL batch update #" + (rowsAffected.size() + 1) + " with " + rows +
+								" items in " + (statements + (rest > 0 ? 1 : 0)) + " multi-row statements");
+					}
+					rowsAffected.add(batchRowsAffected);
+				}
+				if (remainderPs != null) {
+					handleWarnings(remainderPs);
+				}
+				return rowsAffected.toArray(new int[0][]);
+			}
+			finally {
+				JdbcUtils.closeStatement(remainderPs);
+				if (pss instanceof ParameterDisposer) {
+					((ParameterDisposer) pss).cleanupParameters();
+				}
+			}
+		});
+
+		Assert.state(result != null, "No result array");
+		return result;
+	}
+
 
 	//-------------------------------------------------------------------------
 	// Methods dealing with callable statements
@@ -1683,6 +1932,60 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	}
 
 
+	/**
+	 * Invocation handler that shifts the parameter indexes of values set on a
+	 * multi-row INSERT statement to the position of the current row.
+	 */
+	private static class ParameterIndexShiftingInvocationHandler implements InvocationHandler {
+
+		private final PreparedStatement target;
+
+		private final PreparedStatement proxy;
+
+		private int offset;
+
+		public ParameterIndexShiftingInvocationHandler(PreparedStatement target) {
+			this.target = target;
+			this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+					PreparedStatement.class.getClassLoader(), new Class<?>[] {PreparedStatement.class}, this);
+		}
+
+		/**
+		 * Set the values of the given number of rows from the given iterator.
+		 */
+		public <T> void setValues(Iterator<T> it, int rows, int parameterCount,
+				ParameterizedPreparedStatementSetter<T> pss) throws SQLException {
+
+			for (int i = 0; i < rows; i++) {
+				this.offset = i * parameterCount;
+				pss.setValues(this.proxy, it.next());
+			}
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "equals":
+					return (proxy == args[0]);
+				case "hashCode":
+					return System.identityHashCode(proxy);
+			}
+			if (this.offset > 0 && method.getDeclaringClass() == PreparedStatement.class &&
+					method.getName().startsWith("set") && args != null && args.length > 1 &&
+					args[0] instanceof Integer) {
+				args[0] = (Integer) args[0] + this.offset;
+			}
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+	}
+
+
 	/**
 	 * Adapter to enable use of a RowCallbackHandler inside a ResultSetExtractor.
 	 * <p>Uses a regular ResultSet, so we have to be careful when using it:
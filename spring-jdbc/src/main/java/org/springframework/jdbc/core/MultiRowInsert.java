@@ -0,0 +1,221 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.Statement;
+import java.util.Locale;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Representation of a single-row {@code INSERT INTO ... VALUES (...)} statement
+ * which can be rewritten into a multi-row {@code INSERT} statement, repeating
+ * its {@code VALUES} group for each row.
+ *
+ * <p>Only applies to plain statements starting with {@code INSERT INTO} and
+ * ending with the {@code VALUES} group: with bind parameters in that group
+ * only, and without any comments. Any further clause (e.g. {@code ON CONFLICT}
+ * or {@code RETURNING}) or any other kind of statement is left as-is.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see JdbcTemplate#setMultiRowInsertParameterLimit
+ */
+final class MultiRowInsert {
+
+	private final String prefix;
+
+	private final String valuesGroup;
+
+	private final int parameterCount;
+
+
+	private MultiRowInsert(String prefix, String valuesGroup, int parameterCount) {
+		this.prefix = prefix;
+		this.valuesGroup = valuesGroup;
+		this.parameterCount = parameterCount;
+	}
+
+
+	/**
+	 * Return the number of bind parameters per row.
+	 */
+	public int getParameterCount() {
+		return this.parameterCount;
+	}
+
+	/**
+	 * Build the SQL statement for the given number of rows.
+	 * @param rows the number of rows to insert with a single statement
+	 * @return the corresponding SQL statement
+	 */
+	public String getSql(int rows) {
+		StringBuilder sql = new StringBuilder(
+				this.prefix.length() + (this.valuesGroup.length() + 2) * rows);
+		sql.append(this.prefix);
+		for (int i = 0; i < rows; i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append(this.valuesGroup);
+		}
+		return sql.toString();
+	}
+
+	/**
+	 * Distribute the update count of a multi-row statement across its rows.
+	 * @param updateCount the update count of the multi-row statement
+	 * @param rowsAffected the per-row update counts to populate
+	 * @param offset the index of the statement's first row in the given array
+	 * @param rows the number of rows inserted by the statement
+	 */
+	public static void distributeUpdateCount(int updateCount, int[] rowsAffected, int offset, int rows) {
+		// Each row inserts exactly one row, unless reported otherwise
+		int rowCount = (updateCount == rows ? 1 : Statement.SUCCESS_NO_INFO);
+		for (int i = 0; i < rows; i++) {
+			rowsAffected[offset + i] = rowCount;
+		}
+	}
+
+
+	/**
+	 * Parse the given SQL statement into a multi-row INSERT representation.
+	 * @param sql the SQL statement
+	 * @return the multi-row INSERT representation, or {@code null} if the given
+	 * statement is not a single-row INSERT statement suitable for rewriting
+	 */
+	@Nullable
+	public static MultiRowInsert forSql(String sql) {
+		String trimmed = sql.trim();
+		if (trimmed.endsWith(";")) {
+			trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+		}
+		String upper = trimmed.toUpperCase(Locale.ENGLISH);
+		if (!upper.startsWith("INSERT") || upper.length() < 7 || !Character.isWhitespace(upper.charAt(6)) ||
+				!upper.substring(7).trim().startsWith("INTO")) {
+			return null;
+		}
+
+		int valuesStart = -1;
+		int depth = 0;
+		int i = 0;
+		while (i < upper.length()) {
+			char c = upper.charAt(i);
+			if (c == '\'' || c == '"' || c == '`') {
+				i = skipQuoted(upper, i);
+				if (i < 0) {
+					return null;
+				}
+				continue;
+			}
+			if (c == '?' || isCommentStart(upper, i)) {
+				return null;
+			}
+			if (c == '(') {
+				depth++;
+			}
+			else if (c == ')') {
+				depth--;
+			}
+			else if (depth == 0 && upper.startsWith("VALUES", i) && isWordBoundary(upper, i - 1) &&
+					isWordBoundary(upper, i + 6)) {
+				valuesStart = i + 6;
+				break;
+			}
+			i++;
+		}
+		if (valuesStart == -1) {
+			return null;
+		}
+
+		int groupStart = valuesStart;
+		while (groupStart < upper.length() && Character.isWhitespace(upper.charAt(groupStart))) {
+			groupStart++;
+		}
+		if (groupStart == upper.length() || upper.charAt(groupStart) != '(') {
+			return null;
+		}
+
+		int parameterCount = 0;
+		depth = 0;
+		i = groupStart;
+		int groupEnd = -1;
+		while (i < upper.length()) {
+			char c = upper.charAt(i);
+			if (c == '\'' || c == '"' || c == '`') {
+				i = skipQuoted(upper, i);
+				if (i < 0) {
+					return null;
+				}
+				continue;
+			}
+			if (isCommentStart(upper, i)) {
+				return null;
+			}
+			if (c == '?') {
+				parameterCount++;
+			}
+			else if (c == '(') {
+				depth++;
+			}
+			else if (c == ')') {
+				depth--;
+				if (depth == 0) {
+					groupEnd = i + 1;
+					break;
+				}
+			}
+			i++;
+		}
+
+		// Nothing but the single VALUES group allowed after the VALUES keyword
+		if (groupEnd != upper.length() || parameterCount == 0) {
+			return null;
+		}
+		return new MultiRowInsert(trimmed.substring(0, groupStart), trimmed.substring(groupStart), parameterCount);
+	}
+
+	/**
+	 * Skip the quoted section starting at the given index.
+	 * @return the index after the closing quote, or -1 if not closed
+	 */
+	private static int skipQuoted(String sql, int start) {
+		char quote = sql.charAt(start);
+		int i = start + 1;
+		while (i < sql.length()) {
+			if (sql.charAt(i) == quote) {
+				// Doubled quote as escape sequence
+				if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+					i += 2;
+					continue;
+				}
+				return i + 1;
+			}
+			i++;
+		}
+		return -1;
+	}
+
+	private static boolean isCommentStart(String sql, int index) {
+		return (sql.startsWith("--", index) || sql.startsWith("/*", index) || sql.charAt(index) == '#');
+	}
+
+	private static boolean isWordBoundary(String sql, int index) {
+		return (index < 0 || index >= sql.length() || !Character.isJavaIdentifierPart(sql.charAt(index)));
+	}
+
+}
@@ -0,0 +1,515 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.core.KotlinDetector;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Generates {@link CompiledRowMapping} classes for a given mapped class and
+ * column layout, reading column values through typed {@link ResultSet} getters
+ * and invoking the constructor and setter methods of the mapped class directly,
+ * bypassing bean property access and type conversion for those columns.
+ *
+ * <p>A compiler is created for each ClassLoader of mapped classes; it manages
+ * a child ClassLoader that the generated classes get defined in, as well as
+ * the compiled mappings per column layout. Compilers and compiled mappings are
+ * softly referenced, so they do not prevent the ClassLoader of mapped classes
+ * from being garbage collected (e.g. on application redeployment), nor do they
+ * accumulate without bounds for continually changing column layouts. Only
+ * columns whose target type can be read through a typed getter are handled
+ * in generated code; other columns remain up to the calling row mapper.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see BeanPropertyRowMapper#setCompiledMapping
+ */
+final class RowMappingCompiler implements Opcodes {
+
+	private static final int CLASSES_DEFINED_LIMIT = 100;
+
+	private static final String RESULT_SET_NAME = Type.getInternalName(ResultSet.class);
+
+	private static final String COMPILED_ROW_MAPPING_NAME = Type.getInternalName(CompiledRowMapping.class);
+
+	private static final Log logger = LogFactory.getLog(RowMappingCompiler.class);
+
+	/** Typed ResultSet getter names, keyed by the target type that they return. */
+	private static final Map<Class<?>, String> typedGetters = new HashMap<>(32);
+
+	/** Primitive types with a typed getter, keyed by their wrapper type. */
+	private static final Map<Class<?>, Class<?>> primitiveTypes = new HashMap<>(16);
+
+	private static final Map<ClassLoader, RowMappingCompiler> compilers = new ConcurrentReferenceHashMap<>();
+
+	static {
+		typedGetters.put(String.class, "getString");
+		typedGetters.put(boolean.class, "getBoolean");
+		typedGetters.put(byte.class, "getByte");
+		typedGetters.put(short.class, "getShort");
+		typedGetters.put(int.class, "getInt");
+		typedGetters.put(long.class, "getLong");
+		typedGetters.put(float.class, "getFloat");
+		typedGetters.put(double.class, "getDouble");
+		typedGetters.put(BigDecimal.class, "getBigDecimal");
+		typedGetters.put(java.sql.Date.class, "getDate");
+		typedGetters.put(java.sql.Time.class, "getTime");
+		typedGetters.put(java.sql.Timestamp.class, "getTimestamp");
+		typedGetters.put(byte[].class, "getBytes");
+
+		for (Class<?> type : typedGetters.keySet()) {
+			if (type.isPrimitive()) {
+				primitiveTypes.put(ClassUtils.resolvePrimitiveIfNecessary(type), type);
+			}
+		}
+	}
+
+
+	/**
+	 * Compiled mappings per column layout, softly referenced: neither the
+	 * mapped classes nor the generated classes are retained indefinitely.
+	 */
+	private final Map<MappingLayout, CompiledRowMapping> compiledMappings = new ConcurrentReferenceHashMap<>(64);
+
+	/** The child ClassLoader used to load the generated mapping classes. */
+	private volatile ChildClassLoader childClassLoader;
+
+	/** Counter suffix for generated classes within this compiler instance. */
+	private final AtomicInteger suffixId = new AtomicInteger();
+
+
+	private RowMappingCompiler(ClassLoader classLoader) {
+		this.childClassLoader = new ChildClassLoader(classLoader);
+	}
+
+
+	/**
+	 * Determine whether values of the given type can be read through a typed
+	 * {@link ResultSet} getter, with the same semantics as
+	 * {@link org.springframework.jdbc.support.JdbcUtils#getResultSetValue(ResultSet, int, Class)}.
+	 * @param type the target type
+	 * @return {@code true} if generated code can read values of this type
+	 */
+	static boolean isDirectlyReadable(Class<?> type) {
+		return (typedGetters.containsKey(type) || primitiveTypes.containsKey(type));
+	}
+
+	/**
+	 * Obtain a compiled mapping for the given mapped class and column layout,
+	 * generating a corresponding class if not compiled before.
+	 * @param constructor the public constructor to call for the mapped class
+	 * @param argumentColumns the column index per constructor parameter, or
+	 * {@code 0} for an argument to be pre-resolved by the caller
+	 * @param setters the setter methods for columns to be applied in generated code
+	 * @param setterColumns the column index per setter method
+	 * @param primitivesDefaultedForNullValue whether to skip setters for primitive
+	 * properties in case of a {@code null} column value (as opposed to throwing
+	 * a {@link org.springframework.beans.TypeMismatchException})
+	 * @return the compiled mapping, or {@code null} if the mapped class is not
+	 * accessible for generated code
+	 */
+	@Nullable
+	static CompiledRowMapping compile(Constructor<?> constructor, int[] argumentColumns,
+			Method[] setters, int[] setterColumns, boolean primitivesDefaultedForNullValue) {
+
+		Class<?> mappedClass = constructor.getDeclaringClass();
+		ClassLoader classLoader = mappedClass.getClassLoader();
+		if (classLoader == null || !ClassUtils.isVisible(CompiledRowMapping.class, classLoader) ||
+				!isAccessible(constructor, argumentColumns, setters)) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Unable to compile row mapping for " + mappedClass);
+			}
+			return null;
+		}
+
+		RowMappingCompiler compiler = getCompiler(classLoader);
+		MappingLayout layout = new MappingLayout(
+				constructor, argumentColumns, setters, setterColumns, primitivesDefaultedForNullValue);
+		return compiler.compiledMappings.computeIfAbsent(layout, key -> {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Compiling row mapping for " + mappedClass.getName() + " with constructor columns " +
+						Arrays.toString(argumentColumns) + " and setter columns " + Arrays.toString(setterColumns));
+			}
+			Class<? extends CompiledRowMapping> clazz = compiler.createMappingClass(key);
+			try {
+				return ReflectionUtils.accessibleConstructor(clazz).newInstance();
+			}
+			catch (Throwable ex) {
+				throw new IllegalStateException("Failed to instantiate CompiledRowMapping", ex);
+			}
+		});
+	}
+
+	private static boolean isAccessible(Constructor<?> constructor, int[] argumentColumns, Method[] setters) {
+		Class<?> mappedClass = constructor.getDeclaringClass();
+		if (!Modifier.isPublic(mappedClass.getModifiers()) || Modifier.isAbstract(mappedClass.getModifiers()) ||
+				!Modifier.isPublic(constructor.getModifiers()) || KotlinDetector.isKotlinType(mappedClass)) {
+			return false;
+		}
+		Class<?>[] parameterTypes = constructor.getParameterTypes();
+		for (int i = 0; i < parameterTypes.length; i++) {
+			// Pre-resolved arguments get passed in as objects, not suitable for primitives
+			if (argumentColumns[i] == 0 && parameterTypes[i].isPrimitive()) {
+				return false;
+			}
+		}
+		for (Method setter : setters) {
+			if (!Modifier.isPublic(setter.getModifiers()) || Modifier.isStatic(setter.getModifiers())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static RowMappingCompiler getCompiler(ClassLoader classLoader) {
+		// Quick check for existing compiler without lock contention
+		RowMappingCompiler compiler = compilers.get(classLoader);
+		if (compiler == null) {
+			// Full lock now since we're creating a child ClassLoader
+			synchronized (compilers) {
+				compiler = compilers.get(classLoader);
+				if (compiler == null) {
+					compiler = new RowMappingCompiler(classLoader);
+					compilers.put(classLoader, compiler);
+				}
+			}
+		}
+		return compiler;
+	}
+
+
+	/**
+	 * Generate the class for the given column layout and define it.
+	 * The generated class will be a subtype of CompiledRowMapping.
+	 */
+	private Class<? extends CompiledRowMapping> createMappingClass(MappingLayout layout) {
+		String className = "jdbc/RowMapping" + this.suffixId.incrementAndGet();
+		Constructor<?> constructor = layout.constructor;
+		String mappedClassName = Type.getInternalName(constructor.getDeclaringClass());
+
+		ClassWriter cw = new MappingClassWriter();
+		cw.visit(V1_8, ACC_PUBLIC, className, null, COMPILED_ROW_MAPPING_NAME, null);
+
+		// Create default constructor
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, COMPILED_ROW_MAPPING_NAME, "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+
+		// Create mapRow(ResultSet, Object[]) method: local 1 is the ResultSet, local 2 the arguments
+		mv = cw.visitMethod(ACC_PUBLIC, "mapRow", "(L" + RESULT_SET_NAME + ";[Ljava/lang/Object;)Ljava/lang/Object;",
+				null, new String[] {"java/sql/SQLException"});
+		mv.visitCode();
+		int nextLocal = 3;
+
+		// Resolve all constructor arguments into locals first...
+		Class<?>[] parameterTypes = constructor.getParameterTypes();
+		int[] argumentLocals = new int[parameterTypes.length];
+		for (int i = 0; i < parameterTypes.length; i++) {
+			Class<?> parameterType = parameterTypes[i];
+			int column = layout.argumentColumns[i];
+			if (column > 0) {
+				// Primitive default for a null value, as with BeanUtils.instantiateClass
+				readColumnValue(mv, parameterType, column, null, true);
+			}
+			else {
+				mv.visitVarInsn(ALOAD, 2);
+				pushInt(mv, i);
+				mv.visitInsn(AALOAD);
+				mv.visitTypeInsn(CHECKCAST, Type.getInternalName(parameterType));
+			}
+			argumentLocals[i] = nextLocal;
+			Type type = Type.getType(parameterType);
+			mv.visitVarInsn(type.getOpcode(ISTORE), nextLocal);
+			nextLocal += type.getSize();
+		}
+
+		// ... then instantiate the mapped class
+		mv.visitTypeInsn(NEW, mappedClassName);
+		mv.visitInsn(DUP);
+		for (int i = 0; i < parameterTypes.length; i++) {
+			mv.visitVarInsn(Type.getType(parameterTypes[i]).getOpcode(ILOAD), argumentLocals[i]);
+		}
+		mv.visitMethodInsn(INVOKESPECIAL, mappedClassName, "<init>", Type.getConstructorDescriptor(constructor), false);
+		int targetLocal = nextLocal++;
+		mv.visitVarInsn(ASTORE, targetLocal);
+
+		// Apply setter methods, each with a local of its own for the column value
+		for (int i = 0; i < layout.setters.length; i++) {
+			Method setter = layout.setters[i];
+			Class<?> parameterType = setter.getParameterTypes()[0];
+			Type type = Type.getType(parameterType);
+			Label skip = new Label();
+			readColumnValue(mv, parameterType, layout.setterColumns[i],
+					(layout.primitivesDefaultedForNullValue ? skip : null), false);
+			int valueLocal = nextLocal;
+			nextLocal += type.getSize();
+			mv.visitVarInsn(type.getOpcode(ISTORE), valueLocal);
+			mv.visitVarInsn(ALOAD, targetLocal);
+			mv.visitVarInsn(type.getOpcode(ILOAD), valueLocal);
+			mv.visitMethodInsn(INVOKEVIRTUAL, mappedClassName, setter.getName(), Type.getMethodDescriptor(setter), false);
+			Class<?> returnType = setter.getReturnType();
+			if (returnType != void.class) {
+				mv.visitInsn(Type.getType(returnType).getSize() == 2 ? POP2 : POP);
+			}
+			mv.visitLabel(skip);
+		}
+
+		mv.visitVarInsn(ALOAD, targetLocal);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+		cw.visitEnd();
+
+		return loadClass(className.replace('/', '.'), cw.toByteArray());
+	}
+
+	/**
+	 * Generate code that leaves the value of the given column on the stack.
+	 * @param mv the method visitor to generate code with
+	 * @param targetType the type of value to read
+	 * @param column the column index (starting at 1)
+	 * @param nullTarget the label to jump to (with an empty stack) for a
+	 * {@code null} value of a primitive type, or {@code null} to either
+	 * use the default value or throw an exception in such a case
+	 * @param nullAsDefault whether to use the default value of a primitive
+	 * type for a {@code null} value, rather than throwing an exception
+	 */
+	private static void readColumnValue(MethodVisitor mv, Class<?> targetType, int column,
+			@Nullable Label nullTarget, boolean nullAsDefault) {
+		Class<?> primitiveType = primitiveTypes.get(targetType);
+		boolean wrapper = (primitiveType != null);
+		Class<?> readType = (wrapper ? primitiveType : targetType);
+		String getter = typedGetters.get(readType);
+		Type type = Type.getType(readType);
+
+		mv.visitVarInsn(ALOAD, 1);
+		pushInt(mv, column);
+		mv.visitMethodInsn(INVOKEINTERFACE, RESULT_SET_NAME, getter, "(I)" + type.getDescriptor(), true);
+		if (!readType.isPrimitive()) {
+			// Reference types come back as null for SQL NULL already
+			return;
+		}
+
+		Label notNull = new Label();
+		if (wrapper) {
+			String wrapperName = Type.getInternalName(targetType);
+			mv.visitMethodInsn(INVOKESTATIC, wrapperName, "valueOf",
+					"(" + type.getDescriptor() + ")L" + wrapperName + ";", false);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitMethodInsn(INVOKEINTERFACE, RESULT_SET_NAME, "wasNull", "()Z", true);
+			mv.visitJumpInsn(IFEQ, notNull);
+			mv.visitInsn(POP);
+			mv.visitInsn(ACONST_NULL);
+		}
+		else {
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitMethodInsn(INVOKEINTERFACE, RESULT_SET_NAME, "wasNull", "()Z", true);
+			mv.visitJumpInsn(IFEQ, notNull);
+			if (nullTarget != null) {
+				mv.visitInsn(type.getSize() == 2 ? POP2 : POP);
+				mv.visitJumpInsn(GOTO, nullTarget);
+			}
+			else if (nullAsDefault) {
+				// The typed getter may not have returned the default value itself
+				mv.visitInsn(type.getSize() == 2 ? POP2 : POP);
+				pushDefaultValue(mv, type);
+			}
+			else {
+				mv.visitFieldInsn(GETSTATIC, Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(readType)),
+						"TYPE", "Ljava/lang/Class;");
+				mv.visitMethodInsn(INVOKESTATIC, COMPILED_ROW_MAPPING_NAME, "nullValueForPrimitive",
+						"(Ljava/lang/Class;)Lorg/springframework/beans/TypeMismatchException;", false);
+				mv.visitInsn(ATHROW);
+			}
+		}
+		mv.visitLabel(notNull);
+	}
+
+	private static void pushDefaultValue(MethodVisitor mv, Type type) {
+		switch (type.getSort()) {
+			case Type.LONG:
+				mv.visitInsn(LCONST_0);
+				break;
+			case Type.FLOAT:
+				mv.visitInsn(FCONST_0);
+				break;
+			case Type.DOUBLE:
+				mv.visitInsn(DCONST_0);
+				break;
+			default:
+				mv.visitInsn(ICONST_0);
+		}
+	}
+
+	private static void pushInt(MethodVisitor mv, int value) {
+		if (value >= -1 && value <= 5) {
+			mv.visitInsn(ICONST_0 + value);
+		}
+		else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+			mv.visitIntInsn(BIPUSH, value);
+		}
+		else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+			mv.visitIntInsn(SIPUSH, value);
+		}
+		else {
+			mv.visitLdcInsn(value);
+		}
+	}
+
+	/**
+	 * Load a generated mapping class. Makes sure the child ClassLoader does not
+	 * anchor too many generated classes in memory, replacing it periodically in
+	 * case of continually changing column layouts.
+	 */
+	@SuppressWarnings("unchecked")
+	private Class<? extends CompiledRowMapping> loadClass(String name, byte[] bytes) {
+		ChildClassLoader ccl = this.childClassLoader;
+		if (ccl.getClassesDefinedCount() >= CLASSES_DEFINED_LIMIT) {
+			synchronized (this) {
+				ChildClassLoader currentCcl = this.childClassLoader;
+				if (ccl == currentCcl) {
+					// Still the same ClassLoader that needs to be replaced...
+					ccl = new ChildClassLoader(ccl.getParent());
+					this.childClassLoader = ccl;
+				}
+				else {
+					// Already replaced by some other thread, let's pick it up.
+					ccl = currentCcl;
+				}
+			}
+		}
+		return (Class<? extends CompiledRowMapping>) ccl.defineClass(name, bytes);
+	}
+
+
+	/**
+	 * Cache key for a compiled mapping: the mapped constructor and setters
+	 * along with the column indexes that they get their values from.
+	 */
+	private static final class MappingLayout {
+
+		final Constructor<?> constructor;
+
+		final int[] argumentColumns;
+
+		final Method[] setters;
+
+		final int[] setterColumns;
+
+		final boolean primitivesDefaultedForNullValue;
+
+		MappingLayout(Constructor<?> constructor, int[] argumentColumns, Method[] setters, int[] setterColumns,
+				boolean primitivesDefaultedForNullValue) {
+
+			this.constructor = constructor;
+			this.argumentColumns = argumentColumns;
+			this.setters = setters;
+			this.setterColumns = setterColumns;
+			this.primitivesDefaultedForNullValue = primitivesDefaultedForNullValue;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof MappingLayout)) {
+				return false;
+			}
+			MappingLayout otherLayout = (MappingLayout) other;
+			return (this.constructor.equals(otherLayout.constructor) &&
+					Arrays.equals(this.argumentColumns, otherLayout.argumentColumns) &&
+					Arrays.equals(this.setters, otherLayout.setters) &&
+					Arrays.equals(this.setterColumns, otherLayout.setterColumns) &&
+					this.primitivesDefaultedForNullValue == otherLayout.primitivesDefaultedForNullValue);
+		}
+
+		@Override
+		public int hashCode() {
+			return (this.constructor.hashCode() * 29 + Arrays.hashCode(this.setterColumns));
+		}
+	}
+
+
+	/**
+	 * A ChildClassLoader that loads the generated mapping classes.
+	 */
+	private static class ChildClassLoader extends URLClassLoader {
+
+		private static final URL[] NO_URLS = new URL[0];
+
+		private final AtomicInteger classesDefinedCount = new AtomicInteger();
+
+		public ChildClassLoader(@Nullable ClassLoader classLoader) {
+			super(NO_URLS, classLoader);
+		}
+
+		public Class<?> defineClass(String name, byte[] bytes) {
+			Class<?> clazz = super.defineClass(name, bytes, 0, bytes.length);
+			this.classesDefinedCount.incrementAndGet();
+			return clazz;
+		}
+
+		public int getClassesDefinedCount() {
+			return this.classesDefinedCount.get();
+		}
+	}
+
+
+	/**
+	 * An ASM ClassWriter extension bound to the compiler's ClassLoader.
+	 */
+	private class MappingClassWriter extends ClassWriter {
+
+		public MappingClassWriter() {
+			super(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+		}
+
+		@Override
+		protected ClassLoader getClassLoader() {
+			return childClassLoader;
+		}
+	}
+
+}
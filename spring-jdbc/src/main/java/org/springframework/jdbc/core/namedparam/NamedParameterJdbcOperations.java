@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -261,6 +261,60 @@ public interface NamedParameterJdbcOperations {
 	<T> Stream<T> queryForStream(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper)
 			throws DataAccessException;
 
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list
+	 * of arguments to bind to the query, mapping each row to a Java object
+	 * via a RowMapper, and turning it into an iterable and closeable Stream
+	 * that fetches rows from the database in chunks of the given fetch size.
+	 * <p>See {@link org.springframework.jdbc.core.JdbcOperations#queryForStream(
+	 * org.springframework.jdbc.core.PreparedStatementCreator, int, RowMapper)}
+	 * for the vendor-specific settings applied for streaming.
+	 * <p>The default implementation expands the named parameters and delegates
+	 * to {@link JdbcOperations#queryForStream(String, int, RowMapper, Object...)}.
+	 * @param sql the SQL query to execute
+	 * @param paramSource container of arguments to bind to the query
+	 * @param fetchSize the number of rows to fetch from the database at a time
+	 * @param rowMapper object that will map one object per row
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once processed (e.g. through a try-with-resources clause),
+	 * also in case of early termination
+	 * @throws DataAccessException if the query fails
+	 * @since 5.3.9
+	 */
+	default <T> Stream<T> queryForStream(String sql, SqlParameterSource paramSource, int fetchSize,
+			RowMapper<T> rowMapper) throws DataAccessException {
+
+		ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement(sql);
+		String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, paramSource);
+		Object[] params = NamedParameterUtils.buildValueArray(parsedSql, paramSource, null);
+		return getJdbcOperations().queryForStream(sqlToUse, fetchSize, rowMapper, params);
+	}
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list
+	 * of arguments to bind to the query, mapping each row to a Java object
+	 * via a RowMapper, and turning it into an iterable and closeable Stream
+	 * that fetches rows from the database in chunks of the given fetch size.
+	 * <p>See {@link org.springframework.jdbc.core.JdbcOperations#queryForStream(
+	 * org.springframework.jdbc.core.PreparedStatementCreator, int, RowMapper)}
+	 * for the vendor-specific settings applied for streaming.
+	 * @param sql the SQL query to execute
+	 * @param paramMap map of parameters to bind to the query
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL type)
+	 * @param fetchSize the number of rows to fetch from the database at a time
+	 * @param rowMapper object that will map one object per row
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once processed (e.g. through a try-with-resources clause),
+	 * also in case of early termination
+	 * @throws DataAccessException if the query fails
+	 * @since 5.3.9
+	 */
+	default <T> Stream<T> queryForStream(String sql, Map<String, ?> paramMap, int fetchSize,
+			RowMapper<T> rowMapper) throws DataAccessException {
+
+		return queryForStream(sql, new MapSqlParameterSource(paramMap), fetchSize, rowMapper);
+	}
+
 	/**
 	 * Query given SQL to create a prepared statement from SQL and a list
 	 * of arguments to bind to the query, mapping a single result row to a
@@ -46,6 +46,35 @@ public class DataClassRowMapperTests extends AbstractRowMapperTests {
 		mock.verifyClosed();
 	}
 
+	@Test
+	public void testStaticQueryWithDataClassAndCompiledMapping() throws Exception {
+		DataClassRowMapper<ConstructorPerson> mapper = new DataClassRowMapper<>(ConstructorPerson.class);
+		mapper.setCompiledMapping(true);
+		for (int i = 0; i < 2; i++) {
+			Mock mock = new Mock();
+			List<ConstructorPerson> result = mock.getJdbcTemplate().query(
+					"select name, age, birth_date, balance from people", mapper);
+			assertThat(result.size()).isEqualTo(1);
+			verifyPerson(result.get(0));
+
+			mock.verifyClosed();
+		}
+	}
+
+	@Test
+	public void testMappingNullValueToPrimitiveWithDataClassAndCompiledMapping() throws Exception {
+		DataClassRowMapper<ConstructorPerson> mapper = new DataClassRowMapper<>(ConstructorPerson.class);
+		mapper.setCompiledMapping(true);
+		Mock mock = new Mock(MockType.TWO);
+		List<ConstructorPerson> result = mock.getJdbcTemplate().query(
+				"select name, null as age, birth_date, balance from people", mapper);
+		assertThat(result.size()).isEqualTo(1);
+		assertThat(result.get(0).name()).isEqualTo("Bubba");
+		assertThat(result.get(0).age()).isEqualTo(0L);
+
+		mock.verifyClosed();
+	}
+
 	@Test
 	public void testStaticQueryWithDataClassAndGenerics() throws Exception {
 		Mock mock = new Mock();
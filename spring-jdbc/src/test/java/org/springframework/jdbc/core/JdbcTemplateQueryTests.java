@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.jdbc.core;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -33,14 +34,18 @@ import javax.sql.DataSource;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -384,6 +389,104 @@ public class JdbcTemplateQueryTests {
 		verify(this.preparedStatement).close();
 	}
 
+	@Test
+	public void testQueryForStreamWithFetchSize() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID = ?";
+		DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+		given(metaData.getDatabaseProductName()).willReturn("Oracle");
+		given(this.connection.getMetaData()).willReturn(metaData);
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(22, 23);
+		try (Stream<Integer> s = this.template.queryForStream(sql, 100, (rs, rowNum) -> rs.getInt(1), 3)) {
+			assertThat(s).containsExactly(22, 23);
+		}
+		verify(this.preparedStatement).setFetchSize(100);
+		verify(this.preparedStatement).setObject(1, 3);
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForStreamWithFetchSizeOnMySQL() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR";
+		DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+		given(metaData.getDatabaseProductName()).willReturn("MySQL");
+		given(metaData.getDriverName()).willReturn("MySQL Connector/J");
+		given(metaData.getURL()).willReturn("jdbc:mysql://localhost:3306/test");
+		given(this.connection.getMetaData()).willReturn(metaData);
+		given(this.resultSet.next()).willReturn(true, false);
+		given(this.resultSet.getInt(1)).willReturn(22);
+		try (Stream<Integer> s = this.template.queryForStream(sql, 100, (rs, rowNum) -> rs.getInt(1))) {
+			assertThat(s).containsExactly(22);
+		}
+		verify(this.preparedStatement).setFetchSize(Integer.MIN_VALUE);
+		verify(this.connection, never()).setAutoCommit(false);
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+	}
+
+	@Test
+	public void testQueryForStreamWithFetchSizeOnMySQLWithCursorFetch() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR";
+		DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+		given(metaData.getDatabaseProductName()).willReturn("MySQL");
+		given(metaData.getDriverName()).willReturn("MySQL Connector/J");
+		given(metaData.getURL()).willReturn("jdbc:mysql://localhost:3306/test?useCursorFetch=true");
+		given(this.connection.getMetaData()).willReturn(metaData);
+		given(this.resultSet.next()).willReturn(true, false);
+		given(this.resultSet.getInt(1)).willReturn(22);
+		try (Stream<Integer> s = this.template.queryForStream(sql, 100, (rs, rowNum) -> rs.getInt(1))) {
+			assertThat(s).containsExactly(22);
+		}
+		verify(this.preparedStatement).setFetchSize(100);
+		verify(this.preparedStatement, never()).setFetchSize(Integer.MIN_VALUE);
+	}
+
+	@Test
+	public void testQueryForStreamWithFetchSizeOnMySQLWithMariaDbDriver() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR";
+		DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+		given(metaData.getDatabaseProductName()).willReturn("MySQL");
+		given(metaData.getDriverName()).willReturn("MariaDB Connector/J");
+		given(this.connection.getMetaData()).willReturn(metaData);
+		given(this.resultSet.next()).willReturn(true, false);
+		given(this.resultSet.getInt(1)).willReturn(22);
+		try (Stream<Integer> s = this.template.queryForStream(sql, 100, (rs, rowNum) -> rs.getInt(1))) {
+			assertThat(s).containsExactly(22);
+		}
+		verify(this.preparedStatement).setFetchSize(100);
+		verify(this.preparedStatement, never()).setFetchSize(Integer.MIN_VALUE);
+	}
+
+	@Test
+	public void testQueryForStreamWithFetchSizeOnPostgreSQL() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR";
+		DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+		given(metaData.getDatabaseProductName()).willReturn("PostgreSQL");
+		given(this.connection.getMetaData()).willReturn(metaData);
+		given(this.connection.getAutoCommit()).willReturn(true);
+		given(this.resultSet.next()).willReturn(true, false);
+		given(this.resultSet.getInt(1)).willReturn(22);
+		try (Stream<Integer> s = this.template.queryForStream(sql, 100, (rs, rowNum) -> rs.getInt(1))) {
+			assertThat(s).containsExactly(22);
+			verify(this.connection).setAutoCommit(false);
+			verify(this.connection, never()).setAutoCommit(true);
+		}
+		verify(this.preparedStatement).setFetchSize(100);
+		InOrder ordered = inOrder(this.resultSet, this.preparedStatement, this.connection);
+		ordered.verify(this.resultSet).close();
+		ordered.verify(this.preparedStatement).close();
+		ordered.verify(this.connection).setAutoCommit(true);
+		ordered.verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForStreamWithInvalidFetchSize() {
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				this.template.queryForStream("SELECT AGE FROM CUSTMR", 0, (rs, rowNum) -> rs.getInt(1)));
+	}
+
 	@Test
 	public void testQueryForObjectWithArgsAndInteger() throws Exception {
 		String sql = "SELECT AGE FROM CUSTMR WHERE ID = ?";
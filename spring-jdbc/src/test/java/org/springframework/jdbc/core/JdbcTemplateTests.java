@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -54,7 +54,9 @@ import org.springframework.util.StringUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.atLeastOnce;
@@ -780,6 +782,61 @@ public class JdbcTemplateTests {
 		verify(this.connection, atLeastOnce()).close();
 	}
 
+	@Test
+	public void testBatchUpdateWithCollectionOfObjectsAsMultiRowInsert() throws Exception {
+		final String sql = "INSERT INTO NOSUCHTABLE (ID, NAME) VALUES (?, ?)";
+		final List<Integer> ids = Arrays.asList(100, 200, 300, 400, 500);
+		PreparedStatement remainderStatement = mock(PreparedStatement.class);
+		given(this.connection.prepareStatement("INSERT INTO NOSUCHTABLE (ID, NAME) VALUES (?, ?)")).willReturn(
+				remainderStatement);
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {2, 2});
+		given(remainderStatement.executeUpdate()).willReturn(1);
+		mockDatabaseMetaData(true);
+
+		ParameterizedPreparedStatementSetter<Integer> setter = (ps, argument) -> {
+			ps.setInt(1, argument);
+			ps.setString(2, "name" + argument);
+		};
+		JdbcTemplate template = new JdbcTemplate(this.dataSource, false);
+		template.setMultiRowInsertParameterLimit(4);
+
+		int[][] actualRowsAffected = template.batchUpdate(sql, ids, 5, setter);
+		assertThat(actualRowsAffected).hasDimensions(1, 5);
+		assertThat(actualRowsAffected[0]).containsExactly(1, 1, 1, 1, 1);
+
+		verify(this.connection).prepareStatement("INSERT INTO NOSUCHTABLE (ID, NAME) VALUES (?, ?), (?, ?)");
+		verify(this.preparedStatement, times(2)).addBatch();
+		verify(this.preparedStatement).setInt(1, 100);
+		verify(this.preparedStatement).setString(2, "name100");
+		verify(this.preparedStatement).setInt(3, 200);
+		verify(this.preparedStatement).setString(4, "name200");
+		verify(this.preparedStatement).setInt(1, 300);
+		verify(this.preparedStatement).setInt(3, 400);
+		verify(remainderStatement).setInt(1, 500);
+		verify(remainderStatement).setString(2, "name500");
+		verify(this.preparedStatement).close();
+		verify(remainderStatement).close();
+		verify(this.connection, atLeastOnce()).close();
+	}
+
+	@Test
+	public void testBatchUpdateWithCollectionOfObjectsAndMultiRowInsertNotApplicable() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		final List<Integer> ids = Arrays.asList(100, 200, 300);
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1, 1, 1});
+		mockDatabaseMetaData(true);
+
+		ParameterizedPreparedStatementSetter<Integer> setter = (ps, argument) -> ps.setInt(1, argument);
+		JdbcTemplate template = new JdbcTemplate(this.dataSource, false);
+		template.setMultiRowInsertParameterLimit(100);
+
+		int[][] actualRowsAffected = template.batchUpdate(sql, ids, 3, setter);
+		assertThat(actualRowsAffected[0]).containsExactly(1, 1, 1);
+		verify(this.connection).prepareStatement(sql);
+		verify(this.preparedStatement, times(3)).addBatch();
+		verify(this.preparedStatement, times(3)).setInt(eq(1), anyInt());
+	}
+
 	@Test
 	public void testCouldNotGetConnectionForOperationOrExceptionTranslator() throws SQLException {
 		SQLException sqlException = new SQLException("foo", "07xxx");
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.Statement;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MultiRowInsert}.
+ *
+ * @author agent (agent@local)
+ */
+class MultiRowInsertTests {
+
+	@Test
+	void singleRowInsert() {
+		MultiRowInsert insert = MultiRowInsert.forSql("INSERT INTO t (a, b) VALUES (?, UPPER(?))");
+		assertThat(insert).isNotNull();
+		assertThat(insert.getParameterCount()).isEqualTo(2);
+		assertThat(insert.getSql(1)).isEqualTo("INSERT INTO t (a, b) VALUES (?, UPPER(?))");
+		assertThat(insert.getSql(3)).isEqualTo(
+				"INSERT INTO t (a, b) VALUES (?, UPPER(?)), (?, UPPER(?)), (?, UPPER(?))");
+	}
+
+	@Test
+	void singleRowInsertWithLiteralsAndTrailingSemicolon() {
+		MultiRowInsert insert = MultiRowInsert.forSql("insert into t(a, b, c)values('?)', ?, 'it''s') ;");
+		assertThat(insert).isNotNull();
+		assertThat(insert.getParameterCount()).isEqualTo(1);
+		assertThat(insert.getSql(2)).isEqualTo("insert into t(a, b, c)values('?)', ?, 'it''s'), ('?)', ?, 'it''s')");
+	}
+
+	@Test
+	void notApplicable() {
+		assertThat(MultiRowInsert.forSql("UPDATE t SET a = ? WHERE b = ?")).isNull();
+		assertThat(MultiRowInsert.forSql("INSERT INTO t (a) SELECT a FROM s WHERE b = ?")).isNull();
+		assertThat(MultiRowInsert.forSql("INSERT INTO t (a) VALUES (?) ON CONFLICT DO NOTHING")).isNull();
+		assertThat(MultiRowInsert.forSql("INSERT INTO t (a) VALUES (?), (?)")).isNull();
+		assertThat(MultiRowInsert.forSql("INSERT INTO t (a) VALUES (?) -- comment")).isNull();
+		assertThat(MultiRowInsert.forSql("INSERT INTO t (a) VALUES ('x')")).isNull();
+		assertThat(MultiRowInsert.forSql("INSERT IGNORE INTO t (a) VALUES (?)")).isNull();
+	}
+
+	@Test
+	void distributeUpdateCount() {
+		int[] rowsAffected = new int[5];
+		MultiRowInsert.distributeUpdateCount(3, rowsAffected, 0, 3);
+		MultiRowInsert.distributeUpdateCount(0, rowsAffected, 3, 2);
+		assertThat(rowsAffected).containsExactly(1, 1, 1, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO);
+	}
+
+}
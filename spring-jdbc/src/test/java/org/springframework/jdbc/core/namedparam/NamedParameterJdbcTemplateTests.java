@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -427,6 +427,33 @@ public class NamedParameterJdbcTemplateTests {
 		verify(connection).close();
 	}
 
+	@Test
+	public void testQueryForStreamWithFetchSize() throws SQLException {
+		given(connection.getMetaData()).willReturn(databaseMetaData);
+		given(databaseMetaData.getDatabaseProductName()).willReturn("PostgreSQL");
+		given(connection.getAutoCommit()).willReturn(true);
+		given(resultSet.next()).willReturn(true, false);
+		given(resultSet.getInt("id")).willReturn(1);
+
+		params.put("id", new SqlParameterValue(Types.DECIMAL, 1));
+		params.put("country", "UK");
+
+		try (Stream<Integer> s = namedParameterTemplate.queryForStream(SELECT_NAMED_PARAMETERS, params, 50,
+				(rs, rownum) -> rs.getInt(COLUMN_NAMES[0]))) {
+			assertThat(s).containsExactly(1);
+		}
+		verify(connection).prepareStatement(SELECT_NAMED_PARAMETERS_PARSED);
+		verify(preparedStatement).setFetchSize(50);
+		verify(preparedStatement).setObject(1, 1, Types.DECIMAL);
+		verify(preparedStatement).setString(2, "UK");
+		verify(connection).setAutoCommit(false);
+		InOrder ordered = inOrder(resultSet, preparedStatement, connection);
+		ordered.verify(resultSet).close();
+		ordered.verify(preparedStatement).close();
+		ordered.verify(connection).setAutoCommit(true);
+		ordered.verify(connection).close();
+	}
+
 	@Test
 	public void testUpdate() throws SQLException {
 		given(preparedStatement.executeUpdate()).willReturn(1);
@@ -49,7 +49,7 @@ public class DefaultSubscriptionRegistryBenchmark {
 		@Param({"0", "1024"})
 		int cacheSizeLimit;
 
-		@Param({"none", "patternSubscriptions", "selectorHeaders"})
+		@Param({"none", "patternSubscriptions", "segmentPatternSubscriptions", "selectorHeaders"})
 		String specialization;
 
 		public DefaultSubscriptionRegistry registry;
@@ -87,9 +87,7 @@ public class DefaultSubscriptionRegistryBenchmark {
 		}
 
 		public void registerSubscriptions(String sessionId, String destination) {
-			if ("patternSubscriptions".equals(this.specialization)) {
-				destination = "/**/" + destination;
-			}
+			destination = subscribeDestination(this.specialization, destination);
 			String subscriptionId = "subscription_" + this.uniqueIdGenerator.incrementAndGet();
 			this.registry.registerSubscription(subscribeMessage(sessionId, subscriptionId, destination));
 		}
@@ -127,8 +125,7 @@ public class DefaultSubscriptionRegistryBenchmark {
 			}
 
 			String subscription = String.valueOf(uniqueNumber);
-			String subscribeDestination = "patternSubscriptions".equals(serverState.specialization) ?
-					"/**/" + this.findDestination : this.findDestination;
+			String subscribeDestination = subscribeDestination(serverState.specialization, this.findDestination);
 			this.subscribe = subscribeMessage(this.session, subscription, subscribeDestination);
 
 			this.unsubscribe = unsubscribeMessage(this.session, subscription);
@@ -161,6 +158,28 @@ public class DefaultSubscriptionRegistryBenchmark {
 		}
 	}
 
+	@State(Scope.Thread)
+	public static class HighCardinalityFindRequest {
+
+		public String[] destinations;
+
+		private int index;
+
+		@Setup(Level.Trial)
+		public void doSetup(ServerState serverState) {
+			// Distinct destinations per lookup, e.g. "/some/destination/1.SYM42",
+			// exceeding the destination cache and therefore matching on every lookup
+			this.destinations = IntStream.range(0, 4 * DefaultSubscriptionRegistry.DEFAULT_CACHE_LIMIT)
+					.mapToObj(i -> serverState.destinationIds[i % serverState.destinationIds.length] + ".SYM" + i)
+					.toArray(String[]::new);
+		}
+
+		public String nextDestination() {
+			this.index = (this.index + 1) % this.destinations.length;
+			return this.destinations[this.index];
+		}
+	}
+
 	@Benchmark
 	public void registerUnregister(ServerState serverState, Requests request, Blackhole blackhole) {
 		serverState.registry.registerSubscription(request.subscribe);
@@ -174,6 +193,28 @@ public class DefaultSubscriptionRegistryBenchmark {
 		return serverState.registry.findSubscriptionsInternal(request.destination, serverState.findMessage);
 	}
 
+	@Benchmark
+	public MultiValueMap<String, String> findHighCardinality(ServerState serverState, HighCardinalityFindRequest request) {
+		return serverState.registry.findSubscriptionsInternal(request.nextDestination(), serverState.findMessage);
+	}
+
+	/**
+	 * Turn the given destination into a subscription destination for the given
+	 * specialization: either the destination itself, a pattern without leading
+	 * literal segments, or a pattern with a trailing variable segment such as
+	 * {@code /some/destination/0.{symbol}} that can be narrowed by literal segments.
+	 */
+	public static String subscribeDestination(String specialization, String destination) {
+		switch (specialization) {
+			case "patternSubscriptions":
+				return "/**/" + destination;
+			case "segmentPatternSubscriptions":
+				return destination + ".{symbol}";
+			default:
+				return destination;
+		}
+	}
+
 	public static Message<?> subscribeMessage(String sessionId, String subscriptionId, String dest) {
 		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
 		accessor.setSessionId(sessionId);
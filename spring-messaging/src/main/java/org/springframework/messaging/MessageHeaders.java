@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -118,6 +119,20 @@ public class MessageHeaders implements Map<String, Object>, Serializable {
 
 	private final Map<String, Object> headers;
 
+	@Nullable
+	private transient volatile Map<String, Object> copiedHeaders;
+
+	private transient boolean sharedHeaders;
+
+	private transient volatile boolean lazyHeaders;
+
+	@Nullable
+	private transient IdGenerator lazyIdGenerator;
+
+	private transient boolean lazyTimestamp;
+
+	private transient long timestamp;
+
 
 	/**
 	 * Construct a {@link MessageHeaders} with the given headers. An {@link #ID} and
@@ -130,32 +145,57 @@ public class MessageHeaders implements Map<String, Object>, Serializable {
 
 	/**
 	 * Constructor providing control over the ID and TIMESTAMP header values.
+	 * <p>As of 5.3.9, a generated {@link #ID} is only obtained from the
+	 * {@link IdGenerator} on first access, and the current time for the
+	 * {@link #TIMESTAMP} only turns into a header value on first access.
+	 * Headers from another, immutable {@code MessageHeaders} instance are
+	 * shared rather than copied, as far as possible.
 	 * @param headers a map with headers to add
 	 * @param id the {@link #ID} header value
 	 * @param timestamp the {@link #TIMESTAMP} header value
 	 */
 	protected MessageHeaders(@Nullable Map<String, Object> headers, @Nullable UUID id, @Nullable Long timestamp) {
-		this.headers = (headers != null ? new HashMap<>(headers) : new HashMap<>());
-
-		if (id == null) {
-			this.headers.put(ID, getIdGenerator().generateId());
+		Map<String, Object> source = headers;
+		boolean sharable = false;
+		if (headers instanceof MessageHeaders) {
+			// ID and TIMESTAMP get replaced anyway: no need to resolve lazily generated values
+			MessageHeaders original = (MessageHeaders) headers;
+			source = original.getCurrentHeaders();
+			sharable = !original.isMutable();
 		}
-		else if (id == ID_VALUE_NONE) {
-			this.headers.remove(ID);
+		boolean explicitId = (id != null && id != ID_VALUE_NONE);
+		boolean explicitTimestamp = (timestamp != null && timestamp >= 0);
+
+		if (sharable && !explicitId && !explicitTimestamp &&
+				!source.containsKey(ID) && !source.containsKey(TIMESTAMP)) {
+			this.headers = source;
+			this.sharedHeaders = true;
 		}
 		else {
-			this.headers.put(ID, id);
+			this.headers = CollectionUtils.newHashMap((source != null ? source.size() : 0) + 2);
+			if (source != null) {
+				source.forEach((key, value) -> {
+					if (!ID.equals(key) && !TIMESTAMP.equals(key)) {
+						this.headers.put(key, value);
+					}
+				});
+			}
+			if (explicitId) {
+				this.headers.put(ID, id);
+			}
+			if (explicitTimestamp) {
+				this.headers.put(TIMESTAMP, timestamp);
+			}
 		}
 
-		if (timestamp == null) {
-			this.headers.put(TIMESTAMP, System.currentTimeMillis());
-		}
-		else if (timestamp < 0) {
-			this.headers.remove(TIMESTAMP);
+		if (id == null) {
+			this.lazyIdGenerator = getIdGenerator();
 		}
-		else {
-			this.headers.put(TIMESTAMP, timestamp);
+		if (timestamp == null) {
+			this.lazyTimestamp = true;
+			this.timestamp = System.currentTimeMillis();
 		}
+		this.lazyHeaders = (id == null || timestamp == null);
 	}
 
 	/**
@@ -165,8 +205,9 @@ public class MessageHeaders implements Map<String, Object>, Serializable {
 	 * @param keysToIgnore the keys of the entries to ignore
 	 */
 	private MessageHeaders(MessageHeaders original, Set<String> keysToIgnore) {
-		this.headers = CollectionUtils.newHashMap(original.headers.size());
-		original.headers.forEach((key, value) -> {
+		Map<String, Object> originalHeaders = original.getResolvedHeaders();
+		this.headers = CollectionUtils.newHashMap(originalHeaders.size());
+		originalHeaders.forEach((key, value) -> {
 			if (!keysToIgnore.contains(key)) {
 				this.headers.put(key, value);
 			}
@@ -175,7 +216,40 @@ public class MessageHeaders implements Map<String, Object>, Serializable {
 
 
 	protected Map<String, Object> getRawHeaders() {
-		return this.headers;
+		if (this.lazyHeaders) {
+			resolveLazyHeaders();
+		}
+		if (this.sharedHeaders) {
+			// Copy on first modification
+			this.copiedHeaders = new HashMap<>(this.headers);
+			this.sharedHeaders = false;
+		}
+		return getCurrentHeaders();
+	}
+
+	/**
+	 * Whether the raw headers of this instance may still be modified, in which case
+	 * another {@code MessageHeaders} instance cannot share them but needs to copy them.
+	 * <p>The default implementation returns {@code false} for {@code MessageHeaders}
+	 * itself and {@code true} for any subclass, since subclasses may modify their
+	 * {@linkplain #getRawHeaders() raw headers}.
+	 * @since 5.3.9
+	 */
+	protected boolean isMutable() {
+		return (getClass() != MessageHeaders.class);
+	}
+
+	/**
+	 * Obtain the {@link #ID} header from the given {@link IdGenerator} on first
+	 * access rather than right away. To be called before these headers are made
+	 * available to other threads, e.g. when a subclass turns immutable.
+	 * @param idGenerator the generator to obtain the ID from, possibly returning
+	 * {@link #ID_VALUE_NONE} for no ID at all
+	 * @since 5.3.9
+	 */
+	protected void setLazyIdGenerator(IdGenerator idGenerator) {
+		this.lazyIdGenerator = idGenerator;
+		this.lazyHeaders = true;
 	}
 
 	protected static IdGenerator getIdGenerator() {
@@ -183,6 +257,51 @@ public class MessageHeaders implements Map<String, Object>, Serializable {
 		return (generator != null ? generator : defaultIdGenerator);
 	}
 
+	/**
+	 * Return the current headers without any lazily generated headers.
+	 */
+	private Map<String, Object> getCurrentHeaders() {
+		Map<String, Object> copiedHeaders = this.copiedHeaders;
+		return (copiedHeaders != null ? copiedHeaders : this.headers);
+	}
+
+	/**
+	 * Return the current headers, including any lazily generated headers.
+	 */
+	private Map<String, Object> getResolvedHeaders() {
+		if (this.lazyHeaders) {
+			resolveLazyHeaders();
+		}
+		return getCurrentHeaders();
+	}
+
+	/**
+	 * Turn the lazily generated headers into actual header values, in a new
+	 * map in order to not affect concurrent readers of the current headers.
+	 */
+	private synchronized void resolveLazyHeaders() {
+		if (!this.lazyHeaders) {
+			return;
+		}
+		Map<String, Object> currentHeaders = getCurrentHeaders();
+		Map<String, Object> resolvedHeaders = CollectionUtils.newHashMap(currentHeaders.size() + 2);
+		resolvedHeaders.putAll(currentHeaders);
+		if (this.lazyIdGenerator != null) {
+			UUID id = this.lazyIdGenerator.generateId();
+			if (id != ID_VALUE_NONE) {
+				resolvedHeaders.put(ID, id);
+			}
+			this.lazyIdGenerator = null;
+		}
+		if (this.lazyTimestamp) {
+			resolvedHeaders.put(TIMESTAMP, this.timestamp);
+			this.lazyTimestamp = false;
+		}
+		this.copiedHeaders = resolvedHeaders;
+		this.sharedHeaders = false;
+		this.lazyHeaders = false;
+	}
+
 	@Nullable
 	public UUID getId() {
 		return get(ID, UUID.class);
@@ -207,7 +326,7 @@ public class MessageHeaders implements Map<String, Object>, Serializable {
 	@SuppressWarnings("unchecked")
 	@Nullable
 	public <T> T get(Object key, Class<T> type) {
-		Object value = this.headers.get(key);
+		Object value = get(key);
 		if (value == null) {
 			return null;
 		}
@@ -223,43 +342,58 @@ public class MessageHeaders implements Map<String, Object>, Serializable {
 
 	@Override
 	public boolean containsKey(Object key) {
-		return this.headers.containsKey(key);
+		if (this.lazyHeaders && isLazyHeader(key)) {
+			resolveLazyHeaders();
+		}
+		return getCurrentHeaders().containsKey(key);
 	}
 
 	@Override
 	public boolean containsValue(Object value) {
-		return this.headers.containsValue(value);
+		return getResolvedHeaders().containsValue(value);
 	}
 
 	@Override
 	public Set<Map.Entry<String, Object>> entrySet() {
-		return Collections.unmodifiableMap(this.headers).entrySet();
+		return Collections.unmodifiableMap(getResolvedHeaders()).entrySet();
 	}
 
 	@Override
 	@Nullable
 	public Object get(Object key) {
-		return this.headers.get(key);
+		if (this.lazyHeaders && isLazyHeader(key)) {
+			resolveLazyHeaders();
+		}
+		return getCurrentHeaders().get(key);
 	}
 
 	@Override
 	public boolean isEmpty() {
-		return this.headers.isEmpty();
+		return getResolvedHeaders().isEmpty();
 	}
 
 	@Override
 	public Set<String> keySet() {
-		return Collections.unmodifiableSet(this.headers.keySet());
+		return Collections.unmodifiableSet(getResolvedHeaders().keySet());
 	}
 
 	@Override
 	public int size() {
-		return this.headers.size();
+		return getResolvedHeaders().size();
 	}
 
 	@Override
 	public Collection<Object> values() {
-		return Collections.unmodifiableCollection(this.headers.values());
+		return Collections.unmodifiableCollection(getResolvedHeaders().values());
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super String, ? super Object> action) {
+		getResolvedHeaders().forEach(action);
+	}
+
+	private static boolean isLazyHeader(Object key) {
+		return (ID.equals(key) || TIMESTAMP.equals(key));
 	}
 
 
@@ -305,8 +439,9 @@ public class MessageHeaders implements Map<String, Object>, Serializable {
 	// Serialization methods
 
 	private void writeObject(ObjectOutputStream out) throws IOException {
+		Map<String, Object> headers = getResolvedHeaders();
 		Set<String> keysToIgnore = new HashSet<>();
-		this.headers.forEach((key, value) -> {
+		headers.forEach((key, value) -> {
 			if (!(value instanceof Serializable)) {
 				keysToIgnore.add(key);
 			}
@@ -314,7 +449,9 @@ public class MessageHeaders implements Map<String, Object>, Serializable {
 
 		if (keysToIgnore.isEmpty()) {
 			// All entries are serializable -> serialize the regular MessageHeaders instance
-			out.defaultWriteObject();
+			ObjectOutputStream.PutField fields = out.putFields();
+			fields.put("headers", headers);
+			out.writeFields();
 		}
 		else {
 			// Some non-serializable entries -> serialize a temporary MessageHeaders copy
@@ -334,18 +471,18 @@ public class MessageHeaders implements Map<String, Object>, Serializable {
 
 	@Override
 	public boolean equals(@Nullable Object other) {
-		return (this == other ||
-				(other instanceof MessageHeaders && this.headers.equals(((MessageHeaders) other).headers)));
+		return (this == other || (other instanceof MessageHeaders &&
+				getResolvedHeaders().equals(((MessageHeaders) other).getResolvedHeaders())));
 	}
 
 	@Override
 	public int hashCode() {
-		return this.headers.hashCode();
+		return getResolvedHeaders().hashCode();
 	}
 
 	@Override
 	public String toString() {
-		return this.headers.toString();
+		return getResolvedHeaders().toString();
 	}
 
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.messaging.simp.broker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+
+/**
+ * Content shared by the messages that a broker sends to the subscribers of a
+ * destination for the same published message, exposed through a header of
+ * each of those messages. Allows protocol handlers to encode the parts of an
+ * outbound frame that are common to all subscribers once per broadcast, rather
+ * than once per subscriber.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see SimpleBrokerMessageHandler
+ * @see #getBroadcastContent(Message)
+ */
+public final class BroadcastContent {
+
+	/**
+	 * The name of the header for the {@code BroadcastContent} of a message.
+	 */
+	public static final String BROADCAST_CONTENT_HEADER = "simpBroadcastContent";
+
+
+	private final Object payload;
+
+	private final Map<Object, Object> encodedContent = new ConcurrentHashMap<>(4);
+
+
+	/**
+	 * Create a new {@code BroadcastContent} for the given payload.
+	 * @param payload the payload that all messages of the broadcast share
+	 */
+	public BroadcastContent(Object payload) {
+		Assert.notNull(payload, "Payload must not be null");
+		this.payload = payload;
+	}
+
+
+	/**
+	 * Return the payload that all messages of the broadcast share.
+	 * <p>Encoders should check that the payload of a given message is still
+	 * the same instance before reusing any encoded content.
+	 */
+	public Object getPayload() {
+		return this.payload;
+	}
+
+	/**
+	 * Return the encoded content for the given key, encoding it through the
+	 * given function on first access. Concurrent callers for the same key
+	 * wait for the first one to complete, so that content is encoded only once.
+	 * @param key the key for the encoded content, typically the encoder itself
+	 * @param encodingFunction the function to encode the content with
+	 * @return the encoded content
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getEncodedContent(Object key, Function<Object, T> encodingFunction) {
+		return (T) this.encodedContent.computeIfAbsent(key, encodingFunction);
+	}
+
+	@Override
+	public String toString() {
+		return "BroadcastContent [payload=" + this.payload.getClass().getSimpleName() + "]";
+	}
+
+
+	/**
+	 * Obtain the {@code BroadcastContent} of the given message, if any.
+	 * @param message the message to check
+	 * @return the content shared with other messages of the same broadcast,
+	 * or {@code null} if the message is not part of a broadcast
+	 */
+	@Nullable
+	public static BroadcastContent getBroadcastContent(Message<?> message) {
+		Object content = message.getHeaders().get(BROADCAST_CONTENT_HEADER);
+		return (content instanceof BroadcastContent ? (BroadcastContent) content : null);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,13 +19,16 @@ package org.springframework.messaging.simp.broker;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 
 import org.springframework.expression.EvaluationContext;
@@ -57,6 +60,12 @@ import org.springframework.util.StringUtils;
  * header on subscription messages with Spring EL expressions evaluated against
  * the headers to filter out messages in addition to destination matching.
  *
+ * <p>As of 5.3.9, subscriptions are indexed for destinations that are not
+ * cached yet: subscriptions to non-pattern destinations are looked up by
+ * destination, while pattern subscriptions are kept in a trie over the literal
+ * segments of their patterns, so that only patterns whose literal segments
+ * fit a given destination need to be matched.
+ *
  * @author Rossen Stoyanchev
  * @author Sebastien Deleuze
  * @author Juergen Hoeller
@@ -85,14 +94,19 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 	private final DestinationCache destinationCache = new DestinationCache();
 
+	private final SubscriptionIndex subscriptionIndex = new SubscriptionIndex();
+
 	private final SessionRegistry sessionRegistry = new SessionRegistry();
 
+	private final AtomicLong subscriptionSequence = new AtomicLong();
+
 
 	/**
 	 * Specify the {@link PathMatcher} to use.
 	 */
 	public void setPathMatcher(PathMatcher pathMatcher) {
 		this.pathMatcher = pathMatcher;
+		this.subscriptionIndex.reindex();
 	}
 
 	/**
@@ -151,10 +165,26 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 		boolean isPattern = this.pathMatcher.isPattern(destination);
 		Expression expression = getSelectorExpression(message.getHeaders());
-		Subscription subscription = new Subscription(subscriptionId, destination, isPattern, expression);
-
-		this.sessionRegistry.addSubscription(sessionId, subscription);
-		this.destinationCache.updateAfterNewSubscription(sessionId, subscription);
+		Subscription subscription = new Subscription(subscriptionId, destination, isPattern, expression,
+				this.subscriptionSequence.incrementAndGet());
+
+		// The session registry and the subscription index are updated under a lock
+		// on the session, so that a concurrent unregistration cannot leave an index
+		// entry behind for a subscription that is not registered anymore.
+		while (true) {
+			SessionInfo info = this.sessionRegistry.obtainSession(sessionId);
+			synchronized (info) {
+				if (this.sessionRegistry.getSession(sessionId) != info) {
+					// All subscriptions of the session removed in the meantime
+					continue;
+				}
+				if (info.addSubscription(subscription)) {
+					this.subscriptionIndex.add(sessionId, subscription);
+				}
+				this.destinationCache.updateAfterNewSubscription(sessionId, subscription);
+				return;
+			}
+		}
 	}
 
 	@Nullable
@@ -186,9 +216,12 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	protected void removeSubscriptionInternal(String sessionId, String subscriptionId, Message<?> message) {
 		SessionInfo info = this.sessionRegistry.getSession(sessionId);
 		if (info != null) {
-			Subscription subscription = info.removeSubscription(subscriptionId);
-			if (subscription != null) {
-				this.destinationCache.updateAfterRemovedSubscription(sessionId, subscription);
+			synchronized (info) {
+				Subscription subscription = info.removeSubscription(subscriptionId);
+				if (subscription != null) {
+					this.subscriptionIndex.remove(sessionId, subscription);
+					this.destinationCache.updateAfterRemovedSubscription(sessionId, subscription);
+				}
 			}
 		}
 	}
@@ -197,7 +230,12 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	public void unregisterAllSubscriptions(String sessionId) {
 		SessionInfo info = this.sessionRegistry.removeSubscriptions(sessionId);
 		if (info != null) {
-			this.destinationCache.updateAfterRemovedSession(sessionId, info);
+			synchronized (info) {
+				for (Subscription subscription : info.getSubscriptions()) {
+					this.subscriptionIndex.remove(sessionId, subscription);
+				}
+				this.destinationCache.updateAfterRemovedSession(sessionId, info);
+			}
 		}
 	}
 
@@ -274,17 +312,21 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 		}
 
 		private LinkedMultiValueMap<String, String> computeMatchingSubscriptions(String destination) {
-			LinkedMultiValueMap<String, String> sessionIdToSubscriptionIds = new LinkedMultiValueMap<>();
-			DefaultSubscriptionRegistry.this.sessionRegistry.forEachSubscription((sessionId, subscription) -> {
+			// Candidates come from different index entries: collect matches in registration order
+			Map<Subscription, String> matches = new TreeMap<>(Comparator.comparingLong(Subscription::getSequence));
+			DefaultSubscriptionRegistry.this.subscriptionIndex.forEachCandidate(destination, (sessionId, subscription) -> {
 				if (subscription.isPattern()) {
 					if (pathMatcher.match(subscription.getDestination(), destination)) {
-						addMatchedSubscriptionId(sessionIdToSubscriptionIds, sessionId, subscription.getId());
+						matches.put(subscription, sessionId);
 					}
 				}
 				else if (destination.equals(subscription.getDestination())) {
-					addMatchedSubscriptionId(sessionIdToSubscriptionIds, sessionId, subscription.getId());
+					matches.put(subscription, sessionId);
 				}
 			});
+			LinkedMultiValueMap<String, String> sessionIdToSubscriptionIds = new LinkedMultiValueMap<>();
+			matches.forEach((subscription, sessionId) ->
+					addMatchedSubscriptionId(sessionIdToSubscriptionIds, sessionId, subscription.getId()));
 			return sessionIdToSubscriptionIds;
 		}
 
@@ -377,6 +419,242 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 		}
 	}
 
+	/**
+	 * Index over all subscriptions, used to narrow down the subscriptions
+	 * to match against a destination that is not cached yet.
+	 * <p>Non-pattern subscriptions are kept by destination. Pattern subscriptions
+	 * are kept in a trie over the leading literal segments of their patterns,
+	 * i.e. the segments before the first segment with a wildcard or a URI
+	 * variable, with segments separated by '/' or '.'. Changes to the trie are
+	 * synchronized, with nodes that no longer hold any subscriptions being
+	 * pruned; lookups do not lock.
+	 */
+	private final class SubscriptionIndex {
+
+		// destination -> subscriptions
+		private final Map<String, SessionSubscriptions> literalSubscriptions = new ConcurrentHashMap<>();
+
+		private volatile SegmentNode patternSubscriptions = new SegmentNode(null, "");
+
+		private volatile boolean segmentMatchingSupported = isSegmentMatchingSupported(pathMatcher);
+
+		public void add(String sessionId, Subscription subscription) {
+			if (subscription.isPattern()) {
+				synchronized (this) {
+					SegmentNode node = getNode(subscription.getDestination(), true);
+					Assert.state(node != null, "No SegmentNode");
+					node.subscriptions.add(sessionId, subscription);
+				}
+			}
+			else {
+				this.literalSubscriptions.compute(subscription.getDestination(), (destination, subscriptions) -> {
+					if (subscriptions == null) {
+						subscriptions = new SessionSubscriptions();
+					}
+					subscriptions.add(sessionId, subscription);
+					return subscriptions;
+				});
+			}
+		}
+
+		public void remove(String sessionId, Subscription subscription) {
+			if (subscription.isPattern()) {
+				synchronized (this) {
+					SegmentNode node = getNode(subscription.getDestination(), false);
+					if (node != null) {
+						node.subscriptions.remove(sessionId, subscription);
+						prune(node);
+					}
+				}
+			}
+			else {
+				this.literalSubscriptions.computeIfPresent(subscription.getDestination(), (destination, subscriptions) -> {
+					subscriptions.remove(sessionId, subscription);
+					return (subscriptions.isEmpty() ? null : subscriptions);
+				});
+			}
+		}
+
+		/**
+		 * Rebuild the pattern trie, e.g. after a change of {@code PathMatcher}.
+		 */
+		public synchronized void reindex() {
+			this.segmentMatchingSupported = isSegmentMatchingSupported(pathMatcher);
+			this.patternSubscriptions = new SegmentNode(null, "");
+			sessionRegistry.forEachSubscription((sessionId, subscription) -> {
+				if (subscription.isPattern()) {
+					add(sessionId, subscription);
+				}
+			});
+		}
+
+		/**
+		 * Apply the given callback to all subscriptions that may match the given
+		 * destination: subscriptions to that exact destination, as well as pattern
+		 * subscriptions whose leading literal segments fit the destination.
+		 */
+		public void forEachCandidate(String destination, BiConsumer<String, Subscription> consumer) {
+			SessionSubscriptions literal = this.literalSubscriptions.get(destination);
+			if (literal != null) {
+				literal.forEach(consumer);
+			}
+			SegmentNode node = this.patternSubscriptions;
+			int start = 0;
+			while (node != null) {
+				node.subscriptions.forEach(consumer);
+				if (node.children.isEmpty()) {
+					break;
+				}
+				start = skipSeparators(destination, start);
+				if (start == destination.length()) {
+					break;
+				}
+				int end = nextSeparator(destination, start);
+				node = node.children.get(destination.substring(start, end));
+				start = end;
+			}
+		}
+
+		@Nullable
+		private SegmentNode getNode(String pattern, boolean create) {
+			SegmentNode node = this.patternSubscriptions;
+			if (!this.segmentMatchingSupported) {
+				return node;
+			}
+			int start = skipSeparators(pattern, 0);
+			while (start < pattern.length()) {
+				int end = nextSeparator(pattern, start);
+				String segment = pattern.substring(start, end);
+				if (isPatternSegment(segment)) {
+					break;
+				}
+				SegmentNode parent = node;
+				SegmentNode child = (create ? node.children.computeIfAbsent(segment, key -> new SegmentNode(parent, key)) :
+						node.children.get(segment));
+				if (child == null) {
+					return null;
+				}
+				node = child;
+				start = skipSeparators(pattern, end);
+			}
+			return node;
+		}
+
+		/**
+		 * Remove the given node and its ancestors from the trie,
+		 * as far as they do not hold any subscriptions anymore.
+		 */
+		private void prune(SegmentNode node) {
+			SegmentNode current = node;
+			while (current.parent != null && current.subscriptions.isEmpty() && current.children.isEmpty()) {
+				current.parent.children.remove(current.segment, current);
+				current = current.parent;
+			}
+		}
+
+		private boolean isPatternSegment(String segment) {
+			for (int i = 0; i < segment.length(); i++) {
+				char c = segment.charAt(i);
+				if (c == '*' || c == '?' || c == '{') {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private int skipSeparators(String path, int index) {
+			while (index < path.length() && isSeparator(path.charAt(index))) {
+				index++;
+			}
+			return index;
+		}
+
+		private int nextSeparator(String path, int index) {
+			while (index < path.length() && !isSeparator(path.charAt(index))) {
+				index++;
+			}
+			return index;
+		}
+
+		private boolean isSeparator(char c) {
+			return (c == '/' || c == '.');
+		}
+
+		/**
+		 * Narrowing pattern subscriptions by literal segments relies on patterns
+		 * only matching destinations that contain the exact same literal segments,
+		 * which is the case for an {@link AntPathMatcher} unless configured to be
+		 * case-insensitive or to trim tokens. For any other {@link PathMatcher},
+		 * all pattern subscriptions are kept at the root and matched one by one.
+		 */
+		private boolean isSegmentMatchingSupported(PathMatcher matcher) {
+			return (matcher instanceof AntPathMatcher && !matcher.match("a", "A") && !matcher.match("a", " a"));
+		}
+	}
+
+	/**
+	 * Node in the trie of pattern subscriptions, keyed by literal segment.
+	 */
+	private static final class SegmentNode {
+
+		@Nullable
+		private final SegmentNode parent;
+
+		private final String segment;
+
+		// literal segment -> child node
+		private final Map<String, SegmentNode> children = new ConcurrentHashMap<>();
+
+		// subscriptions with patterns whose literal segments end at this node
+		private final SessionSubscriptions subscriptions = new SessionSubscriptions();
+
+		public SegmentNode(@Nullable SegmentNode parent, String segment) {
+			this.parent = parent;
+			this.segment = segment;
+		}
+	}
+
+	/**
+	 * Indexed subscriptions grouped by session, in registration order per session.
+	 */
+	private static final class SessionSubscriptions {
+
+		// sessionId -> subscriptions
+		private final Map<String, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+		public void add(String sessionId, Subscription subscription) {
+			this.subscriptions.compute(sessionId, (_sessionId, subscriptions) -> {
+				if (subscriptions == null) {
+					return Collections.singletonList(subscription);
+				}
+				List<Subscription> result = new ArrayList<>(subscriptions.size() + 1);
+				result.addAll(subscriptions);
+				result.add(subscription);
+				return result;
+			});
+		}
+
+		public void remove(String sessionId, Subscription subscription) {
+			this.subscriptions.computeIfPresent(sessionId, (_sessionId, subscriptions) -> {
+				List<Subscription> result = new ArrayList<>(subscriptions);
+				result.remove(subscription);
+				return (result.isEmpty() ? null : result);
+			});
+		}
+
+		public boolean isEmpty() {
+			return this.subscriptions.isEmpty();
+		}
+
+		public void forEach(BiConsumer<String, Subscription> consumer) {
+			this.subscriptions.forEach((sessionId, subscriptions) -> {
+				for (Subscription subscription : subscriptions) {
+					consumer.accept(sessionId, subscription);
+				}
+			});
+		}
+	}
+
 	/**
 	 * Registry for all session and their subscriptions.
 	 */
@@ -394,9 +672,8 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 				info.getSubscriptions().forEach(subscription -> consumer.accept(sessionId, subscription)));
 		}
 
-		public void addSubscription(String sessionId, Subscription subscription) {
-			SessionInfo info = this.sessions.computeIfAbsent(sessionId, _sessionId -> new SessionInfo());
-			info.addSubscription(subscription);
+		public SessionInfo obtainSession(String sessionId) {
+			return this.sessions.computeIfAbsent(sessionId, _sessionId -> new SessionInfo());
 		}
 
 		@Nullable
@@ -422,8 +699,8 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 			return this.subscriptionMap.get(subscriptionId);
 		}
 
-		public void addSubscription(Subscription subscription) {
-			this.subscriptionMap.putIfAbsent(subscription.getId(), subscription);
+		public boolean addSubscription(Subscription subscription) {
+			return (this.subscriptionMap.putIfAbsent(subscription.getId(), subscription) == null);
 		}
 
 		@Nullable
@@ -446,13 +723,18 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 		@Nullable
 		private final Expression selector;
 
-		public Subscription(String id, String destination, boolean isPattern, @Nullable Expression selector) {
+		private final long sequence;
+
+		public Subscription(String id, String destination, boolean isPattern, @Nullable Expression selector,
+				long sequence) {
+
 			Assert.notNull(id, "Subscription id must not be null");
 			Assert.notNull(destination, "Subscription destination must not be null");
 			this.id = id;
 			this.selector = selector;
 			this.destination = destination;
 			this.isPattern = isPattern;
+			this.sequence = sequence;
 		}
 
 		public String getId() {
@@ -472,6 +754,14 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 			return this.selector;
 		}
 
+		/**
+		 * Return the registration sequence number of this subscription,
+		 * for ordering matched subscriptions.
+		 */
+		public long getSequence() {
+			return this.sequence;
+		}
+
 		@Override
 		public boolean equals(@Nullable Object other) {
 			return (this == other ||
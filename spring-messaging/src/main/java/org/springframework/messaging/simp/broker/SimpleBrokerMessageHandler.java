@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.messaging.simp.broker;
 import java.security.Principal;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
@@ -385,6 +386,8 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 			logger.debug("Broadcasting to " + subscriptions.size() + " sessions.");
 		}
 		long now = System.currentTimeMillis();
+		Object payload = message.getPayload();
+		BroadcastContent broadcastContent = (isBroadcast(subscriptions) ? new BroadcastContent(payload) : null);
 		subscriptions.forEach((sessionId, subscriptionIds) -> {
 			for (String subscriptionId : subscriptionIds) {
 				SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
@@ -392,8 +395,10 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 				headerAccessor.setSessionId(sessionId);
 				headerAccessor.setSubscriptionId(subscriptionId);
 				headerAccessor.copyHeadersIfAbsent(message.getHeaders());
+				if (broadcastContent != null) {
+					headerAccessor.setHeader(BroadcastContent.BROADCAST_CONTENT_HEADER, broadcastContent);
+				}
 				headerAccessor.setLeaveMutable(true);
-				Object payload = message.getPayload();
 				Message<?> reply = MessageBuilder.createMessage(payload, headerAccessor.getMessageHeaders());
 				SessionInfo info = this.sessions.get(sessionId);
 				if (info != null) {
@@ -413,6 +418,23 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 		});
 	}
 
+	/**
+	 * Whether the given subscriptions amount to more than one message, in which
+	 * case the messages share a {@link BroadcastContent} for encoding their
+	 * common content only once.
+	 */
+	private static boolean isBroadcast(MultiValueMap<String, String> subscriptions) {
+		if (subscriptions.size() > 1) {
+			return true;
+		}
+		for (List<String> subscriptionIds : subscriptions.values()) {
+			if (subscriptionIds.size() > 1) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public String toString() {
 		return "SimpleBrokerMessageHandler [" + this.subscriptionRegistry + "]";
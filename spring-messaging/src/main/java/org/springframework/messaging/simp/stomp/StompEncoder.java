@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,11 +29,15 @@ import org.apache.commons.logging.Log;
 
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.simp.SimpLogging;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.BroadcastContent;
+import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.messaging.support.NativeMessageHeaderAccessor;
 import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
 
 /**
  * An encoder for STOMP frames.
@@ -49,6 +53,8 @@ public class StompEncoder  {
 
 	private static final Byte COLON_BYTE = ':';
 
+	private static final byte[] MESSAGE_COMMAND_BYTES = StompCommand.MESSAGE.toString().getBytes(StandardCharsets.UTF_8);
+
 	private static final Log logger = SimpLogging.forLogName(StompEncoder.class);
 
 	private static final int HEADER_KEY_CACHE_LIMIT = 32;
@@ -111,6 +117,80 @@ public class StompEncoder  {
 		return result.toByteArray();
 	}
 
+	/**
+	 * Encode the given message to a subscriber as a STOMP MESSAGE frame, if the
+	 * message is part of a broker broadcast as indicated by its
+	 * {@link BroadcastContent}. The headers and the payload that all subscribers
+	 * of the broadcast have in common are encoded only once, and reused with the
+	 * "subscription" and "message-id" headers for each subscriber.
+	 * <p>Messages with a {@link StompHeaderAccessor}, or with headers that need to
+	 * be processed for each subscriber such as an original destination, are not
+	 * supported here and need to be converted and passed to {@link #encode(Map, byte[])}.
+	 * <p>Note that this method does not go through {@code encode}: the
+	 * {@code StompSubProtocolHandler} therefore uses it with a plain
+	 * {@code StompEncoder} only, not with subclasses that may customize
+	 * {@code encode}.
+	 * @param message the message to a subscriber, not converted yet
+	 * @return the encoded frame, or {@code null} if not supported for the message
+	 * @since 5.3.9
+	 */
+	@Nullable
+	public byte[] encodeBroadcast(Message<byte[]> message) {
+		BroadcastContent broadcastContent = BroadcastContent.getBroadcastContent(message);
+		if (broadcastContent == null || broadcastContent.getPayload() != message.getPayload() ||
+				MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class) != null) {
+			return null;
+		}
+
+		MessageHeaders headers = message.getHeaders();
+		StompCommand command = StompHeaderAccessor.getCommand(headers);
+		String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+		String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(headers);
+		if (!SimpMessageType.MESSAGE.equals(SimpMessageHeaderAccessor.getMessageType(headers)) ||
+				(command != null && command != StompCommand.SEND) || sessionId == null || subscriptionId == null) {
+			return null;
+		}
+
+		EncodedBroadcast encoded = broadcastContent.getEncodedContent(this, key -> encodeBroadcastContent(message));
+		if (!encoded.isApplicable(headers)) {
+			return null;
+		}
+
+		Result result = new DefaultResult();
+		result.add(MESSAGE_COMMAND_BYTES);
+		result.add(LINE_FEED_BYTE);
+		writeHeader(StompHeaderAccessor.STOMP_SUBSCRIPTION_HEADER, subscriptionId, result);
+		writeHeader(StompHeaderAccessor.STOMP_MESSAGE_ID_HEADER, StompHeaderAccessor.generateMessageId(sessionId), result);
+		result.add(encoded.content);
+		return result.toByteArray();
+	}
+
+	/**
+	 * Encode the headers and the payload of the MESSAGE frames for the broadcast
+	 * that the given message is part of, except for the headers for each subscriber.
+	 */
+	private EncodedBroadcast encodeBroadcastContent(Message<byte[]> message) {
+		StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+		if (accessor.containsNativeHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION) ||
+				accessor.containsNativeHeader(StompHeaderAccessor.STOMP_MESSAGE_ID_HEADER)) {
+			return new EncodedBroadcast(message.getHeaders(), null);
+		}
+		accessor.removeNativeHeader(StompHeaderAccessor.STOMP_SUBSCRIPTION_HEADER);
+		Result result = new DefaultResult();
+		writeHeaders(StompCommand.MESSAGE, accessor.getMessageHeaders(), message.getPayload(), result);
+		result.add(LINE_FEED_BYTE);
+		result.add(message.getPayload());
+		result.add((byte) 0);
+		return new EncodedBroadcast(message.getHeaders(), result.toByteArray());
+	}
+
+	private void writeHeader(String key, String value, Result result) {
+		result.add(encodeHeaderKey(key, true));
+		result.add(COLON_BYTE);
+		result.add(encodeHeaderValue(value, true));
+		result.add(LINE_FEED_BYTE);
+	}
+
 	private void writeHeaders(
 			StompCommand command, Map<String, Object> headers, byte[] payload, Result result) {
 
@@ -218,6 +298,45 @@ public class StompEncoder  {
 	}
 
 
+	/**
+	 * The encoded content of a broadcast, along with the headers it was
+	 * encoded from, for checking whether it applies to a given message.
+	 */
+	private static class EncodedBroadcast {
+
+		@Nullable
+		private final Object nativeHeaders;
+
+		@Nullable
+		private final String destination;
+
+		@Nullable
+		private final Object contentType;
+
+		@Nullable
+		private final byte[] content;
+
+		EncodedBroadcast(MessageHeaders headers, @Nullable byte[] content) {
+			this.nativeHeaders = headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+			this.destination = SimpMessageHeaderAccessor.getDestination(headers);
+			this.contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+			this.content = content;
+		}
+
+		/**
+		 * Whether the content applies to a message with the given headers, i.e.
+		 * the content could be encoded and the headers that it was encoded from
+		 * are the same for the given message.
+		 */
+		boolean isApplicable(MessageHeaders headers) {
+			return (this.content != null &&
+					ObjectUtils.nullSafeEquals(SimpMessageHeaderAccessor.getDestination(headers), this.destination) &&
+					ObjectUtils.nullSafeEquals(headers.get(MessageHeaders.CONTENT_TYPE), this.contentType) &&
+					ObjectUtils.nullSafeEquals(headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS), this.nativeHeaders));
+		}
+	}
+
+
 	/**
 	 * Accumulates byte content and returns an aggregated byte[] at the end.
 	 */
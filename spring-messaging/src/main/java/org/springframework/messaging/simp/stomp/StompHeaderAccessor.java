@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -220,8 +220,7 @@ public class StompHeaderAccessor extends SimpMessageHeaderAccessor {
 		}
 		trySetStompHeaderForSubscriptionId();
 		if (getMessageId() == null) {
-			String messageId = getSessionId() + '-' + messageIdCounter.getAndIncrement();
-			setNativeHeader(STOMP_MESSAGE_ID_HEADER, messageId);
+			setNativeHeader(STOMP_MESSAGE_ID_HEADER, generateMessageId(getSessionId()));
 		}
 	}
 
@@ -544,6 +543,13 @@ public class StompHeaderAccessor extends SimpMessageHeaderAccessor {
 		return (!CollectionUtils.isEmpty(values) ? Integer.valueOf(values.get(0)) : null);
 	}
 
+	/**
+	 * Generate a "message-id" header value for a MESSAGE frame to the given session.
+	 */
+	static String generateMessageId(@Nullable String sessionId) {
+		return sessionId + '-' + messageIdCounter.getAndIncrement();
+	}
+
 
 	private static class StompPasscode {
 
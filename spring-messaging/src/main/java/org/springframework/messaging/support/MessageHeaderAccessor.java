@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -655,24 +655,23 @@ public class MessageHeaderAccessor {
 				return;
 			}
 
-			if (getId() == null) {
-				IdGenerator idGenerator = (MessageHeaderAccessor.this.idGenerator != null ?
-						MessageHeaderAccessor.this.idGenerator : MessageHeaders.getIdGenerator());
-				UUID id = idGenerator.generateId();
-				if (id != MessageHeaders.ID_VALUE_NONE) {
-					getRawHeaders().put(ID, id);
-				}
-			}
-
 			if (getTimestamp() == null) {
 				if (MessageHeaderAccessor.this.enableTimestamp) {
 					getRawHeaders().put(TIMESTAMP, System.currentTimeMillis());
 				}
 			}
 
+			if (getId() == null) {
+				IdGenerator idGenerator = (MessageHeaderAccessor.this.idGenerator != null ?
+						MessageHeaderAccessor.this.idGenerator : MessageHeaders.getIdGenerator());
+				// Obtain the ID on first access only
+				setLazyIdGenerator(idGenerator);
+			}
+
 			this.mutable = false;
 		}
 
+		@Override
 		public boolean isMutable() {
 			return this.mutable;
 		}
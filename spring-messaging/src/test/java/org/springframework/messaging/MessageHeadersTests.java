@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,6 +29,7 @@ import org.springframework.core.testfixture.io.SerializationTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.entry;
 
 /**
  * Test fixture for {@link MessageHeaders}.
@@ -105,6 +106,30 @@ public class MessageHeadersTests {
 		assertThat(headers.getId()).isNull();
 	}
 
+	@Test
+	public void testIdStableOnRepeatedAccess() {
+		MessageHeaders headers = new MessageHeaders(Collections.singletonMap("foo", "bar"));
+		UUID id = headers.getId();
+		assertThat(id).isNotNull();
+		assertThat(headers.getId()).isSameAs(id);
+		assertThat(headers.get(MessageHeaders.ID)).isSameAs(id);
+		assertThat(headers).containsEntry(MessageHeaders.ID, id).containsKey(MessageHeaders.TIMESTAMP).hasSize(3);
+	}
+
+	@Test
+	public void testCopyOfMessageHeaders() {
+		MessageHeaders headers1 = new MessageHeaders(Collections.singletonMap("foo", "bar"));
+		MessageHeaders headers2 = new MessageHeaders(headers1, MessageHeaders.ID_VALUE_NONE, -1L);
+		assertThat(headers2).containsOnly(entry("foo", "bar"));
+		assertThat(headers1.getId()).isNotNull();
+		assertThat(headers1).hasSize(3);
+
+		MessageHeaders headers3 = new MessageHeaders(headers1);
+		assertThat(headers3.get("foo")).isEqualTo("bar");
+		assertThat(headers3.getId()).isNotEqualTo(headers1.getId());
+		assertThat(headers3).hasSize(3);
+	}
+
 	@Test
 	public void testNonTypedAccessOfHeaderValue() {
 		Integer value = 123;
@@ -167,6 +192,8 @@ public class MessageHeadersTests {
 		MessageHeaders output = SerializationTestUtils.serializeAndDeserialize(input);
 		assertThat(output.get("name")).isEqualTo("joe");
 		assertThat(output.get("age")).isEqualTo(42);
+		assertThat(output.getId()).isEqualTo(input.getId());
+		assertThat(output.getTimestamp()).isEqualTo(input.getTimestamp());
 		assertThat(input.get("name")).isEqualTo("joe");
 		assertThat(input.get("age")).isEqualTo(42);
 	}
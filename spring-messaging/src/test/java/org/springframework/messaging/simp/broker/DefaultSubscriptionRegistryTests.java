@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,6 +28,7 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.MultiValueMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -271,6 +272,95 @@ public class DefaultSubscriptionRegistryTests {
 		assertThat(actual.size()).as("Expected no elements " + actual).isEqualTo(0);
 	}
 
+	@Test
+	public void registerSubscriptionsWithPatternSegments() {
+		this.registry.setPathMatcher(new AntPathMatcher("."));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/price.{symbol}"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", "/topic/price.IBM"));
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs01", "/topic/*.IBM"));
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs02", "/topic/volume.*"));
+		this.registry.registerSubscription(subscribeMessage("sess03", "subs01", "**"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/price.IBM"));
+		assertThat(actual.size()).isEqualTo(3);
+		assertThat(actual.get("sess01")).containsExactly("subs01", "subs02");
+		assertThat(actual.get("sess02")).containsExactly("subs01");
+		assertThat(actual.get("sess03")).containsExactly("subs01");
+
+		actual = this.registry.findSubscriptions(createMessage("/topic/price.MSFT"));
+		assertThat(actual.size()).isEqualTo(2);
+		assertThat(actual.get("sess01")).containsExactly("subs01");
+		assertThat(actual.get("sess03")).containsExactly("subs01");
+
+		actual = this.registry.findSubscriptions(createMessage("/topic/volume.MSFT"));
+		assertThat(actual.size()).isEqualTo(2);
+		assertThat(actual.get("sess02")).containsExactly("subs02");
+		assertThat(actual.get("sess03")).containsExactly("subs01");
+
+		this.registry.unregisterSubscription(unsubscribeMessage("sess01", "subs01"));
+		this.registry.unregisterAllSubscriptions("sess03");
+
+		actual = this.registry.findSubscriptions(createMessage("/topic/price.MSFT"));
+		assertThat(actual.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void findSubscriptionsInRegistrationOrder() {
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/price/**"));
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs01", "/topic/*/IBM"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", "/topic/price/IBM"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs03", "/**"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/price/IBM"));
+		assertThat(actual.keySet()).containsExactly("sess01", "sess02");
+		assertThat(actual.get("sess01")).containsExactly("subs01", "subs02", "subs03");
+		assertThat(actual.get("sess02")).containsExactly("subs01");
+	}
+
+	@Test
+	public void registerPatternSubscriptionAfterUnregistering() {
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/price/stock/*"));
+		this.registry.unregisterSubscription(unsubscribeMessage("sess01", "subs01"));
+		assertThat(this.registry.findSubscriptions(createMessage("/topic/price/stock/IBM"))).isEmpty();
+
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", "/topic/price/stock/*"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs03", "/topic/price/*"));
+		this.registry.unregisterSubscription(unsubscribeMessage("sess01", "subs03"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/price/stock/IBM"));
+		assertThat(actual.size()).isEqualTo(1);
+		assertThat(actual.get("sess01")).containsExactly("subs02");
+	}
+
+	@Test
+	public void unregisterAllSubscriptionsWhileRegistering() throws Exception {
+		Thread registeringThread = new Thread(() -> {
+			for (int i = 0; i < 1000; i++) {
+				this.registry.registerSubscription(subscribeMessage("sess01", "subs" + i, "/topic/price/*"));
+			}
+		});
+		registeringThread.start();
+		while (registeringThread.isAlive()) {
+			this.registry.unregisterAllSubscriptions("sess01");
+		}
+		registeringThread.join();
+		this.registry.unregisterAllSubscriptions("sess01");
+
+		assertThat(this.registry.findSubscriptions(createMessage("/topic/price/IBM"))).isEmpty();
+	}
+
+	@Test
+	public void registerSubscriptionWithCaseInsensitivePathMatcher() {
+		AntPathMatcher pathMatcher = new AntPathMatcher();
+		pathMatcher.setCaseSensitive(false);
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/Topic/PRICE/*"));
+		this.registry.setPathMatcher(pathMatcher);
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/price/IBM"));
+		assertThat(actual.size()).isEqualTo(1);
+		assertThat(actual.get("sess01")).containsExactly("subs01");
+	}
+
 	@Test
 	public void registerSubscriptionWithSelector() {
 		String sessionId = "sess01";
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,9 @@ package org.springframework.messaging.simp.stomp;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.BroadcastContent;
 import org.springframework.messaging.support.MessageBuilder;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -83,4 +86,54 @@ public class StompEncoderTests {
 		assertThat(new String(encoder.encode(frame))).isEqualTo("SEND\ncontent-length:12\n\nMessage body\0");
 	}
 
+	@Test
+	public void encodeBroadcast() {
+		BroadcastContent content = new BroadcastContent("Message body".getBytes());
+		Message<byte[]> message1 = createBroadcastMessage(content, "sess1", "sub1");
+		Message<byte[]> message2 = createBroadcastMessage(content, "sess2", "sub:2");
+
+		assertThat(new String(encoder.encodeBroadcast(message1))).matches(
+				"MESSAGE\nsubscription:sub1\nmessage-id:sess1-\\d+\n" +
+				"a:alpha\ndestination:/topic/foo\ncontent-length:12\n\nMessage body\0");
+		assertThat(new String(encoder.encodeBroadcast(message2))).matches(
+				"MESSAGE\nsubscription:sub\\\\c2\nmessage-id:sess2-\\d+\n" +
+				"a:alpha\ndestination:/topic/foo\ncontent-length:12\n\nMessage body\0");
+	}
+
+	@Test
+	public void encodeBroadcastNotSupported() {
+		BroadcastContent content = new BroadcastContent("Message body".getBytes());
+		SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		headers.setDestination("/topic/foo");
+		headers.setSessionId("sess1");
+		headers.setSubscriptionId("sub1");
+		Message<byte[]> message = MessageBuilder.createMessage(
+				(byte[]) content.getPayload(), headers.getMessageHeaders());
+		assertThat(encoder.encodeBroadcast(message)).isNull();
+
+		headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		headers.setDestination("/topic/foo");
+		headers.setSessionId("sess1");
+		headers.setSubscriptionId("sub1");
+		headers.setNativeHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION, "/user/queue/foo");
+		headers.setHeader(BroadcastContent.BROADCAST_CONTENT_HEADER, content);
+		message = MessageBuilder.createMessage((byte[]) content.getPayload(), headers.getMessageHeaders());
+		assertThat(encoder.encodeBroadcast(message)).isNull();
+
+		Message<byte[]> otherPayload = MessageBuilder.createMessage(
+				"Other body".getBytes(), createBroadcastMessage(content, "sess1", "sub1").getHeaders());
+		assertThat(encoder.encodeBroadcast(otherPayload)).isNull();
+	}
+
+
+	private Message<byte[]> createBroadcastMessage(BroadcastContent content, String sessionId, String subscriptionId) {
+		SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		headers.setDestination("/topic/foo");
+		headers.setSessionId(sessionId);
+		headers.setSubscriptionId(subscriptionId);
+		headers.setNativeHeader("a", "alpha");
+		headers.setHeader(BroadcastContent.BROADCAST_CONTENT_HEADER, content);
+		return MessageBuilder.createMessage((byte[]) content.getPayload(), headers.getMessageHeaders());
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -81,6 +81,21 @@ public class MessageHeaderAccessorTests {
 		assertThat(actual.get("bar")).isEqualTo("baz");
 	}
 
+	@Test
+	public void existingHeadersNotAffectedByModification() {
+		GenericMessage<String> message = new GenericMessage<>("payload", Collections.singletonMap("foo", "bar"));
+
+		MessageHeaderAccessor accessor = new MessageHeaderAccessor(message);
+		assertThat(accessor.getHeader("foo")).isEqualTo("bar");
+		assertThat(accessor.getId()).isNull();
+		accessor.setHeader("foo", "BAR");
+		accessor.setHeader("bar", "baz");
+
+		assertThat(accessor.toMap()).hasSize(2);
+		assertThat(message.getHeaders().get("foo")).isEqualTo("bar");
+		assertThat(message.getHeaders()).hasSize(3).doesNotContainKey("bar");
+	}
+
 	@Test
 	public void testRemoveHeader() {
 		Message<?> message = new GenericMessage<>("payload", Collections.singletonMap("foo", "bar"));
@@ -16,6 +16,7 @@
 
 package org.springframework.transaction.event;
 
+import java.util.List;
 import java.util.function.Consumer;
 
 import org.springframework.context.ApplicationEvent;
@@ -97,6 +98,22 @@ public interface TransactionalApplicationListener<E extends ApplicationEvent>
 	 */
 	void processEvent(E event);
 
+	/**
+	 * Immediately process the given batch of {@link ApplicationEvent ApplicationEvents},
+	 * as collected within a transaction for a batch listener.
+	 * <p>The default implementation processes each event individually through
+	 * {@link #processEvent}. Batch listeners may override this to handle all
+	 * events for a transaction in one go.
+	 * @param events the events to process, in publication order
+	 * @since 5.3.9
+	 * @see TransactionalEventListener#batch()
+	 */
+	default void processEvents(List<E> events) {
+		for (E event : events) {
+			processEvent(event);
+		}
+	}
+
 
 	/**
 	 * Create a new {@code TransactionalApplicationListener} for the given payload consumer,
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,10 +18,12 @@ package org.springframework.transaction.event;
 
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.core.Ordered;
+import org.springframework.lang.Nullable;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 
@@ -53,6 +55,9 @@ public class TransactionalApplicationListenerAdapter<E extends ApplicationEvent>
 
 	private String listenerId = "";
 
+	@Nullable
+	private Executor taskExecutor;
+
 	private final List<SynchronizationCallback> callbacks = new CopyOnWriteArrayList<>();
 
 
@@ -114,6 +119,19 @@ public class TransactionalApplicationListenerAdapter<E extends ApplicationEvent>
 		return this.listenerId;
 	}
 
+	/**
+	 * Specify an executor to process events on after transaction completion,
+	 * decoupling the listener from the thread that completes the transaction.
+	 * <p>The default is to process events in the completing thread. Processing in
+	 * the {@link TransactionPhase#BEFORE_COMMIT} phase is never delegated to the
+	 * executor. If the executor rejects a task, e.g. with a bounded queue being
+	 * full, the events are processed in the completing thread instead.
+	 * @since 5.3.9
+	 */
+	public void setTaskExecutor(@Nullable Executor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
 	@Override
 	public void addCallback(SynchronizationCallback callback) {
 		Assert.notNull(callback, "SynchronizationCallback must not be null");
@@ -130,8 +148,8 @@ public class TransactionalApplicationListenerAdapter<E extends ApplicationEvent>
 	public void onApplicationEvent(E event) {
 		if (TransactionSynchronizationManager.isSynchronizationActive() &&
 				TransactionSynchronizationManager.isActualTransactionActive()) {
-			TransactionSynchronizationManager.registerSynchronization(
-					new TransactionalApplicationListenerSynchronization<>(event, this, this.callbacks));
+			TransactionalApplicationListenerSynchronization.register(
+					event, this, this.callbacks, this.taskExecutor, false);
 		}
 	}
 
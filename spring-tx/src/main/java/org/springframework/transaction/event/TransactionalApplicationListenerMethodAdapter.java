@@ -17,16 +17,21 @@
 package org.springframework.transaction.event;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.event.ApplicationListenerMethodAdapter;
 import org.springframework.context.event.EventListener;
 import org.springframework.context.event.GenericApplicationListener;
 import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.lang.Nullable;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
 /**
  * {@link GenericApplicationListener} adapter that delegates the processing of
@@ -34,6 +39,9 @@ import org.springframework.util.Assert;
  * the exact same features as any regular {@link EventListener} annotated method
  * but is aware of the transactional context of the event publisher.
  *
+ * <p>As of 5.3.9, a {@linkplain TransactionalEventListener#batch() batch} listener
+ * method receives all events for the listener within a transaction at once.
+ *
  * <p>Processing of {@link TransactionalEventListener} is enabled automatically
  * when Spring's transaction management is enabled. For other cases, registering
  * a bean of type {@link TransactionalEventListenerFactory} is required.
@@ -52,6 +60,11 @@ public class TransactionalApplicationListenerMethodAdapter extends ApplicationLi
 
 	private final TransactionPhase transactionPhase;
 
+	private final boolean batch;
+
+	@Nullable
+	private Executor taskExecutor;
+
 	private final List<SynchronizationCallback> callbacks = new CopyOnWriteArrayList<>();
 
 
@@ -70,6 +83,21 @@ public class TransactionalApplicationListenerMethodAdapter extends ApplicationLi
 		}
 		this.annotation = ann;
 		this.transactionPhase = ann.phase();
+		this.batch = ann.batch();
+		if (this.batch) {
+			if (method.getParameterCount() != 1 || !method.getParameterTypes()[0].isAssignableFrom(List.class)) {
+				throw new IllegalStateException(
+						"Batch event listener method must declare a single List parameter: " + method);
+			}
+			if (ann.classes().length == 0) {
+				throw new IllegalStateException(
+						"Batch event listener method must specify the event classes to listen to: " + method);
+			}
+			if (StringUtils.hasText(getCondition())) {
+				throw new IllegalStateException(
+						"Condition not supported for batch event listener method: " + method);
+			}
+		}
 	}
 
 
@@ -78,6 +106,20 @@ public class TransactionalApplicationListenerMethodAdapter extends ApplicationLi
 		return this.transactionPhase;
 	}
 
+	/**
+	 * Specify an executor to process events on after transaction completion,
+	 * decoupling the listener from the thread that completes the transaction.
+	 * <p>The default is to process events in the completing thread. Processing in
+	 * the {@link TransactionPhase#BEFORE_COMMIT} phase is never delegated to the
+	 * executor. If the executor rejects a task, e.g. with a bounded queue being
+	 * full, the events are processed in the completing thread instead.
+	 * @since 5.3.9
+	 * @see TransactionalEventListenerFactory#setTaskExecutor
+	 */
+	public void setTaskExecutor(@Nullable Executor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
 	@Override
 	public void addCallback(SynchronizationCallback callback) {
 		Assert.notNull(callback, "SynchronizationCallback must not be null");
@@ -89,8 +131,8 @@ public class TransactionalApplicationListenerMethodAdapter extends ApplicationLi
 	public void onApplicationEvent(ApplicationEvent event) {
 		if (TransactionSynchronizationManager.isSynchronizationActive() &&
 				TransactionSynchronizationManager.isActualTransactionActive()) {
-			TransactionSynchronizationManager.registerSynchronization(
-					new TransactionalApplicationListenerSynchronization<>(event, this, this.callbacks));
+			TransactionalApplicationListenerSynchronization.register(
+					event, this, this.callbacks, this.taskExecutor, this.batch);
 		}
 		else if (this.annotation.fallbackExecution()) {
 			if (this.annotation.phase() == TransactionPhase.AFTER_ROLLBACK && logger.isWarnEnabled()) {
@@ -106,4 +148,44 @@ public class TransactionalApplicationListenerMethodAdapter extends ApplicationLi
 		}
 	}
 
+	@Override
+	public void processEvent(ApplicationEvent event) {
+		if (this.batch) {
+			processEvents(Collections.singletonList(event));
+		}
+		else {
+			super.processEvent(event);
+		}
+	}
+
+	/**
+	 * Process the given events through a batch listener method, passing
+	 * the resolved argument for each event within a single {@code List}.
+	 * Any other listener method is invoked for each event individually.
+	 * @since 5.3.9
+	 */
+	@Override
+	public void processEvents(List<ApplicationEvent> events) {
+		if (!this.batch) {
+			TransactionalApplicationListener.super.processEvents(events);
+			return;
+		}
+		List<Object> batchArgs = new ArrayList<>(events.size());
+		for (ApplicationEvent event : events) {
+			Object[] args = resolveArguments(event);
+			if (args != null) {
+				batchArgs.add(args[0]);
+			}
+		}
+		if (!batchArgs.isEmpty()) {
+			Object result = doInvoke(batchArgs);
+			if (result != null) {
+				handleResult(result);
+			}
+			else {
+				logger.trace("No result object given - no result to handle");
+			}
+		}
+	}
+
 }
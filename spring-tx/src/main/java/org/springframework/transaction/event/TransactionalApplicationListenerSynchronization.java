@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,15 +16,26 @@
 
 package org.springframework.transaction.event;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.context.ApplicationEvent;
+import org.springframework.lang.Nullable;
 import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * {@link TransactionSynchronization} implementation for event processing with a
  * {@link TransactionalApplicationListener}.
  *
+ * <p>As of 5.3.9, a synchronization may also collect all events for a batch
+ * listener within the current transaction, handing them to the listener in a
+ * single {@link TransactionalApplicationListener#processEvents} call, and may
+ * process events after completion on a given {@link Executor}.
+ *
  * @author Juergen Hoeller
  * @since 5.3
  * @param <E> the specific {@code ApplicationEvent} subclass to listen to
@@ -32,19 +43,41 @@ import org.springframework.transaction.support.TransactionSynchronization;
 class TransactionalApplicationListenerSynchronization<E extends ApplicationEvent>
 		implements TransactionSynchronization {
 
-	private final E event;
+	private final List<E> events;
 
 	private final TransactionalApplicationListener<E> listener;
 
 	private final List<TransactionalApplicationListener.SynchronizationCallback> callbacks;
 
+	@Nullable
+	private final Executor executor;
+
+	private final boolean batch;
+
+	private volatile boolean completed;
+
 
 	public TransactionalApplicationListenerSynchronization(E event, TransactionalApplicationListener<E> listener,
 			List<TransactionalApplicationListener.SynchronizationCallback> callbacks) {
 
-		this.event = event;
+		this(event, listener, callbacks, null, false);
+	}
+
+	private TransactionalApplicationListenerSynchronization(E event, TransactionalApplicationListener<E> listener,
+			List<TransactionalApplicationListener.SynchronizationCallback> callbacks,
+			@Nullable Executor executor, boolean batch) {
+
+		if (batch) {
+			this.events = new ArrayList<>();
+			this.events.add(event);
+		}
+		else {
+			this.events = Collections.singletonList(event);
+		}
 		this.listener = listener;
 		this.callbacks = callbacks;
+		this.executor = executor;
+		this.batch = batch;
 	}
 
 
@@ -53,37 +86,137 @@ class TransactionalApplicationListenerSynchronization<E extends ApplicationEvent
 		return this.listener.getOrder();
 	}
 
+	@Override
+	public void suspend() {
+		unbindBatch();
+	}
+
+	@Override
+	public void resume() {
+		if (this.batch && !this.completed) {
+			TransactionSynchronizationManager.bindResource(this.listener, this);
+		}
+	}
+
 	@Override
 	public void beforeCommit(boolean readOnly) {
 		if (this.listener.getTransactionPhase() == TransactionPhase.BEFORE_COMMIT) {
-			processEventWithCallbacks();
+			this.completed = true;
+			try {
+				processEventsWithCallbacks();
+			}
+			finally {
+				unbindBatch();
+			}
 		}
 	}
 
 	@Override
 	public void afterCompletion(int status) {
-		TransactionPhase phase = this.listener.getTransactionPhase();
-		if (phase == TransactionPhase.AFTER_COMMIT && status == STATUS_COMMITTED) {
-			processEventWithCallbacks();
+		this.completed = true;
+		try {
+			TransactionPhase phase = this.listener.getTransactionPhase();
+			if (phase == TransactionPhase.AFTER_COMMIT && status == STATUS_COMMITTED) {
+				processEventsAfterCompletion();
+			}
+			else if (phase == TransactionPhase.AFTER_ROLLBACK && status == STATUS_ROLLED_BACK) {
+				processEventsAfterCompletion();
+			}
+			else if (phase == TransactionPhase.AFTER_COMPLETION) {
+				processEventsAfterCompletion();
+			}
 		}
-		else if (phase == TransactionPhase.AFTER_ROLLBACK && status == STATUS_ROLLED_BACK) {
-			processEventWithCallbacks();
+		finally {
+			unbindBatch();
 		}
-		else if (phase == TransactionPhase.AFTER_COMPLETION) {
-			processEventWithCallbacks();
+	}
+
+	/**
+	 * Release the binding of this synchronization to the listener, if any.
+	 * Events published after completion go into a new synchronization.
+	 */
+	private void unbindBatch() {
+		if (this.batch && TransactionSynchronizationManager.getResource(this.listener) == this) {
+			TransactionSynchronizationManager.unbindResource(this.listener);
+		}
+	}
+
+	private void processEventsAfterCompletion() {
+		if (this.executor != null) {
+			try {
+				this.executor.execute(this::processEventsWithCallbacks);
+				return;
+			}
+			catch (RejectedExecutionException ex) {
+				// Executor saturated: process the events in the completing thread instead,
+				// slowing down the publisher rather than dropping the events.
+			}
 		}
+		processEventsWithCallbacks();
 	}
 
-	private void processEventWithCallbacks() {
-		this.callbacks.forEach(callback -> callback.preProcessEvent(this.event));
+	private void processEventsWithCallbacks() {
+		for (E event : this.events) {
+			this.callbacks.forEach(callback -> callback.preProcessEvent(event));
+		}
 		try {
-			this.listener.processEvent(this.event);
+			if (this.batch) {
+				this.listener.processEvents(this.events);
+			}
+			else {
+				this.listener.processEvent(this.events.get(0));
+			}
 		}
 		catch (RuntimeException | Error ex) {
-			this.callbacks.forEach(callback -> callback.postProcessEvent(this.event, ex));
+			for (E event : this.events) {
+				this.callbacks.forEach(callback -> callback.postProcessEvent(event, ex));
+			}
 			throw ex;
 		}
-		this.callbacks.forEach(callback -> callback.postProcessEvent(this.event, null));
+		for (E event : this.events) {
+			this.callbacks.forEach(callback -> callback.postProcessEvent(event, null));
+		}
+	}
+
+
+	/**
+	 * Register a synchronization for the given event with the current transaction.
+	 * <p>For a batch listener, the event is added to the listener's existing
+	 * synchronization in the current transaction, if any, to be processed along
+	 * with all other events for the listener within the same transaction.
+	 * A synchronization that has already completed, e.g. while its listener
+	 * publishes further events from a new transaction, is replaced.
+	 * @param event the event to process
+	 * @param listener the listener to process the event with
+	 * @param callbacks the callbacks to apply around event processing
+	 * @param executor the executor for processing after completion
+	 * (or {@code null} for processing in the completing thread)
+	 * @param batch whether to collect all events for the listener in a batch
+	 * @since 5.3.9
+	 */
+	@SuppressWarnings("unchecked")
+	static <E extends ApplicationEvent> void register(E event, TransactionalApplicationListener<E> listener,
+			List<TransactionalApplicationListener.SynchronizationCallback> callbacks,
+			@Nullable Executor executor, boolean batch) {
+
+		if (batch) {
+			Object existing = TransactionSynchronizationManager.getResource(listener);
+			if (existing instanceof TransactionalApplicationListenerSynchronization) {
+				TransactionalApplicationListenerSynchronization<E> existingSynchronization =
+						(TransactionalApplicationListenerSynchronization<E>) existing;
+				if (!existingSynchronization.completed) {
+					existingSynchronization.events.add(event);
+					return;
+				}
+				TransactionSynchronizationManager.unbindResource(listener);
+			}
+		}
+		TransactionalApplicationListenerSynchronization<E> synchronization =
+				new TransactionalApplicationListenerSynchronization<>(event, listener, callbacks, executor, batch);
+		TransactionSynchronizationManager.registerSynchronization(synchronization);
+		if (batch) {
+			TransactionSynchronizationManager.bindResource(listener, synchronization);
+		}
 	}
 
 }
@@ -81,6 +81,19 @@ public @interface TransactionalEventListener {
 	 */
 	boolean fallbackExecution() default false;
 
+	/**
+	 * Whether to collect all events for this listener within a transaction,
+	 * invoking the annotated method once per transaction with a {@link java.util.List}
+	 * of those events (or their payloads), in publication order.
+	 * <p>A batch listener method must declare a single parameter of type
+	 * {@code List}, and the event types need to be specified through
+	 * {@link #classes}. A {@link #condition} is not supported for batch listeners.
+	 * A {@link #fallbackExecution} outside of a transaction passes a single event.
+	 * @since 5.3.9
+	 * @see TransactionalApplicationListener#processEvents
+	 */
+	boolean batch() default false;
+
 	/**
 	 * Alias for {@link #classes}.
 	 */
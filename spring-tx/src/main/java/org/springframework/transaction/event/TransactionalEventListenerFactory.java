@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,11 +17,13 @@
 package org.springframework.transaction.event;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
 
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.EventListenerFactory;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.lang.Nullable;
 
 /**
  * {@link EventListenerFactory} implementation that handles {@link TransactionalEventListener}
@@ -35,6 +37,9 @@ public class TransactionalEventListenerFactory implements EventListenerFactory,
 
 	private int order = 50;
 
+	@Nullable
+	private Executor taskExecutor;
+
 
 	public void setOrder(int order) {
 		this.order = order;
@@ -45,6 +50,17 @@ public class TransactionalEventListenerFactory implements EventListenerFactory,
 		return this.order;
 	}
 
+	/**
+	 * Specify an executor for the created listeners to process events on
+	 * after transaction completion.
+	 * <p>The default is to process events in the thread completing the transaction.
+	 * @since 5.3.9
+	 * @see TransactionalApplicationListenerMethodAdapter#setTaskExecutor
+	 */
+	public void setTaskExecutor(@Nullable Executor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
 
 	@Override
 	public boolean supportsMethod(Method method) {
@@ -53,7 +69,10 @@ public class TransactionalEventListenerFactory implements EventListenerFactory,
 
 	@Override
 	public ApplicationListener<?> createApplicationListener(String beanName, Class<?> type, Method method) {
-		return new TransactionalApplicationListenerMethodAdapter(beanName, type, method);
+		TransactionalApplicationListenerMethodAdapter listener =
+				new TransactionalApplicationListenerMethodAdapter(beanName, type, method);
+		listener.setTaskExecutor(this.taskExecutor);
+		return listener;
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,9 @@
 package org.springframework.transaction.event;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -31,6 +34,7 @@ import org.springframework.util.ReflectionUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 
 /**
  * @author Stephane Nicoll
@@ -123,6 +127,59 @@ public class TransactionalApplicationListenerMethodAdapterTests {
 		assertThat(adapter.getListenerId()).endsWith("identifier");
 	}
 
+	@Test
+	public void invokesBatchListenerOncePerTransaction() {
+		Method m = ReflectionUtils.findMethod(SampleEvents.class, "batch", List.class);
+		CapturingSynchronizationCallback callback = new CapturingSynchronizationCallback();
+		PayloadApplicationEvent<String> event1 = new PayloadApplicationEvent<>(this, "event1");
+		PayloadApplicationEvent<String> event2 = new PayloadApplicationEvent<>(this, "event2");
+		SampleEvents target = new SampleEvents();
+
+		TransactionalApplicationListenerMethodAdapter adapter = createTestInstance(m, target);
+		adapter.addCallback(callback);
+		runInTransaction(() -> {
+			adapter.onApplicationEvent(event1);
+			adapter.onApplicationEvent(event2);
+			assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+		});
+
+		assertThat(target.batches).containsExactly(Arrays.asList("event1", "event2"));
+		assertThat(callback.preEvent).isEqualTo(event2);
+		assertThat(callback.postEvent).isEqualTo(event2);
+		assertThat(callback.ex).isNull();
+		assertThat(TransactionSynchronizationManager.getResourceMap()).isEmpty();
+
+		runInTransaction(() -> adapter.onApplicationEvent(event1));
+		assertThat(target.batches).containsExactly(Arrays.asList("event1", "event2"), Arrays.asList("event1"));
+	}
+
+	@Test
+	public void invokesBatchListenerOnExecutor() {
+		Method m = ReflectionUtils.findMethod(SampleEvents.class, "batch", List.class);
+		PayloadApplicationEvent<String> event = new PayloadApplicationEvent<>(this, "event");
+		SampleEvents target = new SampleEvents();
+		List<Runnable> tasks = new ArrayList<>();
+
+		TransactionalApplicationListenerMethodAdapter adapter = createTestInstance(m, target);
+		adapter.setTaskExecutor(tasks::add);
+		runInTransaction(() -> adapter.onApplicationEvent(event));
+
+		assertThat(target.batches).isEmpty();
+		assertThat(tasks).hasSize(1);
+		tasks.get(0).run();
+		assertThat(target.batches).containsExactly(Arrays.asList("event"));
+	}
+
+	@Test
+	public void batchListenerRequiresListParameterAndClasses() {
+		assertThatIllegalStateException().isThrownBy(() -> createTestInstance(
+				ReflectionUtils.findMethod(SampleEvents.class, "batchWithoutList", String.class)));
+		assertThatIllegalStateException().isThrownBy(() -> createTestInstance(
+				ReflectionUtils.findMethod(SampleEvents.class, "batchWithoutClasses", List.class)));
+		assertThatIllegalStateException().isThrownBy(() -> createTestInstance(
+				ReflectionUtils.findMethod(SampleEvents.class, "batchWithCondition", List.class)));
+	}
+
 
 	private static void assertPhase(Method method, TransactionPhase expected) {
 		assertThat(method).as("Method must not be null").isNotNull();
@@ -137,10 +194,14 @@ public class TransactionalApplicationListenerMethodAdapterTests {
 	}
 
 	private static TransactionalApplicationListenerMethodAdapter createTestInstance(Method m) {
+		return createTestInstance(m, new SampleEvents());
+	}
+
+	private static TransactionalApplicationListenerMethodAdapter createTestInstance(Method m, SampleEvents target) {
 		return new TransactionalApplicationListenerMethodAdapter("test", SampleEvents.class, m) {
 			@Override
 			protected Object getTargetBean() {
-				return new SampleEvents();
+				return target;
 			}
 		};
 	}
@@ -169,6 +230,8 @@ public class TransactionalApplicationListenerMethodAdapterTests {
 
 	static class SampleEvents {
 
+		final List<List<String>> batches = new ArrayList<>();
+
 		@TransactionalEventListener
 		public void defaultPhase(String data) {
 		}
@@ -194,6 +257,23 @@ public class TransactionalApplicationListenerMethodAdapterTests {
 		@TransactionalEventListener(id = "identifier")
 		public void identified(String data) {
 		}
+
+		@TransactionalEventListener(classes = String.class, batch = true)
+		public void batch(List<String> data) {
+			this.batches.add(data);
+		}
+
+		@TransactionalEventListener(classes = String.class, batch = true)
+		public void batchWithoutList(String data) {
+		}
+
+		@TransactionalEventListener(batch = true)
+		public void batchWithoutClasses(List<String> data) {
+		}
+
+		@TransactionalEventListener(classes = String.class, batch = true, condition = "#root.args.size() > 1")
+		public void batchWithCondition(List<String> data) {
+		}
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -38,6 +38,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -331,6 +332,76 @@ public class TransactionalEventListenerTests {
 		getEventCollector().assertNoEventReceived();
 	}
 
+	@Test
+	public void afterCommitWithBatch() {
+		load(BatchTestListener.class);
+		this.transactionTemplate.execute(status -> {
+			getContext().publishEvent("test1");
+			getContext().publishEvent(1);
+			getContext().publishEvent("test2");
+			getEventCollector().assertNoEventReceived();
+			return null;
+		});
+		getEventCollector().assertEvents(EventCollector.AFTER_COMMIT, Arrays.asList("test1", "test2"));
+		getEventCollector().assertTotalEventsCount(1);
+	}
+
+	@Test
+	public void afterRollbackWithBatch() {
+		load(BatchTestListener.class);
+		this.transactionTemplate.execute(status -> {
+			getContext().publishEvent("test1");
+			getContext().publishEvent("test2");
+			status.setRollbackOnly();
+			return null;
+		});
+		getEventCollector().assertNoEventReceived();
+	}
+
+	@Test
+	public void afterCommitWithBatchAndRequiresNew() {
+		load(BatchTestListener.class);
+		this.transactionTemplate.execute(status -> {
+			getContext().publishEvent("outer1");
+			TransactionTemplate requiresNew =
+					new TransactionTemplate(getContext().getBean(CallCountingTransactionManager.class));
+			requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+			requiresNew.execute(innerStatus -> {
+				getContext().publishEvent("inner1");
+				getContext().publishEvent("inner2");
+				return null;
+			});
+			getEventCollector().assertEvents(EventCollector.AFTER_COMMIT, Arrays.asList("inner1", "inner2"));
+			getContext().publishEvent("outer2");
+			return null;
+		});
+		getEventCollector().assertEvents(EventCollector.AFTER_COMMIT,
+				Arrays.asList("inner1", "inner2"), Arrays.asList("outer1", "outer2"));
+		getEventCollector().assertTotalEventsCount(2);
+		assertThat(TransactionSynchronizationManager.getResourceMap()).isEmpty();
+	}
+
+	@Test
+	public void afterCommitWithBatchPublishingFromNewTransaction() {
+		load(RepublishingBatchTestListener.class);
+		this.transactionTemplate.execute(status -> {
+			getContext().publishEvent("test");
+			return null;
+		});
+		getEventCollector().assertEvents(EventCollector.AFTER_COMMIT,
+				Collections.singletonList("test"), Collections.singletonList("republished"));
+		getEventCollector().assertTotalEventsCount(2);
+		assertThat(TransactionSynchronizationManager.getResourceMap()).isEmpty();
+	}
+
+	@Test
+	public void noTransactionWithBatchAndFallbackExecution() {
+		load(BatchFallbackExecutionTestListener.class);
+		getContext().publishEvent("test");
+		getEventCollector().assertEvents(EventCollector.BEFORE_COMMIT, Collections.singletonList("test"));
+		getEventCollector().assertTotalEventsCount(1);
+	}
+
 
 	protected EventCollector getEventCollector() {
 		return this.eventCollector;
@@ -566,6 +637,58 @@ public class TransactionalEventListenerTests {
 	}
 
 
+	@Component
+	static class BatchTestListener {
+
+		@Autowired
+		private EventCollector eventCollector;
+
+		@TransactionalEventListener(classes = String.class, batch = true)
+		public void handleAfterCommit(List<String> data) {
+			this.eventCollector.addEvent(EventCollector.AFTER_COMMIT, data);
+		}
+
+	}
+
+
+	@Component
+	static class RepublishingBatchTestListener {
+
+		@Autowired
+		private EventCollector eventCollector;
+
+		@Autowired
+		private ApplicationEventPublisher eventPublisher;
+
+		@Autowired
+		private TransactionTemplate transactionTemplate;
+
+		@TransactionalEventListener(classes = String.class, batch = true)
+		public void handleAfterCommit(List<String> data) {
+			this.eventCollector.addEvent(EventCollector.AFTER_COMMIT, data);
+			if (data.contains("test")) {
+				this.transactionTemplate.execute(status -> {
+					this.eventPublisher.publishEvent("republished");
+					return null;
+				});
+			}
+		}
+	}
+
+
+	@Component
+	static class BatchFallbackExecutionTestListener {
+
+		@Autowired
+		private EventCollector eventCollector;
+
+		@TransactionalEventListener(classes = String.class, batch = true, phase = BEFORE_COMMIT, fallbackExecution = true)
+		public void handleBeforeCommit(List<String> data) {
+			this.eventCollector.addEvent(EventCollector.BEFORE_COMMIT, data);
+		}
+	}
+
+
 	@TransactionalEventListener(phase = AFTER_COMMIT, condition = "!'SKIP'.equals(#p0)")
 	@Target(ElementType.METHOD)
 	@Retention(RetentionPolicy.RUNTIME)
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Benchmarks for decoding a JSON array into a stream of POJOs using Jackson,
+ * with each element either deserialized straight from its bytes or through
+ * a {@code TokenBuffer}.
+ *
+ * @author agent (agent@local)
+ * @see AbstractJackson2Decoder
+ */
+@BenchmarkMode(Mode.Throughput)
+public class Jackson2JsonDecoderBenchmark {
+
+	/**
+	 * Benchmark data holding a JSON array of {@code elementCount} {@link Project}
+	 * elements, split into chunks of {@code chunkSize} bytes.
+	 */
+	@State(Scope.Benchmark)
+	public static class DecodeData {
+
+		@Param({"split", "tokenize"})
+		String mode;
+
+		@Param({"10", "1000"})
+		int elementCount;
+
+		@Param({"1024", "8192"})
+		int chunkSize;
+
+		Jackson2JsonDecoder jsonDecoder;
+
+		DefaultDataBufferFactory bufferFactory;
+
+		ResolvableType resolvableType;
+
+		byte[] content;
+
+		@Setup
+		public void setup() throws Exception {
+			ObjectMapper objectMapper = new Jackson2ObjectMapperBuilder().build();
+			this.content = objectMapper.writeValueAsBytes(
+					Collections.nCopies(this.elementCount, new Project("spring", 5)));
+			if ("tokenize".equals(this.mode)) {
+				// Comments are not supported by the direct path: TokenBuffer per element
+				objectMapper.enable(JsonParser.Feature.ALLOW_COMMENTS);
+			}
+			this.jsonDecoder = new Jackson2JsonDecoder(objectMapper);
+			this.bufferFactory = new DefaultDataBufferFactory();
+			this.resolvableType = ResolvableType.forClass(Project.class);
+		}
+
+		Flux<DataBuffer> chunks() {
+			List<DataBuffer> buffers = new ArrayList<>();
+			for (int offset = 0; offset < this.content.length; offset += this.chunkSize) {
+				int length = Math.min(this.chunkSize, this.content.length - offset);
+				buffers.add(this.bufferFactory.allocateBuffer(length).write(this.content, offset, length));
+			}
+			return Flux.fromIterable(buffers);
+		}
+	}
+
+	@Benchmark
+	public void decode(Blackhole bh, DecodeData data) {
+		data.jsonDecoder.decode(data.chunks(), data.resolvableType, MediaType.APPLICATION_JSON, Collections.emptyMap())
+				.doOnNext(bh::consume)
+				.then().block();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -74,6 +74,75 @@ public class PathMatchingBenchmark {
 		}
 	}
 
+	@State(Scope.Benchmark)
+	public static class AllRoutesPatternIndex extends PatternIndexData {
+
+		@Setup(Level.Trial)
+		public void registerPatterns() {
+			parseRoutes(RouteGenerator.allRoutes());
+		}
+	}
+
+	@Benchmark
+	public void matchAndSortAllRoutesWithPathPatternIndex(AllRoutesPatternIndex data, Blackhole bh) {
+		for (PathContainer path : data.requestPaths) {
+			List<PathPattern> matches = new ArrayList<>();
+			for (PathPattern pattern : data.index.getCandidates(path)) {
+				if (pattern.matches(path)) {
+					matches.add(pattern);
+				}
+			}
+			Collections.sort(matches);
+			bh.consume(matches);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class ManyRoutesPatternParser extends PatternParserData {
+
+		@Setup(Level.Trial)
+		public void registerPatterns() {
+			parseRoutes(RouteGenerator.manyRoutes());
+		}
+	}
+
+	@Benchmark
+	public void matchAndSortManyRoutesWithPathPatternParser(ManyRoutesPatternParser data, Blackhole bh) {
+		for (PathContainer path : data.requestPaths) {
+			List<PathPattern> matches = new ArrayList<>();
+			for (PathPattern pattern : data.patterns) {
+				if (pattern.matches(path)) {
+					matches.add(pattern);
+				}
+			}
+			Collections.sort(matches);
+			bh.consume(matches);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class ManyRoutesPatternIndex extends PatternIndexData {
+
+		@Setup(Level.Trial)
+		public void registerPatterns() {
+			parseRoutes(RouteGenerator.manyRoutes());
+		}
+	}
+
+	@Benchmark
+	public void matchAndSortManyRoutesWithPathPatternIndex(ManyRoutesPatternIndex data, Blackhole bh) {
+		for (PathContainer path : data.requestPaths) {
+			List<PathPattern> matches = new ArrayList<>();
+			for (PathPattern pattern : data.index.getCandidates(path)) {
+				if (pattern.matches(path)) {
+					matches.add(pattern);
+				}
+			}
+			Collections.sort(matches);
+			bh.consume(matches);
+		}
+	}
+
 	@State(Scope.Benchmark)
 	public static class StaticRoutesPatternParser extends PatternParserData {
 
@@ -159,6 +228,18 @@ public class PathMatchingBenchmark {
 
 	}
 
+	static class PatternIndexData extends PatternParserData {
+
+		PathPatternIndex<PathPattern> index = new PathPatternIndex<>();
+
+		@Override
+		void parseRoutes(List<Route> routes) {
+			super.parseRoutes(routes);
+			this.patterns.forEach(pattern -> this.index.add(pattern, Collections.singleton(pattern)));
+		}
+
+	}
+
 	static class AntPathMatcherData {
 
 		AntPathMatcher matcher = new AntPathMatcher();
@@ -264,6 +345,23 @@ public class PathMatchingBenchmark {
 			);
 		}
 
+		/**
+		 * Generate a large number of resource routes, as in an API with
+		 * thousands of pattern-based endpoints.
+		 */
+		static List<Route> manyRoutes() {
+			List<Route> routes = new ArrayList<>();
+			for (int i = 0; i < 500; i++) {
+				String resource = "/api/resource" + i;
+				routes.add(new Route(resource, resource));
+				routes.add(new Route(resource + "/{id}", resource + "/42"));
+				routes.add(new Route(resource + "/{id}/items", resource + "/42/items"));
+				routes.add(new Route(resource + "/{id}/items/{itemId}", resource + "/42/items/7"));
+				routes.add(new Route(resource + "/search/{query}", resource + "/search/spring"));
+			}
+			return routes;
+		}
+
 		static List<Route> allRoutes() {
 			List<Route> routes = new ArrayList<>();
 			routes.addAll(staticRoutes());
@@ -19,6 +19,7 @@ package org.springframework.http.codec.json;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
@@ -53,6 +54,13 @@ import org.springframework.util.MimeType;
 /**
  * Abstract base class for Jackson 2.9 decoding, leveraging non-blocking parsing.
  *
+ * <p>For plain JSON, value boundaries are found by scanning the input bytes,
+ * without tokenizing them, and each value is deserialized straight from its
+ * bytes as soon as it has been received completely, with each element of a
+ * top-level array decoded individually. Other formats and JSON factories with
+ * non-standard features enabled go through the non-blocking parser and a
+ * {@code TokenBuffer} per value.
+ *
  * <p>Compatible with Jackson 2.9.7 and higher.
  *
  * @author Sebastien Deleuze
@@ -129,17 +137,35 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 			throw new IllegalStateException("No ObjectMapper for " + elementType);
 		}
 
+		Flux<DataBuffer> processed = processInput(input, elementType, mimeType, hints);
+		ObjectReader reader = getObjectReader(mapper, elementType, hints);
+
+		if (Jackson2ValueSplitter.canSplit(mapper.getFactory())) {
+			// Plain JSON: deserialize each value straight from its bytes
+			Flux<ByteBuffer> values = Jackson2ValueSplitter.split(processed, getMaxInMemorySize());
+			return values.handle((byteBuffer, sink) -> {
+				try {
+					Object value = reader.readValue(byteBuffer.array(),
+							byteBuffer.arrayOffset() + byteBuffer.position(), byteBuffer.remaining());
+					logValue(value, hints);
+					if (value != null) {
+						sink.next(value);
+					}
+				}
+				catch (IOException ex) {
+					sink.error(processException(ex));
+				}
+			});
+		}
+
 		boolean forceUseOfBigDecimal = mapper.isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
 		if (BigDecimal.class.equals(elementType.getType())) {
 			forceUseOfBigDecimal = true;
 		}
 
-		Flux<DataBuffer> processed = processInput(input, elementType, mimeType, hints);
 		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(processed, mapper.getFactory(), mapper,
 				true, forceUseOfBigDecimal, getMaxInMemorySize());
 
-		ObjectReader reader = getObjectReader(mapper, elementType, hints);
-
 		return tokens.handle((tokenBuffer, sink) -> {
 			try {
 				Object value = reader.readValue(tokenBuffer.asParser(mapper));
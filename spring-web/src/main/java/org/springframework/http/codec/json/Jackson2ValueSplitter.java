@@ -0,0 +1,406 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+
+/**
+ * Splits a JSON stream of arbitrary size, byte array chunks into the raw
+ * bytes of each top-level JSON value, or of each element if a top-level
+ * value is an array, as soon as the value has been received completely.
+ *
+ * <p>In contrast to {@link Jackson2Tokenizer}, the input is not tokenized
+ * here: value boundaries are found by scanning the bytes for brackets,
+ * string quotes and separators only, and each value is parsed just once,
+ * when it is deserialized straight from its bytes. Separators between split
+ * values are checked here, while malformed content within a value is reported
+ * by the deserialization of that value.
+ *
+ * <p>Heap buffers that are not pooled are used as they are. Pooled and
+ * direct buffers are copied once and released right away. A value contained
+ * in a single chunk is exposed as a view on that chunk, without further copying.
+ *
+ * <p>This only applies to plain JSON encoded as UTF-8: use
+ * {@link #canSplit(JsonFactory)} to check whether the given factory is supported.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see Jackson2Tokenizer
+ */
+final class Jackson2ValueSplitter {
+
+	private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+	private final int maxInMemorySize;
+
+	private int byteCount;
+
+	/** Input chunks that may still contain bytes of the current value. */
+	private final Deque<ByteBuffer> chunks = new ArrayDeque<>();
+
+	/** Input offset of the first retained chunk. */
+	private long chunksOffset;
+
+	/** Input offset of the next byte to scan. */
+	private long inputOffset;
+
+	/** Input offset at which the current value starts, or -1 if between values. */
+	private long valueStart = -1;
+
+	/** Whether each enclosing container is an array, from the outermost one. */
+	private boolean[] containers = new boolean[16];
+
+	private int depth;
+
+	private boolean inString;
+
+	private boolean escaped;
+
+	private boolean inScalar;
+
+	/** Whether an element of the top-level array has ended, with no comma since. */
+	private boolean afterValue;
+
+	/** Whether a comma has been read after an element of the top-level array. */
+	private boolean afterComma;
+
+
+	private Jackson2ValueSplitter(int maxInMemorySize) {
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+
+	private List<ByteBuffer> split(DataBuffer dataBuffer) {
+		int bufferSize = dataBuffer.readableByteCount();
+		ByteBuffer chunk = null;
+		if (!(dataBuffer instanceof PooledDataBuffer)) {
+			chunk = dataBuffer.asByteBuffer();
+		}
+		if (chunk == null || !chunk.hasArray()) {
+			// Content that may be reused once released, or not on the heap
+			byte[] bytes = new byte[bufferSize];
+			dataBuffer.read(bytes);
+			chunk = ByteBuffer.wrap(bytes);
+		}
+		DataBufferUtils.release(dataBuffer);
+
+		if (bufferSize > 0) {
+			this.chunks.add(chunk);
+		}
+		List<ByteBuffer> result = scan(chunk.array(), chunk.arrayOffset() + chunk.position(), bufferSize);
+		releaseChunks();
+		assertInMemorySize(bufferSize, result);
+		return result;
+	}
+
+	private Flux<ByteBuffer> endOfInput() {
+		return Flux.defer(() -> {
+			List<ByteBuffer> result = Collections.emptyList();
+			if (this.inScalar) {
+				this.inScalar = false;
+				result = addValue(result, this.inputOffset);
+			}
+			if (this.inString || this.depth > 0) {
+				throw new DecodingException("JSON decoding error: Unexpected end-of-input");
+			}
+			return Flux.fromIterable(result);
+		});
+	}
+
+	/**
+	 * Scan the given bytes, following the chunks retained so far, and return
+	 * the values that end within them.
+	 */
+	private List<ByteBuffer> scan(byte[] bytes, int start, int length) {
+		List<ByteBuffer> result = Collections.emptyList();
+		long startOffset = this.inputOffset;
+		for (int i = 0; i < length; i++) {
+			byte b = bytes[start + i];
+			long offset = startOffset + i;
+			if (this.inString) {
+				if (this.escaped) {
+					this.escaped = false;
+				}
+				else if (b == '\\') {
+					this.escaped = true;
+				}
+				else if (b == '"') {
+					this.inString = false;
+					if (isSplitDepth()) {
+						result = addValue(result, offset + 1);
+					}
+				}
+				continue;
+			}
+			if (this.inScalar) {
+				if (!isScalarEnd(b)) {
+					continue;
+				}
+				this.inScalar = false;
+				result = addValue(result, offset);
+			}
+			switch (b) {
+				case '{':
+				case '[':
+					if (isSplitDepth() && (this.depth > 0 || b == '{')) {
+						startValue(b, offset);
+					}
+					pushContainer(b == '[');
+					break;
+				case '}':
+				case ']':
+					if (this.afterComma && this.depth == 1) {
+						throw unexpectedCharacter(b);
+					}
+					popContainer(b == ']');
+					if (this.depth == 0) {
+						this.afterValue = false;
+						this.afterComma = false;
+					}
+					if (isSplitDepth() && this.valueStart != -1) {
+						result = addValue(result, offset + 1);
+					}
+					break;
+				case '"':
+					if (isSplitDepth()) {
+						startValue(b, offset);
+					}
+					this.inString = true;
+					break;
+				case ' ':
+				case '\t':
+				case '\r':
+				case '\n':
+					break;
+				case ',':
+					if (isSplitDepth()) {
+						// Only between the elements of a top-level array
+						if (!this.afterValue) {
+							throw unexpectedCharacter(b);
+						}
+						this.afterValue = false;
+						this.afterComma = true;
+					}
+					break;
+				case ':':
+					if (isSplitDepth()) {
+						throw unexpectedCharacter(b);
+					}
+					break;
+				default:
+					if (offset < BOM.length && b == BOM[(int) offset]) {
+						// The parser skips a UTF-8 byte order mark as well
+						break;
+					}
+					if (isSplitDepth()) {
+						startValue(b, offset);
+						this.inScalar = true;
+					}
+			}
+		}
+		this.inputOffset = startOffset + length;
+		return result;
+	}
+
+	/**
+	 * Whether values at the current depth are to be split: top-level values,
+	 * or the elements of a top-level array.
+	 */
+	private boolean isSplitDepth() {
+		return (this.depth == (this.depth > 0 && this.containers[0] ? 1 : 0));
+	}
+
+	/**
+	 * Mark the start of a value to split at the given input offset, checking
+	 * that elements of a top-level array are separated by a comma.
+	 */
+	private void startValue(byte b, long offset) {
+		if (this.afterValue) {
+			throw unexpectedCharacter(b);
+		}
+		this.valueStart = offset;
+	}
+
+	private static boolean isScalarEnd(byte b) {
+		switch (b) {
+			case ' ':
+			case '\t':
+			case '\r':
+			case '\n':
+			case ',':
+			case ':':
+			case '{':
+			case '}':
+			case '[':
+			case ']':
+			case '"':
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private void pushContainer(boolean array) {
+		if (this.depth == this.containers.length) {
+			this.containers = Arrays.copyOf(this.containers, this.depth * 2);
+		}
+		this.containers[this.depth++] = array;
+	}
+
+	private void popContainer(boolean array) {
+		if (this.depth == 0 || this.containers[this.depth - 1] != array) {
+			throw new DecodingException(
+					"JSON decoding error: Unexpected close marker '" + (array ? ']' : '}') + "'");
+		}
+		this.depth--;
+	}
+
+	private List<ByteBuffer> addValue(List<ByteBuffer> result, long valueEnd) {
+		if (result.isEmpty()) {
+			result = new ArrayList<>();
+		}
+		result.add(extractValue(this.valueStart, valueEnd));
+		this.valueStart = -1;
+		if (this.depth > 0) {
+			this.afterValue = true;
+			this.afterComma = false;
+		}
+		return result;
+	}
+
+	private static DecodingException unexpectedCharacter(byte b) {
+		return new DecodingException("JSON decoding error: Unexpected character '" + (char) b + "'");
+	}
+
+	/**
+	 * Return the bytes of the value between the given input offsets.
+	 */
+	private ByteBuffer extractValue(long valueStart, long valueEnd) {
+		Iterator<ByteBuffer> iterator = this.chunks.iterator();
+		ByteBuffer chunk = iterator.next();
+		long chunkOffset = this.chunksOffset;
+		while (valueStart - chunkOffset >= chunk.remaining()) {
+			chunkOffset += chunk.remaining();
+			chunk = iterator.next();
+		}
+
+		int length = (int) (valueEnd - valueStart);
+		int index = (int) (valueStart - chunkOffset);
+		if (length <= chunk.remaining() - index) {
+			return ByteBuffer.wrap(chunk.array(), chunk.arrayOffset() + chunk.position() + index, length);
+		}
+
+		// Value spans several chunks
+		byte[] bytes = new byte[length];
+		int copied = 0;
+		while (true) {
+			int count = Math.min(chunk.remaining() - index, length - copied);
+			System.arraycopy(chunk.array(), chunk.arrayOffset() + chunk.position() + index, bytes, copied, count);
+			copied += count;
+			if (copied == length) {
+				return ByteBuffer.wrap(bytes);
+			}
+			chunk = iterator.next();
+			index = 0;
+		}
+	}
+
+	/**
+	 * Release all chunks that lie entirely before the current value,
+	 * or all chunks if between values.
+	 */
+	private void releaseChunks() {
+		long offset = (this.valueStart != -1 ? this.valueStart : this.inputOffset);
+		while (!this.chunks.isEmpty() && this.chunksOffset + this.chunks.peekFirst().remaining() <= offset) {
+			this.chunksOffset += this.chunks.removeFirst().remaining();
+		}
+	}
+
+	private void assertInMemorySize(int currentBufferSize, List<ByteBuffer> result) {
+		if (this.maxInMemorySize >= 0) {
+			if (!result.isEmpty()) {
+				this.byteCount = 0;
+			}
+			else if (currentBufferSize > Integer.MAX_VALUE - this.byteCount) {
+				raiseLimitException();
+			}
+			else {
+				this.byteCount += currentBufferSize;
+				if (this.byteCount > this.maxInMemorySize) {
+					raiseLimitException();
+				}
+			}
+		}
+	}
+
+	private void raiseLimitException() {
+		throw new DataBufferLimitException(
+				"Exceeded limit on max bytes per JSON object: " + this.maxInMemorySize);
+	}
+
+
+	/**
+	 * Whether values parsed by the given factory can be split by this class.
+	 * <p>This is the case for plain JSON only, excluding non-standard features
+	 * such as comments, single quotes, missing array values or trailing commas,
+	 * for which other content than whitespace and separators may appear between
+	 * values, or brackets may appear outside of double-quoted strings.
+	 * @param jsonFactory the factory to check
+	 */
+	public static boolean canSplit(JsonFactory jsonFactory) {
+		return (JsonFactory.FORMAT_NAME_JSON.equals(jsonFactory.getFormatName()) &&
+				!jsonFactory.isEnabled(JsonParser.Feature.ALLOW_COMMENTS) &&
+				!jsonFactory.isEnabled(JsonParser.Feature.ALLOW_YAML_COMMENTS) &&
+				!jsonFactory.isEnabled(JsonParser.Feature.ALLOW_SINGLE_QUOTES) &&
+				!jsonFactory.isEnabled(JsonParser.Feature.ALLOW_MISSING_VALUES) &&
+				!jsonFactory.isEnabled(JsonParser.Feature.ALLOW_TRAILING_COMMA));
+	}
+
+	/**
+	 * Split the given {@code Flux<DataBuffer>} into a {@code Flux<ByteBuffer>}
+	 * with the bytes of each value. If a top-level value is an array, each
+	 * of its elements is returned individually immediately after it is received.
+	 * <p>Each data buffer is released as soon as it has been scanned, with
+	 * pooled buffers copied first, so the returned heap buffers remain valid
+	 * independently.
+	 * @param dataBuffers the source data buffers, encoded as UTF-8
+	 * @param maxInMemorySize maximum memory size
+	 * @return the bytes of the resulting values
+	 */
+	public static Flux<ByteBuffer> split(Flux<DataBuffer> dataBuffers, int maxInMemorySize) {
+		Jackson2ValueSplitter splitter = new Jackson2ValueSplitter(maxInMemorySize);
+		return dataBuffers.concatMapIterable(splitter::split).concatWith(splitter.endOfInput());
+	}
+
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.method.support;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.core.KotlinDetector;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Invoker for a handler method through a generated class that calls the method
+ * directly, avoiding the overhead of {@link Method#invoke} for every request.
+ *
+ * <p>Obtain an invoker through {@link #forMethod}, which generates the invoker
+ * class on first access and caches it for subsequent calls. Invocation follows
+ * the contract of {@link Method#invoke}: an exception thrown by the method is
+ * wrapped in an {@link InvocationTargetException}, and a target or arguments that
+ * do not fit the method signature as-is (e.g. requiring a widening conversion)
+ * are passed on to reflective invocation, with the same error reporting.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see InvocableHandlerMethod#setMethodInvoker
+ */
+public abstract class HandlerMethodInvoker {
+
+	private static final String INVOKER_TYPE = Type.getInternalName(HandlerMethodInvoker.class);
+
+	private static final String INVOKE_DESCRIPTOR = "(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
+
+	private static final Object NO_INVOKER = new Object();
+
+	private static final Log logger = LogFactory.getLog(HandlerMethodInvoker.class);
+
+	private static final Map<Method, Object> invokerCache = new ConcurrentReferenceHashMap<>(256);
+
+	private static final Map<ClassLoader, InvokerClassLoader> classLoaders = new ConcurrentReferenceHashMap<>();
+
+
+	private final Method method;
+
+	@Nullable
+	private final Class<?> targetType;
+
+	private final Class<?>[] parameterTypes;
+
+
+	/**
+	 * Constructor for generated subclasses.
+	 * @param method the method to invoke
+	 */
+	protected HandlerMethodInvoker(Method method) {
+		this.method = method;
+		this.targetType = (Modifier.isStatic(method.getModifiers()) ? null : method.getDeclaringClass());
+		this.parameterTypes = method.getParameterTypes();
+	}
+
+
+	/**
+	 * Return the method that this invoker calls.
+	 */
+	public final Method getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Invoke the method on the given target with the given arguments.
+	 * @param target the target instance ({@code null} for a static method)
+	 * @param args the argument values
+	 * @return the value returned by the method, or {@code null} for a void method
+	 * @throws IllegalAccessException if the method is not accessible
+	 * @throws IllegalArgumentException if the target or the arguments are not suitable
+	 * @throws InvocationTargetException if the method throws an exception
+	 * @see Method#invoke
+	 */
+	@Nullable
+	public final Object invoke(@Nullable Object target, Object... args)
+			throws IllegalAccessException, InvocationTargetException {
+
+		if (!isDirectlyInvocable(target, args)) {
+			return this.method.invoke(target, args);
+		}
+		try {
+			return doInvoke(target, args);
+		}
+		catch (Throwable ex) {
+			throw new InvocationTargetException(ex);
+		}
+	}
+
+	private boolean isDirectlyInvocable(@Nullable Object target, Object[] args) {
+		if (this.targetType != null && !this.targetType.isInstance(target)) {
+			return false;
+		}
+		if (args.length != this.parameterTypes.length) {
+			return false;
+		}
+		for (int i = 0; i < args.length; i++) {
+			Object arg = args[i];
+			Class<?> parameterType = this.parameterTypes[i];
+			if (arg != null ? !ClassUtils.resolvePrimitiveIfNecessary(parameterType).isInstance(arg) :
+					parameterType.isPrimitive()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Call the method directly, with the target and the arguments
+	 * having been checked against the method signature already.
+	 */
+	@Nullable
+	protected abstract Object doInvoke(@Nullable Object target, Object[] args) throws Throwable;
+
+
+	/**
+	 * Return a generated invoker for the given method.
+	 * <p>Only public methods with public parameter types, declared in a public class,
+	 * are supported. Kotlin suspending functions are not supported either.
+	 * @param method the method to invoke (typically the bridged method of a handler method)
+	 * @return the invoker, or {@code null} if the method is not supported or the
+	 * invoker class could not be generated
+	 */
+	@Nullable
+	public static HandlerMethodInvoker forMethod(Method method) {
+		Object invoker = invokerCache.get(method);
+		if (invoker == null) {
+			invoker = createInvoker(method);
+			invokerCache.put(method, (invoker != null ? invoker : NO_INVOKER));
+		}
+		return (invoker != NO_INVOKER ? (HandlerMethodInvoker) invoker : null);
+	}
+
+	@Nullable
+	private static HandlerMethodInvoker createInvoker(Method method) {
+		ClassLoader classLoader = method.getDeclaringClass().getClassLoader();
+		if (classLoader == null) {
+			classLoader = ClassUtils.getDefaultClassLoader();
+		}
+		if (classLoader == null || !isSupported(method, classLoader)) {
+			return null;
+		}
+		try {
+			InvokerClassLoader invokerClassLoader =
+					classLoaders.computeIfAbsent(classLoader, InvokerClassLoader::new);
+			Class<?> invokerClass = invokerClassLoader.defineInvokerClass(method);
+			return (HandlerMethodInvoker) invokerClass.getConstructor(Method.class).newInstance(method);
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to generate invoker for " + method.toGenericString(), ex);
+			}
+			return null;
+		}
+	}
+
+	private static boolean isSupported(Method method, ClassLoader classLoader) {
+		if (!Modifier.isPublic(method.getModifiers()) || !isPublic(method.getDeclaringClass()) ||
+				KotlinDetector.isSuspendingFunction(method)) {
+			return false;
+		}
+		for (Class<?> parameterType : method.getParameterTypes()) {
+			if (!isPublic(parameterType)) {
+				return false;
+			}
+		}
+		return ClassUtils.isVisible(HandlerMethodInvoker.class, classLoader);
+	}
+
+	private static boolean isPublic(Class<?> clazz) {
+		while (clazz.isArray()) {
+			clazz = clazz.getComponentType();
+		}
+		for (Class<?> current = clazz; current != null; current = current.getEnclosingClass()) {
+			if (!current.isPrimitive() && !Modifier.isPublic(current.getModifiers())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * A child ClassLoader for defining the generated invoker classes
+	 * for handler methods declared in its parent ClassLoader.
+	 */
+	private static class InvokerClassLoader extends ClassLoader implements Opcodes {
+
+		private final AtomicInteger suffixId = new AtomicInteger();
+
+		InvokerClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		Class<?> defineInvokerClass(Method method) {
+			String className = "invoker/HandlerMethodInvoker" + this.suffixId.incrementAndGet();
+			byte[] bytes = generateInvokerClass(className, method);
+			return defineClass(className.replace('/', '.'), bytes, 0, bytes.length);
+		}
+
+		private static byte[] generateInvokerClass(String className, Method method) {
+			// Class outline 'invoker/HandlerMethodInvokerNNN extends HandlerMethodInvoker'
+			ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+			cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, INVOKER_TYPE, null);
+
+			// Constructor passing the Method to the superclass
+			String constructorDescriptor = "(Ljava/lang/reflect/Method;)V";
+			MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", constructorDescriptor, null, null);
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitMethodInsn(INVOKESPECIAL, INVOKER_TYPE, "<init>", constructorDescriptor, false);
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+
+			// doInvoke(Object target, Object[] args) calling the method directly
+			mv = cw.visitMethod(ACC_PROTECTED, "doInvoke", INVOKE_DESCRIPTOR, null,
+					new String[] {"java/lang/Throwable"});
+			mv.visitCode();
+			Class<?> declaringClass = method.getDeclaringClass();
+			String owner = Type.getInternalName(declaringClass);
+			boolean isStatic = Modifier.isStatic(method.getModifiers());
+			if (!isStatic) {
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitTypeInsn(CHECKCAST, owner);
+			}
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			for (int i = 0; i < parameterTypes.length; i++) {
+				mv.visitVarInsn(ALOAD, 2);
+				mv.visitLdcInsn(i);
+				mv.visitInsn(AALOAD);
+				insertUnboxOrCast(mv, parameterTypes[i]);
+			}
+			int opcode = (isStatic ? INVOKESTATIC : declaringClass.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL);
+			mv.visitMethodInsn(opcode, owner, method.getName(),
+					Type.getMethodDescriptor(method), declaringClass.isInterface());
+			insertBox(mv, method.getReturnType());
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+
+			cw.visitEnd();
+			return cw.toByteArray();
+		}
+
+		private static void insertUnboxOrCast(MethodVisitor mv, Class<?> type) {
+			if (type.isPrimitive()) {
+				String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(type));
+				mv.visitTypeInsn(CHECKCAST, wrapper);
+				mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, type.getName() + "Value",
+						"()" + Type.getDescriptor(type), false);
+			}
+			else if (type != Object.class) {
+				mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+			}
+		}
+
+		private static void insertBox(MethodVisitor mv, Class<?> type) {
+			if (type == void.class) {
+				mv.visitInsn(ACONST_NULL);
+			}
+			else if (type.isPrimitive()) {
+				String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(type));
+				mv.visitMethodInsn(INVOKESTATIC, wrapper, "valueOf",
+						"(" + Type.getDescriptor(type) + ")L" + wrapper + ";", false);
+			}
+		}
+	}
+
+}
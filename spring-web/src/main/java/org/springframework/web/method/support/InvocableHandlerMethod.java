@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,6 +26,7 @@ import org.springframework.core.KotlinDetector;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.web.bind.WebDataBinder;
@@ -51,6 +52,12 @@ public class InvocableHandlerMethod extends HandlerMethod {
 
 	private HandlerMethodArgumentResolverComposite resolvers = new HandlerMethodArgumentResolverComposite();
 
+	@Nullable
+	private HandlerMethodArgumentResolver[] parameterResolvers;
+
+	@Nullable
+	private HandlerMethodInvoker methodInvoker;
+
 	private ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
 
 	@Nullable
@@ -93,6 +100,32 @@ public class InvocableHandlerMethod extends HandlerMethod {
 		this.resolvers = argumentResolvers;
 	}
 
+	/**
+	 * Set pre-determined argument resolvers for the parameters of this method,
+	 * in parameter order, avoiding the lookup of a suitable resolver for each
+	 * invocation. A {@code null} element indicates a parameter to be resolved
+	 * through the {@link #setHandlerMethodArgumentResolvers general resolvers}.
+	 * @since 5.3.9
+	 * @see HandlerMethodArgumentResolverComposite#getArgumentResolver
+	 */
+	public void setParameterArgumentResolvers(@Nullable HandlerMethodArgumentResolver[] parameterResolvers) {
+		Assert.isTrue(parameterResolvers == null || parameterResolvers.length == getMethodParameters().length,
+				"Number of argument resolvers does not match number of parameters");
+		this.parameterResolvers = parameterResolvers;
+	}
+
+	/**
+	 * Set a generated invoker for the bridged method of this handler method,
+	 * to be used instead of reflection.
+	 * @since 5.3.9
+	 * @see HandlerMethodInvoker#forMethod
+	 */
+	public void setMethodInvoker(@Nullable HandlerMethodInvoker methodInvoker) {
+		Assert.isTrue(methodInvoker == null || methodInvoker.getMethod().equals(getBridgedMethod()),
+				"HandlerMethodInvoker does not match bridged method");
+		this.methodInvoker = methodInvoker;
+	}
+
 	/**
 	 * Set the ParameterNameDiscoverer for resolving parameter names when needed
 	 * (e.g. default request attribute name).
@@ -163,11 +196,15 @@ public class InvocableHandlerMethod extends HandlerMethod {
 			if (args[i] != null) {
 				continue;
 			}
-			if (!this.resolvers.supportsParameter(parameter)) {
-				throw new IllegalStateException(formatArgumentError(parameter, "No suitable resolver"));
+			HandlerMethodArgumentResolver resolver = (this.parameterResolvers != null ? this.parameterResolvers[i] : null);
+			if (resolver == null) {
+				if (!this.resolvers.supportsParameter(parameter)) {
+					throw new IllegalStateException(formatArgumentError(parameter, "No suitable resolver"));
+				}
+				resolver = this.resolvers;
 			}
 			try {
-				args[i] = this.resolvers.resolveArgument(parameter, mavContainer, request, this.dataBinderFactory);
+				args[i] = resolver.resolveArgument(parameter, mavContainer, request, this.dataBinderFactory);
 			}
 			catch (Exception ex) {
 				// Leave stack trace for later, exception may actually be resolved and handled...
@@ -184,7 +221,8 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	}
 
 	/**
-	 * Invoke the handler method with the given argument values.
+	 * Invoke the handler method with the given argument values,
+	 * through the {@link #setMethodInvoker method invoker} if any.
 	 */
 	@Nullable
 	protected Object doInvoke(Object... args) throws Exception {
@@ -194,7 +232,8 @@ public class InvocableHandlerMethod extends HandlerMethod {
 			if (KotlinDetector.isSuspendingFunction(method)) {
 				return CoroutinesUtils.invokeSuspendingFunction(method, getBean(), args);
 			}
-			return method.invoke(getBean(), args);
+			HandlerMethodInvoker invoker = this.methodInvoker;
+			return (invoker != null ? invoker.invoke(getBean(), args) : method.invoke(getBean(), args));
 		}
 		catch (IllegalArgumentException ex) {
 			assertTargetBean(method, getBean(), args);
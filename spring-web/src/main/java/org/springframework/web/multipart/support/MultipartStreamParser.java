@@ -0,0 +1,308 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.multipart.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+
+/**
+ * Blocking parser for multipart content, reading parts one after the other
+ * from an {@link InputStream} through a buffer of fixed size.
+ *
+ * <p>The content of the current part is exposed as an {@code InputStream}
+ * that reads directly from the underlying stream, up to the next boundary.
+ * Moving on to the next part skips any content not read yet.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see StreamingMultipartResolver
+ */
+final class MultipartStreamParser {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final byte CR = '\r';
+
+	private static final byte LF = '\n';
+
+	private static final byte HYPHEN = '-';
+
+
+	private final InputStream input;
+
+	private final byte[] delimiter;
+
+	private final int maxHeadersSize;
+
+	private final Charset headersCharset;
+
+	private final byte[] buffer;
+
+	private int position;
+
+	private int limit;
+
+	private boolean endOfInput;
+
+	private boolean finished;
+
+	/** Whether we are positioned within the content of a part (or the preamble). */
+	private boolean inContent = true;
+
+	/** The index of the next delimiter in the buffer, or -1 if not found yet. */
+	private int delimiterIndex = -1;
+
+	/** The index in the buffer up to which no delimiter has been found. */
+	private int scanIndex;
+
+	private int partCount;
+
+
+	/**
+	 * Create a new parser for the given input.
+	 * @param input the multipart content to parse
+	 * @param boundary the boundary, as specified in the {@code Content-Type} header
+	 * @param maxHeadersSize the maximum number of bytes for the headers of each part
+	 * @param headersCharset the character set to decode headers with
+	 */
+	MultipartStreamParser(InputStream input, String boundary, int maxHeadersSize, Charset headersCharset) {
+		this.input = input;
+		this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.US_ASCII);
+		this.maxHeadersSize = maxHeadersSize;
+		this.headersCharset = headersCharset;
+		this.buffer = new byte[Math.max(BUFFER_SIZE, this.delimiter.length * 2)];
+		// Treat the first boundary like any other delimiter, i.e. preceded by CRLF
+		this.buffer[0] = CR;
+		this.buffer[1] = LF;
+		this.limit = 2;
+	}
+
+
+	/**
+	 * Move on to the next part, skipping the remaining content of the current
+	 * part, and return its headers.
+	 * @return the headers of the next part, or {@code null} if there are no more parts
+	 * @throws IOException in case of I/O errors or malformed content
+	 */
+	@Nullable
+	public HttpHeaders nextPart() throws IOException {
+		if (this.finished) {
+			return null;
+		}
+		byte[] skipBuffer = new byte[BUFFER_SIZE];
+		while (readContent(skipBuffer, 0, skipBuffer.length) != -1) {
+			// skip remaining content
+		}
+		if (!ensureAvailable(2)) {
+			throw new EOFException("Unexpected end of multipart content after boundary");
+		}
+		if (this.buffer[this.position] == HYPHEN && this.buffer[this.position + 1] == HYPHEN) {
+			// Closing delimiter: ignore any epilogue
+			this.finished = true;
+			return null;
+		}
+		readLine(this.maxHeadersSize);  // transport padding up to CRLF
+		HttpHeaders headers = readHeaders();
+		this.inContent = true;
+		this.delimiterIndex = -1;
+		this.scanIndex = this.position;
+		this.partCount++;
+		return headers;
+	}
+
+	/**
+	 * Return an {@code InputStream} for the content of the current part.
+	 * <p>The stream reports an error if read after the parser moved on to
+	 * the next part.
+	 */
+	public InputStream getPartContent() {
+		return new PartContentInputStream(this.partCount);
+	}
+
+
+	private int readContent(byte[] bytes, int off, int len) throws IOException {
+		while (this.inContent) {
+			if (this.limit - this.position < this.delimiter.length && !this.endOfInput) {
+				fill();
+				continue;
+			}
+			int index = findDelimiter();
+			if (index == this.position) {
+				this.position += this.delimiter.length;
+				this.inContent = false;
+				return -1;
+			}
+			int end;
+			if (index != -1) {
+				end = index;
+			}
+			else if (this.endOfInput) {
+				throw new EOFException("Unexpected end of multipart content: no closing boundary");
+			}
+			else {
+				// A delimiter may start within the trailing bytes
+				end = this.limit - this.delimiter.length + 1;
+			}
+			int count = Math.min(len, end - this.position);
+			if (count > 0) {
+				System.arraycopy(this.buffer, this.position, bytes, off, count);
+				this.position += count;
+				return count;
+			}
+			fill();
+		}
+		return -1;
+	}
+
+	private int findDelimiter() {
+		if (this.delimiterIndex == -1) {
+			int last = this.limit - this.delimiter.length;
+			for (int i = Math.max(this.scanIndex, this.position); i <= last; i++) {
+				if (matchesDelimiter(i)) {
+					this.delimiterIndex = i;
+					return i;
+				}
+			}
+			this.scanIndex = Math.max(this.position, last + 1);
+		}
+		return this.delimiterIndex;
+	}
+
+	private boolean matchesDelimiter(int index) {
+		for (int i = 0; i < this.delimiter.length; i++) {
+			if (this.buffer[index + i] != this.delimiter[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private HttpHeaders readHeaders() throws IOException {
+		HttpHeaders headers = new HttpHeaders();
+		int remaining = this.maxHeadersSize;
+		String previousName = null;
+		while (true) {
+			String line = readLine(Math.max(remaining, 0));
+			remaining -= line.length() + 2;
+			if (line.isEmpty()) {
+				return headers;
+			}
+			if ((line.charAt(0) == ' ' || line.charAt(0) == '\t') && previousName != null) {
+				// Obsolete line folding: continuation of the previous header value
+				List<String> values = headers.get(previousName);
+				int lastIndex = values.size() - 1;
+				values.set(lastIndex, values.get(lastIndex) + ' ' + line.trim());
+				continue;
+			}
+			int colonIndex = line.indexOf(':');
+			if (colonIndex <= 0) {
+				throw new IOException("Malformed multipart header line: \"" + line + "\"");
+			}
+			previousName = line.substring(0, colonIndex).trim();
+			headers.add(previousName, line.substring(colonIndex + 1).trim());
+		}
+	}
+
+	private String readLine(int maxLength) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(64);
+		while (true) {
+			if (!ensureAvailable(1)) {
+				throw new EOFException("Unexpected end of multipart content within part headers");
+			}
+			byte b = this.buffer[this.position++];
+			if (b == LF) {
+				byte[] bytes = bos.toByteArray();
+				int length = (bytes.length > 0 && bytes[bytes.length - 1] == CR ? bytes.length - 1 : bytes.length);
+				return new String(bytes, 0, length, this.headersCharset);
+			}
+			bos.write(b);
+			if (bos.size() > maxLength) {
+				throw new IOException("Part headers exceeded the memory usage limit of " +
+						this.maxHeadersSize + " bytes");
+			}
+		}
+	}
+
+	private boolean ensureAvailable(int count) throws IOException {
+		while (this.limit - this.position < count && !this.endOfInput) {
+			fill();
+		}
+		return (this.limit - this.position >= count);
+	}
+
+	private void fill() throws IOException {
+		if (this.position > 0) {
+			int shift = this.position;
+			System.arraycopy(this.buffer, shift, this.buffer, 0, this.limit - shift);
+			this.limit -= shift;
+			this.position = 0;
+			this.scanIndex = Math.max(0, this.scanIndex - shift);
+			if (this.delimiterIndex != -1) {
+				this.delimiterIndex -= shift;
+			}
+		}
+		int read = this.input.read(this.buffer, this.limit, this.buffer.length - this.limit);
+		if (read == -1) {
+			this.endOfInput = true;
+		}
+		else {
+			this.limit += read;
+		}
+	}
+
+
+	/**
+	 * InputStream for the content of a specific part.
+	 */
+	private class PartContentInputStream extends InputStream {
+
+		private final int partIndex;
+
+		private final byte[] singleByte = new byte[1];
+
+		PartContentInputStream(int partIndex) {
+			this.partIndex = partIndex;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int count = read(this.singleByte, 0, 1);
+			return (count == -1 ? -1 : this.singleByte[0] & 0xFF);
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) throws IOException {
+			if (this.partIndex != partCount) {
+				throw new IOException("Part content not available anymore: " +
+						"multipart parsing continued with subsequent parts");
+			}
+			if (len == 0) {
+				return 0;
+			}
+			return readContent(bytes, off, len);
+		}
+	}
+
+}
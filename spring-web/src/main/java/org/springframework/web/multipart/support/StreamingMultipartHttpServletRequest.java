@@ -0,0 +1,453 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.multipart.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Spring MultipartHttpServletRequest adapter, parsing the multipart content
+ * of the wrapped request incrementally through a {@link MultipartStreamParser}.
+ *
+ * <p>Lookups of a single file or of the headers of a part only parse the
+ * request up to the part with the given name, leaving the content of that
+ * part in the request stream until parsing continues. Any other access to
+ * multipart files or parameters parses the entire request.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see StreamingMultipartResolver
+ */
+class StreamingMultipartHttpServletRequest extends DefaultMultipartHttpServletRequest {
+
+	private final StreamingMultipartResolver resolver;
+
+	@Nullable
+	private MultipartStreamParser parser;
+
+	private final MultiValueMap<String, MultipartFile> files = new LinkedMultiValueMap<>();
+
+	private final MultiValueMap<String, String> parameters = new LinkedMultiValueMap<>();
+
+	private final Map<String, String> parameterContentTypes = new HashMap<>();
+
+	private final Map<String, HttpHeaders> partHeaders = new HashMap<>();
+
+	@Nullable
+	private StreamingMultipartFile currentFile;
+
+	private int partCount;
+
+	private boolean complete;
+
+	@Nullable
+	private MultipartException parseFailure;
+
+	private final List<Path> temporaryFiles = new ArrayList<>();
+
+
+	/**
+	 * Create a new StreamingMultipartHttpServletRequest wrapper for the given request.
+	 * @param request the servlet request to wrap
+	 * @param resolver the resolver with the limits and storage to apply
+	 * @param lazyParsing whether multipart parsing should be triggered lazily on
+	 * first access of multipart files or parameters
+	 * @throws MultipartException if an immediate parsing attempt failed
+	 */
+	StreamingMultipartHttpServletRequest(HttpServletRequest request, StreamingMultipartResolver resolver,
+			boolean lazyParsing) throws MultipartException {
+
+		super(request);
+		this.resolver = resolver;
+		if (!lazyParsing) {
+			initializeMultipart();
+		}
+	}
+
+
+	@Override
+	protected void initializeMultipart() {
+		parseUntil(null);
+		setMultipartFiles(this.files);
+		Map<String, String[]> multipartParameters = new LinkedHashMap<>(this.parameters.size());
+		this.parameters.forEach((name, values) -> multipartParameters.put(name, StringUtils.toStringArray(values)));
+		setMultipartParameters(multipartParameters);
+		setMultipartParameterContentTypes(this.parameterContentTypes);
+	}
+
+	@Override
+	public MultipartFile getFile(String name) {
+		if (isResolved()) {
+			return super.getFile(name);
+		}
+		if (!this.files.containsKey(name)) {
+			parseUntil(name);
+		}
+		return this.files.getFirst(name);
+	}
+
+	@Override
+	public String getMultipartContentType(String paramOrFileName) {
+		HttpHeaders headers = getMultipartHeaders(paramOrFileName);
+		return (headers != null ? headers.getFirst(HttpHeaders.CONTENT_TYPE) : null);
+	}
+
+	@Override
+	@Nullable
+	public HttpHeaders getMultipartHeaders(String paramOrFileName) {
+		if (!this.partHeaders.containsKey(paramOrFileName)) {
+			parseUntil(paramOrFileName);
+		}
+		return this.partHeaders.get(paramOrFileName);
+	}
+
+	/**
+	 * Parse the request up to the first part with the given name,
+	 * or until the end of the request if the name is {@code null}.
+	 */
+	private void parseUntil(@Nullable String name) {
+		if (this.parseFailure != null) {
+			throw this.parseFailure;
+		}
+		try {
+			while (!this.complete) {
+				if (this.currentFile != null) {
+					this.currentFile.detach();
+					this.currentFile = null;
+				}
+				MultipartStreamParser parser = obtainParser();
+				HttpHeaders headers = parser.nextPart();
+				if (headers == null) {
+					this.complete = true;
+					return;
+				}
+				int maxParts = this.resolver.getMaxParts();
+				if (maxParts >= 0 && ++this.partCount > maxParts) {
+					throw new MultipartException("Maximum number of parts exceeded: " + maxParts);
+				}
+				ContentDisposition disposition = headers.getContentDisposition();
+				String partName = disposition.getName();
+				if (partName == null) {
+					continue;
+				}
+				this.partHeaders.putIfAbsent(partName, headers);
+				String filename = disposition.getFilename();
+				if (filename != null) {
+					this.currentFile = new StreamingMultipartFile(partName, filename, headers, parser.getPartContent());
+					this.files.add(partName, this.currentFile);
+				}
+				else {
+					this.parameters.add(partName, readParameter(headers, parser.getPartContent()));
+					String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+					if (contentType != null) {
+						this.parameterContentTypes.putIfAbsent(partName, contentType);
+					}
+				}
+				if (partName.equals(name)) {
+					return;
+				}
+			}
+		}
+		catch (MultipartException ex) {
+			this.parseFailure = ex;
+			throw ex;
+		}
+		catch (Throwable ex) {
+			this.parseFailure = new MultipartException("Failed to parse multipart servlet request", ex);
+			throw this.parseFailure;
+		}
+	}
+
+	private MultipartStreamParser obtainParser() throws IOException {
+		MultipartStreamParser parser = this.parser;
+		if (parser == null) {
+			String boundary = null;
+			String contentType = getContentType();
+			if (contentType != null) {
+				boundary = MediaType.parseMediaType(contentType).getParameter("boundary");
+			}
+			if (!StringUtils.hasLength(boundary)) {
+				throw new MultipartException("No multipart boundary found in Content-Type: \"" + contentType + "\"");
+			}
+			if (boundary.length() > 2 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+				boundary = boundary.substring(1, boundary.length() - 1);
+			}
+			parser = new MultipartStreamParser(getInputStream(), boundary,
+					this.resolver.getMaxHeadersSize(), this.resolver.getHeadersCharset());
+			this.parser = parser;
+		}
+		return parser;
+	}
+
+	private String readParameter(HttpHeaders headers, InputStream content) throws IOException {
+		int maxInMemorySize = this.resolver.getMaxInMemorySize();
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+		byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+		int bytesRead;
+		while ((bytesRead = content.read(buffer)) != -1) {
+			bos.write(buffer, 0, bytesRead);
+			if (maxInMemorySize >= 0 && bos.size() > maxInMemorySize) {
+				throw new MaxUploadSizeExceededException(maxInMemorySize);
+			}
+		}
+		return bos.toString(determineCharset(headers).name());
+	}
+
+	private Charset determineCharset(HttpHeaders headers) {
+		MediaType contentType = headers.getContentType();
+		if (contentType != null && contentType.getCharset() != null) {
+			return contentType.getCharset();
+		}
+		String encoding = getCharacterEncoding();
+		return (encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Delete the temporary files that parts have been stored in.
+	 */
+	void cleanup() {
+		for (Path file : this.temporaryFiles) {
+			try {
+				Files.deleteIfExists(file);
+			}
+			catch (IOException ex) {
+				LogFactory.getLog(getClass()).warn("Failed to delete multipart temporary file " + file, ex);
+			}
+		}
+		this.temporaryFiles.clear();
+	}
+
+
+	/**
+	 * MultipartFile for a part that initially reads from the request stream,
+	 * with its content stored in memory or on disk once parsing continues.
+	 */
+	private class StreamingMultipartFile implements MultipartFile {
+
+		private final String name;
+
+		private final String filename;
+
+		private final HttpHeaders headers;
+
+		@Nullable
+		private InputStream content;
+
+		private boolean streamed;
+
+		@Nullable
+		private byte[] bytes;
+
+		@Nullable
+		private Path file;
+
+		private long size;
+
+		StreamingMultipartFile(String name, String filename, HttpHeaders headers, InputStream content) {
+			this.name = name;
+			this.filename = filename;
+			this.headers = headers;
+			this.content = content;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public String getOriginalFilename() {
+			return this.filename;
+		}
+
+		@Override
+		@Nullable
+		public String getContentType() {
+			return this.headers.getFirst(HttpHeaders.CONTENT_TYPE);
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return (getSize() == 0);
+		}
+
+		@Override
+		public long getSize() {
+			try {
+				store();
+			}
+			catch (IOException ex) {
+				throw new MultipartException("Failed to store multipart file '" + this.name + "'", ex);
+			}
+			return this.size;
+		}
+
+		@Override
+		public byte[] getBytes() throws IOException {
+			store();
+			if (this.bytes != null) {
+				return this.bytes;
+			}
+			return Files.readAllBytes(obtainFile());
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			if (this.content != null) {
+				// Streaming access to content that is still arriving
+				InputStream content = this.content;
+				this.content = null;
+				this.streamed = true;
+				return content;
+			}
+			assertNotStreamed();
+			if (this.bytes != null) {
+				return new ByteArrayInputStream(this.bytes);
+			}
+			return Files.newInputStream(obtainFile());
+		}
+
+		@Override
+		public void transferTo(File dest) throws IOException, IllegalStateException {
+			transferTo(dest.toPath());
+		}
+
+		@Override
+		public void transferTo(Path dest) throws IOException, IllegalStateException {
+			if (this.content != null) {
+				// Write content that is still arriving to its destination right away,
+				// keeping the destination file as storage for any subsequent access.
+				try (OutputStream out = Files.newOutputStream(dest)) {
+					this.size = StreamUtils.copy(this.content, out);
+				}
+				this.content = null;
+				this.file = dest;
+				return;
+			}
+			assertNotStreamed();
+			if (this.bytes != null) {
+				Files.write(dest, this.bytes);
+			}
+			else {
+				Files.copy(obtainFile(), dest, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+
+		/**
+		 * Called when parsing moves on to the next part: store the remaining
+		 * content unless it has been obtained as a stream.
+		 */
+		void detach() throws IOException {
+			if (this.content != null) {
+				store();
+			}
+		}
+
+		private void store() throws IOException {
+			if (this.content == null) {
+				assertNotStreamed();
+				return;
+			}
+			InputStream content = this.content;
+			this.content = null;
+			int maxInMemorySize = resolver.getMaxInMemorySize();
+			ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+			byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+			int bytesRead;
+			while ((bytesRead = content.read(buffer)) != -1) {
+				bos.write(buffer, 0, bytesRead);
+				if (maxInMemorySize >= 0 && bos.size() > maxInMemorySize) {
+					storeToFile(bos.toByteArray(), content, buffer);
+					return;
+				}
+			}
+			this.bytes = bos.toByteArray();
+			this.size = this.bytes.length;
+		}
+
+		private void storeToFile(byte[] initialContent, InputStream content, byte[] buffer) throws IOException {
+			long maxDiskUsage = resolver.getMaxDiskUsagePerPart();
+			Path file = Files.createTempFile(resolver.obtainFileStorageDirectory(), "upload_", ".tmp");
+			temporaryFiles.add(file);
+			long size = initialContent.length;
+			try (OutputStream out = Files.newOutputStream(file)) {
+				out.write(initialContent);
+				int bytesRead;
+				while ((bytesRead = content.read(buffer)) != -1) {
+					size += bytesRead;
+					if (maxDiskUsage >= 0 && size > maxDiskUsage) {
+						throw new MaxUploadSizeExceededException(maxDiskUsage);
+					}
+					out.write(buffer, 0, bytesRead);
+				}
+			}
+			this.file = file;
+			this.size = size;
+		}
+
+		private void assertNotStreamed() {
+			if (this.streamed) {
+				throw new IllegalStateException("Content of multipart file '" + this.name +
+						"' has been obtained as a stream already and cannot be accessed anymore");
+			}
+		}
+
+		private Path obtainFile() {
+			Path file = this.file;
+			if (file == null) {
+				throw new IllegalStateException("No content stored for multipart file '" + this.name + "'");
+			}
+			return file;
+		}
+
+		@Override
+		public String toString() {
+			return "StreamingMultipartFile[name=" + this.name + ", filename=" + this.filename + "]";
+		}
+	}
+
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.multipart.support;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * {@link MultipartResolver} implementation that parses the multipart content
+ * of the request body itself, independent from the Servlet container's
+ * multipart support and without any external dependencies.
+ *
+ * <p>Parts are read in a streaming fashion through a buffer of fixed size.
+ * The content of file parts smaller than {@link #setMaxInMemorySize
+ * maxInMemorySize} is kept in memory, while larger file parts are written
+ * to a temporary file in the {@link #setFileStorageDirectory
+ * fileStorageDirectory}, so that large uploads are handled in constant heap.
+ *
+ * <p>With {@link #setResolveLazily resolveLazily} switched on, the request
+ * is parsed on demand only, up to the part that has been asked for. The
+ * content of a file part that has just been reached is not stored upfront:
+ * {@link org.springframework.web.multipart.MultipartFile#getInputStream()}
+ * reads it directly from the request while it is still arriving, e.g. for a
+ * {@code @RequestPart InputStream} handler method argument. Any subsequent
+ * access to other parts stores the current part's content unless it has
+ * been obtained as a stream already, in which case it cannot be accessed
+ * anymore after the parser moved on.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see StandardServletMultipartResolver
+ * @see org.springframework.http.codec.multipart.DefaultPartHttpMessageReader
+ */
+public class StreamingMultipartResolver implements MultipartResolver {
+
+	private static final String STORAGE_DIRECTORY_PREFIX = "spring-multipart-";
+
+	private static final Log logger = LogFactory.getLog(StreamingMultipartResolver.class);
+
+
+	private int maxInMemorySize = 256 * 1024;
+
+	private int maxHeadersSize = 8 * 1024;
+
+	private long maxDiskUsagePerPart = -1;
+
+	private int maxParts = -1;
+
+	private Charset headersCharset = StandardCharsets.UTF_8;
+
+	private boolean resolveLazily = false;
+
+	@Nullable
+	private volatile Path fileStorageDirectory;
+
+	private boolean temporaryStorageDirectory = true;
+
+
+	/**
+	 * Configure the maximum amount of memory allowed per part.
+	 * When the limit is exceeded:
+	 * <ul>
+	 * <li>file parts are written to a temporary file.
+	 * <li>non-file parts are rejected with a
+	 * {@link org.springframework.web.multipart.MaxUploadSizeExceededException}.
+	 * </ul>
+	 * <p>By default this is set to 256K.
+	 * @param maxInMemorySize the in-memory limit in bytes; if set to -1 the entire
+	 * contents will be stored in memory
+	 */
+	public void setMaxInMemorySize(int maxInMemorySize) {
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+	/**
+	 * Return the {@link #setMaxInMemorySize configured} maximum in-memory size.
+	 */
+	public int getMaxInMemorySize() {
+		return this.maxInMemorySize;
+	}
+
+	/**
+	 * Configure the maximum amount of memory that is allowed per headers
+	 * section of each part.
+	 * <p>By default this is set to 8K.
+	 */
+	public void setMaxHeadersSize(int maxHeadersSize) {
+		this.maxHeadersSize = maxHeadersSize;
+	}
+
+	/**
+	 * Return the {@link #setMaxHeadersSize configured} maximum headers size.
+	 */
+	public int getMaxHeadersSize() {
+		return this.maxHeadersSize;
+	}
+
+	/**
+	 * Configure the maximum amount of disk space allowed for file parts.
+	 * <p>By default this is set to -1, meaning that there is no maximum.
+	 */
+	public void setMaxDiskUsagePerPart(long maxDiskUsagePerPart) {
+		this.maxDiskUsagePerPart = maxDiskUsagePerPart;
+	}
+
+	/**
+	 * Return the {@link #setMaxDiskUsagePerPart configured} maximum disk usage per part.
+	 */
+	public long getMaxDiskUsagePerPart() {
+		return this.maxDiskUsagePerPart;
+	}
+
+	/**
+	 * Specify the maximum number of parts allowed in a given multipart request.
+	 * <p>By default this is set to -1, meaning that there is no maximum.
+	 */
+	public void setMaxParts(int maxParts) {
+		this.maxParts = maxParts;
+	}
+
+	/**
+	 * Return the {@link #setMaxParts configured} maximum number of parts.
+	 */
+	public int getMaxParts() {
+		return this.maxParts;
+	}
+
+	/**
+	 * Set the character set used to decode headers.
+	 * Defaults to UTF-8 as per RFC 7578.
+	 * @param headersCharset the charset to use for decoding headers
+	 */
+	public void setHeadersCharset(Charset headersCharset) {
+		Assert.notNull(headersCharset, "HeadersCharset must not be null");
+		this.headersCharset = headersCharset;
+	}
+
+	/**
+	 * Return the {@link #setHeadersCharset configured} character set for headers.
+	 */
+	public Charset getHeadersCharset() {
+		return this.headersCharset;
+	}
+
+	/**
+	 * Set the directory used to store parts larger than
+	 * {@link #setMaxInMemorySize(int) maxInMemorySize}. By default, a directory
+	 * with the prefix {@code spring-multipart-} is created under the system
+	 * temporary directory.
+	 * @throws IOException if an I/O error occurs, or the parent directory
+	 * does not exist
+	 */
+	public void setFileStorageDirectory(Path fileStorageDirectory) throws IOException {
+		Assert.notNull(fileStorageDirectory, "FileStorageDirectory must not be null");
+		if (!Files.exists(fileStorageDirectory)) {
+			Files.createDirectory(fileStorageDirectory);
+		}
+		this.fileStorageDirectory = fileStorageDirectory;
+		this.temporaryStorageDirectory = false;
+	}
+
+	/**
+	 * Set whether to resolve the multipart request lazily at the time of
+	 * file or parameter access.
+	 * <p>Default is "false", resolving the multipart elements immediately, throwing
+	 * corresponding exceptions at the time of the {@link #resolveMultipart} call.
+	 * Switch this to "true" for lazy multipart parsing, throwing parse exceptions
+	 * once the application attempts to obtain multipart files or parameters, and
+	 * for streaming access to file parts while their content is still arriving.
+	 */
+	public void setResolveLazily(boolean resolveLazily) {
+		this.resolveLazily = resolveLazily;
+	}
+
+
+	@Override
+	public boolean isMultipart(HttpServletRequest request) {
+		return StringUtils.startsWithIgnoreCase(request.getContentType(), "multipart/");
+	}
+
+	@Override
+	public MultipartHttpServletRequest resolveMultipart(HttpServletRequest request) throws MultipartException {
+		return new StreamingMultipartHttpServletRequest(request, this, this.resolveLazily);
+	}
+
+	@Override
+	public void cleanupMultipart(MultipartHttpServletRequest request) {
+		StreamingMultipartHttpServletRequest multipartRequest =
+				WebUtils.getNativeRequest(request, StreamingMultipartHttpServletRequest.class);
+		if (multipartRequest != null) {
+			multipartRequest.cleanup();
+		}
+	}
+
+
+	/**
+	 * Return the directory to store parts in, creating a temporary directory
+	 * if necessary.
+	 */
+	Path obtainFileStorageDirectory() throws IOException {
+		Path directory = this.fileStorageDirectory;
+		if (directory == null || (this.temporaryStorageDirectory && !Files.exists(directory))) {
+			synchronized (this) {
+				directory = this.fileStorageDirectory;
+				// Some daemons remove temp directories. Let's create a new one.
+				if (directory == null || (this.temporaryStorageDirectory && !Files.exists(directory))) {
+					directory = Files.createTempDirectory(STORAGE_DIRECTORY_PREFIX);
+					if (logger.isDebugEnabled()) {
+						logger.debug("Created temporary storage directory: " + directory);
+					}
+					this.fileStorageDirectory = directory;
+				}
+			}
+		}
+		return directory;
+	}
+
+}
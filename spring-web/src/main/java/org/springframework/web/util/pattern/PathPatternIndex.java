@@ -0,0 +1,200 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.Assert;
+
+/**
+ * Index of values such as request mappings by the {@link PathPattern PathPatterns}
+ * they are mapped to, narrowing down the candidate values for a given path.
+ *
+ * <p>The index is a trie over the leading literal segments of each pattern,
+ * e.g. {@code "orders"} and {@code "items"} for {@code "/orders/items/{id}"}.
+ * The {@linkplain #getCandidates candidates} for a path are the values registered
+ * along the literal segments of that path, plus the values with patterns that
+ * start with a non-literal segment (or without patterns at all), which need to be
+ * checked for any path. The candidates are a superset of the values with a pattern
+ * that {@linkplain PathPattern#matches(PathContainer) matches} the given path.
+ *
+ * <p>This class is not thread-safe: concurrent access needs to be guarded
+ * externally, with registrations and lookups typically under a read-write lock.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @param <T> the type of values to index
+ */
+public class PathPatternIndex<T> {
+
+	private final Node<T> root = new Node<>();
+
+	private final Map<T, Set<Node<T>>> valueNodes = new HashMap<>();
+
+	private int valuesWithMultipleNodes;
+
+
+	/**
+	 * Register the given value for the given patterns, replacing any previous
+	 * registration of the same value. A value without patterns, or with a pattern
+	 * that does not start with a literal segment, is considered a candidate for
+	 * any path.
+	 * @param value the value to register
+	 * @param patterns the patterns that the value is mapped to
+	 */
+	public void add(T value, Collection<PathPattern> patterns) {
+		Assert.notNull(value, "Value must not be null");
+		remove(value);
+		Set<Node<T>> nodes = new LinkedHashSet<>(2);
+		for (PathPattern pattern : patterns) {
+			nodes.add(getNode(pattern));
+		}
+		if (nodes.isEmpty() || nodes.contains(this.root)) {
+			nodes = Collections.singleton(this.root);
+		}
+		for (Node<T> node : nodes) {
+			node.values.add(value);
+		}
+		this.valueNodes.put(value, nodes);
+		if (nodes.size() > 1) {
+			this.valuesWithMultipleNodes++;
+		}
+	}
+
+	/**
+	 * Remove the given value from this index.
+	 * @param value the value to remove
+	 * @return {@code true} if the value had been registered, {@code false} otherwise
+	 */
+	public boolean remove(T value) {
+		Set<Node<T>> nodes = this.valueNodes.remove(value);
+		if (nodes == null) {
+			return false;
+		}
+		for (Node<T> node : nodes) {
+			node.values.remove(value);
+		}
+		if (nodes.size() > 1) {
+			this.valuesWithMultipleNodes--;
+		}
+		return true;
+	}
+
+	/**
+	 * Return the candidate values for the given path: the values with patterns
+	 * whose leading literal segments fit the path, plus any values with patterns
+	 * that cannot be narrowed down by literal segments.
+	 * @param path the path to find candidates for
+	 * @return the candidate values, in registration order per literal segment
+	 */
+	public List<T> getCandidates(PathContainer path) {
+		List<T> candidates = new ArrayList<>(this.root.values);
+		collectCandidates(this.root, path.elements(), 0, candidates);
+		if (this.valuesWithMultipleNodes > 0 && candidates.size() > 1) {
+			// A value with several patterns may have been collected from different nodes
+			candidates = new ArrayList<>(new LinkedHashSet<>(candidates));
+		}
+		return candidates;
+	}
+
+	/**
+	 * Return the number of registered values.
+	 */
+	public int size() {
+		return this.valueNodes.size();
+	}
+
+	private void collectCandidates(
+			Node<T> node, List<PathContainer.Element> elements, int index, List<T> candidates) {
+
+		if (index + 1 >= elements.size() || !(elements.get(index) instanceof PathContainer.Separator) ||
+				!(elements.get(index + 1) instanceof PathContainer.PathSegment)) {
+			return;
+		}
+		String segment = ((PathContainer.PathSegment) elements.get(index + 1)).valueToMatch();
+		if (!node.children.isEmpty()) {
+			Node<T> child = node.children.get(segment);
+			if (child != null) {
+				candidates.addAll(child.values);
+				collectCandidates(child, elements, index + 2, candidates);
+			}
+		}
+		if (!node.caseInsensitiveChildren.isEmpty()) {
+			Node<T> child = node.caseInsensitiveChildren.get(toLowerCase(segment));
+			if (child != null) {
+				candidates.addAll(child.values);
+				collectCandidates(child, elements, index + 2, candidates);
+			}
+		}
+	}
+
+	/**
+	 * Return the node for the leading literal segments of the given pattern,
+	 * creating it if necessary.
+	 */
+	private Node<T> getNode(PathPattern pattern) {
+		Node<T> node = this.root;
+		PathElement element = pattern.getHeadSection();
+		while (element instanceof SeparatorPathElement && element.next instanceof LiteralPathElement) {
+			LiteralPathElement literal = (LiteralPathElement) element.next;
+			Map<String, Node<T>> children =
+					(literal.isCaseSensitive() ? node.children : node.caseInsensitiveChildren);
+			node = children.computeIfAbsent(String.valueOf(literal.getChars()), key -> new Node<>());
+			element = literal.next;
+		}
+		return node;
+	}
+
+	/**
+	 * Lower-case the given segment per character, in line with case-insensitive
+	 * matching in {@link LiteralPathElement}.
+	 */
+	private static String toLowerCase(String segment) {
+		for (int i = 0; i < segment.length(); i++) {
+			if (Character.toLowerCase(segment.charAt(i)) != segment.charAt(i)) {
+				char[] chars = segment.toCharArray();
+				for (int j = i; j < chars.length; j++) {
+					chars[j] = Character.toLowerCase(chars[j]);
+				}
+				return new String(chars);
+			}
+		}
+		return segment;
+	}
+
+
+	/**
+	 * A trie node for a sequence of leading literal segments.
+	 */
+	private static final class Node<T> {
+
+		final List<T> values = new ArrayList<>(1);
+
+		final Map<String, Node<T>> children = new HashMap<>(4);
+
+		final Map<String, Node<T>> caseInsensitiveChildren = new HashMap<>(4);
+	}
+
+}
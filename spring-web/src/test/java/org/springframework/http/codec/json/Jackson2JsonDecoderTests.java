@@ -167,6 +167,35 @@ public class Jackson2JsonDecoderTests extends AbstractDecoderTests<Jackson2JsonD
 		testDecode(input, Pojo.class, StepVerifier.LastStep::verifyComplete);
 	}
 
+	@Test
+	public void decodeArrayElementsSplitAcrossBuffers() {
+		Flux<DataBuffer> input = Flux.concat(
+				stringBuffer("[{\"bar\":\"b1\",\"fo"),
+				stringBuffer("o\":\"f1\"} , {\"bar\":\"b2\""),
+				stringBuffer(",\"foo\":\"f2\"}, null]"));
+
+		testDecode(input, Pojo.class, step -> step
+				.expectNext(pojo1)
+				.expectNext(pojo2)
+				.verifyComplete());
+	}
+
+	@Test
+	public void decodeWithCommentsAllowed() {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.enable(JsonParser.Feature.ALLOW_COMMENTS);
+		Jackson2JsonDecoder decoder = new Jackson2JsonDecoder(mapper);
+		Flux<DataBuffer> input = Flux.concat(
+				stringBuffer("[/* first */ {\"bar\":\"b1\",\"foo\":\"f1\"},"),
+				stringBuffer("// second\n{\"bar\":\"b2\",\"foo\":\"f2\"}]"));
+
+		Flux<Object> result = decoder.decode(input, ResolvableType.forClass(Pojo.class), null, null);
+		StepVerifier.create(result)
+				.expectNext(pojo1)
+				.expectNext(pojo2)
+				.verifyComplete();
+	}
+
 	@Test
 	public void fieldLevelJsonView() {
 		Flux<DataBuffer> input = Flux.from(stringBuffer(
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.testfixture.io.buffer.AbstractLeakCheckingTests;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link Jackson2ValueSplitter}.
+ *
+ * @author agent (agent@local)
+ */
+class Jackson2ValueSplitterTests extends AbstractLeakCheckingTests {
+
+	private final JsonFactory jsonFactory = new JsonFactory();
+
+
+	@Test
+	void canSplit() {
+		assertThat(Jackson2ValueSplitter.canSplit(this.jsonFactory)).isTrue();
+		assertThat(Jackson2ValueSplitter.canSplit(new SmileFactory())).isFalse();
+
+		JsonFactory factory = new JsonFactory();
+		factory.enable(JsonParser.Feature.ALLOW_COMMENTS);
+		assertThat(Jackson2ValueSplitter.canSplit(factory)).isFalse();
+
+		factory = new JsonFactory();
+		factory.enable(JsonParser.Feature.ALLOW_SINGLE_QUOTES);
+		assertThat(Jackson2ValueSplitter.canSplit(factory)).isFalse();
+
+		factory = new JsonFactory();
+		factory.enable(JsonParser.Feature.ALLOW_TRAILING_COMMA);
+		assertThat(Jackson2ValueSplitter.canSplit(factory)).isFalse();
+	}
+
+	@Test
+	void splitValue() {
+		testSplit(
+				singletonList("{\"foo\": \"foofoo\", \"bar\": \"barbar\"}"),
+				singletonList("{\"foo\": \"foofoo\", \"bar\": \"barbar\"}"));
+
+		testSplit(
+				asList("{\"foo\": \"foofoo\"", ", \"bar\": \"barbar\"}"),
+				singletonList("{\"foo\": \"foofoo\", \"bar\": \"barbar\"}"));
+
+		// SPR-15803: nested array, no top-level array
+		testSplit(
+				singletonList("{\"speakerIds\":[\"tastapod\"],\"language\":\"ENGLISH\"}"),
+				singletonList("{\"speakerIds\":[\"tastapod\"],\"language\":\"ENGLISH\"}"));
+
+		// SPR-16166: top-level JSON values
+		testSplit(asList("\"foo", "bar\""), singletonList("\"foobar\""));
+		testSplit(asList("12", "34"), singletonList("1234"));
+		testSplit(asList("12.", "34"), singletonList("12.34"));
+		testSplit(asList("tr", "ue"), singletonList("true"));
+	}
+
+	@Test
+	void splitArrayElements() {
+		testSplit(
+				singletonList("[{\"foo\": \"bar\"}, {\"foo\": \"baz\"}]"),
+				asList("{\"foo\": \"bar\"}", "{\"foo\": \"baz\"}"));
+
+		testSplit(
+				asList("[{\"foo\": \"foofoo\", \"bar\"", ": \"barbar\"},{\"foo\": \"baz\"}]"),
+				asList("{\"foo\": \"foofoo\", \"bar\": \"barbar\"}", "{\"foo\": \"baz\"}"));
+
+		// SPR-15803: nested array
+		testSplit(
+				singletonList("[" +
+						"{\"id\":\"0\",\"start\":[-999999999,1,1]}," +
+						"{\"id\":\"1\",\"start\":[-999999999,1,1]}" +
+						"]"),
+				asList(
+						"{\"id\":\"0\",\"start\":[-999999999,1,1]}",
+						"{\"id\":\"1\",\"start\":[-999999999,1,1]}"));
+
+		// SPR-16407
+		testSplit(asList("[1", ",2,", "3]"), asList("1", "2", "3"));
+
+		testSplit(asList("[ \"a\" ,\n", " null , ", "1.5e3 ]"), asList("\"a\"", "null", "1.5e3"));
+		testSplit(singletonList("[]"), emptyList());
+		testSplit(asList("[[1,2],", "[3]]"), asList("[1,2]", "[3]"));
+	}
+
+	@Test
+	void splitStringsWithBrackets() {
+		testSplit(
+				asList("[{\"a\":\"}]\\\"", "{[\"}, \"x,", "y\", \"\\\\\"]"),
+				asList("{\"a\":\"}]\\\"{[\"}", "\"x,y\"", "\"\\\\\""));
+	}
+
+	@Test
+	void splitStream() {
+		// NDJSON (Newline Delimited JSON), JSON Lines
+		testSplit(
+				asList("{\"id\":1}", "\n", "{\"id\":2}\n{\"id\"", ":3}"),
+				asList("{\"id\":1}", "{\"id\":2}", "{\"id\":3}"));
+
+		// JSON Sequence with newline separator
+		testSplit(
+				asList("\n", "{\"id\":1}", "\n", "[2, 3]"),
+				asList("{\"id\":1}", "2", "3"));
+	}
+
+	@Test
+	void splitSingleByteChunks() {
+		String json = "\uFEFF[{\"name\":\"héllo\"}, 42]";
+		byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+		List<DataBuffer> buffers = new ArrayList<>();
+		for (byte b : bytes) {
+			buffers.add(byteBuffer(new byte[] {b}));
+		}
+		StepVerifier.create(split(Flux.fromIterable(buffers), -1))
+				.expectNext("{\"name\":\"héllo\"}")
+				.expectNext("42")
+				.verifyComplete();
+	}
+
+	@Test
+	void shareChunkForValueWithinChunk() {
+		Flux<ByteBuffer> values = Jackson2ValueSplitter.split(
+				Flux.just(stringBuffer("[{\"id\":1},{\"id\":2}]")), -1);
+
+		StepVerifier.create(values)
+				.assertNext(value -> assertThat(value.arrayOffset() + value.position()).isEqualTo(1))
+				.assertNext(value -> assertThat(value.arrayOffset() + value.position()).isEqualTo(10))
+				.verifyComplete();
+	}
+
+	@Test
+	void limit() {
+		List<String> source = asList(
+				"[",
+				"{", "\"id\":1, \"name\":\"Dan\"", "},",
+				"{", "\"id\":2, \"name\":\"Ron\"", "},",
+				"{", "\"id\":3, \"name\":\"Bartholomew\"", "}",
+				"]"
+		);
+
+		int maxInMemorySize = "{\"id\":3, \"name\":\"Bartholomew\"".length();
+
+		StepVerifier.create(split(source, maxInMemorySize))
+				.expectNext("{\"id\":1, \"name\":\"Dan\"}")
+				.expectNext("{\"id\":2, \"name\":\"Ron\"}")
+				.expectNext("{\"id\":3, \"name\":\"Bartholomew\"}")
+				.verifyComplete();
+
+		StepVerifier.create(split(source, maxInMemorySize - 1))
+				.expectNext("{\"id\":1, \"name\":\"Dan\"}")
+				.expectNext("{\"id\":2, \"name\":\"Ron\"}")
+				.verifyError(DataBufferLimitException.class);
+	}
+
+	@Test
+	void errorInStream() {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("{\"id\":1,\"name\":"))
+				.concatWith(Flux.error(new RuntimeException()));
+
+		StepVerifier.create(split(source, -1))
+				.expectError(RuntimeException.class)
+				.verify();
+	}
+
+	@Test
+	void unexpectedCloseMarker() {
+		StepVerifier.create(split(singletonList("[{\"id\":1]}]"), -1))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	void unexpectedSeparator() {
+		for (String json : asList("[1:2]", "[1 2]", "[,1]", "[1,,2]", "[1,]", "{\"id\":1},{\"id\":2}", "[1]:2")) {
+			StepVerifier.create(split(singletonList(json), -1))
+					.expectError(DecodingException.class)
+					.verify();
+		}
+		testSplit(asList("[1,", "[2],{\"id\":3}]", "[]", "[\"a\"] 4"), asList("1", "[2]", "{\"id\":3}", "\"a\"", "4"));
+	}
+
+	@Test
+	void jsonEOFExceptionIsWrappedAsDecodingError() {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("{\"status\": \"noClosingQuote}"));
+
+		StepVerifier.create(split(source, -1))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+
+	private void testSplit(List<String> input, List<String> output) {
+		StepVerifier.create(split(input, -1))
+				.expectNextSequence(output)
+				.verifyComplete();
+	}
+
+	private Flux<String> split(List<String> source, int maxInMemorySize) {
+		return split(Flux.fromIterable(source).map(this::stringBuffer), maxInMemorySize);
+	}
+
+	private Flux<String> split(Flux<DataBuffer> source, int maxInMemorySize) {
+		return Jackson2ValueSplitter.split(source, maxInMemorySize)
+				.map(value -> StandardCharsets.UTF_8.decode(value).toString());
+	}
+
+	private DataBuffer stringBuffer(String value) {
+		return byteBuffer(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private DataBuffer byteBuffer(byte[] bytes) {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(bytes.length);
+		buffer.write(bytes);
+		return buffer;
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.method.support;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit tests for {@link HandlerMethodInvoker}.
+ *
+ * @author agent (agent@local)
+ */
+public class HandlerMethodInvokerTests {
+
+	@Test
+	public void invokeWithObjectAndPrimitiveArgs() throws Exception {
+		HandlerMethodInvoker invoker = getInvoker("greet", String.class, int.class);
+
+		assertThat(invoker).isNotNull();
+		assertThat(invoker.getMethod()).isEqualTo(Handler.class.getMethod("greet", String.class, int.class));
+		assertThat(invoker.invoke(new Handler(), "value", 3)).isEqualTo("value-3");
+		assertThat(getInvoker("greet", String.class, int.class)).isSameAs(invoker);
+	}
+
+	@Test
+	public void invokeWithPrimitiveReturnValue() throws Exception {
+		assertThat(getInvoker("twice", long.class).invoke(new Handler(), 21L)).isEqualTo(42L);
+		assertThat(getInvoker("handle").invoke(new Handler())).isNull();
+	}
+
+	@Test
+	public void invokeStaticMethod() throws Exception {
+		assertThat(getInvoker("length", String[].class).invoke(null, (Object) new String[2])).isEqualTo(2);
+	}
+
+	@Test
+	public void invokeDefaultMethod() throws Exception {
+		HandlerMethodInvoker invoker = HandlerMethodInvoker.forMethod(Greeter.class.getMethod("greet"));
+		assertThat(invoker.invoke(new Handler())).isEqualTo("hello");
+	}
+
+	@Test
+	public void invokeWithWideningConversion() throws Exception {
+		assertThat(getInvoker("twice", long.class).invoke(new Handler(), 21)).isEqualTo(42L);
+	}
+
+	@Test
+	public void invokeWithIllegalArguments() throws Exception {
+		HandlerMethodInvoker invoker = getInvoker("greet", String.class, int.class);
+
+		assertThatIllegalArgumentException().isThrownBy(() -> invoker.invoke(new Handler(), "value", null));
+		assertThatIllegalArgumentException().isThrownBy(() -> invoker.invoke(new Handler(), 3, "value"));
+		assertThatIllegalArgumentException().isThrownBy(() -> invoker.invoke("handler", "value", 3));
+	}
+
+	@Test
+	public void invocationTargetException() throws Exception {
+		IOException exception = new IOException("error");
+		assertThatExceptionOfType(InvocationTargetException.class).isThrownBy(() ->
+				getInvoker("handleWithException", Exception.class).invoke(new Handler(), exception))
+			.satisfies(ex -> assertThat(ex.getTargetException()).isSameAs(exception));
+	}
+
+	@Test
+	public void nonPublicMethodNotSupported() throws Exception {
+		assertThat(HandlerMethodInvoker.forMethod(Handler.class.getDeclaredMethod("hidden"))).isNull();
+		assertThat(HandlerMethodInvoker.forMethod(NonPublicHandler.class.getMethod("handle"))).isNull();
+		assertThat(getInvoker("handle", NonPublicHandler.class)).isNull();
+	}
+
+
+	private static HandlerMethodInvoker getInvoker(String methodName, Class<?>... parameterTypes) throws Exception {
+		return HandlerMethodInvoker.forMethod(Handler.class.getMethod(methodName, parameterTypes));
+	}
+
+
+	public interface Greeter {
+
+		default String greet() {
+			return "hello";
+		}
+	}
+
+
+	@SuppressWarnings("unused")
+	public static class Handler implements Greeter {
+
+		public String greet(String name, int times) {
+			return name + "-" + times;
+		}
+
+		public long twice(long value) {
+			return value * 2;
+		}
+
+		public void handle() {
+		}
+
+		public void handle(NonPublicHandler handler) {
+		}
+
+		public void handleWithException(Exception ex) throws Exception {
+			throw ex;
+		}
+
+		public static int length(String[] values) {
+			return values.length;
+		}
+
+		void hidden() {
+		}
+	}
+
+
+	static class NonPublicHandler {
+
+		public void handle() {
+		}
+	}
+
+}
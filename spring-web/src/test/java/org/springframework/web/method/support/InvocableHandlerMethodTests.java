@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -156,6 +156,66 @@ public class InvocableHandlerMethodTests {
 			.withMessageContaining("Illegal argument");
 	}
 
+	@Test
+	public void resolveArgWithParameterResolvers() throws Exception {
+		StubArgumentResolver intResolver = new StubArgumentResolver(99);
+		this.composite.addResolver(new StubArgumentResolver("value"));
+
+		InvocableHandlerMethod invocable = getInvocable(Integer.class, String.class);
+		invocable.setParameterArgumentResolvers(new HandlerMethodArgumentResolver[] {intResolver, null});
+		Object value = invocable.invokeForRequest(request, null);
+
+		assertThat(intResolver.getResolvedParameters().size()).isEqualTo(1);
+		assertThat(getStubResolver(0).getResolvedParameters().size()).isEqualTo(1);
+		assertThat(value).isEqualTo("99-value");
+	}
+
+	@Test
+	public void invokeWithMethodInvoker() throws Exception {
+		this.composite.addResolver(new StubArgumentResolver(99));
+		this.composite.addResolver(new StubArgumentResolver("value"));
+
+		Method method = PublicHandler.class.getMethod("handle", Integer.class, String.class);
+		InvocableHandlerMethod invocable = new InvocableHandlerMethod(new PublicHandler(), method);
+		invocable.setHandlerMethodArgumentResolvers(this.composite);
+		invocable.setMethodInvoker(HandlerMethodInvoker.forMethod(method));
+
+		assertThat(invocable.invokeForRequest(request, null)).isEqualTo("99-value");
+	}
+
+	@Test
+	public void invocationTargetExceptionWithMethodInvoker() throws Exception {
+		Method method = PublicHandler.class.getMethod("handleWithException", Throwable.class);
+		InvocableHandlerMethod invocable = new InvocableHandlerMethod(new PublicHandler(), method);
+		invocable.setMethodInvoker(HandlerMethodInvoker.forMethod(method));
+
+		Exception exception = new Exception("error");
+		assertThatExceptionOfType(Exception.class).isThrownBy(() ->
+				invocable.invokeForRequest(this.request, null, exception))
+			.isSameAs(exception);
+
+		Throwable throwable = new Throwable("error");
+		assertThatIllegalStateException().isThrownBy(() ->
+				invocable.invokeForRequest(this.request, null, throwable))
+			.withCause(throwable)
+			.withMessageContaining("Invocation failure");
+	}
+
+	@Test
+	public void illegalArgumentExceptionWithMethodInvoker() throws Exception {
+		this.composite.addResolver(new StubArgumentResolver(Integer.class, "__not_an_int__"));
+		this.composite.addResolver(new StubArgumentResolver("value"));
+
+		Method method = PublicHandler.class.getMethod("handle", Integer.class, String.class);
+		InvocableHandlerMethod invocable = new InvocableHandlerMethod(new PublicHandler(), method);
+		invocable.setHandlerMethodArgumentResolvers(this.composite);
+		invocable.setMethodInvoker(HandlerMethodInvoker.forMethod(method));
+
+		assertThatIllegalStateException().isThrownBy(() -> invocable.invokeForRequest(request, null))
+			.withCauseInstanceOf(IllegalArgumentException.class)
+			.withMessageContaining("[0] [type=java.lang.String] [value=__not_an_int__]");
+	}
+
 	private InvocableHandlerMethod getInvocable(Class<?>... argTypes) {
 		Method method = ResolvableMethod.on(Handler.class).argTypes(argTypes).resolveMethod();
 		InvocableHandlerMethod handlerMethod = new InvocableHandlerMethod(new Handler(), method);
@@ -185,6 +245,18 @@ public class InvocableHandlerMethodTests {
 	}
 
 
+	public static class PublicHandler {
+
+		public String handle(Integer intArg, String stringArg) {
+			return intArg + "-" + stringArg;
+		}
+
+		public void handleWithException(Throwable ex) throws Throwable {
+			throw ex;
+		}
+	}
+
+
 	private static class ExceptionRaisingArgumentResolver implements HandlerMethodArgumentResolver {
 
 		@Override
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.multipart.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.util.StreamUtils;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link StreamingMultipartResolver}.
+ *
+ * @author agent (agent@local)
+ */
+class StreamingMultipartResolverTests {
+
+	private static final String BOUNDARY = "----WebKitFormBoundary7MA4YWxkTrZu0gW";
+
+	private final StreamingMultipartResolver resolver = new StreamingMultipartResolver();
+
+	private final byte[] fileContent = new byte[4096];
+
+	@TempDir
+	Path storageDirectory;
+
+
+	StreamingMultipartResolverTests() {
+		for (int i = 0; i < this.fileContent.length; i++) {
+			this.fileContent[i] = (byte) (i % 251);
+		}
+	}
+
+
+	@Test
+	void resolveParametersAndFiles() throws Exception {
+		MultipartHttpServletRequest request = this.resolver.resolveMultipart(createRequest());
+
+		assertThat(request.getParameter("text")).isEqualTo("héllo");
+		assertThat(request.getParameterValues("text")).containsExactly("héllo", "second");
+		assertThat(request.getParameter("after")).isEqualTo("value");
+
+		MultipartFile file = request.getFile("file");
+		assertThat(file).isNotNull();
+		assertThat(file.getOriginalFilename()).isEqualTo("a.txt");
+		assertThat(file.getContentType()).isEqualTo("text/plain");
+		assertThat(file.getSize()).isEqualTo(this.fileContent.length);
+		assertThat(file.getBytes()).isEqualTo(this.fileContent);
+		assertThat(StreamUtils.copyToByteArray(file.getInputStream())).isEqualTo(this.fileContent);
+		assertThat(request.getMultipartContentType("file")).isEqualTo("text/plain");
+	}
+
+	@Test
+	void storeLargeFileInStorageDirectory() throws Exception {
+		this.resolver.setMaxInMemorySize(1024);
+		this.resolver.setFileStorageDirectory(this.storageDirectory);
+		MultipartHttpServletRequest request = this.resolver.resolveMultipart(createRequest());
+
+		assertThat(request.getFile("file").getBytes()).isEqualTo(this.fileContent);
+		assertThat(fileCount()).isEqualTo(1);
+
+		this.resolver.cleanupMultipart(request);
+		assertThat(fileCount()).isEqualTo(0);
+	}
+
+	@Test
+	void streamFileContentWhenResolvingLazily() throws Exception {
+		this.resolver.setResolveLazily(true);
+		this.resolver.setMaxInMemorySize(1024);
+		this.resolver.setFileStorageDirectory(this.storageDirectory);
+		MultipartHttpServletRequest request = this.resolver.resolveMultipart(createRequest());
+
+		MultipartFile file = request.getFile("file");
+		InputStream inputStream = file.getInputStream();
+		assertThat(StreamUtils.copyToByteArray(inputStream)).isEqualTo(this.fileContent);
+		assertThat(request.getParameter("after")).isEqualTo("value");
+		assertThat(fileCount()).isEqualTo(0);
+		assertThatIllegalStateException().isThrownBy(file::getBytes);
+	}
+
+	@Test
+	void streamedFileContentNotAvailableAfterParsingContinued() throws Exception {
+		this.resolver.setResolveLazily(true);
+		MultipartHttpServletRequest request = this.resolver.resolveMultipart(createRequest());
+
+		InputStream inputStream = request.getFile("file").getInputStream();
+		assertThat(inputStream.read()).isEqualTo(0);
+		assertThat(request.getParameterValues("text")).containsExactly("héllo", "second");
+		assertThatExceptionOfType(IOException.class).isThrownBy(inputStream::read);
+	}
+
+	@Test
+	void storeFileContentWhenParsingContinues() throws Exception {
+		this.resolver.setResolveLazily(true);
+		MultipartHttpServletRequest request = this.resolver.resolveMultipart(createRequest());
+
+		MultipartFile file = request.getFile("file");
+		assertThat(request.getParameter("after")).isEqualTo("value");
+		assertThat(file.getBytes()).isEqualTo(this.fileContent);
+	}
+
+	@Test
+	void transferFileContentWhileArriving() throws Exception {
+		this.resolver.setResolveLazily(true);
+		MultipartHttpServletRequest request = this.resolver.resolveMultipart(createRequest());
+		Path dest = this.storageDirectory.resolve("dest.bin");
+
+		request.getFile("file").transferTo(dest);
+		assertThat(Files.readAllBytes(dest)).isEqualTo(this.fileContent);
+		assertThat(request.getFile("file").getBytes()).isEqualTo(this.fileContent);
+
+		this.resolver.cleanupMultipart(request);
+		assertThat(dest).exists();
+	}
+
+	@Test
+	void maxParts() {
+		this.resolver.setMaxParts(2);
+		assertThatExceptionOfType(MultipartException.class).isThrownBy(() ->
+				this.resolver.resolveMultipart(createRequest()));
+	}
+
+	@Test
+	void maxInMemorySizeForParameter() {
+		this.resolver.setMaxInMemorySize(3);
+		assertThatExceptionOfType(MaxUploadSizeExceededException.class).isThrownBy(() ->
+				this.resolver.resolveMultipart(createRequest()));
+	}
+
+	@Test
+	void maxDiskUsagePerPart() throws Exception {
+		this.resolver.setMaxInMemorySize(1024);
+		this.resolver.setMaxDiskUsagePerPart(2048);
+		this.resolver.setFileStorageDirectory(this.storageDirectory);
+		assertThatExceptionOfType(MaxUploadSizeExceededException.class).isThrownBy(() ->
+				this.resolver.resolveMultipart(createRequest()));
+	}
+
+	@Test
+	void noBoundary() {
+		MockHttpServletRequest request = createRequest();
+		request.setContentType("multipart/form-data");
+		assertThatExceptionOfType(MultipartException.class).isThrownBy(() ->
+				this.resolver.resolveMultipart(request));
+	}
+
+	@Test
+	void missingClosingBoundary() throws Exception {
+		MockHttpServletRequest request = createRequest();
+		byte[] content = request.getContentAsByteArray();
+		request.setContent(Arrays.copyOf(content, content.length - 40));
+		assertThatExceptionOfType(MultipartException.class).isThrownBy(() ->
+				this.resolver.resolveMultipart(request));
+	}
+
+
+	private MockHttpServletRequest createRequest() {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		write(bos, "preamble\r\n--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"text\"\r\n\r\n" +
+				"héllo\r\n--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\n" +
+				"Content-Type: text/plain\r\n\r\n");
+		bos.write(this.fileContent, 0, this.fileContent.length);
+		write(bos, "\r\n--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"after\"\r\n\r\n" +
+				"value\r\n--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"text\"\r\n\r\n" +
+				"second\r\n--" + BOUNDARY + "--\r\n");
+
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/upload");
+		request.setContentType("multipart/form-data; boundary=" + BOUNDARY);
+		request.setContent(bos.toByteArray());
+		return request;
+	}
+
+	private static void write(ByteArrayOutputStream bos, String content) {
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		bos.write(bytes, 0, bytes.length);
+	}
+
+	private long fileCount() throws IOException {
+		try (Stream<Path> files = Files.list(this.storageDirectory)) {
+			return files.count();
+		}
+	}
+
+}
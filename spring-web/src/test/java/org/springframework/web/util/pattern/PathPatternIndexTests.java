@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.server.PathContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PathPatternIndex}.
+ *
+ * @author agent (agent@local)
+ */
+public class PathPatternIndexTests {
+
+	private final PathPatternParser parser = new PathPatternParser();
+
+	private final PathPatternIndex<String> index = new PathPatternIndex<>();
+
+
+	@Test
+	public void literalSegments() {
+		add("orders", "/orders/{id}");
+		add("orderItems", "/orders/{id}/items");
+		add("orderItem", "/orders/items/{id}");
+		add("customers", "/customers/{id}");
+
+		assertThat(candidates("/orders/1")).containsExactly("orders", "orderItems");
+		assertThat(candidates("/orders/items/1")).containsExactly("orders", "orderItems", "orderItem");
+		assertThat(candidates("/customers/1")).containsExactly("customers");
+		assertThat(candidates("/Orders/1")).isEmpty();
+		assertThat(candidates("/other")).isEmpty();
+		assertThat(candidates("")).isEmpty();
+	}
+
+	@Test
+	public void nonLiteralSegments() {
+		add("orders", "/orders/{id}");
+		add("any", "/{name}/{id}");
+		add("wildcard", "/**");
+		add("none");
+
+		assertThat(candidates("/orders/1")).containsExactly("any", "wildcard", "none", "orders");
+		assertThat(candidates("/other")).containsExactly("any", "wildcard", "none");
+	}
+
+	@Test
+	public void decodedSegmentsWithoutMatrixVariables() {
+		add("orders", "/orders list/{id}");
+
+		assertThat(candidates("/orders%20list/1")).containsExactly("orders");
+		assertThat(candidates("/orders%20list;a=b/1")).containsExactly("orders");
+	}
+
+	@Test
+	public void caseInsensitivePatterns() {
+		this.parser.setCaseSensitive(false);
+		add("orders", "/Orders/{id}");
+
+		assertThat(candidates("/orders/1")).containsExactly("orders");
+		assertThat(candidates("/ORDERS/1")).containsExactly("orders");
+	}
+
+	@Test
+	public void multiplePatterns() {
+		add("orders", "/orders/{id}", "/orders/items/{id}", "/customers/{id}/orders");
+
+		assertThat(candidates("/orders/items/1")).containsExactly("orders");
+		assertThat(candidates("/customers/1/orders")).containsExactly("orders");
+		assertThat(candidates("/other")).isEmpty();
+
+		add("mixed", "/orders/{id}", "/{name}");
+		assertThat(candidates("/other")).containsExactly("mixed");
+	}
+
+	@Test
+	public void remove() {
+		add("orders", "/orders/{id}");
+		add("any", "/{name}");
+
+		assertThat(this.index.remove("orders")).isTrue();
+		assertThat(this.index.remove("orders")).isFalse();
+		assertThat(candidates("/orders/1")).containsExactly("any");
+		assertThat(this.index.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void candidatesIncludeAllMatches() {
+		List<String> patterns = Arrays.asList("/", "/orders", "/orders/{id}", "/orders/{id}/items",
+				"/orders/*.json", "/orders/**", "/{name}/items", "/static/**", "/**", "/api/v1/orders/{id}");
+		patterns.forEach(pattern -> add(pattern, pattern));
+		List<String> paths = Arrays.asList("/", "/orders", "/orders/", "/orders/1", "/orders/1/items",
+				"/orders/1.json", "/customers/items", "/static/app.js", "/api/v1/orders/1", "/api/v2/orders/1");
+
+		for (String path : paths) {
+			PathContainer pathContainer = PathContainer.parsePath(path);
+			List<String> candidates = this.index.getCandidates(pathContainer);
+			for (String pattern : patterns) {
+				if (this.parser.parse(pattern).matches(pathContainer)) {
+					assertThat(candidates).as(path).contains(pattern);
+				}
+			}
+		}
+	}
+
+
+	private void add(String value, String... patterns) {
+		this.index.add(value, Arrays.stream(patterns).map(this.parser::parse).collect(Collectors.toList()));
+	}
+
+	private List<String> candidates(String path) {
+		return this.index.getCandidates(PathContainer.parsePath(path));
+	}
+
+}
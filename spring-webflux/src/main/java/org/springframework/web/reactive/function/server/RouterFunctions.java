@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,14 @@
 
 package org.springframework.web.reactive.function.server;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -32,9 +36,13 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.web.cors.reactive.CorsUtils;
 import org.springframework.web.reactive.result.view.ViewResolver;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebHandler;
@@ -278,6 +286,34 @@ public abstract class RouterFunctions {
 		return routerFunction;
 	}
 
+	/**
+	 * Optimize the given {@linkplain RouterFunction router function} for routing
+	 * requests against a large number of routes. The returned router function
+	 * indexes the composed routes by the HTTP methods and the first literal path
+	 * segment that their predicates require, only evaluating the routes that can
+	 * possibly match a given request, in their original order.
+	 * <p>Routes with predicates that cannot be analyzed (e.g. custom predicates)
+	 * are evaluated for every request, so the result of routing is the same as
+	 * for the given router function. Since the index is built from the current
+	 * routes and predicates, this method should be invoked after any
+	 * {@linkplain #changeParser(RouterFunction, PathPatternParser) parser change}.
+	 * @param routerFunction the router function to optimize
+	 * @param <T> the type of response returned by the handler function
+	 * @return the optimized router function, or the given router function
+	 * if it does not compose multiple routes
+	 * @since 5.3.9
+	 */
+	public static <T extends ServerResponse> RouterFunction<T> optimize(RouterFunction<T> routerFunction) {
+		Assert.notNull(routerFunction, "RouterFunction must not be null");
+
+		List<RouterFunction<?>> routes = new ArrayList<>();
+		IndexedRouterFunction.flatten(routerFunction, routes);
+		if (routes.size() < 2) {
+			return routerFunction;
+		}
+		return new IndexedRouterFunction<>(routerFunction, routes);
+	}
+
 
 	/**
 	 * Represents a discoverable builder for router functions.
@@ -1229,6 +1265,153 @@ public abstract class RouterFunctions {
 	}
 
 
+	/**
+	 * A router function that evaluates the flattened routes of another router function,
+	 * restricted to the candidates for the HTTP method and first path segment of a request.
+	 * @param <T> the server response type
+	 * @see RouteConditionVisitor
+	 */
+	static final class IndexedRouterFunction<T extends ServerResponse> extends AbstractRouterFunction<T> {
+
+		private static final RouterFunction<?>[] NO_ROUTES = new RouterFunction<?>[0];
+
+		private final RouterFunction<T> routerFunction;
+
+		private final Map<String, Candidates> segmentCandidates = new HashMap<>();
+
+		private final Candidates defaultCandidates;
+
+		public IndexedRouterFunction(RouterFunction<T> routerFunction, List<RouterFunction<?>> routes) {
+			this.routerFunction = routerFunction;
+			List<RouteConditionVisitor.Condition> conditions = new ArrayList<>(routes.size());
+			for (RouterFunction<?> route : routes) {
+				conditions.add(RouteConditionVisitor.determineCondition(route));
+			}
+			for (RouteConditionVisitor.Condition condition : conditions) {
+				String segment = condition.getPathSegment();
+				if (segment != null && !this.segmentCandidates.containsKey(segment)) {
+					this.segmentCandidates.put(segment, new Candidates(routes, conditions, segment));
+				}
+			}
+			this.defaultCandidates = new Candidates(routes, conditions, null);
+		}
+
+		/**
+		 * Flatten the given router function into its routes, in order of evaluation.
+		 */
+		@SuppressWarnings({"rawtypes", "unchecked"})
+		static void flatten(RouterFunction<?> routerFunction, List<RouterFunction<?>> routes) {
+			if (routerFunction instanceof SameComposedRouterFunction) {
+				SameComposedRouterFunction<?> composed = (SameComposedRouterFunction<?>) routerFunction;
+				flatten(composed.first, routes);
+				flatten(composed.second, routes);
+			}
+			else if (routerFunction instanceof DifferentComposedRouterFunction) {
+				DifferentComposedRouterFunction composed = (DifferentComposedRouterFunction) routerFunction;
+				flatten(composed.first, routes);
+				flatten(composed.second, routes);
+			}
+			else if (routerFunction instanceof AttributesRouterFunction) {
+				flatten(((AttributesRouterFunction<?>) routerFunction).delegate, routes);
+			}
+			else if (routerFunction instanceof FilteredRouterFunction) {
+				FilteredRouterFunction filtered = (FilteredRouterFunction) routerFunction;
+				List<RouterFunction<?>> filteredRoutes = new ArrayList<>();
+				flatten(filtered.routerFunction, filteredRoutes);
+				for (RouterFunction<?> route : filteredRoutes) {
+					routes.add(new FilteredRouterFunction(route, filtered.filterFunction));
+				}
+			}
+			else {
+				routes.add(routerFunction);
+			}
+		}
+
+		@Override
+		public Mono<HandlerFunction<T>> route(ServerRequest request) {
+			RouterFunction<?>[] candidates = getCandidates(request);
+			if (candidates.length == 0) {
+				return Mono.empty();
+			}
+			return Flux.fromArray(candidates)
+					.concatMap(candidate -> candidate.route(request))
+					.next()
+					.map(this::cast);
+		}
+
+		private RouterFunction<?>[] getCandidates(ServerRequest request) {
+			Candidates candidates = this.defaultCandidates;
+			String segment = firstPathSegment(request.requestPath().pathWithinApplication());
+			if (segment != null) {
+				candidates = this.segmentCandidates.getOrDefault(segment, this.defaultCandidates);
+			}
+			HttpMethod method = request.method();
+			if (method == null || CorsUtils.isPreFlightRequest(request.exchange().getRequest())) {
+				// Method predicates match against the requested method for pre-flight requests
+				return candidates.allRoutes;
+			}
+			return candidates.methodRoutes.get(method);
+		}
+
+		@Nullable
+		private static String firstPathSegment(PathContainer path) {
+			List<PathContainer.Element> elements = path.elements();
+			if (elements.size() > 1 && elements.get(0) instanceof PathContainer.Separator &&
+					elements.get(1) instanceof PathContainer.PathSegment) {
+				String value = ((PathContainer.PathSegment) elements.get(1)).valueToMatch();
+				return RouteConditionVisitor.Condition.toLowerCase(value);
+			}
+			return null;
+		}
+
+		@SuppressWarnings("unchecked")
+		private HandlerFunction<T> cast(HandlerFunction<?> handlerFunction) {
+			return (HandlerFunction<T>) handlerFunction;
+		}
+
+		@Override
+		public void accept(Visitor visitor) {
+			this.routerFunction.accept(visitor);
+		}
+
+
+		/**
+		 * The candidate routes for a given first path segment, per HTTP method.
+		 */
+		private static final class Candidates {
+
+			final RouterFunction<?>[] allRoutes;
+
+			final Map<HttpMethod, RouterFunction<?>[]> methodRoutes = new EnumMap<>(HttpMethod.class);
+
+			Candidates(List<RouterFunction<?>> routes, List<RouteConditionVisitor.Condition> conditions,
+					@Nullable String segment) {
+
+				List<RouterFunction<?>> allRoutes = new ArrayList<>();
+				List<RouteConditionVisitor.Condition> allConditions = new ArrayList<>();
+				for (int i = 0; i < conditions.size(); i++) {
+					String pathSegment = conditions.get(i).getPathSegment();
+					if (pathSegment == null || pathSegment.equals(segment)) {
+						allRoutes.add(routes.get(i));
+						allConditions.add(conditions.get(i));
+					}
+				}
+				this.allRoutes = allRoutes.toArray(NO_ROUTES);
+				for (HttpMethod method : HttpMethod.values()) {
+					List<RouterFunction<?>> methodRoutes = new ArrayList<>();
+					for (int i = 0; i < allConditions.size(); i++) {
+						Set<HttpMethod> methods = allConditions.get(i).getMethods();
+						if (methods == null || methods.contains(method)) {
+							methodRoutes.add(allRoutes.get(i));
+						}
+					}
+					this.methodRoutes.put(method, methodRoutes.toArray(NO_ROUTES));
+				}
+			}
+		}
+	}
+
+
 	private static class RouterFunctionWebHandler implements WebHandler {
 
 		private static final HandlerFunction<ServerResponse> NOT_FOUND_HANDLER =
@@ -52,6 +52,9 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 	@Nullable
 	private RouterFunction<?> routerFunction;
 
+	@Nullable
+	private RouterFunction<?> optimizedRouterFunction;
+
 	private List<HttpMessageReader<?>> messageReaders = Collections.emptyList();
 
 
@@ -105,8 +108,8 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 		}
 		if (this.routerFunction != null) {
 			RouterFunctions.changeParser(this.routerFunction, getPathPatternParser());
+			this.optimizedRouterFunction = RouterFunctions.optimize(this.routerFunction);
 		}
-
 	}
 
 	/**
@@ -151,9 +154,11 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 
 	@Override
 	protected Mono<?> getHandlerInternal(ServerWebExchange exchange) {
-		if (this.routerFunction != null) {
+		RouterFunction<?> routerFunction =
+				(this.optimizedRouterFunction != null ? this.optimizedRouterFunction : this.routerFunction);
+		if (routerFunction != null) {
 			ServerRequest request = ServerRequest.create(exchange, this.messageReaders);
-			return this.routerFunction.route(request)
+			return routerFunction.route(request)
 					.doOnNext(handler -> setAttributes(exchange.getAttributes(), request, handler));
 		}
 		else {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -36,9 +36,11 @@ import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.HandlerMethodInvoker;
 import org.springframework.web.reactive.BindingContext;
 import org.springframework.web.reactive.HandlerResult;
 import org.springframework.web.server.ServerWebExchange;
@@ -62,6 +64,12 @@ public class InvocableHandlerMethod extends HandlerMethod {
 
 	private final HandlerMethodArgumentResolverComposite resolvers = new HandlerMethodArgumentResolverComposite();
 
+	@Nullable
+	private HandlerMethodArgumentResolver[] parameterResolvers;
+
+	@Nullable
+	private HandlerMethodInvoker methodInvoker;
+
 	private ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
 
 	private ReactiveAdapterRegistry reactiveAdapterRegistry = ReactiveAdapterRegistry.getSharedInstance();
@@ -97,6 +105,31 @@ public class InvocableHandlerMethod extends HandlerMethod {
 		return this.resolvers.getResolvers();
 	}
 
+	/**
+	 * Set pre-determined argument resolvers for the parameters of this method,
+	 * in parameter order, avoiding the lookup of a suitable resolver for each
+	 * invocation. A {@code null} element indicates a parameter to be resolved
+	 * through the {@link #setArgumentResolvers general resolvers}.
+	 * @since 5.3.9
+	 */
+	public void setParameterArgumentResolvers(@Nullable HandlerMethodArgumentResolver[] parameterResolvers) {
+		Assert.isTrue(parameterResolvers == null || parameterResolvers.length == getMethodParameters().length,
+				"Number of argument resolvers does not match number of parameters");
+		this.parameterResolvers = parameterResolvers;
+	}
+
+	/**
+	 * Set a generated invoker for the bridged method of this handler method,
+	 * to be used instead of reflection.
+	 * @since 5.3.9
+	 * @see HandlerMethodInvoker#forMethod
+	 */
+	public void setMethodInvoker(@Nullable HandlerMethodInvoker methodInvoker) {
+		Assert.isTrue(methodInvoker == null || methodInvoker.getMethod().equals(getBridgedMethod()),
+				"HandlerMethodInvoker does not match bridged method");
+		this.methodInvoker = methodInvoker;
+	}
+
 	/**
 	 * Set the ParameterNameDiscoverer for resolving parameter names when needed
 	 * (e.g. default request attribute name).
@@ -142,6 +175,9 @@ public class InvocableHandlerMethod extends HandlerMethod {
 				if (KotlinDetector.isSuspendingFunction(method)) {
 					value = CoroutinesUtils.invokeSuspendingFunction(method, getBean(), args);
 				}
+				else if (this.methodInvoker != null) {
+					value = this.methodInvoker.invoke(getBean(), args);
+				}
 				else {
 					value = method.invoke(getBean(), args);
 				}
@@ -185,19 +221,24 @@ public class InvocableHandlerMethod extends HandlerMethod {
 		}
 
 		List<Mono<Object>> argMonos = new ArrayList<>(parameters.length);
-		for (MethodParameter parameter : parameters) {
+		for (int i = 0; i < parameters.length; i++) {
+			MethodParameter parameter = parameters[i];
 			parameter.initParameterNameDiscovery(this.parameterNameDiscoverer);
 			Object providedArg = findProvidedArgument(parameter, providedArgs);
 			if (providedArg != null) {
 				argMonos.add(Mono.just(providedArg));
 				continue;
 			}
-			if (!this.resolvers.supportsParameter(parameter)) {
-				return Mono.error(new IllegalStateException(
-						formatArgumentError(parameter, "No suitable resolver")));
+			HandlerMethodArgumentResolver resolver = (this.parameterResolvers != null ? this.parameterResolvers[i] : null);
+			if (resolver == null) {
+				if (!this.resolvers.supportsParameter(parameter)) {
+					return Mono.error(new IllegalStateException(
+							formatArgumentError(parameter, "No suitable resolver")));
+				}
+				resolver = this.resolvers;
 			}
 			try {
-				argMonos.add(this.resolvers.resolveArgument(parameter, bindingContext, exchange)
+				argMonos.add(resolver.resolveArgument(parameter, bindingContext, exchange)
 						.defaultIfEmpty(NO_ARG_VALUE)
 						.doOnError(ex -> logArgumentErrorIfNecessary(exchange, parameter, ex)));
 			}
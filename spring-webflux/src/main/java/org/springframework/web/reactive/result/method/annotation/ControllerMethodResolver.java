@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,7 +33,9 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.KotlinDetector;
+import org.springframework.core.MethodClassKey;
 import org.springframework.core.MethodIntrospector;
+import org.springframework.core.MethodParameter;
 import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.http.codec.HttpMessageReader;
@@ -46,6 +48,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.method.ControllerAdviceBean;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+import org.springframework.web.method.support.HandlerMethodInvoker;
 import org.springframework.web.reactive.result.method.HandlerMethodArgumentResolver;
 import org.springframework.web.reactive.result.method.InvocableHandlerMethod;
 import org.springframework.web.reactive.result.method.SyncHandlerMethodArgumentResolver;
@@ -110,6 +113,10 @@ class ControllerMethodResolver {
 
 	private final Map<Class<?>, SessionAttributesHandler> sessionAttributesHandlerCache = new ConcurrentHashMap<>(64);
 
+	private final Map<MethodClassKey, PreparedInvocation> preparedInvocationCache = new ConcurrentHashMap<>(64);
+
+	private boolean generateInvokers = false;
+
 
 	ControllerMethodResolver(ArgumentResolverConfigurer customResolvers, ReactiveAdapterRegistry adapterRegistry,
 			ConfigurableApplicationContext context, List<HttpMessageReader<?>> readers) {
@@ -253,6 +260,17 @@ class ControllerMethodResolver {
 	}
 
 
+	/**
+	 * Set whether to invoke {@code @RequestMapping} methods through generated
+	 * invoker classes, with pre-determined argument resolvers per parameter.
+	 * @since 5.3.9
+	 * @see RequestMappingHandlerAdapter#setGenerateInvokers
+	 */
+	void setGenerateInvokers(boolean generateInvokers) {
+		this.generateInvokers = generateInvokers;
+	}
+
+
 	/**
 	 * Return an {@link InvocableHandlerMethod} for the given
 	 * {@code @RequestMapping} method initialized with argument resolvers.
@@ -261,9 +279,37 @@ class ControllerMethodResolver {
 		InvocableHandlerMethod invocable = new InvocableHandlerMethod(handlerMethod);
 		invocable.setArgumentResolvers(this.requestMappingResolvers);
 		invocable.setReactiveAdapterRegistry(this.reactiveAdapterRegistry);
+		if (this.generateInvokers) {
+			applyPreparedInvocation(invocable);
+		}
 		return invocable;
 	}
 
+	/**
+	 * Apply the argument resolvers and the generated invoker for the given
+	 * handler method, determining them on first invocation of the method.
+	 */
+	private void applyPreparedInvocation(InvocableHandlerMethod invocable) {
+		MethodClassKey cacheKey = new MethodClassKey(invocable.getMethod(), invocable.getBeanType());
+		PreparedInvocation invocation = this.preparedInvocationCache.computeIfAbsent(cacheKey, key -> {
+			MethodParameter[] parameters = invocable.getMethodParameters();
+			HandlerMethodArgumentResolver[] parameterResolvers = new HandlerMethodArgumentResolver[parameters.length];
+			for (int i = 0; i < parameters.length; i++) {
+				parameters[i].initParameterNameDiscovery(invocable.getParameterNameDiscoverer());
+				for (HandlerMethodArgumentResolver resolver : this.requestMappingResolvers) {
+					if (resolver.supportsParameter(parameters[i])) {
+						parameterResolvers[i] = resolver;
+						break;
+					}
+				}
+			}
+			return new PreparedInvocation(parameterResolvers,
+					HandlerMethodInvoker.forMethod(invocable.getBridgedMethod()));
+		});
+		invocable.setParameterArgumentResolvers(invocation.parameterResolvers);
+		invocable.setMethodInvoker(invocation.methodInvoker);
+	}
+
 	/**
 	 * Find {@code @InitBinder} methods in {@code @ControllerAdvice} components
 	 * or in the controller of the given {@code @RequestMapping} method.
@@ -386,4 +432,23 @@ class ControllerMethodResolver {
 		return result;
 	}
 
+
+	/**
+	 * Argument resolvers and generated invoker for a {@code @RequestMapping} method.
+	 */
+	private static class PreparedInvocation {
+
+		final HandlerMethodArgumentResolver[] parameterResolvers;
+
+		@Nullable
+		final HandlerMethodInvoker methodInvoker;
+
+		PreparedInvocation(HandlerMethodArgumentResolver[] parameterResolvers,
+				@Nullable HandlerMethodInvoker methodInvoker) {
+
+			this.parameterResolvers = parameterResolvers;
+			this.methodInvoker = methodInvoker;
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,6 +28,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.lang.Nullable;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.server.ResponseStatusException;
@@ -126,6 +127,77 @@ public class RouterFunctionsTests {
 				.verify();
 	}
 
+	@Test
+	public void optimize() {
+		HandlerFunction<ServerResponse> fooGet = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> fooPost = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> barGet = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> nestedGet = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> fallback = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.route()
+				.GET("/foo", fooGet)
+				.POST("/foo", fooPost)
+				.GET("/bar/{id}", barGet)
+				.nest(RequestPredicates.path("/nested"), builder -> builder.GET("/baz", nestedGet))
+				.GET("/{name}", fallback)
+				.build();
+		RouterFunction<ServerResponse> optimized = RouterFunctions.optimize(routerFunction);
+		assertThat(optimized).isNotSameAs(routerFunction);
+		assertThat(optimized.toString()).isEqualTo(routerFunction.toString());
+
+		assertThat(route(optimized, MockServerHttpRequest.get("/foo").build())).isSameAs(fooGet);
+		assertThat(route(optimized, MockServerHttpRequest.post("/foo").build())).isSameAs(fooPost);
+		assertThat(route(optimized, MockServerHttpRequest.get("/FOO").build())).isSameAs(fallback);
+		assertThat(route(optimized, MockServerHttpRequest.get("/bar/1").build())).isSameAs(barGet);
+		assertThat(route(optimized, MockServerHttpRequest.get("/nested/baz").build())).isSameAs(nestedGet);
+		assertThat(route(optimized, MockServerHttpRequest.get("/other").build())).isSameAs(fallback);
+		assertThat(route(optimized, MockServerHttpRequest.delete("/foo").build())).isNull();
+		assertThat(route(optimized, MockServerHttpRequest.post("/other").build())).isNull();
+		assertThat(route(optimized, MockServerHttpRequest.options("/foo")
+				.header(HttpHeaders.ORIGIN, "https://example.com")
+				.header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "POST")
+				.build())).isSameAs(fooPost);
+	}
+
+	@Test
+	public void optimizeWithFilterAndUnknownPredicate() {
+		HandlerFunction<ServerResponse> fooGet = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> custom = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.route()
+				.GET("/foo", fooGet)
+				.filter((request, next) -> ServerResponse.accepted().build())
+				.build()
+				.and(RouterFunctions.route(request -> request.path().endsWith("/custom"), custom));
+		RouterFunction<ServerResponse> optimized = RouterFunctions.optimize(routerFunction);
+
+		ServerRequest request = createRequest(MockServerHttpRequest.get("/foo").build());
+		HandlerFunction<ServerResponse> handlerFunction = optimized.route(request).block();
+		assertThat(handlerFunction).isNotNull();
+		StepVerifier.create(handlerFunction.handle(request))
+				.expectNextMatches(response -> response.statusCode() == HttpStatus.ACCEPTED)
+				.expectComplete()
+				.verify();
+		assertThat(route(optimized, MockServerHttpRequest.put("/foo/custom").build())).isSameAs(custom);
+	}
+
+	@Test
+	public void optimizeSingleRoute() {
+		RouterFunction<ServerResponse> routerFunction =
+				RouterFunctions.route(RequestPredicates.GET("/foo"), request -> ServerResponse.ok().build());
+		assertThat(RouterFunctions.optimize(routerFunction)).isSameAs(routerFunction);
+	}
+
+	@Nullable
+	private static HandlerFunction<?> route(RouterFunction<?> routerFunction, MockServerHttpRequest mockRequest) {
+		return routerFunction.route(createRequest(mockRequest)).block();
+	}
+
+	private static ServerRequest createRequest(MockServerHttpRequest mockRequest) {
+		return new DefaultServerRequest(MockServerWebExchange.from(mockRequest), Collections.emptyList());
+	}
+
 	@Test
 	public void toHttpHandlerNormal() {
 		HandlerFunction<ServerResponse> handlerFunction = request -> ServerResponse.accepted().build();
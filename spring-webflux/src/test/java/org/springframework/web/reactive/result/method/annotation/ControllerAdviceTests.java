@@ -126,6 +126,26 @@ public class ControllerAdviceTests {
 		assertThat(binder.getValidators()).isEqualTo(Collections.singletonList(validator));
 	}
 
+	@Test
+	public void modelAttributeAdviceWithGeneratedInvokers() throws Exception {
+		ApplicationContext context = new AnnotationConfigApplicationContext(TestConfig.class);
+		RequestMappingHandlerAdapter adapter = new RequestMappingHandlerAdapter();
+		adapter.setApplicationContext(context);
+		adapter.setGenerateInvokers(true);
+		adapter.afterPropertiesSet();
+		TestController controller = context.getBean(TestController.class);
+
+		for (int i = 0; i < 2; i++) {
+			Model model = handle(adapter, controller, "handle").getModel();
+			assertThat(model.asMap().get("attr1")).isEqualTo("lAttr1");
+			assertThat(model.asMap().get("attr2")).isEqualTo("gAttr2");
+		}
+
+		controller.setException(new IllegalStateException());
+		Object actual = handle(adapter, controller, "handle").getReturnValue();
+		assertThat(actual).isEqualTo("OneControllerAdvice: IllegalStateException");
+	}
+
 
 	private RequestMappingHandlerAdapter createAdapter(ApplicationContext context) throws Exception {
 		RequestMappingHandlerAdapter adapter = new RequestMappingHandlerAdapter();
@@ -163,7 +183,7 @@ public class ControllerAdviceTests {
 	}
 
 	@Controller
-	static class TestController {
+	public static class TestController {
 
 		private Validator validator;
 
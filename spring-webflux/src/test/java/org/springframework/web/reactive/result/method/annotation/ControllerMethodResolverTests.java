@@ -17,6 +17,7 @@
 package org.springframework.web.reactive.result.method.annotation;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -37,15 +38,19 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.reactive.BindingContext;
+import org.springframework.web.reactive.HandlerResult;
 import org.springframework.web.reactive.result.method.HandlerMethodArgumentResolver;
 import org.springframework.web.reactive.result.method.InvocableHandlerMethod;
 import org.springframework.web.reactive.result.method.SyncHandlerMethodArgumentResolver;
 import org.springframework.web.reactive.result.method.SyncInvocableHandlerMethod;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
 import org.springframework.web.testfixture.method.ResolvableMethod;
+import org.springframework.web.testfixture.server.MockServerWebExchange;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -232,6 +237,21 @@ public class ControllerMethodResolverTests {
 		assertThat(invocable.getBeanType()).isEqualTo(TestControllerAdvice.class);
 	}
 
+	@Test
+	public void requestMappingMethodWithGeneratedInvoker() {
+		this.methodResolver.setGenerateInvokers(true);
+		Method method = ResolvableMethod.on(InvokerController.class).mockCall(c -> c.handle(null)).method();
+		HandlerMethod handlerMethod = new HandlerMethod(new InvokerController(), method);
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/?name=value"));
+
+		for (int i = 0; i < 2; i++) {
+			InvocableHandlerMethod invocable = this.methodResolver.getRequestMappingMethod(handlerMethod);
+			HandlerResult result = invocable.invoke(exchange, new BindingContext()).block(Duration.ZERO);
+			assertThat(result).isNotNull();
+			assertThat(result.getReturnValue()).isEqualTo("value");
+		}
+	}
+
 
 	private static HandlerMethodArgumentResolver next(
 			List<? extends HandlerMethodArgumentResolver> resolvers, AtomicInteger index) {
@@ -258,6 +278,16 @@ public class ControllerMethodResolverTests {
 	}
 
 
+	@Controller
+	public static class InvokerController {
+
+		@GetMapping
+		public String handle(@RequestParam String name) {
+			return name;
+		}
+	}
+
+
 	@ControllerAdvice
 	static class TestControllerAdvice {
 
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.function;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+
+/**
+ * Implementation of {@link RouterFunctions.Visitor} that determines a necessary
+ * {@linkplain Condition condition} for a router function to match a request:
+ * the HTTP methods and the first literal path segment implied by its predicates.
+ * Predicates that cannot be analyzed (e.g. header predicates or custom predicates)
+ * do not contribute to the condition, i.e. they are assumed to match any request.
+ *
+ * @author agent (agent@local)
+ * @since 5.3.9
+ * @see RouterFunctions#optimize(RouterFunction)
+ */
+class RouteConditionVisitor implements RouterFunctions.Visitor, RequestPredicates.Visitor {
+
+	/** Conditions of the predicates being visited, for combining logical operators. */
+	private final Deque<Condition> predicateConditions = new ArrayDeque<>();
+
+	/** Conditions of the nested router functions being visited, as well as the top-level one. */
+	private final Deque<NestedCondition> nestedConditions = new ArrayDeque<>();
+
+
+	private RouteConditionVisitor() {
+		this.nestedConditions.push(new NestedCondition(Condition.ANY));
+	}
+
+
+	/**
+	 * Determine the condition that the given router function implies for any
+	 * request that it matches.
+	 * @param routerFunction the router function to analyze
+	 * @return the necessary condition for the router function to match
+	 */
+	public static Condition determineCondition(RouterFunction<?> routerFunction) {
+		RouteConditionVisitor visitor = new RouteConditionVisitor();
+		routerFunction.accept(visitor);
+		Condition condition = visitor.nestedConditions.pop().routesCondition;
+		return (condition != null ? condition : Condition.ANY);
+	}
+
+
+	// RouterFunctions.Visitor
+
+	@Override
+	public void startNested(RequestPredicate predicate) {
+		this.nestedConditions.push(new NestedCondition(determineCondition(predicate)));
+	}
+
+	@Override
+	public void endNested(RequestPredicate predicate) {
+		NestedCondition nested = this.nestedConditions.pop();
+		// Nested routes are relative to the nested path: only consider their methods
+		Condition routesCondition = (nested.routesCondition != null ?
+				new Condition(nested.routesCondition.methods, null) : Condition.ANY);
+		addRouteCondition(nested.predicateCondition.and(routesCondition));
+	}
+
+	@Override
+	public void route(RequestPredicate predicate, HandlerFunction<?> handlerFunction) {
+		addRouteCondition(determineCondition(predicate));
+	}
+
+	@Override
+	public void resources(Function<ServerRequest, Optional<Resource>> lookupFunction) {
+		addRouteCondition(Condition.ANY);
+	}
+
+	@Override
+	public void attributes(Map<String, Object> attributes) {
+	}
+
+	@Override
+	public void unknown(RouterFunction<?> routerFunction) {
+		addRouteCondition(Condition.ANY);
+	}
+
+	private Condition determineCondition(RequestPredicate predicate) {
+		predicate.accept(this);
+		Condition condition = this.predicateConditions.pop();
+		return (this.nestedConditions.size() == 1 ? condition : new Condition(condition.methods, null));
+	}
+
+	private void addRouteCondition(Condition condition) {
+		NestedCondition current = this.nestedConditions.element();
+		current.routesCondition = (current.routesCondition != null ?
+				current.routesCondition.or(condition) : condition);
+	}
+
+
+	// RequestPredicates.Visitor
+
+	@Override
+	public void method(Set<HttpMethod> methods) {
+		this.predicateConditions.push(new Condition(EnumSet.copyOf(methods), null));
+	}
+
+	@Override
+	public void path(String pattern) {
+		this.predicateConditions.push(new Condition(null, Condition.firstPathSegment(pattern)));
+	}
+
+	@Override
+	public void pathExtension(String extension) {
+		this.predicateConditions.push(Condition.ANY);
+	}
+
+	@Override
+	public void header(String name, String value) {
+		this.predicateConditions.push(Condition.ANY);
+	}
+
+	@Override
+	public void param(String name, String value) {
+		this.predicateConditions.push(Condition.ANY);
+	}
+
+	@Override
+	public void startAnd() {
+	}
+
+	@Override
+	public void and() {
+	}
+
+	@Override
+	public void endAnd() {
+		Condition right = this.predicateConditions.pop();
+		Condition left = this.predicateConditions.pop();
+		this.predicateConditions.push(left.and(right));
+	}
+
+	@Override
+	public void startOr() {
+	}
+
+	@Override
+	public void or() {
+	}
+
+	@Override
+	public void endOr() {
+		Condition right = this.predicateConditions.pop();
+		Condition left = this.predicateConditions.pop();
+		this.predicateConditions.push(left.or(right));
+	}
+
+	@Override
+	public void startNegate() {
+	}
+
+	@Override
+	public void endNegate() {
+		this.predicateConditions.pop();
+		this.predicateConditions.push(Condition.ANY);
+	}
+
+	@Override
+	public void unknown(RequestPredicate predicate) {
+		this.predicateConditions.push(Condition.ANY);
+	}
+
+
+	/**
+	 * Necessary condition for a route to match a request.
+	 */
+	static final class Condition {
+
+		static final Condition ANY = new Condition(null, null);
+
+		@Nullable
+		private final Set<HttpMethod> methods;
+
+		@Nullable
+		private final String pathSegment;
+
+		Condition(@Nullable Set<HttpMethod> methods, @Nullable String pathSegment) {
+			this.methods = methods;
+			this.pathSegment = pathSegment;
+		}
+
+		/**
+		 * Return the HTTP methods that a request needs to match,
+		 * or {@code null} for any method.
+		 */
+		@Nullable
+		public Set<HttpMethod> getMethods() {
+			return this.methods;
+		}
+
+		/**
+		 * Return the first path segment (lower case) that a request path needs
+		 * to match in a case-insensitive manner, or {@code null} for any path.
+		 */
+		@Nullable
+		public String getPathSegment() {
+			return this.pathSegment;
+		}
+
+		Condition and(Condition other) {
+			Set<HttpMethod> methods = this.methods;
+			if (methods == null) {
+				methods = other.methods;
+			}
+			else if (other.methods != null) {
+				methods = EnumSet.copyOf(methods);
+				methods.retainAll(other.methods);
+			}
+			return new Condition(methods, (this.pathSegment != null ? this.pathSegment : other.pathSegment));
+		}
+
+		Condition or(Condition other) {
+			Set<HttpMethod> methods = null;
+			if (this.methods != null && other.methods != null) {
+				methods = EnumSet.copyOf(this.methods);
+				methods.addAll(other.methods);
+			}
+			String pathSegment = (this.pathSegment != null && this.pathSegment.equals(other.pathSegment) ?
+					this.pathSegment : null);
+			return new Condition(methods, pathSegment);
+		}
+
+		/**
+		 * Determine the first path segment of the given pattern,
+		 * if it starts with a separator followed by a literal segment.
+		 */
+		@Nullable
+		static String firstPathSegment(String pattern) {
+			if (!pattern.startsWith("/")) {
+				return null;
+			}
+			int end = pattern.indexOf('/', 1);
+			String segment = (end != -1 ? pattern.substring(1, end) : pattern.substring(1));
+			for (int i = 0; i < segment.length(); i++) {
+				char c = segment.charAt(i);
+				if (c == '{' || c == '}' || c == '*' || c == '?') {
+					return null;
+				}
+			}
+			return (!segment.isEmpty() ? toLowerCase(segment) : null);
+		}
+
+		/**
+		 * Lower-case the given path segment per character, in line with
+		 * case-insensitive {@link org.springframework.web.util.pattern.PathPattern} matching.
+		 */
+		static String toLowerCase(String segment) {
+			for (int i = 0; i < segment.length(); i++) {
+				if (Character.toLowerCase(segment.charAt(i)) != segment.charAt(i)) {
+					char[] chars = segment.toCharArray();
+					for (int j = i; j < chars.length; j++) {
+						chars[j] = Character.toLowerCase(chars[j]);
+					}
+					return new String(chars);
+				}
+			}
+			return segment;
+		}
+	}
+
+
+	private static final class NestedCondition {
+
+		final Condition predicateCondition;
+
+		@Nullable
+		Condition routesCondition;
+
+		NestedCondition(Condition predicateCondition) {
+			this.predicateCondition = predicateCondition;
+		}
+	}
+
+}
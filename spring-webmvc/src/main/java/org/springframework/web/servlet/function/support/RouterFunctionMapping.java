@@ -68,6 +68,9 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 	@Nullable
 	private RouterFunction<?> routerFunction;
 
+	@Nullable
+	private RouterFunction<?> optimizedRouterFunction;
+
 	private List<HttpMessageConverter<?>> messageConverters = Collections.emptyList();
 
 	private boolean detectHandlerFunctionsInAncestorContexts = false;
@@ -97,6 +100,7 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 	 */
 	public void setRouterFunction(@Nullable RouterFunction<?> routerFunction) {
 		this.routerFunction = routerFunction;
+		this.optimizedRouterFunction = null;
 	}
 
 	/**
@@ -147,6 +151,7 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 				setPatternParser(patternParser);
 			}
 			RouterFunctions.changeParser(this.routerFunction, patternParser);
+			this.optimizedRouterFunction = RouterFunctions.optimize(this.routerFunction);
 		}
 	}
 
@@ -213,9 +218,11 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 	@Override
 	@Nullable
 	protected Object getHandlerInternal(HttpServletRequest servletRequest) throws Exception {
-		if (this.routerFunction != null) {
+		RouterFunction<?> routerFunction =
+				(this.optimizedRouterFunction != null ? this.optimizedRouterFunction : this.routerFunction);
+		if (routerFunction != null) {
 			ServerRequest request = ServerRequest.create(servletRequest, this.messageConverters);
-			HandlerFunction<?> handlerFunction = this.routerFunction.route(request).orElse(null);
+			HandlerFunction<?> handlerFunction = routerFunction.route(request).orElse(null);
 			setAttributes(servletRequest, request, handlerFunction);
 			return handlerFunction;
 		}
@@ -48,6 +48,9 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsUtils;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternIndex;
 import org.springframework.web.util.pattern.PathPatternParser;
 
 /**
@@ -399,7 +402,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			addMatchingMappings(directPathMatches, matches, request);
 		}
 		if (matches.isEmpty()) {
-			addMatchingMappings(this.mappingRegistry.getRegistrations().keySet(), matches, request);
+			addMatchingMappings(this.mappingRegistry.getMappingsByPathPattern(request), matches, request);
 		}
 		if (!matches.isEmpty()) {
 			Match bestMatch = matches.get(0);
@@ -539,6 +542,20 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		return urls;
 	}
 
+	/**
+	 * Return the parsed path patterns of the given mapping, if any, for narrowing
+	 * down the mappings to check for a request by their leading literal segments.
+	 * <p>The default implementation returns an empty set, in which case the mapping
+	 * is checked for any request without a match by direct path. Implementations
+	 * must return all path patterns that {@link #getMatchingMapping} requires
+	 * a request to match, or an empty set if the mapping may match otherwise.
+	 * @since 5.3.9
+	 * @see PathPatternIndex
+	 */
+	protected Set<PathPattern> getPathPatterns(T mapping) {
+		return Collections.emptySet();
+	}
+
 	/**
 	 * Check if a mapping matches the current request and return a (potentially
 	 * new) mapping with conditions relevant to the current request.
@@ -569,6 +586,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final MultiValueMap<String, T> pathLookup = new LinkedMultiValueMap<>();
 
+		private final PathPatternIndex<T> patternLookup = new PathPatternIndex<>();
+
 		private final Map<String, List<HandlerMethod>> nameLookup = new ConcurrentHashMap<>();
 
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
@@ -592,6 +611,21 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.pathLookup.get(urlPath);
 		}
 
+		/**
+		 * Return the mappings to check for the given request, narrowed down by
+		 * the leading literal segments of their path patterns if the request path
+		 * has been parsed, or all mappings otherwise. Not thread-safe.
+		 * @since 5.3.9
+		 * @see #acquireReadLock()
+		 */
+		public Collection<T> getMappingsByPathPattern(HttpServletRequest request) {
+			if (ServletRequestPathUtils.hasParsedRequestPath(request)) {
+				return this.patternLookup.getCandidates(
+						ServletRequestPathUtils.getParsedRequestPath(request).pathWithinApplication());
+			}
+			return this.registry.keySet();
+		}
+
 		/**
 		 * Return handler methods by mapping name. Thread-safe for concurrent use.
 		 */
@@ -632,6 +666,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				for (String path : directPaths) {
 					this.pathLookup.add(path, mapping);
 				}
+				this.patternLookup.add(mapping, AbstractHandlerMethodMapping.this.getPathPatterns(mapping));
 
 				String name = null;
 				if (getNamingStrategy() != null) {
@@ -699,6 +734,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 						}
 					}
 				}
+				this.patternLookup.remove(registration.getMapping());
 
 				removeMappingName(registration);
 
@@ -16,6 +16,7 @@
 
 package org.springframework.web.servlet.mvc.method.annotation;
 
+import java.io.InputStream;
 import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
@@ -52,7 +53,9 @@ import org.springframework.web.multipart.support.RequestPartServletServerHttpReq
  * <p>When a parameter is annotated with {@code @RequestPart}, the content of the part is
  * passed through an {@link HttpMessageConverter} to resolve the method argument with the
  * 'Content-Type' of the request part in mind. This is analogous to what @{@link RequestBody}
- * does to resolve an argument based on the content of a regular request.
+ * does to resolve an argument based on the content of a regular request. An argument of
+ * type {@link InputStream} exposes the raw content of the request part instead, possibly
+ * streamed while it is still arriving, depending on the {@link MultipartResolver}.
  *
  * <p>When a parameter is not annotated with {@code @RequestPart} or the name of
  * the part is not specified, the request part's name is derived from the name of
@@ -132,6 +135,16 @@ public class RequestPartMethodArgumentResolver extends AbstractMessageConverterM
 		if (mpArg != MultipartResolutionDelegate.UNRESOLVABLE) {
 			arg = mpArg;
 		}
+		else if (InputStream.class == parameter.getNestedParameterType()) {
+			try {
+				arg = new RequestPartServletServerHttpRequest(servletRequest, name).getBody();
+			}
+			catch (MissingServletRequestPartException | MultipartException ex) {
+				if (isRequired) {
+					throw ex;
+				}
+			}
+		}
 		else {
 			try {
 				HttpInputMessage inputMessage = new RequestPartServletServerHttpRequest(servletRequest, name);
@@ -16,6 +16,7 @@
 
 package org.springframework.web.servlet.resource;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
@@ -27,6 +28,8 @@ import java.util.Locale;
 import java.util.Map;
 
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequestWrapper;
+import javax.servlet.ServletResponseWrapper;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -38,6 +41,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.EmbeddedValueResolverAware;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRange;
@@ -103,6 +107,14 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 
 	private static final String URL_RESOURCE_CHARSET_PREFIX = "[charset=";
 
+	private static final String TOMCAT_SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+	private static final String TOMCAT_SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+
+	private static final String TOMCAT_SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+
+	private static final String TOMCAT_SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
 
 	private final List<String> locationValues = new ArrayList<>(4);
 
@@ -144,6 +156,8 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 
 	private boolean useLastModified = true;
 
+	private long sendfileThreshold = 48 * 1024;
+
 
 	public ResourceHttpRequestHandler() {
 		super(HttpMethod.GET.name(), HttpMethod.HEAD.name());
@@ -384,6 +398,33 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		this.useLastModified = useLastModified;
 	}
 
+	/**
+	 * Set the minimum content length for file system resources to be sent
+	 * through the servlet container's sendfile support, if available, as
+	 * opposed to copying their content through the servlet output stream.
+	 * <p>Sendfile transfers the file content from the file system to the
+	 * socket without copying it into the heap, for entire resources as well
+	 * as for single-range requests. It is currently supported on Tomcat with
+	 * an NIO-based connector, for unwrapped requests and responses only.
+	 * <p>Default is 48 KB, in line with Tomcat's own {@code DefaultServlet}.
+	 * Set this to -1 in order to never use sendfile.
+	 * @param sendfileThreshold the minimum content length in bytes
+	 * @since 5.3.9
+	 * @see #sendfile
+	 */
+	public void setSendfileThreshold(long sendfileThreshold) {
+		this.sendfileThreshold = sendfileThreshold;
+	}
+
+	/**
+	 * Return the minimum content length for file system resources to be sent
+	 * through the servlet container's sendfile support.
+	 * @since 5.3.9
+	 */
+	public long getSendfileThreshold() {
+		return this.sendfileThreshold;
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		resolveResourceLocations();
@@ -550,7 +591,15 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 
 		// Content phase
 		ServletServerHttpResponse outputMessage = new ServletServerHttpResponse(response);
+		File file = getSendfileCandidate(request, response, resource);
 		if (request.getHeader(HttpHeaders.RANGE) == null) {
+			if (file != null) {
+				long length = file.length();
+				if (sendfile(request, response, file, 0, length)) {
+					response.setContentLengthLong(length);
+					return;
+				}
+			}
 			Assert.state(this.resourceHttpMessageConverter != null, "Not initialized");
 			this.resourceHttpMessageConverter.write(resource, mediaType, outputMessage);
 		}
@@ -560,8 +609,19 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 			try {
 				List<HttpRange> httpRanges = inputMessage.getHeaders().getRange();
 				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
-				this.resourceRegionHttpMessageConverter.write(
-						HttpRange.toResourceRegions(httpRanges, resource), mediaType, outputMessage);
+				List<ResourceRegion> regions = HttpRange.toResourceRegions(httpRanges, resource);
+				if (file != null && regions.size() == 1) {
+					ResourceRegion region = regions.get(0);
+					long start = region.getPosition();
+					long end = start + region.getCount();
+					if (sendfile(request, response, file, start, end)) {
+						response.setHeader(HttpHeaders.CONTENT_RANGE,
+								"bytes " + start + '-' + (end - 1) + '/' + file.length());
+						response.setContentLengthLong(region.getCount());
+						return;
+					}
+				}
+				this.resourceRegionHttpMessageConverter.write(regions, mediaType, outputMessage);
 			}
 			catch (IllegalArgumentException ex) {
 				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + resource.contentLength());
@@ -570,6 +630,57 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		}
 	}
 
+	/**
+	 * Determine the file to send through the servlet container's sendfile
+	 * support for the given resource, if applicable.
+	 * @return the file, or {@code null} if the resource content needs to be
+	 * written through the regular message converters
+	 */
+	@Nullable
+	private File getSendfileCandidate(HttpServletRequest request, HttpServletResponse response, Resource resource) {
+		if (this.sendfileThreshold < 0 || !HttpMethod.GET.matches(request.getMethod()) ||
+				request instanceof ServletRequestWrapper || response instanceof ServletResponseWrapper ||
+				!resource.isFile()) {
+			return null;
+		}
+		try {
+			File file = resource.getFile();
+			return (file.length() >= this.sendfileThreshold ? file : null);
+		}
+		catch (IOException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Hand the given section of the given file over to the servlet container's
+	 * sendfile support, for the container to transfer it straight from the file
+	 * system to the socket (typically via {@link java.nio.channels.FileChannel#transferTo})
+	 * once the response has been committed.
+	 * <p>The default implementation supports Tomcat's sendfile request attributes,
+	 * if sendfile is enabled for the current connector. The caller sets the
+	 * content length (and the content range, if applicable) for the given section
+	 * if this method returns {@code true}, without writing any content itself.
+	 * @param request current servlet request
+	 * @param response current servlet response
+	 * @param file the file to send
+	 * @param start the position of the first byte to send
+	 * @param end the position after the last byte to send
+	 * @return {@code true} if the container is going to send the file content,
+	 * or {@code false} to write the content through the servlet output stream
+	 * @since 5.3.9
+	 * @see #setSendfileThreshold
+	 */
+	protected boolean sendfile(HttpServletRequest request, HttpServletResponse response, File file, long start, long end) {
+		if (!Boolean.TRUE.equals(request.getAttribute(TOMCAT_SENDFILE_SUPPORT_ATTRIBUTE))) {
+			return false;
+		}
+		request.setAttribute(TOMCAT_SENDFILE_FILENAME_ATTRIBUTE, file.getAbsolutePath());
+		request.setAttribute(TOMCAT_SENDFILE_START_ATTRIBUTE, start);
+		request.setAttribute(TOMCAT_SENDFILE_END_ATTRIBUTE, end);
+		return true;
+	}
+
 	@Nullable
 	protected Resource getResource(HttpServletRequest request) throws IOException {
 		String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
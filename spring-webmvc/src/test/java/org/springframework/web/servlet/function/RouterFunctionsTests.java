@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,9 @@ import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
 import org.springframework.web.servlet.handler.PathPatternsTestUtils;
 import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
 
@@ -114,4 +117,71 @@ public class RouterFunctionsTests {
 		assertThat(resultHandlerFunction.get()).isEqualTo(handlerFunction);
 	}
 
+	@Test
+	public void optimize() {
+		HandlerFunction<ServerResponse> fooGet = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> fooPost = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> barGet = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> nestedGet = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> fallback = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.route()
+				.GET("/foo", fooGet)
+				.POST("/foo", fooPost)
+				.GET("/bar/{id}", barGet)
+				.nest(RequestPredicates.path("/nested"), builder -> builder.GET("/baz", nestedGet))
+				.GET("/{name}", fallback)
+				.build();
+		RouterFunction<ServerResponse> optimized = RouterFunctions.optimize(routerFunction);
+		assertThat(optimized).isNotSameAs(routerFunction);
+		assertThat(optimized.toString()).isEqualTo(routerFunction.toString());
+
+		assertThat(route(optimized, PathPatternsTestUtils.initRequest("GET", "/foo", true))).isSameAs(fooGet);
+		assertThat(route(optimized, PathPatternsTestUtils.initRequest("POST", "/foo", true))).isSameAs(fooPost);
+		assertThat(route(optimized, PathPatternsTestUtils.initRequest("GET", "/FOO", true))).isSameAs(fallback);
+		assertThat(route(optimized, PathPatternsTestUtils.initRequest("GET", "/bar/1", true))).isSameAs(barGet);
+		assertThat(route(optimized, PathPatternsTestUtils.initRequest("GET", "/nested/baz", true))).isSameAs(nestedGet);
+		assertThat(route(optimized, PathPatternsTestUtils.initRequest("GET", "/other", true))).isSameAs(fallback);
+		assertThat(route(optimized, PathPatternsTestUtils.initRequest("DELETE", "/foo", true))).isNull();
+		assertThat(route(optimized, PathPatternsTestUtils.initRequest("POST", "/other", true))).isNull();
+
+		MockHttpServletRequest preFlightRequest = PathPatternsTestUtils.initRequest("OPTIONS", "/foo", true);
+		preFlightRequest.addHeader(HttpHeaders.ORIGIN, "https://example.com");
+		preFlightRequest.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "POST");
+		assertThat(route(optimized, preFlightRequest)).isSameAs(fooPost);
+	}
+
+	@Test
+	public void optimizeWithFilterAndUnknownPredicate() throws Exception {
+		HandlerFunction<ServerResponse> fooGet = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> custom = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.route()
+				.GET("/foo", fooGet)
+				.filter((request, next) -> ServerResponse.accepted().build())
+				.build()
+				.and(RouterFunctions.route(request -> request.path().endsWith("/custom"), custom));
+		RouterFunction<ServerResponse> optimized = RouterFunctions.optimize(routerFunction);
+
+		ServerRequest request = new DefaultServerRequest(
+				PathPatternsTestUtils.initRequest("GET", "/foo", true), Collections.emptyList());
+		Optional<HandlerFunction<ServerResponse>> handlerFunction = optimized.route(request);
+		assertThat(handlerFunction.isPresent()).isTrue();
+		assertThat(handlerFunction.get().handle(request).statusCode()).isEqualTo(HttpStatus.ACCEPTED);
+		assertThat(route(optimized, PathPatternsTestUtils.initRequest("PUT", "/foo/custom", true))).isSameAs(custom);
+	}
+
+	@Test
+	public void optimizeSingleRoute() {
+		RouterFunction<ServerResponse> routerFunction =
+				RouterFunctions.route(RequestPredicates.GET("/foo"), request -> ServerResponse.ok().build());
+		assertThat(RouterFunctions.optimize(routerFunction)).isSameAs(routerFunction);
+	}
+
+	@Nullable
+	private static HandlerFunction<?> route(RouterFunction<?> routerFunction, MockHttpServletRequest servletRequest) {
+		ServerRequest request = new DefaultServerRequest(servletRequest, Collections.emptyList());
+		return routerFunction.route(request).orElse(null);
+	}
+
 }
@@ -45,6 +45,7 @@ import org.springframework.lang.Nullable;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.SessionAttributes;
 import org.springframework.web.context.support.StaticWebApplicationContext;
 import org.springframework.web.method.HandlerMethod;
@@ -272,6 +273,21 @@ public class RequestMappingHandlerAdapterTests {
 		assertThat(this.response.getContentAsString()).isEqualTo("{\"status\":400,\"message\":\"body\"}");
 	}
 
+	@Test
+	public void handleWithGeneratedInvokers() throws Exception {
+		this.handlerAdapter.setGenerateInvokers(true);
+		this.handlerAdapter.afterPropertiesSet();
+		this.request.setParameter("name", "value");
+
+		HandlerMethod handlerMethod = handlerMethod(new InvokerController(), "handle", String.class, Model.class);
+		for (int i = 0; i < 2; i++) {
+			ModelAndView mav = this.handlerAdapter.handle(this.request, this.response, handlerMethod);
+			assertThat(mav.getViewName()).isEqualTo("view");
+			assertThat(mav.getModel().get("name")).isEqualTo("value");
+		}
+	}
+
+
 	private HandlerMethod handlerMethod(Object handler, String methodName, Class<?>... paramTypes) throws Exception {
 		Method method = handler.getClass().getDeclaredMethod(methodName, paramTypes);
 		return new InvocableHandlerMethod(handler, method);
@@ -317,6 +333,15 @@ public class RequestMappingHandlerAdapterTests {
 	}
 
 
+	public static class InvokerController {
+
+		public String handle(@RequestParam String name, Model model) {
+			model.addAttribute("name", name);
+			return "view";
+		}
+	}
+
+
 	@SuppressWarnings("unused")
 	private static class RedirectAttributeController {
 
@@ -16,6 +16,7 @@
 
 package org.springframework.web.servlet.mvc.method.annotation;
 
+import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
@@ -39,6 +40,7 @@ import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.lang.Nullable;
 import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StreamUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -329,6 +331,18 @@ public class RequestPartMethodArgumentResolverTests {
 		assertThat(actualValue).isEqualTo("part value");
 	}
 
+	@Test
+	public void resolveRequestPartInputStream() throws Exception {
+		MethodParameter parameter = ResolvableMethod.on(getClass()).named("handle").build().arg(InputStream.class);
+		assertThat(resolver.supportsParameter(parameter)).isTrue();
+
+		Object actualValue = resolver.resolveArgument(parameter, null, webRequest, null);
+
+		assertThat(actualValue).isInstanceOf(InputStream.class);
+		assertThat(StreamUtils.copyToString((InputStream) actualValue, StandardCharsets.UTF_8))
+				.isEqualTo("doesn't matter as long as not empty");
+	}
+
 	@Test
 	public void isMultipartRequest() throws Exception {
 		MockHttpServletRequest request = new MockHttpServletRequest();
@@ -625,7 +639,8 @@ public class RequestPartMethodArgumentResolverTests {
 			Optional<Part> optionalPart,
 			@RequestPart("requestPart") Optional<List<Part>> optionalPartList,
 			@RequestPart("requestPart") Optional<SimpleBean> optionalRequestPart,
-			@RequestPart("requestPartString") String requestPartString) {
+			@RequestPart("requestPartString") String requestPartString,
+			@RequestPart("requestPart") InputStream requestPartInputStream) {
 	}
 
 }
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.socket.messaging;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Benchmark for the path from a {@link SimpleBrokerMessageHandler} broadcast
+ * through {@link StompSubProtocolHandler} to WebSocket sessions, with the
+ * common part of the STOMP frame encoded once per broadcast compared to
+ * encoding the full frame for every subscriber.
+ *
+ * @author agent (agent@local)
+ */
+@BenchmarkMode(Mode.Throughput)
+public class StompBrokerBroadcastBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BroadcastState {
+
+		@Param({"10", "1000"})
+		public int sessions;
+
+		@Param({"128", "4096"})
+		public int payloadSize;
+
+		@Param({"true", "false"})
+		public boolean sharedEncoding;
+
+		public SimpleBrokerMessageHandler broker;
+
+		public Message<byte[]> message;
+
+		public long bytesSent;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			StompSubProtocolHandler protocolHandler = new StompSubProtocolHandler();
+			if (!this.sharedEncoding) {
+				protocolHandler.setEncoder(new StompEncoder() {
+					@Override
+					public byte[] encodeBroadcast(Message<byte[]> message) {
+						return null;
+					}
+				});
+			}
+
+			Map<String, WebSocketSession> webSocketSessions = new HashMap<>();
+			MessageChannel clientOutboundChannel = (message, timeout) -> {
+				String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+				protocolHandler.handleMessageToClient(webSocketSessions.get(sessionId), message);
+				return true;
+			};
+			this.broker = new SimpleBrokerMessageHandler(new ExecutorSubscribableChannel(),
+					clientOutboundChannel, new ExecutorSubscribableChannel(), Collections.singletonList("/topic"));
+			this.broker.start();
+
+			for (int i = 0; i < this.sessions; i++) {
+				String sessionId = "session" + i;
+				webSocketSessions.put(sessionId, new CountingWebSocketSession(sessionId, this));
+				SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+				connect.setSessionId(sessionId);
+				this.broker.handleMessage(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+				SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+				subscribe.setSessionId(sessionId);
+				subscribe.setSubscriptionId("sub0");
+				subscribe.setDestination("/topic/prices");
+				this.broker.handleMessage(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+			}
+
+			StompHeaderAccessor send = StompHeaderAccessor.create(StompCommand.SEND);
+			send.setSessionId("publisher");
+			send.setDestination("/topic/prices");
+			send.setContentType(MimeTypeUtils.APPLICATION_JSON);
+			send.addNativeHeader("priority", "9");
+			byte[] payload = new byte[this.payloadSize];
+			Arrays.fill(payload, (byte) 'a');
+			this.message = MessageBuilder.createMessage(payload, send.getMessageHeaders());
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			this.broker.stop();
+		}
+	}
+
+
+	@Benchmark
+	public long broadcast(BroadcastState state) {
+		state.broker.handleMessage(state.message);
+		return state.bytesSent;
+	}
+
+
+	/**
+	 * Session that only counts the bytes of the messages sent to it.
+	 */
+	private static class CountingWebSocketSession implements WebSocketSession {
+
+		private final String id;
+
+		private final BroadcastState state;
+
+		private final Map<String, Object> attributes = new HashMap<>();
+
+		CountingWebSocketSession(String id, BroadcastState state) {
+			this.id = id;
+			this.state = state;
+		}
+
+		@Override
+		public String getId() {
+			return this.id;
+		}
+
+		@Override
+		public URI getUri() {
+			return null;
+		}
+
+		@Override
+		public HttpHeaders getHandshakeHeaders() {
+			return HttpHeaders.EMPTY;
+		}
+
+		@Override
+		public Map<String, Object> getAttributes() {
+			return this.attributes;
+		}
+
+		@Override
+		public Principal getPrincipal() {
+			return null;
+		}
+
+		@Override
+		public InetSocketAddress getLocalAddress() {
+			return null;
+		}
+
+		@Override
+		public InetSocketAddress getRemoteAddress() {
+			return null;
+		}
+
+		@Override
+		public String getAcceptedProtocol() {
+			return "v12.stomp";
+		}
+
+		@Override
+		public void setTextMessageSizeLimit(int messageSizeLimit) {
+		}
+
+		@Override
+		public int getTextMessageSizeLimit() {
+			return Integer.MAX_VALUE;
+		}
+
+		@Override
+		public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+		}
+
+		@Override
+		public int getBinaryMessageSizeLimit() {
+			return Integer.MAX_VALUE;
+		}
+
+		@Override
+		public List<WebSocketExtension> getExtensions() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public void sendMessage(WebSocketMessage<?> message) {
+			this.state.bytesSent += message.getPayloadLength();
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public void close(CloseStatus status) {
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -156,6 +156,16 @@ public class WebSocketMessageBrokerStats {
 		return (this.webSocketHandler != null ? this.webSocketHandler.getStatsInfo() : "null");
 	}
 
+	/**
+	 * Get stats about the send buffers of WebSocket sessions, i.e. messages
+	 * queued for clients that do not keep up.
+	 * @since 5.3.9
+	 * @see SubProtocolWebSocketHandler#getSendBufferStats()
+	 */
+	public String getWebSocketSendBufferStatsInfo() {
+		return (this.webSocketHandler != null ? this.webSocketHandler.getSendBufferStatsInfo() : "null");
+	}
+
 	/**
 	 * Get stats about STOMP-related WebSocket message processing.
 	 */
@@ -212,6 +222,7 @@ public class WebSocketMessageBrokerStats {
 	@Override
 	public String toString() {
 		return "WebSocketSession[" + getWebSocketSessionStatsInfo() + "]" +
+				", sendBuffer[" + getWebSocketSendBufferStatsInfo() + "]" +
 				", stompSubProtocol[" + getStompSubProtocolStatsInfo() + "]" +
 				", stompBrokerRelay[" + getStompBrokerRelayStatsInfo() + "]" +
 				", inboundChannel[" + getClientInboundExecutorStatsInfo() + "]" +
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -40,9 +40,15 @@ public class WebSocketTransportRegistration {
 	@Nullable
 	private Integer sendBufferSizeLimit;
 
+	@Nullable
+	private Integer sendBatchSizeLimit;
+
 	@Nullable
 	private Integer timeToFirstMessage;
 
+	@Nullable
+	private String[] conflatedDestinations;
+
 	private final List<WebSocketHandlerDecoratorFactory> decoratorFactories = new ArrayList<>(2);
 
 
@@ -146,6 +152,52 @@ public class WebSocketTransportRegistration {
 		return this.sendBufferSizeLimit;
 	}
 
+	/**
+	 * Configure the maximum amount of buffered data to send together when
+	 * sending messages to a WebSocket session is slower than the rate of
+	 * messages, combining STOMP frames into a single WebSocket message or, when
+	 * SockJS fallback options are in use, into a single SockJS message frame.
+	 * <p>Only applies to STOMP sessions; messages of other sub-protocols are
+	 * always sent one by one. By default this is not set, i.e. buffered
+	 * messages are sent one by one.
+	 * @param sendBatchSizeLimit the number of bytes after which to start a new batch
+	 * @since 5.3.9
+	 */
+	public WebSocketTransportRegistration setSendBatchSizeLimit(int sendBatchSizeLimit) {
+		this.sendBatchSizeLimit = sendBatchSizeLimit;
+		return this;
+	}
+
+	/**
+	 * Protected accessor for internal use.
+	 */
+	@Nullable
+	protected Integer getSendBatchSizeLimit() {
+		return this.sendBatchSizeLimit;
+	}
+
+	/**
+	 * Configure destination patterns for which only the latest message needs
+	 * to be delivered, e.g. price updates. When sending to a WebSocket session
+	 * is slower than the rate of messages, a message to such a destination
+	 * supersedes any message for the same subscription that is still buffered.
+	 * <p>By default this is not set, i.e. all messages are delivered.
+	 * @param destinationPatterns Ant-style destination patterns
+	 * @since 5.3.9
+	 */
+	public WebSocketTransportRegistration setConflatedDestinations(String... destinationPatterns) {
+		this.conflatedDestinations = destinationPatterns;
+		return this;
+	}
+
+	/**
+	 * Protected accessor for internal use.
+	 */
+	@Nullable
+	protected String[] getConflatedDestinations() {
+		return this.conflatedDestinations;
+	}
+
 	/**
 	 * Set the maximum time allowed in milliseconds after the WebSocket connection
 	 * is established and before the first sub-protocol message is received.
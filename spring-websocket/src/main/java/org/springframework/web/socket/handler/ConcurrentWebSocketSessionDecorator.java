@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,8 +17,14 @@
 package org.springframework.web.socket.handler;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -28,9 +34,12 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.lang.Nullable;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
 
 /**
  * Wrap a {@link org.springframework.web.socket.WebSocketSession WebSocketSession}
@@ -41,6 +50,10 @@ import org.springframework.web.socket.WebSocketSession;
  * At that time, the specified buffer-size limit and send-time limit will be checked
  * and the session will be closed if the limits are exceeded.
  *
+ * <p>Optionally, messages that have been buffered can be sent in batches, see
+ * {@link #setBatchSizeLimit}, and messages can supersede buffered messages that
+ * have not been sent yet, see {@link #sendMessage(WebSocketMessage, Object)}.
+ *
  * @author Rossen Stoyanchev
  * @author Juergen Hoeller
  * @since 4.0.3
@@ -59,13 +72,25 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 	@Nullable
 	private Consumer<WebSocketMessage<?>> preSendCallback;
 
+	private int batchSizeLimit;
+
 
 	private final Queue<WebSocketMessage<?>> buffer = new LinkedBlockingQueue<>();
 
 	private final AtomicInteger bufferSize = new AtomicInteger();
 
+	private final AtomicInteger bufferedMessageCount = new AtomicInteger();
+
+	private final Map<Object, ConflatedMessage> conflatedMessages = new ConcurrentHashMap<>();
+
+	private final AtomicInteger supersededMessageCount = new AtomicInteger();
+
 	private volatile long sendStartTime;
 
+	private volatile long lastFlushTime;
+
+	private volatile long maxFlushTime;
+
 	private volatile boolean limitExceeded;
 
 	private volatile boolean closeInProgress;
@@ -120,6 +145,31 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		return this.bufferSizeLimit;
 	}
 
+	/**
+	 * Set the maximum number of bytes of buffered messages to send together,
+	 * combining consecutive text messages and consecutive binary messages into
+	 * a single message each, or into a single SockJS message frame in case of a
+	 * {@link SockJsSession}. Messages are only buffered while another send is in
+	 * progress, so batching applies to clients that do not keep up.
+	 * <p>Combining messages requires a sub-protocol that allows for several frames
+	 * in one WebSocket message, such as STOMP. By default this is 0, i.e. batching
+	 * is disabled and buffered messages are sent one by one.
+	 * @param batchSizeLimit the batch size limit (number of bytes), reached or
+	 * exceeded by the last message of a batch
+	 * @since 5.3.9
+	 */
+	public void setBatchSizeLimit(int batchSizeLimit) {
+		this.batchSizeLimit = batchSizeLimit;
+	}
+
+	/**
+	 * Return the configured batch size limit (number of bytes).
+	 * @since 5.3.9
+	 */
+	public int getBatchSizeLimit() {
+		return this.batchSizeLimit;
+	}
+
 	/**
 	 * Return the current buffer size (number of bytes).
 	 */
@@ -127,6 +177,44 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		return this.bufferSize.get();
 	}
 
+	/**
+	 * Return the current number of buffered messages, i.e. the depth of the
+	 * send queue for this session.
+	 * @since 5.3.9
+	 */
+	public int getBufferedMessageCount() {
+		return this.bufferedMessageCount.get();
+	}
+
+	/**
+	 * Return the number of buffered messages that have been superseded by a
+	 * message with the same conflation key, and therefore not sent.
+	 * @since 5.3.9
+	 * @see #sendMessage(WebSocketMessage, Object)
+	 */
+	public int getSupersededMessageCount() {
+		return this.supersededMessageCount.get();
+	}
+
+	/**
+	 * Return the time (milliseconds) that the last flush of the buffer took,
+	 * i.e. sending all messages that were buffered at the time or added
+	 * while sending.
+	 * @since 5.3.9
+	 */
+	public long getLastFlushTime() {
+		return this.lastFlushTime;
+	}
+
+	/**
+	 * Return the maximum time (milliseconds) that a flush of the buffer took.
+	 * @since 5.3.9
+	 * @see #getLastFlushTime()
+	 */
+	public long getMaxFlushTime() {
+		return this.maxFlushTime;
+	}
+
 	/**
 	 * Return the time (milliseconds) since the current send started,
 	 * or 0 if no send is currently in progress.
@@ -148,12 +236,38 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 
 	@Override
 	public void sendMessage(WebSocketMessage<?> message) throws IOException {
+		sendMessage(message, null);
+	}
+
+	/**
+	 * Send the given message, superseding a buffered message with the same
+	 * conflation key that has not been sent yet. This is suitable for messages
+	 * where only the latest value matters, e.g. updates to the same price.
+	 * @param message the message to send
+	 * @param conflationKey the key for messages that supersede each other,
+	 * or {@code null} for a message that must not be superseded
+	 * @since 5.3.9
+	 */
+	public void sendMessage(WebSocketMessage<?> message, @Nullable Object conflationKey) throws IOException {
 		if (shouldNotSend()) {
 			return;
 		}
 
-		this.buffer.add(message);
+		if (conflationKey != null) {
+			ConflatedMessage conflatedMessage = new ConflatedMessage(message, conflationKey);
+			ConflatedMessage superseded = this.conflatedMessages.put(conflationKey, conflatedMessage);
+			if (superseded != null && superseded.claim()) {
+				this.bufferSize.addAndGet(-superseded.getPayloadLength());
+				this.bufferedMessageCount.decrementAndGet();
+				this.supersededMessageCount.incrementAndGet();
+			}
+			this.buffer.add(conflatedMessage);
+		}
+		else {
+			this.buffer.add(message);
+		}
 		this.bufferSize.addAndGet(message.getPayloadLength());
+		this.bufferedMessageCount.incrementAndGet();
 
 		if (this.preSendCallback != null) {
 			this.preSendCallback.accept(message);
@@ -179,20 +293,39 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 
 	private boolean tryFlushMessageBuffer() throws IOException {
 		if (this.flushLock.tryLock()) {
+			long flushStartTime = 0;
 			try {
 				while (true) {
-					WebSocketMessage<?> message = this.buffer.poll();
+					List<WebSocketMessage<?>> batch = null;
+					WebSocketMessage<?> message = pollMessage();
+					if (message != null && this.batchSizeLimit > 0) {
+						batch = pollBatch(message);
+					}
 					if (message == null || shouldNotSend()) {
 						break;
 					}
-					this.bufferSize.addAndGet(-message.getPayloadLength());
 					this.sendStartTime = System.currentTimeMillis();
-					getDelegate().sendMessage(message);
+					if (flushStartTime == 0) {
+						flushStartTime = this.sendStartTime;
+					}
+					if (batch != null) {
+						sendBatch(batch);
+					}
+					else {
+						getDelegate().sendMessage(message);
+					}
 					this.sendStartTime = 0;
 				}
 			}
 			finally {
 				this.sendStartTime = 0;
+				if (flushStartTime != 0) {
+					long flushTime = System.currentTimeMillis() - flushStartTime;
+					this.lastFlushTime = flushTime;
+					if (flushTime > this.maxFlushTime) {
+						this.maxFlushTime = flushTime;
+					}
+				}
 				this.flushLock.unlock();
 			}
 			return true;
@@ -200,6 +333,104 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		return false;
 	}
 
+	/**
+	 * Take the next message from the buffer, skipping superseded messages.
+	 */
+	@Nullable
+	private WebSocketMessage<?> pollMessage() {
+		while (true) {
+			WebSocketMessage<?> message = this.buffer.poll();
+			if (message instanceof ConflatedMessage) {
+				ConflatedMessage conflatedMessage = (ConflatedMessage) message;
+				if (!conflatedMessage.claim()) {
+					// Superseded by a later message, already removed from the buffer counts
+					continue;
+				}
+				this.conflatedMessages.remove(conflatedMessage.conflationKey, conflatedMessage);
+				message = conflatedMessage.message;
+			}
+			if (message != null) {
+				this.bufferSize.addAndGet(-message.getPayloadLength());
+				this.bufferedMessageCount.decrementAndGet();
+			}
+			return message;
+		}
+	}
+
+	/**
+	 * Take further messages from the buffer for a batch starting with the given
+	 * message, up until the batch size limit.
+	 */
+	private List<WebSocketMessage<?>> pollBatch(WebSocketMessage<?> firstMessage) {
+		List<WebSocketMessage<?>> batch = new ArrayList<>();
+		batch.add(firstMessage);
+		int size = firstMessage.getPayloadLength();
+		while (size < this.batchSizeLimit) {
+			WebSocketMessage<?> message = pollMessage();
+			if (message == null) {
+				break;
+			}
+			batch.add(message);
+			size += message.getPayloadLength();
+		}
+		return batch;
+	}
+
+	/**
+	 * Send the given batch of messages, in a single SockJS message frame for a
+	 * {@code SockJsSession} with text messages only, or otherwise combining
+	 * consecutive complete text messages and binary messages.
+	 */
+	private void sendBatch(List<WebSocketMessage<?>> batch) throws IOException {
+		WebSocketSession delegate = getDelegate();
+		if (batch.size() == 1) {
+			delegate.sendMessage(batch.get(0));
+			return;
+		}
+		if (delegate instanceof SockJsSession && batch.stream().allMatch(TextMessage.class::isInstance)) {
+			List<TextMessage> textMessages = new ArrayList<>(batch.size());
+			batch.forEach(message -> textMessages.add((TextMessage) message));
+			((SockJsSession) delegate).sendMessages(textMessages);
+			return;
+		}
+		int start = 0;
+		while (start < batch.size()) {
+			WebSocketMessage<?> first = batch.get(start);
+			int end = start + 1;
+			while (end < batch.size() && canCombine(first, batch.get(end))) {
+				end++;
+			}
+			delegate.sendMessage(end - start > 1 ? combine(batch.subList(start, end)) : first);
+			start = end;
+		}
+	}
+
+	private static boolean canCombine(WebSocketMessage<?> first, WebSocketMessage<?> next) {
+		return (first.isLast() && next.isLast() &&
+				((first instanceof TextMessage && next instanceof TextMessage) ||
+						(first instanceof BinaryMessage && next instanceof BinaryMessage)));
+	}
+
+	private static WebSocketMessage<?> combine(List<WebSocketMessage<?>> messages) {
+		int size = 0;
+		for (WebSocketMessage<?> message : messages) {
+			size += message.getPayloadLength();
+		}
+		if (messages.get(0) instanceof TextMessage) {
+			StringBuilder sb = new StringBuilder(size);
+			for (WebSocketMessage<?> message : messages) {
+				sb.append(((TextMessage) message).getPayload());
+			}
+			return new TextMessage(sb.toString());
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		for (WebSocketMessage<?> message : messages) {
+			buffer.put(((BinaryMessage) message).getPayload().duplicate());
+		}
+		buffer.flip();
+		return new BinaryMessage(buffer);
+	}
+
 	private void checkSessionLimits() {
 		if (!shouldNotSend() && this.closeLock.tryLock()) {
 			try {
@@ -218,11 +449,10 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 						case DROP:
 							int i = 0;
 							while (getBufferSize() > getBufferSizeLimit()) {
-								WebSocketMessage<?> message = this.buffer.poll();
+								WebSocketMessage<?> message = pollMessage();
 								if (message == null) {
 									break;
 								}
-								this.bufferSize.addAndGet(-message.getPayloadLength());
 								i++;
 							}
 							if (logger.isDebugEnabled()) {
@@ -282,6 +512,48 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 	}
 
 
+	/**
+	 * A buffered message that may be superseded by a later message with the same
+	 * conflation key, unless claimed for sending first.
+	 */
+	private static final class ConflatedMessage implements WebSocketMessage<Object> {
+
+		private final WebSocketMessage<?> message;
+
+		private final Object conflationKey;
+
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		ConflatedMessage(WebSocketMessage<?> message, Object conflationKey) {
+			this.message = message;
+			this.conflationKey = conflationKey;
+		}
+
+		/**
+		 * Claim this message for sending or for superseding it.
+		 * @return {@code true} if claimed, {@code false} if claimed before
+		 */
+		boolean claim() {
+			return this.claimed.compareAndSet(false, true);
+		}
+
+		@Override
+		public Object getPayload() {
+			return this.message.getPayload();
+		}
+
+		@Override
+		public int getPayloadLength() {
+			return this.message.getPayloadLength();
+		}
+
+		@Override
+		public boolean isLast() {
+			return this.message.isLast();
+		}
+	}
+
+
 	/**
 	 * Enum for options of what to do when the buffer fills up.
 	 * @since 5.1
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,12 +19,15 @@ package org.springframework.web.socket.messaging;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -35,10 +38,12 @@ import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.simp.SimpAttributes;
 import org.springframework.messaging.simp.SimpAttributesContextHolder;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.BroadcastContent;
 import org.springframework.messaging.simp.broker.OrderedMessageChannelDecorator;
 import org.springframework.messaging.simp.stomp.BufferingStompDecoder;
 import org.springframework.messaging.simp.stomp.StompCommand;
@@ -51,8 +56,11 @@ import org.springframework.messaging.support.ImmutableMessageChannelInterceptor;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.messaging.support.MessageHeaderInitializer;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.Assert;
+import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.PathMatcher;
 import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
@@ -110,6 +118,10 @@ public class StompSubProtocolHandler implements SubProtocolHandler, ApplicationE
 
 	private final Map<String, Principal> stompAuthentications = new ConcurrentHashMap<>();
 
+	private final List<String> conflatedDestinations = new ArrayList<>();
+
+	private PathMatcher pathMatcher = new AntPathMatcher();
+
 	@Nullable
 	private Boolean immutableMessageInterceptorPresent;
 
@@ -193,6 +205,51 @@ public class StompSubProtocolHandler implements SubProtocolHandler, ApplicationE
 		return this.headerInitializer;
 	}
 
+	/**
+	 * Configure destination patterns for which only the latest message needs to
+	 * be delivered, e.g. price updates. A message to a client that matches one of
+	 * these patterns supersedes any message for the same subscription and
+	 * destination that has been buffered for a slow client and not sent yet.
+	 * <p>Applies to sessions decorated with a {@link ConcurrentWebSocketSessionDecorator},
+	 * as is the case when using {@link SubProtocolWebSocketHandler}.
+	 * By default this is not set and all messages are delivered.
+	 * @param destinationPatterns the destination patterns to match
+	 * @since 5.3.9
+	 * @see ConcurrentWebSocketSessionDecorator#sendMessage(WebSocketMessage, Object)
+	 * @see #setPathMatcher
+	 */
+	public void setConflatedDestinations(String... destinationPatterns) {
+		this.conflatedDestinations.clear();
+		this.conflatedDestinations.addAll(Arrays.asList(destinationPatterns));
+	}
+
+	/**
+	 * Return the configured destination patterns for conflated messages.
+	 * @since 5.3.9
+	 */
+	public List<String> getConflatedDestinations() {
+		return Collections.unmodifiableList(this.conflatedDestinations);
+	}
+
+	/**
+	 * Configure the {@link PathMatcher} to match conflated destinations with.
+	 * <p>By default this is an {@link AntPathMatcher}.
+	 * @since 5.3.9
+	 * @see #setConflatedDestinations
+	 */
+	public void setPathMatcher(PathMatcher pathMatcher) {
+		Assert.notNull(pathMatcher, "PathMatcher must not be null");
+		this.pathMatcher = pathMatcher;
+	}
+
+	/**
+	 * Return the configured {@link PathMatcher}.
+	 * @since 5.3.9
+	 */
+	public PathMatcher getPathMatcher() {
+		return this.pathMatcher;
+	}
+
 	@Override
 	public List<String> getSupportedProtocols() {
 		return Arrays.asList("v10.stomp", "v11.stomp", "v12.stomp");
@@ -432,9 +489,28 @@ public class StompSubProtocolHandler implements SubProtocolHandler, ApplicationE
 			return;
 		}
 
+		// A StompEncoder subclass may customize encode, which the broadcast encoding would bypass
+		byte[] broadcastFrame = (this.stompEncoder.getClass() == StompEncoder.class ?
+				this.stompEncoder.encodeBroadcast((Message<byte[]>) message) : null);
+		if (broadcastFrame != null) {
+			// Message to a subscriber with the common part of the frame encoded once per broadcast
+			MessageHeaders headers = message.getHeaders();
+			Object conflationKey = getConflationKey(SimpMessageHeaderAccessor.getSubscriptionId(headers),
+					SimpMessageHeaderAccessor.getDestination(headers));
+			setNextMessageTask(session, message);
+			sendToClient(session, StompCommand.MESSAGE, getContentType(headers),
+					(byte[]) message.getPayload(), () -> broadcastFrame, conflationKey);
+			return;
+		}
+
 		StompHeaderAccessor accessor = getStompHeaderAccessor(message);
 		StompCommand command = accessor.getCommand();
 
+		if (accessor.getHeader(BroadcastContent.BROADCAST_CONTENT_HEADER) != null) {
+			accessor = toMutableAccessor(accessor, message);
+			accessor.removeHeader(BroadcastContent.BROADCAST_CONTENT_HEADER);
+		}
+
 		if (StompCommand.MESSAGE.equals(command)) {
 			if (accessor.getSubscriptionId() == null && logger.isWarnEnabled()) {
 				logger.warn("No STOMP \"subscription\" header in " + message);
@@ -472,26 +548,69 @@ public class StompSubProtocolHandler implements SubProtocolHandler, ApplicationE
 			}
 		}
 
+		Object conflationKey = (StompCommand.MESSAGE.equals(command) ?
+				getConflationKey(accessor.getSubscriptionId(), accessor.getDestination()) : null);
+
+		setNextMessageTask(session, message);
+		sendToClient(session, accessor, payload, conflationKey);
+	}
+
+	/**
+	 * Return the key for messages to the given subscription and destination to
+	 * supersede each other, if the destination matches a conflated destination.
+	 */
+	@Nullable
+	private Object getConflationKey(@Nullable String subscriptionId, @Nullable String destination) {
+		if (this.conflatedDestinations.isEmpty() || subscriptionId == null || destination == null) {
+			return null;
+		}
+		for (String pattern : this.conflatedDestinations) {
+			if (this.pathMatcher.match(pattern, destination)) {
+				return Arrays.asList(subscriptionId, destination);
+			}
+		}
+		return null;
+	}
+
+	@Nullable
+	private static MimeType getContentType(MessageHeaders headers) {
+		Object value = headers.get(MessageHeaders.CONTENT_TYPE);
+		return (value instanceof MimeType ? (MimeType) value : value != null ? MimeType.valueOf(value.toString()) : null);
+	}
+
+	private void setNextMessageTask(WebSocketSession session, Message<?> message) {
 		Runnable task = OrderedMessageChannelDecorator.getNextMessageTask(message);
 		if (task != null) {
 			Assert.isInstanceOf(ConcurrentWebSocketSessionDecorator.class, session);
 			((ConcurrentWebSocketSessionDecorator) session).setMessageCallback(m -> task.run());
 		}
-
-		sendToClient(session, accessor, payload);
 	}
 
 	private void sendToClient(WebSocketSession session, StompHeaderAccessor stompAccessor, byte[] payload) {
-		StompCommand command = stompAccessor.getCommand();
+		sendToClient(session, stompAccessor, payload, null);
+	}
+
+	private void sendToClient(WebSocketSession session, StompHeaderAccessor stompAccessor, byte[] payload,
+			@Nullable Object conflationKey) {
+
+		sendToClient(session, stompAccessor.getCommand(), stompAccessor.getContentType(), payload,
+				() -> this.stompEncoder.encode(stompAccessor.getMessageHeaders(), payload), conflationKey);
+	}
+
+	private void sendToClient(WebSocketSession session, @Nullable StompCommand command,
+			@Nullable MimeType contentType, byte[] payload, Supplier<byte[]> frameSupplier,
+			@Nullable Object conflationKey) {
+
 		try {
-			byte[] bytes = this.stompEncoder.encode(stompAccessor.getMessageHeaders(), payload);
+			byte[] bytes = frameSupplier.get();
 			boolean useBinary = (payload.length > 0 && !(session instanceof SockJsSession) &&
-					MimeTypeUtils.APPLICATION_OCTET_STREAM.isCompatibleWith(stompAccessor.getContentType()));
-			if (useBinary) {
-				session.sendMessage(new BinaryMessage(bytes));
+					MimeTypeUtils.APPLICATION_OCTET_STREAM.isCompatibleWith(contentType));
+			WebSocketMessage<?> webSocketMessage = (useBinary ? new BinaryMessage(bytes) : new TextMessage(bytes));
+			if (conflationKey != null && session instanceof ConcurrentWebSocketSessionDecorator) {
+				((ConcurrentWebSocketSessionDecorator) session).sendMessage(webSocketMessage, conflationKey);
 			}
 			else {
-				session.sendMessage(new TextMessage(bytes));
+				session.sendMessage(webSocketMessage);
 			}
 		}
 		catch (SessionLimitExceededException ex) {
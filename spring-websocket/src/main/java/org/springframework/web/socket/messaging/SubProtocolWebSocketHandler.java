@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,7 +17,9 @@
 package org.springframework.web.socket.messaging;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -93,6 +95,8 @@ public class SubProtocolWebSocketHandler
 
 	private int sendBufferSizeLimit = 512 * 1024;
 
+	private int sendBatchSizeLimit;
+
 	private int timeToFirstMessage = DEFAULT_TIME_TO_FIRST_MESSAGE;
 
 	private volatile long lastSessionCheckTime = System.currentTimeMillis();
@@ -222,6 +226,28 @@ public class SubProtocolWebSocketHandler
 		return this.sendBufferSizeLimit;
 	}
 
+	/**
+	 * Specify the batch-size limit (number of bytes) for sending messages that
+	 * have been buffered for a session together. By default this is 0, i.e.
+	 * buffered messages are sent one by one.
+	 * <p>Only applies to sessions handled by a {@link StompSubProtocolHandler},
+	 * since joining text messages is only valid for STOMP frames; messages for
+	 * sessions of any other sub-protocol are always sent one by one.
+	 * @since 5.3.9
+	 * @see ConcurrentWebSocketSessionDecorator#setBatchSizeLimit
+	 */
+	public void setSendBatchSizeLimit(int sendBatchSizeLimit) {
+		this.sendBatchSizeLimit = sendBatchSizeLimit;
+	}
+
+	/**
+	 * Return the batch-size limit (number of bytes).
+	 * @since 5.3.9
+	 */
+	public int getSendBatchSizeLimit() {
+		return this.sendBatchSizeLimit;
+	}
+
 	/**
 	 * Set the maximum time allowed in milliseconds after the WebSocket connection
 	 * is established and before the first sub-protocol message is received.
@@ -263,6 +289,49 @@ public class SubProtocolWebSocketHandler
 		return this.stats;
 	}
 
+	/**
+	 * Return a String describing the send buffers of current sessions.
+	 * Effectively a summary of {@link #getSendBufferStats()}.
+	 * @since 5.3.9
+	 */
+	public String getSendBufferStatsInfo() {
+		Collection<SendBufferStats> allStats = getSendBufferStats().values();
+		int buffering = 0;
+		int maxMessageCount = 0;
+		int maxBufferSize = 0;
+		long maxFlushTime = 0;
+		int superseded = 0;
+		for (SendBufferStats stats : allStats) {
+			if (stats.getBufferedMessageCount() > 0) {
+				buffering++;
+			}
+			maxMessageCount = Math.max(maxMessageCount, stats.getBufferedMessageCount());
+			maxBufferSize = Math.max(maxBufferSize, stats.getBufferSize());
+			maxFlushTime = Math.max(maxFlushTime, stats.getMaxFlushTime());
+			superseded += stats.getSupersededMessageCount();
+		}
+		return buffering + " sessions buffering, max " + maxMessageCount + " messages (" +
+				maxBufferSize + " bytes) per session, max flush time " + maxFlushTime + " ms, " +
+				superseded + " superseded";
+	}
+
+	/**
+	 * Return a snapshot of the send buffer counters for each current session,
+	 * keyed by session id.
+	 * @since 5.3.9
+	 * @see ConcurrentWebSocketSessionDecorator
+	 */
+	public Map<String, SendBufferStats> getSendBufferStats() {
+		Map<String, SendBufferStats> result = new HashMap<>();
+		this.sessions.forEach((id, holder) -> {
+			WebSocketSession session = holder.getSession();
+			if (session instanceof ConcurrentWebSocketSessionDecorator) {
+				result.put(id, new DefaultSendBufferStats((ConcurrentWebSocketSessionDecorator) session));
+			}
+		});
+		return result;
+	}
+
 
 
 	@Override
@@ -409,13 +478,19 @@ public class SubProtocolWebSocketHandler
 	 * Decorate the given {@link WebSocketSession}, if desired.
 	 * <p>The default implementation builds a {@link ConcurrentWebSocketSessionDecorator}
 	 * with the configured {@link #getSendTimeLimit() send-time limit} and
-	 * {@link #getSendBufferSizeLimit() buffer-size limit}.
+	 * {@link #getSendBufferSizeLimit() buffer-size limit}, as well as the
+	 * {@link #getSendBatchSizeLimit() batch-size limit} for STOMP sessions.
 	 * @param session the original {@code WebSocketSession}
 	 * @return the decorated {@code WebSocketSession}, or potentially the given session as-is
 	 * @since 4.3.13
 	 */
 	protected WebSocketSession decorateSession(WebSocketSession session) {
-		return new ConcurrentWebSocketSessionDecorator(session, getSendTimeLimit(), getSendBufferSizeLimit());
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, getSendTimeLimit(), getSendBufferSizeLimit());
+		if (getSendBatchSizeLimit() > 0 && findProtocolHandler(session) instanceof StompSubProtocolHandler) {
+			decorator.setBatchSizeLimit(getSendBatchSizeLimit());
+		}
+		return decorator;
 	}
 
 	/**
@@ -694,4 +769,77 @@ public class SubProtocolWebSocketHandler
 		}
 	}
 
+
+	/**
+	 * Contract for access to the send buffer counters of a session.
+	 * @since 5.3.9
+	 * @see ConcurrentWebSocketSessionDecorator
+	 */
+	public interface SendBufferStats {
+
+		int getBufferedMessageCount();
+
+		int getBufferSize();
+
+		long getLastFlushTime();
+
+		long getMaxFlushTime();
+
+		int getSupersededMessageCount();
+	}
+
+
+	private static class DefaultSendBufferStats implements SendBufferStats {
+
+		private final int bufferedMessageCount;
+
+		private final int bufferSize;
+
+		private final long lastFlushTime;
+
+		private final long maxFlushTime;
+
+		private final int supersededMessageCount;
+
+		DefaultSendBufferStats(ConcurrentWebSocketSessionDecorator session) {
+			this.bufferedMessageCount = session.getBufferedMessageCount();
+			this.bufferSize = session.getBufferSize();
+			this.lastFlushTime = session.getLastFlushTime();
+			this.maxFlushTime = session.getMaxFlushTime();
+			this.supersededMessageCount = session.getSupersededMessageCount();
+		}
+
+		@Override
+		public int getBufferedMessageCount() {
+			return this.bufferedMessageCount;
+		}
+
+		@Override
+		public int getBufferSize() {
+			return this.bufferSize;
+		}
+
+		@Override
+		public long getLastFlushTime() {
+			return this.lastFlushTime;
+		}
+
+		@Override
+		public long getMaxFlushTime() {
+			return this.maxFlushTime;
+		}
+
+		@Override
+		public int getSupersededMessageCount() {
+			return this.supersededMessageCount;
+		}
+
+		@Override
+		public String toString() {
+			return this.bufferedMessageCount + " messages (" + this.bufferSize + " bytes), flush time " +
+					this.lastFlushTime + " ms (max " + this.maxFlushTime + " ms), " +
+					this.supersededMessageCount + " superseded";
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,10 @@
 
 package org.springframework.web.socket.sockjs.transport;
 
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 /**
@@ -41,4 +45,17 @@ public interface SockJsSession extends WebSocketSession {
 	 */
 	void disableHeartbeat();
 
+	/**
+	 * Send the given messages together, e.g. in a single SockJS message frame,
+	 * rather than one at a time.
+	 * <p>By default the messages are sent through {@link #sendMessage} one by one.
+	 * @param messages the messages to send
+	 * @since 5.3.9
+	 */
+	default void sendMessages(List<TextMessage> messages) throws IOException {
+		for (TextMessage message : messages) {
+			sendMessage(message);
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -296,20 +296,32 @@ public abstract class AbstractHttpSockJsSession extends AbstractSockJsSession {
 	protected final void sendMessageInternal(String message) throws SockJsTransportFailureException {
 		synchronized (this.responseLock) {
 			this.messageCache.add(message);
+			tryFlushCache();
+		}
+	}
+
+	@Override
+	protected final void sendMessagesInternal(List<String> messages) throws SockJsTransportFailureException {
+		synchronized (this.responseLock) {
+			this.messageCache.addAll(messages);
+			tryFlushCache();
+		}
+	}
+
+	private void tryFlushCache() throws SockJsTransportFailureException {
+		if (logger.isTraceEnabled()) {
+			logger.trace(this.messageCache.size() + " message(s) to flush in session " + getId());
+		}
+		if (isActive() && this.readyToSend) {
 			if (logger.isTraceEnabled()) {
-				logger.trace(this.messageCache.size() + " message(s) to flush in session " + getId());
-			}
-			if (isActive() && this.readyToSend) {
-				if (logger.isTraceEnabled()) {
-					logger.trace("Session is active, ready to flush.");
-				}
-				cancelHeartbeat();
-				flushCache();
+				logger.trace("Session is active, ready to flush.");
 			}
-			else {
-				if (logger.isTraceEnabled()) {
-					logger.trace("Session is not active, not ready to flush.");
-				}
+			cancelHeartbeat();
+			flushCache();
+		}
+		else {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Session is not active, not ready to flush.");
 			}
 		}
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.web.socket.sockjs.transport.session;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -170,8 +171,31 @@ public abstract class AbstractSockJsSession implements SockJsSession {
 		sendMessageInternal(((TextMessage) message).getPayload());
 	}
 
+	@Override
+	public final void sendMessages(List<TextMessage> messages) throws IOException {
+		Assert.state(!isClosed(), "Cannot send a message when session is closed");
+		List<String> payloads = new ArrayList<>(messages.size());
+		for (TextMessage message : messages) {
+			payloads.add(message.getPayload());
+		}
+		sendMessagesInternal(payloads);
+	}
+
 	protected abstract void sendMessageInternal(String message) throws IOException;
 
+	/**
+	 * Send the given messages together where supported by the transport.
+	 * <p>By default the messages are sent through {@link #sendMessageInternal}
+	 * one by one.
+	 * @param messages the messages to send
+	 * @since 5.3.9
+	 */
+	protected void sendMessagesInternal(List<String> messages) throws IOException {
+		for (String message : messages) {
+			sendMessageInternal(message);
+		}
+	}
+
 
 	// Lifecycle related methods
 
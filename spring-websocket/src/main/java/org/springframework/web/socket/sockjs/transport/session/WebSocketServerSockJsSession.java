@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -214,6 +214,20 @@ public class WebSocketServerSockJsSession extends AbstractSockJsSession implemen
 		scheduleHeartbeat();
 	}
 
+	@Override
+	protected void sendMessagesInternal(List<String> messages) throws SockJsTransportFailureException {
+		if (!this.openFrameSent) {
+			for (String message : messages) {
+				sendMessageInternal(message);
+			}
+			return;
+		}
+
+		cancelHeartbeat();
+		writeFrame(SockJsFrame.messageFrame(getMessageCodec(), StringUtils.toStringArray(messages)));
+		scheduleHeartbeat();
+	}
+
 	@Override
 	protected void writeFrameInternal(SockJsFrame frame) throws IOException {
 		Assert.state(this.webSocketSession != null, "WebSocketSession not yet initialized");
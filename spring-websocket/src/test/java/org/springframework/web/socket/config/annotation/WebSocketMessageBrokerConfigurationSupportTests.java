@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -141,11 +141,13 @@ public class WebSocketMessageBrokerConfigurationSupportTests {
 
 		assertThat(subWsHandler.getSendBufferSizeLimit()).isEqualTo((1024 * 1024));
 		assertThat(subWsHandler.getSendTimeLimit()).isEqualTo((25 * 1000));
+		assertThat(subWsHandler.getSendBatchSizeLimit()).isEqualTo((16 * 1024));
 		assertThat(subWsHandler.getTimeToFirstMessage()).isEqualTo((30 * 1000));
 
 		Map<String, SubProtocolHandler> handlerMap = subWsHandler.getProtocolHandlerMap();
 		StompSubProtocolHandler protocolHandler = (StompSubProtocolHandler) handlerMap.get("v12.stomp");
 		assertThat(protocolHandler.getMessageSizeLimit()).isEqualTo((128 * 1024));
+		assertThat(protocolHandler.getConflatedDestinations()).containsExactly("/topic/prices.*");
 	}
 
 	@Test
@@ -171,6 +173,8 @@ public class WebSocketMessageBrokerConfigurationSupportTests {
 		String actual = stats.toString();
 		String expected = "WebSocketSession\\[0 current WS\\(0\\)-HttpStream\\(0\\)-HttpPoll\\(0\\), " +
 				"0 total, 0 closed abnormally \\(0 connect failure, 0 send limit, 0 transport error\\)], " +
+				"sendBuffer\\[0 sessions buffering, max 0 messages \\(0 bytes\\) per session, " +
+				"max flush time 0 ms, 0 superseded], " +
 				"stompSubProtocol\\[processed CONNECT\\(0\\)-CONNECTED\\(0\\)-DISCONNECT\\(0\\)], " +
 				"stompBrokerRelay\\[null], " +
 				"inboundChannel\\[pool size = \\d, active threads = \\d, queued tasks = \\d, completed tasks = \\d], " +
@@ -237,7 +241,9 @@ public class WebSocketMessageBrokerConfigurationSupportTests {
 			registration.setMessageSizeLimit(128 * 1024);
 			registration.setSendTimeLimit(25 * 1000);
 			registration.setSendBufferSizeLimit(1024 * 1024);
+			registration.setSendBatchSizeLimit(16 * 1024);
 			registration.setTimeToFirstMessage(30 * 1000);
+			registration.setConflatedDestinations("/topic/prices.*");
 		}
 
 		@Override
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -39,19 +39,30 @@ public class BlockingWebSocketSession extends TestWebSocketSession {
 		return this.sendLatch.get();
 	}
 
+	/**
+	 * Release the currently blocked send, if any.
+	 */
+	public void release() {
+		CountDownLatch latch = this.releaseLatch.get();
+		if (latch != null) {
+			latch.countDown();
+		}
+	}
+
 	@Override
 	public void sendMessage(WebSocketMessage<?> message) throws IOException {
 		super.sendMessage(message);
+		CountDownLatch latch = new CountDownLatch(1);
+		this.releaseLatch.set(latch);
 		if (this.sendLatch.get() != null) {
 			this.sendLatch.get().countDown();
 		}
-		block();
+		block(latch);
 	}
 
-	private void block() {
+	private void block(CountDownLatch latch) {
 		try {
-			this.releaseLatch.set(new CountDownLatch(1));
-			this.releaseLatch.get().await();
+			latch.await();
 		}
 		catch (InterruptedException ex) {
 			ex.printStackTrace();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -152,6 +152,66 @@ public class ConcurrentWebSocketSessionDecoratorTests {
 		assertThat(session.isOpen()).isTrue();
 	}
 
+	@Test
+	public void sendBatchAfterBlockedSend() throws IOException, InterruptedException {
+
+		BlockingWebSocketSession session = new BlockingWebSocketSession();
+		session.setOpen(true);
+
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, 10 * 1000, 1024);
+		decorator.setBatchSizeLimit(2);
+
+		sendBlockingMessage(decorator);
+
+		decorator.sendMessage(new TextMessage("a"));
+		decorator.sendMessage(new TextMessage("b"));
+		decorator.sendMessage(new TextMessage("c"));
+		assertThat(decorator.getBufferedMessageCount()).isEqualTo(3);
+
+		CountDownLatch latch = session.initSendLatch();
+		session.release();
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(session.getSentMessages()).containsExactly(
+				new TextMessage("slow message"), new TextMessage("ab"));
+		assertThat(decorator.getBufferedMessageCount()).isEqualTo(1);
+		assertThat(decorator.getBufferSize()).isEqualTo(1);
+	}
+
+	@Test
+	public void sendConflatedMessages() throws IOException, InterruptedException {
+
+		BlockingWebSocketSession session = new BlockingWebSocketSession();
+		session.setOpen(true);
+
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(session, 10 * 1000, 1024);
+
+		sendBlockingMessage(decorator);
+
+		decorator.sendMessage(new TextMessage("price=1"), "price");
+		decorator.sendMessage(new TextMessage("news"));
+		decorator.sendMessage(new TextMessage("price=2"), "price");
+
+		assertThat(decorator.getBufferedMessageCount()).isEqualTo(2);
+		assertThat(decorator.getBufferSize()).isEqualTo(11);
+		assertThat(decorator.getSupersededMessageCount()).isEqualTo(1);
+
+		CountDownLatch latch = session.initSendLatch();
+		session.release();
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+
+		latch = session.initSendLatch();
+		session.release();
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(session.getSentMessages()).containsExactly(
+				new TextMessage("slow message"), new TextMessage("news"), new TextMessage("price=2"));
+		assertThat(decorator.getBufferedMessageCount()).isEqualTo(0);
+		assertThat(decorator.getBufferSize()).isEqualTo(0);
+	}
+
 	@Test
 	public void closeStatusNormal() throws Exception {
 
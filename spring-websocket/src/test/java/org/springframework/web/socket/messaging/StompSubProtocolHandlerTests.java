@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -34,6 +35,7 @@ import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.PayloadApplicationEvent;
 import org.springframework.core.testfixture.security.TestPrincipal;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandler;
@@ -42,6 +44,7 @@ import org.springframework.messaging.simp.SimpAttributes;
 import org.springframework.messaging.simp.SimpAttributesContextHolder;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.BroadcastContent;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompEncoder;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
@@ -56,6 +59,7 @@ import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 import org.springframework.web.socket.handler.TestWebSocketSession;
 import org.springframework.web.socket.sockjs.transport.SockJsSession;
 
@@ -261,6 +265,88 @@ public class StompSubProtocolHandlerTests {
 
 	// SPR-12475
 
+	@Test
+	public void handleMessageToClientWithBroadcastContent() {
+
+		byte[] payload = "body".getBytes();
+		BroadcastContent content = new BroadcastContent(payload);
+		for (String subscriptionId : Arrays.asList("sub0", "sub1")) {
+			SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+			headers.setSessionId("s1");
+			headers.setSubscriptionId(subscriptionId);
+			headers.setDestination("/topic/foo");
+			headers.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+			headers.setHeader(BroadcastContent.BROADCAST_CONTENT_HEADER, content);
+			Message<byte[]> message = MessageBuilder.createMessage(payload, headers.getMessageHeaders());
+			this.protocolHandler.handleMessageToClient(this.session, message);
+		}
+
+		assertThat(this.session.getSentMessages().size()).isEqualTo(2);
+		for (int i = 0; i < 2; i++) {
+			WebSocketMessage<?> webSocketMessage = this.session.getSentMessages().get(i);
+			assertThat(webSocketMessage).isInstanceOf(BinaryMessage.class);
+			String frame = new String(((BinaryMessage) webSocketMessage).getPayload().array());
+			assertThat(frame).matches("MESSAGE\nsubscription:sub" + i + "\nmessage-id:s1-\\d+\n" +
+					"destination:/topic/foo\ncontent-type:application/octet-stream\ncontent-length:4\n\nbody\0");
+		}
+	}
+
+	@Test
+	public void handleMessageToClientWithBroadcastContentAndCustomEncoder() {
+
+		List<Map<String, Object>> encodedHeaders = new ArrayList<>();
+		this.protocolHandler.setEncoder(new StompEncoder() {
+			@Override
+			public byte[] encode(Map<String, Object> headers, byte[] payload) {
+				encodedHeaders.add(headers);
+				return super.encode(headers, payload);
+			}
+		});
+
+		byte[] payload = "body".getBytes();
+		SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		headers.setSessionId("s1");
+		headers.setSubscriptionId("sub0");
+		headers.setDestination("/topic/foo");
+		headers.setHeader(BroadcastContent.BROADCAST_CONTENT_HEADER, new BroadcastContent(payload));
+		Message<byte[]> message = MessageBuilder.createMessage(payload, headers.getMessageHeaders());
+		this.protocolHandler.handleMessageToClient(this.session, message);
+
+		assertThat(this.session.getSentMessages().size()).isEqualTo(1);
+		assertThat(encodedHeaders.size()).isEqualTo(1);
+		assertThat(encodedHeaders.get(0)).doesNotContainKey(BroadcastContent.BROADCAST_CONTENT_HEADER);
+	}
+
+	@Test
+	public void handleMessageToClientWithConflatedDestination() {
+
+		List<Object> conflationKeys = new ArrayList<>();
+		this.session.setOpen(true);
+		ConcurrentWebSocketSessionDecorator decorator =
+				new ConcurrentWebSocketSessionDecorator(this.session, 1000, 1024) {
+					@Override
+					public void sendMessage(WebSocketMessage<?> message, @Nullable Object conflationKey)
+							throws IOException {
+
+						conflationKeys.add(conflationKey);
+						super.sendMessage(message, conflationKey);
+					}
+				};
+		this.protocolHandler.setConflatedDestinations("/topic/prices.*");
+
+		for (String destination : Arrays.asList("/topic/prices.AAPL", "/topic/news")) {
+			StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.MESSAGE);
+			headers.setMessageId("mess0");
+			headers.setSubscriptionId("sub0");
+			headers.setDestination(destination);
+			Message<byte[]> message = MessageBuilder.createMessage(EMPTY_PAYLOAD, headers.getMessageHeaders());
+			this.protocolHandler.handleMessageToClient(decorator, message);
+		}
+
+		assertThat(conflationKeys).containsExactly(Arrays.asList("sub0", "/topic/prices.AAPL"), null);
+		assertThat(this.session.getSentMessages().size()).isEqualTo(2);
+	}
+
 	@Test
 	public void handleMessageToClientWithBinaryWebSocketMessage() {
 
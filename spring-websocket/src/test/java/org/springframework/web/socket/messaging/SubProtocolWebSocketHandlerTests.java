@@ -154,6 +154,21 @@ public class SubProtocolWebSocketHandlerTests {
 				this.webSocketHandler.afterConnectionEstablished(session));
 	}
 
+	@Test
+	public void sendBatchSizeLimitForStompSessionsOnly() throws Exception {
+		this.webSocketHandler.setProtocolHandlers(Arrays.asList(new StompSubProtocolHandler(), mqttHandler));
+		this.webSocketHandler.setSendBatchSizeLimit(16 * 1024);
+
+		this.session.setAcceptedProtocol("v12.stomp");
+		ConcurrentWebSocketSessionDecorator decorator =
+				(ConcurrentWebSocketSessionDecorator) this.webSocketHandler.decorateSession(this.session);
+		assertThat(decorator.getBatchSizeLimit()).isEqualTo(16 * 1024);
+
+		this.session.setAcceptedProtocol("MQTT");
+		decorator = (ConcurrentWebSocketSessionDecorator) this.webSocketHandler.decorateSession(this.session);
+		assertThat(decorator.getBatchSizeLimit()).isEqualTo(0);
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	public void checkSession() throws Exception {
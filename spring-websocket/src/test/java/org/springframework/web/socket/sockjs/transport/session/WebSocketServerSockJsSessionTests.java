@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2021 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -136,6 +136,17 @@ public class WebSocketServerSockJsSessionTests extends AbstractSockJsSessionTest
 		assertThat(this.session.heartbeatSchedulingEvents).isEqualTo(Arrays.asList("schedule", "cancel", "schedule"));
 	}
 
+	@Test
+	public void sendMessagesInternal() throws Exception {
+
+		this.session.initializeDelegateSession(this.webSocketSession);
+		this.session.sendMessagesInternal(Arrays.asList("x", "y"));
+
+		assertThat(this.webSocketSession.getSentMessages()).isEqualTo(Arrays.asList(new TextMessage("o"), new TextMessage("a[\"x\",\"y\"]")));
+
+		assertThat(this.session.heartbeatSchedulingEvents).isEqualTo(Arrays.asList("schedule", "cancel", "schedule"));
+	}
+
 	@Test
 	public void disconnect() throws Exception {
 